@@ -1,5 +1,6 @@
 package org.batfish.question.traceroute;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static org.batfish.common.util.TracePruner.DEFAULT_MAX_TRACES;
 import static org.batfish.datamodel.matchers.HopMatchers.hasAcceptingInterface;
 import static org.batfish.datamodel.matchers.HopMatchers.hasOutputInterface;
@@ -10,9 +11,11 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
 import java.io.IOException;
 import java.util.Comparator;
 import java.util.List;
@@ -35,6 +38,7 @@ import org.batfish.datamodel.Vrf;
 import org.batfish.datamodel.acl.MatchHeaderSpace;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.flow.Trace;
+import org.batfish.datamodel.flow.TraceAndReverseFlow;
 import org.batfish.datamodel.packet_policy.Drop;
 import org.batfish.datamodel.packet_policy.FibLookup;
 import org.batfish.datamodel.packet_policy.If;
@@ -144,6 +148,15 @@ public class TraceroutePolicyBasedRoutingTest {
     return configs.build();
   }
 
+  /** Computes the traces of the flows of {@code question}, expanding their DAGs. */
+  private static Map<Flow, List<Trace>> getTraces(
+      TracerouteAnswerer answerer, Batfish batfish, TracerouteQuestion question) {
+    return ImmutableMap.copyOf(
+        Maps.transformValues(
+            answerer.getTraceDags(batfish.getSnapshot(), question),
+            dag -> dag.getTraces().map(TraceAndReverseFlow::getTrace).collect(toImmutableList())));
+  }
+
   @Test
   public void testWithNoPolicy() throws IOException {
     /*
@@ -162,7 +175,7 @@ public class TraceroutePolicyBasedRoutingTest {
     TracerouteQuestion question =
         new TracerouteQuestion(SOURCE_LOCATION_STR, header, false, DEFAULT_MAX_TRACES);
     TracerouteAnswerer answerer = new TracerouteAnswerer(question, batfish);
-    Map<Flow, List<Trace>> traces = answerer.getTraces(batfish.getSnapshot(), question);
+    Map<Flow, List<Trace>> traces = getTraces(answerer, batfish, question);
 
     assertThat(traces.entrySet(), hasSize(1));
     assertThat(
@@ -189,7 +202,7 @@ public class TraceroutePolicyBasedRoutingTest {
     TracerouteQuestion question =
         new TracerouteQuestion(SOURCE_LOCATION_STR, header, false, DEFAULT_MAX_TRACES);
     TracerouteAnswerer answerer = new TracerouteAnswerer(question, batfish);
-    Map<Flow, List<Trace>> traces = answerer.getTraces(batfish.getSnapshot(), question);
+    Map<Flow, List<Trace>> traces = getTraces(answerer, batfish, question);
 
     assertThat(traces.entrySet(), hasSize(1));
     assertThat(
@@ -215,7 +228,7 @@ public class TraceroutePolicyBasedRoutingTest {
     TracerouteQuestion question =
         new TracerouteQuestion(SOURCE_LOCATION_STR, header, false, DEFAULT_MAX_TRACES);
     TracerouteAnswerer answerer = new TracerouteAnswerer(question, batfish);
-    Map<Flow, List<Trace>> traces = answerer.getTraces(batfish.getSnapshot(), question);
+    Map<Flow, List<Trace>> traces = getTraces(answerer, batfish, question);
 
     assertThat(traces.entrySet(), hasSize(1));
     assertThat(
@@ -241,7 +254,7 @@ public class TraceroutePolicyBasedRoutingTest {
     TracerouteQuestion question =
         new TracerouteQuestion(SOURCE_LOCATION_STR, header, false, DEFAULT_MAX_TRACES);
     TracerouteAnswerer answerer = new TracerouteAnswerer(question, batfish);
-    Map<Flow, List<Trace>> traces = answerer.getTraces(batfish.getSnapshot(), question);
+    Map<Flow, List<Trace>> traces = getTraces(answerer, batfish, question);
 
     assertThat(traces.entrySet(), hasSize(1));
     assertThat(
@@ -268,7 +281,7 @@ public class TraceroutePolicyBasedRoutingTest {
     TracerouteQuestion question =
         new TracerouteQuestion(SOURCE_LOCATION_STR, header, false, DEFAULT_MAX_TRACES);
     TracerouteAnswerer answerer = new TracerouteAnswerer(question, batfish);
-    Map<Flow, List<Trace>> traces = answerer.getTraces(batfish.getSnapshot(), question);
+    Map<Flow, List<Trace>> traces = getTraces(answerer, batfish, question);
 
     assertThat(traces.entrySet(), hasSize(1));
     assertThat(
@@ -294,7 +307,7 @@ public class TraceroutePolicyBasedRoutingTest {
     TracerouteQuestion question =
         new TracerouteQuestion(SOURCE_LOCATION_STR, header, false, DEFAULT_MAX_TRACES);
     TracerouteAnswerer answerer = new TracerouteAnswerer(question, batfish);
-    Map<Flow, List<Trace>> traces = answerer.getTraces(batfish.getSnapshot(), question);
+    Map<Flow, List<Trace>> traces = getTraces(answerer, batfish, question);
 
     assertThat(traces.entrySet(), hasSize(1));
     assertThat(
@@ -320,7 +333,7 @@ public class TraceroutePolicyBasedRoutingTest {
     TracerouteQuestion question =
         new TracerouteQuestion(SOURCE_LOCATION_STR, header, false, DEFAULT_MAX_TRACES);
     TracerouteAnswerer answerer = new TracerouteAnswerer(question, batfish);
-    Map<Flow, List<Trace>> traces = answerer.getTraces(batfish.getSnapshot(), question);
+    Map<Flow, List<Trace>> traces = getTraces(answerer, batfish, question);
 
     assertThat(traces.entrySet(), hasSize(1));
     assertThat(
@@ -348,7 +361,7 @@ public class TraceroutePolicyBasedRoutingTest {
     TracerouteQuestion question =
         new TracerouteQuestion(SOURCE_LOCATION_STR, header, false, DEFAULT_MAX_TRACES);
     TracerouteAnswerer answerer = new TracerouteAnswerer(question, batfish);
-    Map<Flow, List<Trace>> traces = answerer.getTraces(batfish.getSnapshot(), question);
+    Map<Flow, List<Trace>> traces = getTraces(answerer, batfish, question);
 
     assertThat(traces.entrySet(), hasSize(1));
     assertThat(
@@ -37,10 +37,12 @@ import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -50,6 +52,7 @@ import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import javax.annotation.Nonnull;
@@ -719,15 +722,33 @@ public class Client extends AbstractClient implements IClient {
 
   private String _currTestrig = null;
 
+  /** Whether the answering work of the command of the current test may be left pending */
+  private boolean _deferAnswering;
+
+  /** The answering work left pending by the command of the current test, if any */
+  @Nullable private WorkItem _deferredWork;
+
   private boolean _exit;
 
   BatfishLogger _logger;
 
   private LineReader _reader;
 
+  /** Tests whose answering work has been queued but whose answers have not been retrieved yet */
+  private final List<PendingTest> _pendingTests = new ArrayList<>();
+
+  /** Whether all pending tests checked so far passed */
+  private boolean _pendingTestsPassed = true;
+
+  /** Whether a command file is being processed, in which case tests may be left pending */
+  private boolean _processingCommands;
+
   private Settings _settings;
 
-  private BfCoordWorkHelper _workHelper;
+  /** Pending tests whose results have not been reported yet, in the order of the tests */
+  private final List<PendingTest> _unreportedTests = new ArrayList<>();
+
+  BfCoordWorkHelper _workHelper;
 
   public Client(Settings settings) {
     _additionalBatfishOptions = new HashMap<>();
@@ -1023,11 +1044,22 @@ public class Client extends AbstractClient implements IClient {
     for (String option : _additionalBatfishOptions.keySet()) {
       wItem.addRequestParam(option, _additionalBatfishOptions.get(option));
     }
+    boolean answering = WorkItemBuilder.isAnsweringWorkItem(wItem);
+    if (!answering) {
+      // other work, e.g. parsing a snapshot, must not overlap with the answering of pending tests
+      awaitPendingTests(0);
+    }
     boolean queueWorkResult = _workHelper.queueWork(wItem);
     _logger.infof("Queuing result: %s\n", queueWorkResult);
     if (!queueWorkResult) {
       return queueWorkResult;
     }
+    if (answering && _deferAnswering) {
+      // the answer is retrieved later by awaitPendingTests
+      _deferAnswering = false;
+      _deferredWork = wItem;
+      return true;
+    }
 
     boolean result = pollWorkAndGetAnswer(wItem, outWriter);
 
@@ -1609,7 +1641,72 @@ public class Client extends AbstractClient implements IClient {
     if (!pollResult) {
       return false;
     }
-    // get the JSON log of the work performed
+    getAnswer(wItem, outWriter);
+    return true;
+  }
+
+  /**
+   * Polls the work of all pending tests together until at most {@code maxPending} of them are left.
+   * The answer of each test is retrieved as soon as its work terminates, and compared to its
+   * reference in the background. The results of finished comparisons are reported in the order of
+   * the tests, up to the first unfinished one. If {@code maxPending} is zero, also waits for all
+   * comparisons.
+   */
+  private void awaitPendingTests(int maxPending) {
+    Backoff backoff = Backoff.builder().withMaximumBackoff(Duration.ofSeconds(1)).build();
+    pollPendingTests();
+    while (_pendingTests.size() > maxPending && backoff.hasNext()) {
+      try {
+        Thread.sleep(backoff.nextBackoff().toMillis());
+      } catch (InterruptedException e) {
+        throw new BatfishException("Interrupted while waiting for work items to complete", e);
+      }
+      pollPendingTests();
+    }
+    Iterator<PendingTest> unreportedTests = _unreportedTests.iterator();
+    while (unreportedTests.hasNext()) {
+      CompletableFuture<TestResult> check = unreportedTests.next()._check;
+      if (check == null || (maxPending > 0 && !check.isDone())) {
+        // later results are reported after this one
+        break;
+      }
+      _pendingTestsPassed = reportTest(check.join()) && _pendingTestsPassed;
+      unreportedTests.remove();
+    }
+  }
+
+  /**
+   * Checks the status of the work of each pending test once, and starts the comparison of each test
+   * whose work has terminated.
+   */
+  private void pollPendingTests() {
+    Iterator<PendingTest> pendingTests = _pendingTests.iterator();
+    while (pendingTests.hasNext()) {
+      PendingTest pendingTest = pendingTests.next();
+      WorkItem wItem = pendingTest._work;
+      WorkResult response = _workHelper.getWorkStatus(wItem.getId());
+      if (response != null && !response.getStatus().isTerminated()) {
+        continue;
+      }
+      pendingTests.remove();
+      boolean testCommandSucceeded = response != null;
+      if (testCommandSucceeded) {
+        // append to what the test command wrote before its answering work was queued
+        try (FileWriter testoutWriter = new FileWriter(pendingTest._testoutFile, true)) {
+          getAnswer(wItem, testoutWriter);
+        } catch (IOException e) {
+          throw new BatfishException("Failed to write output of test", e);
+        }
+      }
+      pendingTest._check =
+          CompletableFuture.supplyAsync(
+              () ->
+                  checkTest(pendingTest._testCase, pendingTest._testoutFile, testCommandSucceeded));
+    }
+  }
+
+  /** Writes the JSON log of the finished work {@code wItem}, which includes its answer. */
+  private void getAnswer(WorkItem wItem, @Nullable FileWriter outWriter) {
     String answerString =
         _workHelper.getWorkJson(wItem.getNetwork(), wItem.getSnapshot(), wItem.getId());
     if (answerString == null) {
@@ -1618,7 +1715,6 @@ public class Client extends AbstractClient implements IClient {
     } else {
       logOutput(outWriter, answerString);
     }
-    return true;
   }
 
   private void printUsage() {
@@ -1866,15 +1962,42 @@ public class Client extends AbstractClient implements IClient {
     }
   }
 
-  /** Processes a batch of commands and returns true iff every command succeeded. */
-  private boolean processCommands(List<String> commands) {
+  /**
+   * Processes a batch of commands and returns true iff every command succeeded.
+   *
+   * <p>If the maximum number of pending tests is more than one, the answering work of consecutive
+   * tests is queued without waiting for earlier answers, and their answers are compared to their
+   * references as they complete. The results of tests are still reported in the order of the tests.
+   */
+  @VisibleForTesting
+  boolean processCommands(List<String> commands) {
     boolean allPass = true;
-    for (String command : commands) {
-      allPass = processCommand(command) && allPass;
+    _processingCommands = true;
+    try {
+      for (String command : commands) {
+        if (!isTestOrComment(command)) {
+          // commands other than tests may change what pending tests see
+          awaitPendingTests(0);
+        }
+        allPass = processCommand(command) && allPass;
+      }
+      awaitPendingTests(0);
+    } finally {
+      _processingCommands = false;
     }
+    allPass = _pendingTestsPassed && allPass;
+    _pendingTestsPassed = true;
     return allPass;
   }
 
+  @VisibleForTesting
+  static boolean isTestOrComment(String command) {
+    String line = command.trim();
+    return line.isEmpty()
+        || line.startsWith("#")
+        || line.split("\\s+")[0].equals(Command.TEST.commandName());
+  }
+
   private List<String> readCommands(Path startupFilePath) {
     List<String> commands = null;
     try {
@@ -2132,6 +2255,66 @@ public class Client extends AbstractClient implements IClient {
     }
   }
 
+  /** A test parsed from a {@link Command#TEST} command */
+  private static final class TestCase {
+
+    private final TestComparisonMode _comparisonMode;
+    private final boolean _failingTest;
+    private final boolean _missingReferenceFile;
+    private final String _referenceFileName;
+    private final String[] _testCommand;
+    private final String _testFileName;
+
+    private TestCase(
+        TestComparisonMode comparisonMode,
+        boolean failingTest,
+        boolean missingReferenceFile,
+        String referenceFileName,
+        String[] testCommand,
+        String testFileName) {
+      _comparisonMode = comparisonMode;
+      _failingTest = failingTest;
+      _missingReferenceFile = missingReferenceFile;
+      _referenceFileName = referenceFileName;
+      _testCommand = testCommand;
+      _testFileName = testFileName;
+    }
+  }
+
+  /** A test whose answering work has been queued, with the file its output is written to */
+  private static final class PendingTest {
+
+    private final TestCase _testCase;
+    private final WorkItem _work;
+    private final File _testoutFile;
+
+    /** The comparison of the answer to the reference, started once the work has terminated */
+    @Nullable private CompletableFuture<TestResult> _check;
+
+    private PendingTest(TestCase testCase, WorkItem work, File testoutFile) {
+      _testCase = testCase;
+      _work = work;
+      _testoutFile = testoutFile;
+    }
+  }
+
+  /**
+   * The outcome of a test and the messages reporting it. Tests may be checked in the background, so
+   * the messages are logged later by the thread processing commands.
+   */
+  private static final class TestResult {
+
+    private final List<String> _errors;
+    private final boolean _passed;
+    private final String _report;
+
+    private TestResult(List<String> errors, boolean passed, String report) {
+      _errors = errors;
+      _passed = passed;
+      _report = report;
+    }
+  }
+
   private boolean test(List<String> options, List<String> parameters) throws IOException {
     boolean failingTest = false;
     boolean missingReferenceFile = false;
@@ -2170,15 +2353,59 @@ public class Client extends AbstractClient implements IClient {
     Path failedTestoutPath = Paths.get(testFileName);
     CommonUtil.deleteIfExists(failedTestoutPath);
 
+    TestCase testCase =
+        new TestCase(
+            comparisonMode,
+            failingTest,
+            missingReferenceFile,
+            referenceFileName,
+            testCommand,
+            testFileName);
+
     File testoutFile = Files.createTempFile("test", "out").toFile();
     testoutFile.deleteOnExit();
     boolean testCommandSucceeded;
+    _deferredWork = null;
+    _deferAnswering = _processingCommands && _settings.getMaxPendingTests() > 1;
     try (FileWriter testoutWriter = new FileWriter(testoutFile)) {
       testCommandSucceeded = processCommand(testCommand, testoutWriter);
+    } finally {
+      _deferAnswering = false;
+    }
+    WorkItem deferredWork = _deferredWork;
+    _deferredWork = null;
+    if (testCommandSucceeded && deferredWork != null) {
+      // the result of this test is reported by awaitPendingTests
+      PendingTest pendingTest = new PendingTest(testCase, deferredWork, testoutFile);
+      _pendingTests.add(pendingTest);
+      _unreportedTests.add(pendingTest);
+      awaitPendingTests(_settings.getMaxPendingTests() - 1);
+      return true;
     }
+    return reportTest(checkTest(testCase, testoutFile, testCommandSucceeded));
+  }
+
+  /** Logs the messages of {@code result}, and returns whether the test passed. */
+  private boolean reportTest(TestResult result) {
+    result._errors.forEach(_logger::error);
+    _logger.output(result._report);
+    return result._passed;
+  }
+
+  /**
+   * Compares the output of the command of {@code testCase} in {@code testoutFile} to its reference.
+   * Does not log, so that it may be called from any thread.
+   */
+  private TestResult checkTest(TestCase testCase, File testoutFile, boolean testCommandSucceeded) {
+    TestComparisonMode comparisonMode = testCase._comparisonMode;
+    boolean failingTest = testCase._failingTest;
+    String referenceFileName = testCase._referenceFileName;
+    String testFileName = testCase._testFileName;
+    Path failedTestoutPath = Paths.get(testFileName);
 
     String testOutput = CommonUtil.readFile(Paths.get(testoutFile.getAbsolutePath()));
 
+    List<String> errors = new ArrayList<>();
     boolean testPassed = false;
     String patch = "";
     if (failingTest) {
@@ -2189,7 +2416,7 @@ public class Client extends AbstractClient implements IClient {
         try {
           Answer testAnswer = BatfishObjectMapper.mapper().readValue(testOutput, Answer.class);
           testPassed = (testAnswer.getStatus() == AnswerStatus.FAILURE);
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
           // pass here and let the test fail.
         }
       }
@@ -2212,33 +2439,37 @@ public class Client extends AbstractClient implements IClient {
         }
 
         String referenceOutput =
-            missingReferenceFile ? "" : CommonUtil.readFile(Paths.get(referenceFileName));
+            testCase._missingReferenceFile ? "" : CommonUtil.readFile(Paths.get(referenceFileName));
 
         patch = getPatch(referenceOutput, testOutput, referenceFileName, testFileName);
         if (patch.isEmpty()) {
           testPassed = true;
         }
       } catch (JsonProcessingException e) {
-        _logger.errorf(
-            "Error deserializing answer %s: %s\n", testOutput, Throwables.getStackTraceAsString(e));
+        errors.add(
+            String.format(
+                "Error deserializing answer %s: %s\n",
+                testOutput, Throwables.getStackTraceAsString(e)));
       } catch (Exception e) {
-        _logger.errorf(
-            "Exception in comparing test results: %s\n", Throwables.getStackTraceAsString(e));
+        errors.add(
+            String.format(
+                "Exception in comparing test results: %s\n", Throwables.getStackTraceAsString(e)));
       }
     }
 
-    _logger.outputf(
-        "Test [%s]: %s '%s': %s\n%s",
-        comparisonMode,
-        StringUtils.join(testCommand, " "),
-        failingTest ? "results in error as expected" : "matches " + referenceFileName,
-        testPassed ? "Pass" : "Fail",
-        testPassed ? "" : patch + "\n");
+    String report =
+        String.format(
+            "Test [%s]: %s '%s': %s\n%s",
+            comparisonMode,
+            StringUtils.join(testCase._testCommand, " "),
+            failingTest ? "results in error as expected" : "matches " + referenceFileName,
+            testPassed ? "Pass" : "Fail",
+            testPassed ? "" : patch + "\n");
     if (!testPassed) {
       CommonUtil.writeFile(failedTestoutPath, testOutput);
-      _logger.outputf("Copied output to %s\n", failedTestoutPath);
+      report += String.format("Copied output to %s\n", failedTestoutPath);
     }
-    return testPassed;
+    return new TestResult(errors, testPassed, report);
   }
 
   private void unsetTestrig(boolean doDelta) {
@@ -21,6 +21,7 @@ public class Settings extends BaseSettings {
   private static final String ARG_HELP = "help";
   public static final String ARG_LOG_FILE = "logfile";
   public static final String ARG_LOG_LEVEL = "loglevel";
+  public static final String ARG_MAX_PENDING_TESTS = "maxpendingtests";
   private static final String ARG_NO_SANITY_CHECK = "nosanitycheck";
   private static final String ARG_PERIOD_CHECK_WORK = "periodcheckworkms";
   public static final String ARG_QUESTIONS_DIR = "questionsdir";
@@ -47,6 +48,7 @@ public class Settings extends BaseSettings {
   private String _datamodelDir;
   private String _logFile;
   private String _logLevel;
+  private int _maxPendingTests;
   private long _periodCheckWorkMs;
   private String _questionsDir;
 
@@ -112,6 +114,14 @@ public class Settings extends BaseSettings {
     return _logLevel;
   }
 
+  /**
+   * Returns the maximum number of tests in a command file whose answers may be awaited
+   * concurrently. If it is 1, tests are run one after another.
+   */
+  public int getMaxPendingTests() {
+    return _maxPendingTests;
+  }
+
   public long getPeriodCheckWorkMs() {
     return _periodCheckWorkMs;
   }
@@ -161,6 +171,7 @@ public class Settings extends BaseSettings {
     setDefaultProperty(ARG_HELP, false);
     setDefaultProperty(ARG_LOG_FILE, null);
     setDefaultProperty(ARG_LOG_LEVEL, BatfishLogger.getLogLevelStr(BatfishLogger.LEVEL_OUTPUT));
+    setDefaultProperty(ARG_MAX_PENDING_TESTS, 1);
     setDefaultProperty(ARG_NO_SANITY_CHECK, false);
     setDefaultProperty(ARG_PERIOD_CHECK_WORK, 1000);
     setDefaultProperty(ARG_RUN_MODE, RunMode.batch.toString());
@@ -191,6 +202,11 @@ public class Settings extends BaseSettings {
 
     addOption(ARG_LOG_LEVEL, "log level", "loglevel");
 
+    addOption(
+        ARG_MAX_PENDING_TESTS,
+        "maximum number of tests in a command file whose answers are awaited concurrently",
+        "max_pending_tests");
+
     addBooleanOption(
         ARG_NO_SANITY_CHECK, "do not check if network, snapshot etc. are set. (helps debugging.)");
 
@@ -248,6 +264,7 @@ public class Settings extends BaseSettings {
     _datamodelDir = getStringOptionValue(ARG_DATAMODEL_DIR);
     _logFile = getStringOptionValue(ARG_LOG_FILE);
     _logLevel = getStringOptionValue(ARG_LOG_LEVEL);
+    _maxPendingTests = getIntegerOptionValue(ARG_MAX_PENDING_TESTS);
     _periodCheckWorkMs = getLongOptionValue(ARG_PERIOD_CHECK_WORK);
     _questionsDir = getStringOptionValue(ARG_QUESTIONS_DIR);
     _runMode = RunMode.valueOf(getStringOptionValue(ARG_RUN_MODE));
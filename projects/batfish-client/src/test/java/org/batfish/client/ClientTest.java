@@ -67,6 +67,8 @@ import static org.batfish.datamodel.questions.Variable.Type.SUBRANGE;
 import static org.batfish.datamodel.questions.Variable.Type.VRF;
 import static org.batfish.datamodel.questions.Variable.Type.ZONE;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
@@ -81,18 +83,25 @@ import com.google.common.collect.Multimap;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import org.apache.commons.lang3.ArrayUtils;
 import org.batfish.client.Command.CommandUsage;
 import org.batfish.client.answer.LoadQuestionAnswerElement;
+import org.batfish.client.config.Settings;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
+import org.batfish.common.CoordConsts.WorkStatusCode;
+import org.batfish.common.WorkItem;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.common.util.CommonUtil;
 import org.batfish.datamodel.InterfaceType;
@@ -1712,6 +1721,110 @@ public final class ClientTest {
     validateTypeWithInvalidInput(input, BatfishException.class, expectedMessage, type);
   }
 
+  @Test
+  public void testIsTestOrComment() {
+    assertTrue(Client.isTestOrComment(""));
+    assertTrue(Client.isTestOrComment("  # comment"));
+    assertTrue(Client.isTestOrComment("test tests/basic/routes.ref get routes"));
+    assertTrue(Client.isTestOrComment("  test\ttests/basic/routes.ref get routes"));
+    assertFalse(Client.isTestOrComment("get routes"));
+    assertFalse(Client.isTestOrComment("testx"));
+  }
+
+  /**
+   * A work helper that answers each work item with its position in the queue, and whose work is
+   * only terminated after its status has been polled a given number of times.
+   */
+  private static final class FakeWorkHelper extends BfCoordWorkHelper {
+
+    private final List<Integer> _pollsToTerminate;
+    private final List<UUID> _queuedWork = new ArrayList<>();
+    private final Map<UUID, Integer> _polls = new HashMap<>();
+
+    private FakeWorkHelper(BatfishLogger logger, Settings settings, Integer... pollsToTerminate) {
+      super(logger, settings);
+      _pollsToTerminate = Arrays.asList(pollsToTerminate);
+    }
+
+    @Override
+    public boolean queueWork(WorkItem wItem) {
+      _queuedWork.add(wItem.getId());
+      return true;
+    }
+
+    @Override
+    WorkResult getWorkStatus(UUID workId) {
+      int polls = _polls.merge(workId, 1, Integer::sum);
+      boolean terminated = polls >= _pollsToTerminate.get(_queuedWork.indexOf(workId));
+      return new WorkResult(
+          terminated ? WorkStatusCode.TERMINATEDNORMALLY : WorkStatusCode.ASSIGNED, "");
+    }
+
+    @Override
+    public String getWorkJson(String networkName, String snapshotName, UUID workId) {
+      return "answer " + (_queuedWork.indexOf(workId) + 1);
+    }
+
+    @Override
+    public boolean uploadQuestion(
+        String networkName, String snapshotName, String qName, String qFileName) {
+      return true;
+    }
+  }
+
+  @Test
+  public void testProcessCommandsPendingTests() throws Exception {
+    Settings settings =
+        new Settings(new String[] {"-runmode", "interactive", "-maxpendingtests", "3"});
+    Client client = new Client(settings);
+    client._logger = new BatfishLogger("output", false);
+    // the work of the first test terminates after the work of the second test
+    client._workHelper = new FakeWorkHelper(client._logger, settings, 4, 2, 2);
+
+    JSONObject testQuestion = new JSONObject();
+    testQuestion.put(
+        "instance",
+        new JSONObject()
+            .put("instanceName", "testQuestionName")
+            .put("description", "test question description"));
+    File questionsDir = _folder.newFolder("questions");
+    CommonUtil.writeFile(questionsDir.toPath().resolve("q.json"), testQuestion.toString());
+    String[] refs = new String[3];
+    for (int i = 0; i < refs.length; i++) {
+      File ref = _folder.newFile("test" + (i + 1) + ".ref");
+      refs[i] = ref.getPath();
+      // only the answer of the second test differs from its reference
+      CommonUtil.writeFile(ref.toPath(), i == 1 ? "other" : "answer " + (i + 1));
+    }
+
+    boolean allPass =
+        client.processCommands(
+            ImmutableList.of(
+                SET_NETWORK.commandName() + " network",
+                SET_SNAPSHOT.commandName() + " snapshot",
+                LOAD_QUESTIONS.commandName() + " " + questionsDir.getPath(),
+                TEST.commandName() + " -raw " + refs[0] + " answer testQuestionName",
+                TEST.commandName() + " -raw " + refs[1] + " answer testQuestionName",
+                TEST.commandName() + " -raw " + refs[2] + " answer testQuestionName",
+                SHOW_NETWORK.commandName()));
+
+    assertFalse(allPass);
+    // the results are reported in the order of the tests, before the next command
+    String output = client.getLogger().getHistory().toString(BatfishLogger.LEVEL_OUTPUT);
+    int result1 = output.indexOf("matches " + refs[0] + "': Pass");
+    int result2 = output.indexOf("matches " + refs[1] + "': Fail");
+    int result3 = output.indexOf("matches " + refs[2] + "': Pass");
+    int showNetwork = output.indexOf("Current network is network");
+    assertThat(result1, greaterThanOrEqualTo(0));
+    assertThat(result2, greaterThan(result1));
+    assertThat(result3, greaterThan(result2));
+    assertThat(showNetwork, greaterThan(result3));
+    // the output of the failed test is written next to its reference
+    assertThat(CommonUtil.readFile(Paths.get(refs[1] + ".testout")), equalTo("answer 2"));
+    assertFalse(Files.exists(Paths.get(refs[0] + ".testout")));
+    assertFalse(Files.exists(Paths.get(refs[2] + ".testout")));
+  }
+
   @Test
   public void getPatch() throws DiffException {
     String expected = "1\n2\n3";
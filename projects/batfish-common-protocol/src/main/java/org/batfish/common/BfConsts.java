@@ -8,6 +8,18 @@ package org.batfish.common;
 
 public class BfConsts {
 
+  /** Coarse resource classes used by workers to decide whether a task can be admitted. */
+  public enum TaskCategory {
+    /** Answering or analysis that needs the data plane */
+    ANSWERING,
+    /** Data plane generation */
+    DATAPLANING,
+    /** Answering or analysis that needs at most parsed configurations; eligible for fast lane */
+    LIGHT_ANSWERING,
+    /** Parsing and conversion of snapshot input */
+    PARSING
+  }
+
   public enum TaskStatus {
     InProgress,
     RequeueFailure,
@@ -58,6 +70,7 @@ public class BfConsts {
   public static final String ARG_SNAPSHOT_NAME = "snapshotname";
   public static final String ARG_STORAGE_BASE = "storagebase";
   public static final String ARG_SYNTHESIZE_TOPOLOGY = "synthesizetopology";
+  public static final String ARG_TASK_CATEGORY = "taskcategory";
   public static final String ARG_TASK_PLUGIN = "taskplugin";
   public static final String ARG_TESTRIG = "testrig";
   public static final String ARG_VERBOSE_PARSE = "verboseparse";
@@ -138,11 +151,22 @@ public class BfConsts {
   public static final String RELPATH_QUESTION_FILE = "question.json";
 
   public static final String SVC_BASE_RSC = "/batfishservice";
+  public static final String SVC_BUSY_KEY = "busy";
+  public static final String SVC_CACHED_CONFIGURATIONS_KEY = "configurations";
+  public static final String SVC_CACHED_DATA_PLANE_KEY = "dataPlane";
+  public static final String SVC_CACHED_DEVICES_KEY = "devices";
+  public static final String SVC_CACHED_NETWORK_KEY = "network";
+  public static final String SVC_CACHED_SNAPSHOT_KEY = "snapshot";
   public static final String SVC_FAILURE_KEY = "failure";
+  public static final String SVC_GET_METRICS_RSC = "getmetrics";
   public static final String SVC_GET_STATUS_RSC = "getstatus";
   public static final String SVC_GET_TASKSTATUS_RSC = "gettaskstatus";
   public static final Integer SVC_PORT = 9999;
   public static final String SVC_RUN_TASK_RSC = "run";
+  public static final String SVC_STATUS_ADMITTABLE_KEY = "admittable";
+  public static final String SVC_STATUS_CACHED_SNAPSHOTS_KEY = "cachedSnapshots";
+  public static final String SVC_STATUS_IDLE_KEY = "idle";
+  public static final String SVC_STATUS_TASKS_KEY = "tasks";
   public static final String SVC_SUCCESS_KEY = "success";
   public static final String SVC_TASK_KEY = "task";
   public static final String SVC_TASKID_KEY = "taskid";
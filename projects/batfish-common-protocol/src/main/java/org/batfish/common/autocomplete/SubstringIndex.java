@@ -0,0 +1,175 @@
+package org.batfish.common.autocomplete;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A case-insensitive substring index over values that are each described by one or more texts, used
+ * to answer autocomplete queries without scanning every value.
+ *
+ * <p>Distinct lower-case texts are indexed by the trigrams they contain. A query of at least three
+ * characters only examines the texts containing its rarest trigram. Shorter queries examine every
+ * distinct text, of which there are typically far fewer than values, but also match most of them.
+ */
+@ParametersAreNonnullByDefault
+public final class SubstringIndex<T> {
+
+  /** Builder for {@link SubstringIndex} */
+  public static final class Builder<T> {
+
+    private final List<T> _values;
+    private final Map<String, List<Integer>> _valuesByText;
+
+    private Builder() {
+      _values = new ArrayList<>();
+      _valuesByText = new LinkedHashMap<>();
+    }
+
+    /**
+     * Adds {@code value}, which matches queries that are a substring of any of {@code texts}.
+     * Values are returned by {@link SubstringIndex#search(String)} in the order they are added.
+     */
+    public @Nonnull Builder<T> add(T value, Iterable<String> texts) {
+      int id = _values.size();
+      _values.add(value);
+      for (String text : texts) {
+        List<Integer> ids =
+            _valuesByText.computeIfAbsent(text.toLowerCase(), t -> new ArrayList<>());
+        if (ids.isEmpty() || ids.get(ids.size() - 1) != id) {
+          ids.add(id);
+        }
+      }
+      return this;
+    }
+
+    /** Adds {@code value}, which matches queries that are a substring of {@code text}. */
+    public @Nonnull Builder<T> add(T value, String text) {
+      return add(value, ImmutableList.of(text));
+    }
+
+    public @Nonnull SubstringIndex<T> build() {
+      return new SubstringIndex<>(ImmutableList.copyOf(_values), _valuesByText);
+    }
+  }
+
+  public static @Nonnull <T> Builder<T> builder() {
+    return new Builder<>();
+  }
+
+  private static final int GRAM_LENGTH = 3;
+
+  private static long trigram(String text, int start) {
+    return ((long) text.charAt(start) << 32)
+        | ((long) text.charAt(start + 1) << 16)
+        | text.charAt(start + 2);
+  }
+
+  private final @Nonnull List<T> _values;
+
+  /** Distinct lower-case texts */
+  private final @Nonnull String[] _texts;
+
+  /** {@code _valuesByText[t]} are the ids of the values described by {@code _texts[t]}, sorted */
+  private final @Nonnull int[][] _valuesByText;
+
+  /** The ids of the texts containing each trigram, sorted */
+  private final @Nonnull Map<Long, int[]> _textsByTrigram;
+
+  private SubstringIndex(List<T> values, Map<String, List<Integer>> valuesByText) {
+    _values = values;
+    _texts = valuesByText.keySet().toArray(new String[0]);
+    _valuesByText = new int[_texts.length][];
+    int t = 0;
+    for (List<Integer> ids : valuesByText.values()) {
+      _valuesByText[t++] = ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // count the texts containing each trigram, then fill in their ids in ascending order
+    Map<Long, int[]> counts = new HashMap<>();
+    for (String text : _texts) {
+      for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+        counts.computeIfAbsent(trigram(text, i), k -> new int[1])[0]++;
+      }
+    }
+    Map<Long, int[]> textsByTrigram = new HashMap<>(counts.size());
+    Map<Long, int[]> sizes = new HashMap<>(counts.size());
+    counts.forEach(
+        (trigram, count) -> {
+          textsByTrigram.put(trigram, new int[count[0]]);
+          sizes.put(trigram, new int[1]);
+        });
+    for (t = 0; t < _texts.length; t++) {
+      String text = _texts[t];
+      for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+        long trigram = trigram(text, i);
+        int[] posting = textsByTrigram.get(trigram);
+        int[] size = sizes.get(trigram);
+        // a trigram may occur several times in one text
+        if (size[0] == 0 || posting[size[0] - 1] != t) {
+          posting[size[0]++] = t;
+        }
+      }
+    }
+    sizes.forEach(
+        (trigram, size) -> {
+          int[] posting = textsByTrigram.get(trigram);
+          if (size[0] < posting.length) {
+            textsByTrigram.put(trigram, Arrays.copyOf(posting, size[0]));
+          }
+        });
+    _textsByTrigram = textsByTrigram;
+  }
+
+  /** Returns the number of values in this index. */
+  public int size() {
+    return _values.size();
+  }
+
+  /**
+   * Returns the values with a text containing {@code query}, ignoring case, in the order they were
+   * added.
+   */
+  public @Nonnull List<T> search(String query) {
+    String lowerQuery = query.toLowerCase();
+    BitSet matches = new BitSet(_values.size());
+    if (lowerQuery.length() < GRAM_LENGTH) {
+      for (int t = 0; t < _texts.length; t++) {
+        addMatch(t, lowerQuery, matches);
+      }
+    } else {
+      int[] candidates = null;
+      for (int i = 0; i + GRAM_LENGTH <= lowerQuery.length(); i++) {
+        int[] posting = _textsByTrigram.get(trigram(lowerQuery, i));
+        if (posting == null) {
+          return ImmutableList.of();
+        }
+        if (candidates == null || posting.length < candidates.length) {
+          candidates = posting;
+        }
+      }
+      checkState(candidates != null, "Query of at least one trigram has candidates");
+      for (int t : candidates) {
+        addMatch(t, lowerQuery, matches);
+      }
+    }
+    return matches.stream().mapToObj(_values::get).collect(ImmutableList.toImmutableList());
+  }
+
+  private void addMatch(int text, String lowerQuery, BitSet matches) {
+    if (_texts[text].contains(lowerQuery)) {
+      for (int id : _valuesByText[text]) {
+        matches.set(id);
+      }
+    }
+  }
+}
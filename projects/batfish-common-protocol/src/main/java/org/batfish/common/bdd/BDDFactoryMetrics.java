@@ -0,0 +1,51 @@
+package org.batfish.common.bdd;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.ToIntFunction;
+import net.sf.javabdd.BDDFactory;
+import net.sf.javabdd.BDDFactory.CacheStats;
+import net.sf.javabdd.JFactory;
+import org.batfish.common.metrics.MetricRegistry;
+
+/**
+ * Reports the BDD factories of live {@link BDDPacket packets} as gauges of the {@link
+ * MetricRegistry#global() global registry}: their number, their nodes, and, if {@link
+ * JFactory#cacheStatsEnabled() enabled}, the hits and misses of their operator caches.
+ */
+final class BDDFactoryMetrics {
+
+  private static final Set<BDDFactory> FACTORIES =
+      Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+  static {
+    MetricRegistry metrics = MetricRegistry.global();
+    metrics.gauge("bdd.factories", () -> sum(f -> 1));
+    metrics.gauge("bdd.nodes", () -> sum(BDDFactory::getNodeNum));
+    metrics.gauge("bdd.nodeTableSize", () -> sum(BDDFactory::getNodeTableSize));
+    if (JFactory.cacheStatsEnabled()) {
+      metrics.gauge("bdd.cache.opHits", () -> sumCacheStats(s -> s.opHit));
+      metrics.gauge("bdd.cache.opMisses", () -> sumCacheStats(s -> s.opMiss));
+      metrics.gauge("bdd.cache.opOverwrites", () -> sumCacheStats(s -> s.opOverwrite));
+    }
+  }
+
+  /** Starts reporting {@code factory} until it is garbage collected. */
+  static void track(BDDFactory factory) {
+    FACTORIES.add(factory);
+  }
+
+  private static long sum(ToIntFunction<BDDFactory> value) {
+    // The set is synchronized, but iterating over it is not
+    synchronized (FACTORIES) {
+      return FACTORIES.stream().mapToLong(value::applyAsInt).sum();
+    }
+  }
+
+  private static long sumCacheStats(ToIntFunction<CacheStats> value) {
+    return sum(f -> value.applyAsInt(f.getCacheStats()));
+  }
+
+  private BDDFactoryMetrics() {}
+}
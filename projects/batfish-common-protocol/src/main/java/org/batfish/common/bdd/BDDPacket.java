@@ -108,6 +108,7 @@ public class BDDPacket {
     _factory.setCacheRatio(JFACTORY_CACHE_RATIO);
     // Do not impose a maximum node table increase
     _factory.setMaxIncrease(0);
+    BDDFactoryMetrics.track(_factory);
     // Disables printing
     /*
     try {
@@ -0,0 +1,29 @@
+package org.batfish.common.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count, e.g. of route-policy evaluations. Increments are striped across
+ * threads, so counting on a hot path shared by many threads does not contend on a single memory
+ * location.
+ */
+public final class Counter {
+
+  private final LongAdder _count;
+
+  Counter() {
+    _count = new LongAdder();
+  }
+
+  public void increment() {
+    _count.increment();
+  }
+
+  public void add(long n) {
+    _count.add(n);
+  }
+
+  public long getCount() {
+    return _count.sum();
+  }
+}
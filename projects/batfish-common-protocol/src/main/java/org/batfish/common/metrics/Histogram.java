@@ -0,0 +1,57 @@
+package org.batfish.common.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A distribution of non-negative values, e.g. of the time to compute a data plane. Values are
+ * counted in power-of-two buckets, so quantiles are accurate to within a factor of two, and
+ * recording a value is as cheap as incrementing a {@link Counter}.
+ */
+public final class Histogram {
+
+  /** Bucket {@code i > 0} holds values in {@code [2^(i-1), 2^i)}; bucket 0 holds 0. */
+  static final int NUM_BUCKETS = Long.SIZE;
+
+  private final LongAdder[] _buckets;
+  private final LongAccumulator _max;
+  private final LongAdder _sum;
+
+  Histogram() {
+    _buckets = new LongAdder[NUM_BUCKETS];
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      _buckets[i] = new LongAdder();
+    }
+    _max = new LongAccumulator(Math::max, 0L);
+    _sum = new LongAdder();
+  }
+
+  static int bucket(long value) {
+    return Long.SIZE - Long.numberOfLeadingZeros(value);
+  }
+
+  /** Records {@code value}. Negative values are recorded as 0. */
+  public void record(long value) {
+    long v = Math.max(value, 0L);
+    _buckets[bucket(v)].increment();
+    _max.accumulate(v);
+    _sum.add(v);
+  }
+
+  /** Records the milliseconds elapsed since {@code startNanos}, a {@link System#nanoTime()}. */
+  public void recordMillisSince(long startNanos) {
+    record((System.nanoTime() - startNanos) / 1_000_000L);
+  }
+
+  /**
+   * Returns the current state of this histogram. Values recorded concurrently may be only partially
+   * reflected, e.g. in the count but not yet in the sum.
+   */
+  public HistogramSnapshot snapshot() {
+    long[] buckets = new long[NUM_BUCKETS];
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      buckets[i] = _buckets[i].sum();
+    }
+    return new HistogramSnapshot(buckets, _sum.sum(), _max.get());
+  }
+}
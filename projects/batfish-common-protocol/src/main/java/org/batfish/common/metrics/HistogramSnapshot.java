@@ -0,0 +1,175 @@
+package org.batfish.common.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.google.common.base.MoreObjects;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/** The state of a {@link Histogram} at some point in time. */
+// The count and quantiles are derived from the buckets
+@JsonIgnoreProperties(
+    value = {
+      HistogramSnapshot.PROP_COUNT,
+      HistogramSnapshot.PROP_P50,
+      HistogramSnapshot.PROP_P90,
+      HistogramSnapshot.PROP_P99
+    },
+    allowGetters = true)
+@JsonPropertyOrder({
+  HistogramSnapshot.PROP_COUNT,
+  HistogramSnapshot.PROP_SUM,
+  HistogramSnapshot.PROP_MAX,
+  HistogramSnapshot.PROP_P50,
+  HistogramSnapshot.PROP_P90,
+  HistogramSnapshot.PROP_P99,
+  HistogramSnapshot.PROP_BUCKETS
+})
+public final class HistogramSnapshot {
+  static final String PROP_BUCKETS = "buckets";
+  static final String PROP_COUNT = "count";
+  static final String PROP_MAX = "max";
+  static final String PROP_P50 = "p50";
+  static final String PROP_P90 = "p90";
+  static final String PROP_P99 = "p99";
+  static final String PROP_SUM = "sum";
+
+  /** Counts per bucket of {@link Histogram}, without trailing empty buckets */
+  private final long[] _buckets;
+
+  private final long _count;
+  private final long _max;
+  private final long _sum;
+
+  HistogramSnapshot(long[] buckets, long sum, long max) {
+    checkArgument(buckets.length <= Histogram.NUM_BUCKETS, "Too many buckets: %s", buckets.length);
+    int length = buckets.length;
+    while (length > 0 && buckets[length - 1] == 0) {
+      length--;
+    }
+    _buckets = Arrays.copyOf(buckets, length);
+    _count = Arrays.stream(_buckets).sum();
+    _max = max;
+    _sum = sum;
+  }
+
+  @JsonCreator
+  private static @Nonnull HistogramSnapshot create(
+      @Nullable @JsonProperty(PROP_BUCKETS) long[] buckets,
+      @JsonProperty(PROP_SUM) long sum,
+      @JsonProperty(PROP_MAX) long max) {
+    return new HistogramSnapshot(buckets == null ? new long[0] : buckets, sum, max);
+  }
+
+  /**
+   * Returns the values recorded after {@code earlier} was taken, assuming it was taken from the
+   * same histogram. The max is an upper bound, since the max of the difference is not known.
+   */
+  public @Nonnull HistogramSnapshot minus(HistogramSnapshot earlier) {
+    long[] buckets = Arrays.copyOf(_buckets, Math.max(_buckets.length, earlier._buckets.length));
+    for (int i = 0; i < earlier._buckets.length; i++) {
+      buckets[i] = Math.max(buckets[i] - earlier._buckets[i], 0L);
+    }
+    int last = buckets.length - 1;
+    while (last >= 0 && buckets[last] == 0) {
+      last--;
+    }
+    long max = last < 0 ? 0L : Math.min(_max, upperBound(last));
+    return new HistogramSnapshot(buckets, Math.max(_sum - earlier._sum, 0L), max);
+  }
+
+  /** The largest value in bucket {@code i} of {@link Histogram} */
+  private static long upperBound(int i) {
+    return i == 0 ? 0L : (1L << i) - 1;
+  }
+
+  /**
+   * Returns an upper bound on the {@code q}-quantile of the recorded values, accurate to within a
+   * factor of two; or 0 if there are none.
+   */
+  public long quantile(double q) {
+    checkArgument(q >= 0.0 && q <= 1.0, "Invalid quantile: %s", q);
+    long rank = (long) Math.ceil(q * _count);
+    long seen = 0L;
+    for (int i = 0; i < _buckets.length; i++) {
+      seen += _buckets[i];
+      if (seen >= rank && seen > 0) {
+        return Math.min(upperBound(i), _max);
+      }
+    }
+    return 0L;
+  }
+
+  @JsonProperty(PROP_BUCKETS)
+  private @Nonnull long[] getBuckets() {
+    return _buckets;
+  }
+
+  @JsonProperty(PROP_COUNT)
+  public long getCount() {
+    return _count;
+  }
+
+  @JsonProperty(PROP_MAX)
+  public long getMax() {
+    return _max;
+  }
+
+  @JsonIgnore
+  public double getMean() {
+    return _count == 0 ? 0.0 : (double) _sum / _count;
+  }
+
+  @JsonProperty(PROP_P50)
+  private long getP50() {
+    return quantile(0.5);
+  }
+
+  @JsonProperty(PROP_P90)
+  private long getP90() {
+    return quantile(0.9);
+  }
+
+  @JsonProperty(PROP_P99)
+  private long getP99() {
+    return quantile(0.99);
+  }
+
+  @JsonProperty(PROP_SUM)
+  public long getSum() {
+    return _sum;
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof HistogramSnapshot)) {
+      return false;
+    }
+    HistogramSnapshot that = (HistogramSnapshot) o;
+    return _max == that._max && _sum == that._sum && Arrays.equals(_buckets, that._buckets);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * Arrays.hashCode(_buckets) + Long.hashCode(_max)) + Long.hashCode(_sum);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add(PROP_COUNT, _count)
+        .add(PROP_SUM, _sum)
+        .add(PROP_MAX, _max)
+        .add(PROP_P50, getP50())
+        .add(PROP_P99, getP99())
+        .toString();
+  }
+}
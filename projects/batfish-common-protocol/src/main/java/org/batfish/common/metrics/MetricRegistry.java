@@ -0,0 +1,64 @@
+package org.batfish.common.metrics;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import javax.annotation.Nonnull;
+
+/**
+ * In-process metrics of the engines: {@link Counter counters}, {@link Histogram histograms}, and
+ * gauges, each identified by a dotted name such as {@code rib.merges}.
+ *
+ * <p>Unlike tracing spans, metrics need no external agent and are cheap enough to update on hot
+ * paths. Hot paths should look up their metrics once, e.g. in a static field, and then only update
+ * them. Read all metrics at once with {@link #snapshot()}.
+ */
+public final class MetricRegistry {
+
+  private static final MetricRegistry GLOBAL = new MetricRegistry();
+
+  /** Returns the registry of this process, which the engines update. */
+  public static @Nonnull MetricRegistry global() {
+    return GLOBAL;
+  }
+
+  private final ConcurrentMap<String, Counter> _counters;
+  private final ConcurrentMap<String, LongSupplier> _gauges;
+  private final ConcurrentMap<String, Histogram> _histograms;
+
+  public MetricRegistry() {
+    _counters = new ConcurrentHashMap<>();
+    _gauges = new ConcurrentHashMap<>();
+    _histograms = new ConcurrentHashMap<>();
+  }
+
+  /** Returns the {@link Counter} with the given name, creating it if needed. */
+  public @Nonnull Counter counter(String name) {
+    return _counters.computeIfAbsent(name, n -> new Counter());
+  }
+
+  /**
+   * Registers a gauge with the given name, whose value is read from {@code value} whenever a {@link
+   * #snapshot()} is taken. Replaces any gauge previously registered with that name.
+   */
+  public void gauge(String name, LongSupplier value) {
+    _gauges.put(name, value);
+  }
+
+  /** Returns the {@link Histogram} with the given name, creating it if needed. */
+  public @Nonnull Histogram histogram(String name) {
+    return _histograms.computeIfAbsent(name, n -> new Histogram());
+  }
+
+  /** Returns the current values of all metrics. */
+  public @Nonnull MetricsSnapshot snapshot() {
+    ImmutableMap.Builder<String, Long> counters = ImmutableMap.builder();
+    _counters.forEach((name, counter) -> counters.put(name, counter.getCount()));
+    ImmutableMap.Builder<String, Long> gauges = ImmutableMap.builder();
+    _gauges.forEach((name, gauge) -> gauges.put(name, gauge.getAsLong()));
+    ImmutableMap.Builder<String, HistogramSnapshot> histograms = ImmutableMap.builder();
+    _histograms.forEach((name, histogram) -> histograms.put(name, histogram.snapshot()));
+    return new MetricsSnapshot(counters.build(), gauges.build(), histograms.build());
+  }
+}
@@ -0,0 +1,102 @@
+package org.batfish.common.metrics;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/** The values of all metrics of a {@link MetricRegistry} at some point in time. */
+public final class MetricsSnapshot {
+  private static final String PROP_COUNTERS = "counters";
+  private static final String PROP_GAUGES = "gauges";
+  private static final String PROP_HISTOGRAMS = "histograms";
+
+  private final @Nonnull SortedMap<String, Long> _counters;
+  private final @Nonnull SortedMap<String, Long> _gauges;
+  private final @Nonnull SortedMap<String, HistogramSnapshot> _histograms;
+
+  public MetricsSnapshot(
+      Map<String, Long> counters,
+      Map<String, Long> gauges,
+      Map<String, HistogramSnapshot> histograms) {
+    _counters = ImmutableSortedMap.copyOf(counters);
+    _gauges = ImmutableSortedMap.copyOf(gauges);
+    _histograms = ImmutableSortedMap.copyOf(histograms);
+  }
+
+  @JsonCreator
+  private static @Nonnull MetricsSnapshot create(
+      @Nullable @JsonProperty(PROP_COUNTERS) Map<String, Long> counters,
+      @Nullable @JsonProperty(PROP_GAUGES) Map<String, Long> gauges,
+      @Nullable @JsonProperty(PROP_HISTOGRAMS) Map<String, HistogramSnapshot> histograms) {
+    return new MetricsSnapshot(
+        counters == null ? ImmutableSortedMap.of() : counters,
+        gauges == null ? ImmutableSortedMap.of() : gauges,
+        histograms == null ? ImmutableSortedMap.of() : histograms);
+  }
+
+  /**
+   * Returns what was counted and recorded after {@code earlier} was taken, assuming it was taken
+   * from the same registry. Gauges are not cumulative, so they keep their values in this snapshot.
+   */
+  public @Nonnull MetricsSnapshot minus(MetricsSnapshot earlier) {
+    ImmutableSortedMap.Builder<String, Long> counters = ImmutableSortedMap.naturalOrder();
+    _counters.forEach(
+        (name, count) -> counters.put(name, count - earlier._counters.getOrDefault(name, 0L)));
+    ImmutableSortedMap.Builder<String, HistogramSnapshot> histograms =
+        ImmutableSortedMap.naturalOrder();
+    _histograms.forEach(
+        (name, histogram) -> {
+          HistogramSnapshot before = earlier._histograms.get(name);
+          histograms.put(name, before == null ? histogram : histogram.minus(before));
+        });
+    return new MetricsSnapshot(counters.build(), _gauges, histograms.build());
+  }
+
+  @JsonProperty(PROP_COUNTERS)
+  public @Nonnull SortedMap<String, Long> getCounters() {
+    return _counters;
+  }
+
+  @JsonProperty(PROP_GAUGES)
+  public @Nonnull SortedMap<String, Long> getGauges() {
+    return _gauges;
+  }
+
+  @JsonProperty(PROP_HISTOGRAMS)
+  public @Nonnull SortedMap<String, HistogramSnapshot> getHistograms() {
+    return _histograms;
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof MetricsSnapshot)) {
+      return false;
+    }
+    MetricsSnapshot that = (MetricsSnapshot) o;
+    return _counters.equals(that._counters)
+        && _gauges.equals(that._gauges)
+        && _histograms.equals(that._histograms);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(_counters, _gauges, _histograms);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add(PROP_COUNTERS, _counters)
+        .add(PROP_GAUGES, _gauges)
+        .add(PROP_HISTOGRAMS, _histograms)
+        .toString();
+  }
+}
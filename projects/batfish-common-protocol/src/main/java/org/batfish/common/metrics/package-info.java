@@ -0,0 +1,5 @@
+/** Low-overhead in-process metrics of the engines, read through {@link MetricRegistry}. */
+@ParametersAreNonnullByDefault
+package org.batfish.common.metrics;
+
+import javax.annotation.ParametersAreNonnullByDefault;
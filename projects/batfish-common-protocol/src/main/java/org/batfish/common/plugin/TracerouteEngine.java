@@ -11,6 +11,7 @@ import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.flow.FirewallSessionTraceInfo;
 import org.batfish.datamodel.flow.Trace;
 import org.batfish.datamodel.flow.TraceAndReverseFlow;
+import org.batfish.datamodel.flow.TraceDag;
 
 /**
  * Indicates ability to process a set of {@link Flow} objects and return a set of {@link Trace},
@@ -58,4 +59,22 @@ public interface TracerouteEngine {
    */
   SortedMap<Flow, List<TraceAndReverseFlow>> computeTracesAndReverseFlows(
       Set<Flow> flows, Set<FirewallSessionTraceInfo> sessions, boolean ignoreFilters);
+
+  /**
+   * Computes the {@link Trace Traces} with reverse-direction {@link Flow Flows} for a {@link Set}
+   * of forward {@link Flow Flows} as a {@link TraceDag} per flow, in which traces share their
+   * common hops. Prefer this to {@link #computeTracesAndReverseFlows} when there may be many ECMP
+   * paths.
+   *
+   * @param flows {@link Set} of {@link Flow} for which {@link Trace Traces} are to be found
+   * @param ignoreFilters if true, will ignore ACLs
+   * @return {@link SortedMap} of {@link Flow Flows} to {@link TraceDag TraceDags}
+   */
+  default SortedMap<Flow, TraceDag> computeTraceDags(
+      Set<Flow> flows, Set<FirewallSessionTraceInfo> sessions, boolean ignoreFilters) {
+    return CollectionUtil.toImmutableSortedMap(
+        computeTracesAndReverseFlows(flows, sessions, ignoreFilters),
+        Entry::getKey,
+        entry -> TraceDag.of(entry.getValue()));
+  }
 }
@@ -1,9 +1,13 @@
 package org.batfish.common.util;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -13,6 +17,8 @@ import org.batfish.common.BatfishException;
 import org.batfish.datamodel.FlowDisposition;
 import org.batfish.datamodel.flow.Hop;
 import org.batfish.datamodel.flow.Trace;
+import org.batfish.datamodel.flow.TraceAndReverseFlow;
+import org.batfish.datamodel.flow.TraceDag;
 
 /**
  * Prune sets of traces to some reasonable limit, while maximizing coverage of possible behaviors.
@@ -59,6 +65,42 @@ public final class TracePruner {
     return new TracePruner(traces).prune(maxSize);
   }
 
+  /**
+   * Prunes the traces of {@code traceDag} like {@link #prune(List, int)}, searching for traces with
+   * unpicked dispositions and nodes in the DAG, so that only the picked traces are expanded.
+   */
+  public static List<Trace> prune(TraceDag traceDag, int maxSize) {
+    long traceCount = traceDag.countTraces();
+    if (traceCount <= maxSize) {
+      return traceDag.getTraces().map(TraceAndReverseFlow::getTrace).collect(toImmutableList());
+    }
+    SortedSet<FlowDisposition> unpickedDispositions = new TreeSet<>(traceDag.getDispositions());
+    SortedSet<String> unpickedNodes = new TreeSet<>(traceDag.getHostnames());
+    // The first trace with an unpicked disposition or node cannot have been picked already
+    Map<Long, Trace> usedTraces = new LinkedHashMap<>();
+    while (usedTraces.size() < maxSize) {
+      long index;
+      if (!unpickedDispositions.isEmpty()) {
+        index = traceDag.findFirstTrace(unpickedDispositions.first());
+      } else if (!unpickedNodes.isEmpty()) {
+        index = traceDag.findFirstTrace(unpickedNodes.first());
+      } else {
+        for (long i = 0; i < traceCount && usedTraces.size() < maxSize; i++) {
+          usedTraces.computeIfAbsent(i, j -> traceDag.getTrace(j).getTrace());
+        }
+        break;
+      }
+      if (index < 0 || usedTraces.containsKey(index)) {
+        throw new BatfishException("No trace with unused disposition or node");
+      }
+      Trace trace = traceDag.getTrace(index).getTrace();
+      usedTraces.put(index, trace);
+      unpickedDispositions.remove(trace.getDisposition());
+      trace.getHops().stream().map(hop -> hop.getNode().getName()).forEach(unpickedNodes::remove);
+    }
+    return ImmutableList.copyOf(usedTraces.values());
+  }
+
   private List<Trace> prune(int maxSize) {
     List<Trace> usedTraces = new ArrayList<>();
 
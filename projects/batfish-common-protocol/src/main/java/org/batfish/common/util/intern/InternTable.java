@@ -0,0 +1,89 @@
+package org.batfish.common.util.intern;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
+
+/**
+ * A bounded, lock-free, open-addressing hash table of canonical instances, shared by the interners
+ * in this package.
+ *
+ * <p>Slots hold their instances through {@link WeakReference weak references}, so the table never
+ * keeps an instance alive: once nothing else refers to an instance, the garbage collector reclaims
+ * it and its slot can be reused. The slots are allocated on first use rather than when the table is
+ * created, so an interner that is never used costs nothing.
+ *
+ * <p>A lookup probes at most {@link #PROBES} consecutive slots from the slot the hash selects. A
+ * new instance is installed in the first free slot with a compare-and-set, or if there is none,
+ * replaces the instance in the first slot. Interning is best-effort: an interner may return
+ * distinct but equal instances of a value that was evicted in between, or that two threads created
+ * at the same time.
+ */
+final class InternTable<T> {
+
+  /** The number of slots a lookup probes before evicting */
+  static final int PROBES = 8;
+
+  private final int _log2Capacity;
+  private final int _shift;
+  private volatile @Nullable AtomicReferenceArray<WeakReference<T>> _slots;
+
+  /** Creates a table with {@code 2^log2Capacity} slots. */
+  InternTable(int log2Capacity) {
+    checkArgument(
+        log2Capacity > 0 && log2Capacity < Integer.SIZE - 1,
+        "Invalid capacity: 2^%s",
+        log2Capacity);
+    _log2Capacity = log2Capacity;
+    _shift = Long.SIZE - log2Capacity;
+  }
+
+  private AtomicReferenceArray<WeakReference<T>> slots() {
+    AtomicReferenceArray<WeakReference<T>> slots = _slots;
+    if (slots == null) {
+      synchronized (this) {
+        slots = _slots;
+        if (slots == null) {
+          slots = new AtomicReferenceArray<>(1 << _log2Capacity);
+          _slots = slots;
+        }
+      }
+    }
+    return slots;
+  }
+
+  /** Returns the first slot to probe for a value with the given hash. */
+  int firstSlot(long hash) {
+    // Fibonacci hashing: the high bits of the product depend on all bits of the hash
+    return (int) ((hash * 0x9E3779B97F4A7C15L) >>> _shift);
+  }
+
+  /** Returns the {@code probe}th slot to probe after {@code firstSlot}. */
+  int slot(int firstSlot, int probe) {
+    return (firstSlot + probe) & ((1 << _log2Capacity) - 1);
+  }
+
+  /**
+   * Returns the reference in {@code slot}, or {@code null} if the slot has never been used. The
+   * instance of a returned reference is {@code null} if it has been reclaimed.
+   */
+  @Nullable
+  WeakReference<T> get(int slot) {
+    return slots().get(slot);
+  }
+
+  /**
+   * Installs {@code value} in {@code slot} if that slot still holds {@code expected}, and returns
+   * whether it did.
+   */
+  boolean install(int slot, @Nullable WeakReference<T> expected, T value) {
+    return slots().compareAndSet(slot, expected, new WeakReference<>(value));
+  }
+
+  /** Replaces the instance in {@code slot} with {@code value}. */
+  void evict(int slot, T value) {
+    slots().lazySet(slot, new WeakReference<>(value));
+  }
+}
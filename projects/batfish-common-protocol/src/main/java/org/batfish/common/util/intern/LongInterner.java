@@ -0,0 +1,77 @@
+package org.batfish.common.util.intern;
+
+import java.lang.ref.WeakReference;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Interns values that are identified by a {@code long} key, such as {@link org.batfish.datamodel.Ip
+ * IPs} and {@link org.batfish.datamodel.Prefix prefixes}.
+ *
+ * <p>Lookups are lock-free and take the key itself, so finding an existing instance allocates
+ * nothing. Only a miss creates a new instance. See {@link InternTable} for how long instances are
+ * kept and when distinct equal instances can be returned.
+ */
+public final class LongInterner<T> {
+
+  private final LongFunction<T> _factory;
+  private final ToLongFunction<T> _key;
+  private final InternTable<T> _table;
+
+  /**
+   * Creates an interner for at most {@code 2^log2Capacity} values, where {@code key} returns the
+   * key of a value and {@code factory} creates the value with a given key.
+   */
+  public LongInterner(int log2Capacity, ToLongFunction<T> key, LongFunction<T> factory) {
+    _factory = factory;
+    _key = key;
+    _table = new InternTable<>(log2Capacity);
+  }
+
+  /** Returns the canonical value with the given key. */
+  @Nonnull
+  public T intern(long key) {
+    int firstSlot = _table.firstSlot(key);
+    T created = null;
+    while (true) {
+      int freeSlot = -1;
+      WeakReference<T> freeRef = null;
+      for (int probe = 0; probe < InternTable.PROBES; probe++) {
+        int slot = _table.slot(firstSlot, probe);
+        WeakReference<T> ref = _table.get(slot);
+        T value = get(ref);
+        if (value != null) {
+          if (_key.applyAsLong(value) == key) {
+            return value;
+          }
+          continue;
+        }
+        if (freeSlot < 0) {
+          freeSlot = slot;
+          freeRef = ref;
+        }
+        if (ref == null) {
+          // Values are never installed past a slot that has never been used.
+          break;
+        }
+      }
+      if (created == null) {
+        created = _factory.apply(key);
+      }
+      if (freeSlot < 0) {
+        _table.evict(firstSlot, created);
+        return created;
+      }
+      if (_table.install(freeSlot, freeRef, created)) {
+        return created;
+      }
+      // Another thread changed the free slot first, maybe with the same key. Look again.
+    }
+  }
+
+  private static @Nullable <T> T get(@Nullable WeakReference<T> ref) {
+    return ref == null ? null : ref.get();
+  }
+}
@@ -0,0 +1,63 @@
+package org.batfish.common.util.intern;
+
+import java.lang.ref.WeakReference;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Interns immutable values by {@link Object#equals(Object) equality}, for values without a
+ * primitive key, such as {@link org.batfish.datamodel.collections.NodeInterfacePair}.
+ *
+ * <p>Lookups are lock-free. See {@link InternTable} for how long instances are kept and when
+ * distinct equal instances can be returned.
+ */
+public final class ObjectInterner<T> {
+
+  private final InternTable<T> _table;
+
+  /** Creates an interner for at most {@code 2^log2Capacity} values. */
+  public ObjectInterner(int log2Capacity) {
+    _table = new InternTable<>(log2Capacity);
+  }
+
+  /** Returns the canonical value equal to {@code value}. */
+  @Nonnull
+  public T intern(T value) {
+    int firstSlot = _table.firstSlot(value.hashCode());
+    while (true) {
+      int freeSlot = -1;
+      WeakReference<T> freeRef = null;
+      for (int probe = 0; probe < InternTable.PROBES; probe++) {
+        int slot = _table.slot(firstSlot, probe);
+        WeakReference<T> ref = _table.get(slot);
+        T existing = get(ref);
+        if (existing != null) {
+          if (existing.equals(value)) {
+            return existing;
+          }
+          continue;
+        }
+        if (freeSlot < 0) {
+          freeSlot = slot;
+          freeRef = ref;
+        }
+        if (ref == null) {
+          // Values are never installed past a slot that has never been used.
+          break;
+        }
+      }
+      if (freeSlot < 0) {
+        _table.evict(firstSlot, value);
+        return value;
+      }
+      if (_table.install(freeSlot, freeRef, value)) {
+        return value;
+      }
+      // Another thread changed the free slot first, maybe with an equal value. Look again.
+    }
+  }
+
+  private static @Nullable <T> T get(@Nullable WeakReference<T> ref) {
+    return ref == null ? null : ref.get();
+  }
+}
@@ -0,0 +1,5 @@
+/** Lock-free, bounded, weak interners for frequently created immutable value types. */
+@ParametersAreNonnullByDefault
+package org.batfish.common.util.intern;
+
+import javax.annotation.ParametersAreNonnullByDefault;
@@ -9,20 +9,33 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
 import com.google.common.collect.ImmutableSortedSet;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
-import java.util.SortedSet;
 import java.util.Stack;
+import java.util.TreeMap;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.common.BatfishException;
-import org.batfish.datamodel.PrefixTrieMultiMap.FoldOperator;
-
+import org.batfish.common.metrics.Counter;
+import org.batfish.common.metrics.MetricRegistry;
+
+/**
+ * A {@link Fib} built by recursively resolving the routes of a {@link GenericRib}.
+ *
+ * <p>A FIB can be kept in sync with its RIB by {@link #update(GenericRib, Collection)}, which only
+ * re-resolves the routes affected by a set of changed prefixes. Updates are done in place and are
+ * not thread-safe: a FIB must not be read while it is being updated.
+ */
 @ParametersAreNonnullByDefault
 public final class FibImpl implements Fib {
 
@@ -74,6 +87,122 @@ public final class FibImpl implements Fib {
     }
   }
 
+  /**
+   * Incrementally maintained result of {@link #getMatchingIps()}. The IPs matching a prefix with
+   * entries are those in the prefix but not in any of its longest proper sub-prefixes with entries
+   * (its children), so adding or removing a prefix only affects the prefix and its parent.
+   */
+  private static final class MatchingIps {
+
+    /** Prefixes with entries, each mapped to its children keyed by start IP */
+    private final @Nonnull Map<Prefix, NavigableMap<Ip, Prefix>> _children;
+
+    /** Prefixes with entries that are not contained in any other prefix with entries */
+    private final @Nonnull NavigableMap<Ip, Prefix> _roots;
+
+    private final @Nonnull Map<Prefix, IpSpace> _matchingIps;
+
+    /** Prefixes whose matching IPs have to be recomputed */
+    private final @Nonnull Set<Prefix> _dirty;
+
+    /** Memoized immutable copy of {@link #_matchingIps} */
+    private @Nullable Map<Prefix, IpSpace> _snapshot;
+
+    private MatchingIps(Collection<Prefix> prefixes) {
+      _children = new HashMap<>();
+      _roots = new TreeMap<>();
+      _matchingIps = new HashMap<>();
+      _dirty = new HashSet<>();
+      // Adding shorter prefixes first means no prefix ever has to adopt children.
+      prefixes.stream().sorted(Comparator.comparing(Prefix::getPrefixLength)).forEach(this::add);
+      recompute();
+    }
+
+    /** Returns the longest proper super-prefix of {@code prefix} with entries. */
+    private @Nullable Prefix getParent(Prefix prefix) {
+      for (int length = prefix.getPrefixLength() - 1; length >= 0; length--) {
+        Prefix candidate = Prefix.create(prefix.getStartIp(), length);
+        if (_children.containsKey(candidate)) {
+          return candidate;
+        }
+      }
+      return null;
+    }
+
+    private @Nonnull NavigableMap<Ip, Prefix> getSiblings(@Nullable Prefix parent) {
+      return parent == null ? _roots : _children.get(parent);
+    }
+
+    /** Records that {@code prefix} has entries. */
+    void add(Prefix prefix) {
+      if (_children.containsKey(prefix)) {
+        return;
+      }
+      Prefix parent = getParent(prefix);
+      NavigableMap<Ip, Prefix> siblings = getSiblings(parent);
+      // Siblings contained in the new prefix become its children
+      NavigableMap<Ip, Prefix> contained =
+          siblings.subMap(prefix.getStartIp(), true, prefix.getEndIp(), true);
+      _children.put(prefix, new TreeMap<>(contained));
+      contained.clear();
+      siblings.put(prefix.getStartIp(), prefix);
+      _dirty.add(prefix);
+      if (parent != null) {
+        _dirty.add(parent);
+      }
+    }
+
+    /** Records that {@code prefix} no longer has entries. */
+    void remove(Prefix prefix) {
+      NavigableMap<Ip, Prefix> children = _children.remove(prefix);
+      if (children == null) {
+        return;
+      }
+      Prefix parent = getParent(prefix);
+      NavigableMap<Ip, Prefix> siblings = getSiblings(parent);
+      siblings.remove(prefix.getStartIp());
+      siblings.putAll(children);
+      _matchingIps.remove(prefix);
+      _dirty.remove(prefix);
+      if (parent != null) {
+        _dirty.add(parent);
+      }
+      _snapshot = null;
+    }
+
+    private void recompute() {
+      for (Prefix prefix : _dirty) {
+        NavigableMap<Ip, Prefix> children = _children.get(prefix);
+        if (children.isEmpty()) {
+          _matchingIps.put(prefix, prefix.toIpSpace());
+        } else {
+          // Ips matching prefix are those in prefix and not in any subtrie prefixes.
+          _matchingIps.put(
+              prefix,
+              new IpWildcardSetIpSpace(
+                  children.values().stream()
+                      .map(IpWildcard::create)
+                      .collect(ImmutableSortedSet.toImmutableSortedSet(Comparator.naturalOrder())),
+                  ImmutableSortedSet.of(IpWildcard.create(prefix))));
+        }
+      }
+      if (!_dirty.isEmpty()) {
+        _dirty.clear();
+        _snapshot = null;
+      }
+    }
+
+    @Nonnull
+    Map<Prefix, IpSpace> get() {
+      recompute();
+      if (_snapshot == null) {
+        _snapshot = ImmutableMap.copyOf(_matchingIps);
+      }
+      return _snapshot;
+    }
+  }
+
+  private static final Counter LOOKUPS = MetricRegistry.global().counter("fib.lookups");
   private static final int MAX_DEPTH = 10;
 
   private static @Nullable String getNextVrf(AbstractRoute route) {
@@ -89,17 +218,125 @@ public final class FibImpl implements Fib {
 
   private transient Supplier<Set<FibEntry>> _entries;
 
+  /**
+   * Routes indexed by the next-hop IPs looked up while resolving them. Not serialized, so {@code
+   * null} after deserialization.
+   */
+  private transient @Nullable NextHopIndex<AbstractRoute> _routesByNextHopIp;
+
+  /**
+   * Inverse of {@link #_routesByNextHopIp}: every route that has been resolved, grouped by network,
+   * mapped to the next-hop IPs looked up while resolving it.
+   */
+  private transient @Nullable Map<Prefix, Map<AbstractRoute, Set<Ip>>> _nextHopIpsByRoute;
+
+  /** Created on first use by {@link #getMatchingIps()}, then maintained by updates */
+  private transient @Nullable MatchingIps _matchingIps;
+
   public FibImpl(@Nonnull GenericRib<? extends AbstractRouteDecorator> rib) {
     _root = new PrefixTrieMultiMap<>(Prefix.ZERO);
-    rib.getRoutes()
-        .forEach(
-            r -> {
-              Set<FibEntry> s = resolveRoute(rib, r);
-              _root.putAll(r.getNetwork(), s);
-            });
+    _routesByNextHopIp = new NextHopIndex<>();
+    _nextHopIpsByRoute = new HashMap<>();
+    rib.getRoutes().forEach(r -> addRoute(rib, r));
+    initSuppliers();
+  }
+
+  /** Resolves {@code route} and adds the resulting entries to this FIB. */
+  private void addRoute(GenericRib<? extends AbstractRouteDecorator> rib, AbstractRoute route) {
+    assert _routesByNextHopIp != null && _nextHopIpsByRoute != null;
+    Set<Ip> nextHopIps = new HashSet<>();
+    _root.putAll(route.getNetwork(), resolveRoute(rib, route, nextHopIps));
+    nextHopIps.forEach(ip -> _routesByNextHopIp.add(ip, route));
+    _nextHopIpsByRoute
+        .computeIfAbsent(route.getNetwork(), n -> new HashMap<>())
+        .put(route, nextHopIps);
+  }
+
+  /** Removes the entries of {@code route} from this FIB. */
+  private void removeRoute(AbstractRoute route) {
+    assert _routesByNextHopIp != null && _nextHopIpsByRoute != null;
+    Prefix network = route.getNetwork();
+    Map<AbstractRoute, Set<Ip>> resolved = _nextHopIpsByRoute.get(network);
+    Set<Ip> nextHopIps = resolved == null ? null : resolved.remove(route);
+    if (nextHopIps == null) {
+      return;
+    }
+    if (resolved.isEmpty()) {
+      _nextHopIpsByRoute.remove(network);
+    }
+    nextHopIps.forEach(ip -> _routesByNextHopIp.remove(ip, route));
+    for (FibEntry entry : ImmutableList.copyOf(_root.get(network))) {
+      if (entry.getResolutionSteps().get(0).equals(route)) {
+        _root.remove(network, entry);
+      }
+    }
+  }
+
+  /**
+   * Updates this FIB after the routes for {@code changedPrefixes} were added to or removed from
+   * {@code rib}, the RIB this FIB was built from. Only the routes for changed prefixes and the
+   * routes whose next-hop resolution went through a changed prefix are re-resolved.
+   */
+  public void update(
+      GenericRib<? extends AbstractRouteDecorator> rib, Collection<Prefix> changedPrefixes) {
+    if (changedPrefixes.isEmpty()) {
+      return;
+    }
+    if (_routesByNextHopIp == null || _nextHopIpsByRoute == null) {
+      // Deserialized, so dependencies are unknown. Start over.
+      _routesByNextHopIp = new NextHopIndex<>();
+      _nextHopIpsByRoute = new HashMap<>();
+      Set<Prefix> oldPrefixes = new HashSet<>();
+      _root.traverseEntries((prefix, entries) -> oldPrefixes.add(prefix));
+      _root.clear();
+      rib.getRoutes().forEach(r -> addRoute(rib, r));
+      updateMatchingIps(oldPrefixes);
+      initSuppliers();
+      return;
+    }
+    Set<Prefix> changed = ImmutableSet.copyOf(changedPrefixes);
+    Set<Prefix> affectedPrefixes = new HashSet<>(changed);
+    Set<AbstractRoute> toResolve = new LinkedHashSet<>();
+    for (Prefix prefix : changed) {
+      // Routes for the changed prefix itself are replaced with the current ones
+      Map<AbstractRoute, Set<Ip>> resolved = _nextHopIpsByRoute.get(prefix);
+      if (resolved != null) {
+        ImmutableList.copyOf(resolved.keySet()).forEach(this::removeRoute);
+      }
+      rib.longestPrefixMatch(prefix.getStartIp(), prefix.getPrefixLength()).stream()
+          .map(AbstractRouteDecorator::getAbstractRoute)
+          .filter(r -> r.getNetwork().equals(prefix))
+          .forEach(toResolve::add);
+    }
+    for (Prefix prefix : changed) {
+      // Routes whose resolution looked up an IP in the changed prefix are re-resolved. Those for
+      // changed prefixes were already handled above.
+      for (AbstractRoute route : _routesByNextHopIp.getDependents(prefix)) {
+        if (!changed.contains(route.getNetwork())) {
+          removeRoute(route);
+          toResolve.add(route);
+          affectedPrefixes.add(route.getNetwork());
+        }
+      }
+    }
+    toResolve.forEach(r -> addRoute(rib, r));
+    updateMatchingIps(affectedPrefixes);
     initSuppliers();
   }
 
+  private void updateMatchingIps(Set<Prefix> affectedPrefixes) {
+    if (_matchingIps == null) {
+      return;
+    }
+    for (Prefix prefix : affectedPrefixes) {
+      if (_root.get(prefix).isEmpty()) {
+        _matchingIps.remove(prefix);
+      } else {
+        _matchingIps.add(prefix);
+      }
+    }
+  }
+
   private void initSuppliers() {
     _entries = Suppliers.memoize(this::computeEntries);
   }
@@ -126,6 +363,15 @@ public final class FibImpl implements Fib {
   @VisibleForTesting
   Set<FibEntry> resolveRoute(
       GenericRib<? extends AbstractRouteDecorator> rib, AbstractRoute route) {
+    return resolveRoute(rib, route, new HashSet<>());
+  }
+
+  /**
+   * Like {@link #resolveRoute(GenericRib, AbstractRoute)}, but also adds every next-hop IP looked
+   * up in {@code rib} during resolution to {@code nextHopIps}.
+   */
+  private Set<FibEntry> resolveRoute(
+      GenericRib<? extends AbstractRouteDecorator> rib, AbstractRoute route, Set<Ip> nextHopIps) {
     ResolutionTreeNode resolutionRoot = ResolutionTreeNode.root(route);
     buildResolutionTree(
         rib,
@@ -135,7 +381,8 @@ public final class FibImpl implements Fib {
         0,
         Prefix.MAX_PREFIX_LENGTH,
         null,
-        resolutionRoot);
+        resolutionRoot,
+        nextHopIps);
     Builder<FibEntry> collector = ImmutableSet.builder();
     collectEntries(resolutionRoot, new Stack<>(), collector);
     return collector.build();
@@ -177,7 +424,8 @@ public final class FibImpl implements Fib {
       int depth,
       int maxPrefixLength,
       @Nullable AbstractRoute parentRoute,
-      ResolutionTreeNode treeNode) {
+      ResolutionTreeNode treeNode,
+      Set<Ip> nextHopIps) {
     Prefix network = route.getNetwork();
     if (seenNetworks.contains(network)) {
       // Don't enter a resolution loop
@@ -205,7 +453,8 @@ public final class FibImpl implements Fib {
             depth + 1,
             maxPrefixLength - 1,
             null,
-            treeNode);
+            treeNode,
+            nextHopIps);
         return;
       }
     }
@@ -234,6 +483,7 @@ public final class FibImpl implements Fib {
         // https://github.com/batfish/batfish/issues/1469
         return;
       }
+      nextHopIps.add(nextHopIp);
       Set<? extends AbstractRouteDecorator> nextHopLongestPrefixMatchRoutes =
           rib.longestPrefixMatch(nextHopIp, maxPrefixLength);
 
@@ -255,7 +505,8 @@ public final class FibImpl implements Fib {
             depth + 1,
             maxPrefixLength - 1,
             parentRoute,
-            treeNode);
+            treeNode,
+            nextHopIps);
       } else {
         // We have at least one valid longest-prefix match
         for (AbstractRoute nextHopLongestPrefixMatchRoute : forwardingRoutes) {
@@ -267,7 +518,8 @@ public final class FibImpl implements Fib {
               depth + 1,
               Prefix.MAX_PREFIX_LENGTH,
               route,
-              ResolutionTreeNode.withParent(nextHopLongestPrefixMatchRoute, treeNode, null));
+              ResolutionTreeNode.withParent(nextHopLongestPrefixMatchRoute, treeNode, null),
+              nextHopIps);
         }
       }
     }
@@ -276,67 +528,24 @@ public final class FibImpl implements Fib {
   @Nonnull
   @Override
   public Set<FibEntry> get(Ip ip) {
+    LOOKUPS.increment();
     return _root.longestPrefixMatch(ip);
   }
 
   @Nonnull
   @Override
   public Map<Prefix, IpSpace> getMatchingIps() {
-    ImmutableMap.Builder<Prefix, IpSpace> builder = ImmutableMap.builder();
-
-    /* Do a fold over the trie. At each node, create the matching Ips for that prefix (adding it
-     * to the builder) and return an IpSpace of IPs matched by any prefix in that subtrie. To create
-     * the matching Ips of the prefix, whitelist the prefix and blacklist the IPs matched by
-     * subtrie prefixes (i.e. longer prefixes).
-     *
-     * We build ImmutableSortedSets because IpWildcardSetIpSpace uses them internally, and this
-     * avoids making an extra copy.
-     */
-    _root.fold(
-        new FoldOperator<FibEntry, SortedSet<IpWildcard>>() {
-          @Nonnull
-          @Override
-          public SortedSet<IpWildcard> fold(
-              Prefix prefix,
-              Set<FibEntry> elems,
-              @Nullable SortedSet<IpWildcard> leftPrefixes,
-              @Nullable SortedSet<IpWildcard> rightPrefixes) {
-            SortedSet<IpWildcard> subTriePrefixes;
-            boolean leftEmpty = leftPrefixes == null || leftPrefixes.isEmpty();
-            boolean rightEmpty = rightPrefixes == null || rightPrefixes.isEmpty();
-            if (leftEmpty && rightEmpty) {
-              subTriePrefixes = ImmutableSortedSet.of();
-            } else if (leftEmpty) {
-              subTriePrefixes = rightPrefixes;
-            } else if (rightEmpty) {
-              subTriePrefixes = leftPrefixes;
-            } else {
-              subTriePrefixes =
-                  ImmutableSortedSet.<IpWildcard>naturalOrder()
-                      .addAll(leftPrefixes)
-                      .addAll(rightPrefixes)
-                      .build();
+    if (_matchingIps == null) {
+      Set<Prefix> prefixes = new HashSet<>();
+      _root.traverseEntries(
+          (prefix, entries) -> {
+            if (!entries.isEmpty()) {
+              prefixes.add(prefix);
             }
-
-            if (elems.isEmpty()) {
-              return subTriePrefixes;
-            }
-
-            IpWildcard wc = IpWildcard.create(prefix);
-
-            if (subTriePrefixes.isEmpty()) {
-              builder.put(prefix, prefix.toIpSpace());
-            } else {
-              // Ips matching prefix are those in prefix and not in any subtrie prefixes.
-              builder.put(
-                  prefix, new IpWildcardSetIpSpace(subTriePrefixes, ImmutableSortedSet.of(wc)));
-            }
-
-            return ImmutableSortedSet.of(wc);
-          }
-        });
-
-    return builder.build();
+          });
+      _matchingIps = new MatchingIps(prefixes);
+    }
+    return _matchingIps.get();
   }
 
   private void readObject(java.io.ObjectInputStream stream)
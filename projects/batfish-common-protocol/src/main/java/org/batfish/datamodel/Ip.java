@@ -4,22 +4,18 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import java.io.Serializable;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.batfish.common.util.intern.LongInterner;
 
 /** An IPv4 address */
 public class Ip implements Comparable<Ip>, Serializable {
 
-  // Soft values: let it be garbage collected in times of pressure.
   // Maximum size 2^20: Just some upper bound on cache size, well less than GiB.
-  //   (8 bytes seems smallest possible entry (long), would be 8 MiB total).
-  private static final LoadingCache<Ip, Ip> CACHE =
-      CacheBuilder.newBuilder().softValues().maximumSize(1 << 20).build(CacheLoader.from(x -> x));
+  //   (24 bytes per instance and 4-8 bytes per slot, would be 32 MiB total).
+  private static final LongInterner<Ip> INTERNER = new LongInterner<>(20, Ip::asLong, Ip::new);
 
   public static final Ip AUTO = create(-1L);
 
@@ -131,8 +127,7 @@ public class Ip implements Comparable<Ip>, Serializable {
 
   public static Ip create(long ipAsLong) {
     checkArgument(ipAsLong <= 0xFFFFFFFFL, "Invalid IP value: %s", ipAsLong);
-    Ip ip = new Ip(ipAsLong);
-    return CACHE.getUnchecked(ip);
+    return INTERNER.intern(ipAsLong);
   }
 
   public long asLong() {
@@ -5,23 +5,20 @@ import static com.google.common.base.Preconditions.checkState;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import java.io.Serializable;
 import java.util.Comparator;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.util.intern.LongInterner;
 
 /** An IP wildcard consisting of a IP address and a wildcard (also expressed as an IP address) */
 @ParametersAreNonnullByDefault
 public final class IpWildcard implements Serializable, Comparable<IpWildcard> {
-  // Soft values: let it be garbage collected in times of pressure.
   // Maximum size 2^20: Just some upper bound on cache size, well less than GiB.
-  //   (16 bytes seems smallest possible entry (long), would be 16 MiB total).
-  private static final LoadingCache<IpWildcard, IpWildcard> CACHE =
-      CacheBuilder.newBuilder().softValues().maximumSize(1 << 20).build(CacheLoader.from(x -> x));
+  //   (24 bytes per instance and 4-8 bytes per slot, would be 32 MiB total).
+  private static final LongInterner<IpWildcard> INTERNER =
+      new LongInterner<>(20, IpWildcard::internKey, IpWildcard::fromInternKey);
 
   @Nonnull private final Ip _ip;
   // Set bits are "don't care" bits
@@ -65,8 +62,28 @@ public final class IpWildcard implements Serializable, Comparable<IpWildcard> {
    * <p>Bits that are set in the {@code wildcardMask} are "don't care" bits.
    */
   public static IpWildcard ipWithWildcardMask(Ip address, long wildcardMask) {
-    IpWildcard wildcard = new IpWildcard(address, wildcardMask);
-    return CACHE.getUnchecked(wildcard);
+    checkValid(address, wildcardMask);
+    long canonicalIp = address.asLong() & (ALL_BITS_MASKED ^ wildcardMask);
+    return INTERNER.intern(internKey(canonicalIp, wildcardMask));
+  }
+
+  /** Packs a valid canonical IP and wildcard mask, each of which takes 32 bits, into one key. */
+  private static long internKey(long canonicalIp, long wildcardMask) {
+    return canonicalIp << Integer.SIZE | wildcardMask;
+  }
+
+  private static long internKey(IpWildcard wildcard) {
+    return internKey(wildcard._ip.asLong(), wildcard._wildcardMask);
+  }
+
+  private static IpWildcard fromInternKey(long key) {
+    return new IpWildcard(Ip.create(key >>> Integer.SIZE), key & ALL_BITS_MASKED);
+  }
+
+  private static void checkValid(Ip address, long wildcardMask) {
+    checkArgument(address.valid(), "Invalid IP address %s", address);
+    checkArgument(
+        (wildcardMask & ALL_BITS_MASKED) == wildcardMask, "Invalid mask %s", wildcardMask);
   }
 
   /**
@@ -83,7 +100,7 @@ public final class IpWildcard implements Serializable, Comparable<IpWildcard> {
   public static IpWildcard create(Prefix prefix) {
     int wildcardBits = Prefix.MAX_PREFIX_LENGTH - prefix.getPrefixLength();
     long wildcardMask = (1L << wildcardBits) - 1L;
-    return new IpWildcard(prefix.getStartIp(), wildcardMask);
+    return ipWithWildcardMask(prefix.getStartIp(), wildcardMask);
   }
 
   public static IpWildcard create(Ip ip) {
@@ -213,9 +230,7 @@ public final class IpWildcard implements Serializable, Comparable<IpWildcard> {
   }
 
   private IpWildcard(Ip address, long wildcardMask) {
-    checkArgument(address.valid(), "Invalid IP address %s", address);
-    checkArgument(
-        (wildcardMask & ALL_BITS_MASKED) == wildcardMask, "Invalid mask %s", wildcardMask);
+    checkValid(address, wildcardMask);
 
     long inputIp = address.asLong();
     long canonicalIp = inputIp & (ALL_BITS_MASKED ^ wildcardMask);
@@ -0,0 +1,62 @@
+package org.batfish.datamodel;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Reverse index from next-hop IPs to the objects (e.g., routes) whose next hop is resolved through
+ * a RIB.
+ *
+ * <p>The longest prefix match for an IP can only change when routes for a prefix containing that IP
+ * are added or removed. So when the routes for a prefix change, the dependents returned by {@link
+ * #getDependents(Prefix)} are the only ones that need to be re-resolved.
+ *
+ * @param <T> type of the dependent objects
+ */
+@ParametersAreNonnullByDefault
+public final class NextHopIndex<T> {
+
+  @Nonnull private final NavigableMap<Ip, Set<T>> _dependents;
+
+  public NextHopIndex() {
+    _dependents = new TreeMap<>();
+  }
+
+  /**
+   * Records that {@code dependent} has to be re-resolved when the resolution of {@code ip} does.
+   */
+  public void add(Ip nextHopIp, T dependent) {
+    _dependents.computeIfAbsent(nextHopIp, ip -> new LinkedHashSet<>(1)).add(dependent);
+  }
+
+  /** Removes a dependency added by {@link #add(Ip, Object)}, if present. */
+  public void remove(Ip nextHopIp, T dependent) {
+    Set<T> dependents = _dependents.get(nextHopIp);
+    if (dependents != null && dependents.remove(dependent) && dependents.isEmpty()) {
+      _dependents.remove(nextHopIp);
+    }
+  }
+
+  /** Returns the dependents whose next-hop IP is contained in {@code prefix}. */
+  public @Nonnull Set<T> getDependents(Prefix prefix) {
+    Set<T> dependents = new LinkedHashSet<>();
+    addDependents(prefix, dependents);
+    return dependents;
+  }
+
+  /** Adds the dependents whose next-hop IP is contained in {@code prefix} to {@code collector}. */
+  public void addDependents(Prefix prefix, Collection<? super T> collector) {
+    for (Set<T> dependents : getRange(prefix).values()) {
+      collector.addAll(dependents);
+    }
+  }
+
+  private @Nonnull NavigableMap<Ip, Set<T>> getRange(Prefix prefix) {
+    return _dependents.subMap(prefix.getStartIp(), true, prefix.getEndIp(), true);
+  }
+}
@@ -4,24 +4,21 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import java.io.Serializable;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.util.intern.LongInterner;
 
 /** An IPv4 Prefix */
 @ParametersAreNonnullByDefault
 public final class Prefix implements Comparable<Prefix>, Serializable {
 
-  // Soft values: let it be garbage collected in times of pressure.
   // Maximum size 2^20: Just some upper bound on cache size, well less than GiB.
-  //   (12 bytes seems smallest possible entry (long + int), would be 12 MiB total).
-  private static final LoadingCache<Prefix, Prefix> CACHE =
-      CacheBuilder.newBuilder().softValues().maximumSize(1 << 20).build(CacheLoader.from(x -> x));
+  //   (24 bytes per instance and 4-8 bytes per slot, would be 32 MiB total).
+  private static final LongInterner<Prefix> INTERNER =
+      new LongInterner<>(20, Prefix::internKey, Prefix::fromInternKey);
 
   /** Maximum prefix length (number of bits) for a IPv4 address, which is 32 */
   public static final int MAX_PREFIX_LENGTH = 32;
@@ -110,8 +107,25 @@ public final class Prefix implements Comparable<Prefix>, Serializable {
   }
 
   public static Prefix create(Ip ip, int prefixLength) {
-    Prefix p = new Prefix(ip, prefixLength);
-    return CACHE.getUnchecked(p);
+    if (!ip.valid() || prefixLength < 0 || prefixLength > MAX_PREFIX_LENGTH) {
+      // Let the constructor reject invalid lengths; invalid IPs are rare placeholders.
+      return new Prefix(ip, prefixLength);
+    }
+    long startIp = ip.asLong() & Ip.numSubnetBitsToSubnetLong(prefixLength);
+    return INTERNER.intern(internKey(startIp, prefixLength));
+  }
+
+  /** Packs a valid start IP and a prefix length, which takes 6 bits, into one key. */
+  private static long internKey(long startIp, int prefixLength) {
+    return startIp << 6 | prefixLength;
+  }
+
+  private static long internKey(Prefix prefix) {
+    return internKey(prefix._ip.asLong(), prefix._prefixLength);
+  }
+
+  private static Prefix fromInternKey(long key) {
+    return new Prefix(Ip.create(key >>> 6), (int) (key & 0x3F));
   }
 
   public static Prefix create(Ip address, Ip mask) {
@@ -0,0 +1,59 @@
+package org.batfish.datamodel;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+import org.batfish.datamodel.acl.AclLineMatchExpr;
+
+/**
+ * Hash-conses the immutable structures of {@link Configuration configurations}, so that equal
+ * structures share a single instance: e.g. the ACLs and IP spaces that templates push to many
+ * devices, and the interface and VRF names that repeat across devices.
+ *
+ * <p>Interned structures are not modified once built, and any state they compute lazily depends
+ * only on the structure itself. {@link IpAccessList#equals} ignores where the ACL was defined, so
+ * ACLs are shared only when their source matches too. Mutable structures, structures that refer to
+ * their owner (such as {@link RoutingPolicy}), and structures that resolve names through a device's
+ * {@link org.batfish.datamodel.routing_policy.Environment} (such as {@link CommunityList}, which
+ * caches what it resolved) are never shared. This class is thread-safe.
+ */
+public final class StructureInterner {
+
+  private final ConcurrentMap<List<Object>, IpAccessList> _ipAccessLists;
+  private final Interner<Object> _values;
+
+  public StructureInterner() {
+    _ipAccessLists = new ConcurrentHashMap<>();
+    _values = Interners.newStrongInterner();
+  }
+
+  /**
+   * Returns the canonical instance equal to {@code object} if it is an interned structure, or else
+   * {@code object} itself.
+   */
+  public @Nonnull Object intern(Object object) {
+    if (object instanceof IpAccessList) {
+      // IpAccessList#equals ignores the source of the ACL, which sharing must preserve
+      IpAccessList acl = (IpAccessList) object;
+      return _ipAccessLists.computeIfAbsent(
+          Arrays.asList(acl.getName(), acl.getLines(), acl.getSourceName(), acl.getSourceType()),
+          k -> acl);
+    }
+    return isInternedValue(object) ? _values.intern(object) : object;
+  }
+
+  private static boolean isInternedValue(Object object) {
+    return object instanceof String
+        || object instanceof Ip
+        || object instanceof Prefix
+        || object instanceof IpSpace
+        || object instanceof AclLineMatchExpr
+        || object instanceof ExprAclLine
+        || object instanceof AclAclLine
+        || object instanceof RouteFilterLine;
+  }
+}
@@ -0,0 +1,187 @@
+package org.batfish.datamodel.answers;
+
+import com.google.common.collect.ImmutableSortedSet;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Base class for compact, immutable indexes of configuration structures keyed by file, structure
+ * type, structure name and possibly more strings, with a set of line numbers for each key.
+ *
+ * <p>Keys are dictionary-encoded: every distinct string is stored once, in sorted order, and each
+ * row stores the codes of its keys in one int array per key column. Rows are sorted by key, so they
+ * are in the same order as the nested sorted maps they replace, and the rows for a file are
+ * contiguous. The line numbers of all rows are packed into a single array.
+ */
+@ParametersAreNonnullByDefault
+public abstract class AbstractStructureIndex implements Serializable {
+
+  static final int FILE = 0;
+  static final int TYPE = 1;
+  static final int NAME = 2;
+
+  /** A row to encode: its keys, lines, and an optional value */
+  static final class RawRow {
+
+    private final @Nonnull String[] _keys;
+    private final @Nonnull Collection<Integer> _lines;
+    private final int _value;
+
+    RawRow(String[] keys, Collection<Integer> lines, int value) {
+      _keys = keys;
+      _lines = lines;
+      _value = value;
+    }
+  }
+
+  private static final Comparator<RawRow> ROW_ORDER =
+      (a, b) -> {
+        for (int i = 0; i < a._keys.length; i++) {
+          int cmp = a._keys[i].compareTo(b._keys[i]);
+          if (cmp != 0) {
+            return cmp;
+          }
+        }
+        return 0;
+      };
+
+  /** All distinct key strings, sorted */
+  private final @Nonnull String[] _dictionary;
+
+  /** {@code _keys[column][row]} is the code of key {@code column} of {@code row} */
+  private final @Nonnull int[][] _keys;
+
+  /** The lines of {@code row} are {@code _lines[_lineStarts[row]]} to {@code _lineStarts[row+1]} */
+  private final @Nonnull int[] _lineStarts;
+
+  private final @Nonnull int[] _lines;
+
+  /** Per-row values, if the subclass has them */
+  private final @Nullable int[] _values;
+
+  AbstractStructureIndex(int width, List<RawRow> rows, boolean hasValues) {
+    rows.sort(ROW_ORDER);
+    Set<String> strings = new TreeSet<>();
+    int numLines = 0;
+    for (RawRow row : rows) {
+      strings.addAll(Arrays.asList(row._keys));
+      numLines += row._lines.size();
+    }
+    _dictionary = strings.toArray(new String[0]);
+    _keys = new int[width][rows.size()];
+    _lineStarts = new int[rows.size() + 1];
+    _lines = new int[numLines];
+    _values = hasValues ? new int[rows.size()] : null;
+    int lineIndex = 0;
+    for (int r = 0; r < rows.size(); r++) {
+      RawRow row = rows.get(r);
+      for (int k = 0; k < width; k++) {
+        _keys[k][r] = Arrays.binarySearch(_dictionary, row._keys[k]);
+      }
+      _lineStarts[r] = lineIndex;
+      for (int line : ImmutableSortedSet.copyOf(row._lines)) {
+        _lines[lineIndex++] = line;
+      }
+      if (_values != null) {
+        _values[r] = row._value;
+      }
+    }
+    _lineStarts[rows.size()] = lineIndex;
+  }
+
+  /** Returns the number of rows in this index. */
+  public final int size() {
+    return _lineStarts.length - 1;
+  }
+
+  /** Returns the files with at least one row in this index. */
+  public final @Nonnull SortedSet<String> getFilenames() {
+    ImmutableSortedSet.Builder<String> filenames = ImmutableSortedSet.naturalOrder();
+    for (int row = 0; row < size(); row = endOfFile(row)) {
+      filenames.add(key(FILE, row));
+    }
+    return filenames.build();
+  }
+
+  /** Returns the end (exclusive) of the rows for the file of {@code row}. */
+  private int endOfFile(int row) {
+    int[] files = _keys[FILE];
+    int file = files[row];
+    // binary search for the first row with a greater file
+    int low = row + 1;
+    int high = size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (files[mid] <= file) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Calls {@code consumer} with each row, in key order, whose file, type and name satisfy the given
+   * predicates. Each predicate is evaluated at most once per distinct string, and the rows of
+   * excluded files are skipped without being visited.
+   */
+  final void forEachRow(
+      Predicate<String> files,
+      Predicate<String> types,
+      Predicate<String> names,
+      IntConsumer consumer) {
+    byte[] typeMatches = new byte[_dictionary.length];
+    byte[] nameMatches = new byte[_dictionary.length];
+    for (int row = 0; row < size(); ) {
+      int end = endOfFile(row);
+      if (files.test(key(FILE, row))) {
+        for (int r = row; r < end; r++) {
+          if (matches(types, _keys[TYPE][r], typeMatches)
+              && matches(names, _keys[NAME][r], nameMatches)) {
+            consumer.accept(r);
+          }
+        }
+      }
+      row = end;
+    }
+  }
+
+  private boolean matches(Predicate<String> predicate, int code, byte[] memo) {
+    if (memo[code] == 0) {
+      memo[code] = predicate.test(_dictionary[code]) ? (byte) 1 : (byte) 2;
+    }
+    return memo[code] == 1;
+  }
+
+  /** Returns key {@code column} of {@code row}. */
+  final @Nonnull String key(int column, int row) {
+    return _dictionary[_keys[column][row]];
+  }
+
+  /** Returns the lines of {@code row}. */
+  final @Nonnull SortedSet<Integer> lines(int row) {
+    ImmutableSortedSet.Builder<Integer> lines = ImmutableSortedSet.naturalOrder();
+    for (int i = _lineStarts[row]; i < _lineStarts[row + 1]; i++) {
+      lines.add(_lines[i]);
+    }
+    return lines.build();
+  }
+
+  /** Returns the value of {@code row}. Only valid if this index was created with values. */
+  final int value(int row) {
+    assert _values != null;
+    return _values[row];
+  }
+}
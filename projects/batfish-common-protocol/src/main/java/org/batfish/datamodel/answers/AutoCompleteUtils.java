@@ -3,11 +3,10 @@ package org.batfish.datamodel.answers;
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static org.batfish.common.util.CollectionUtil.toImmutableMap;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.CharMatcher;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Streams;
 import com.google.re2j.Pattern;
@@ -17,12 +16,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
@@ -33,6 +34,8 @@ import org.apache.commons.text.similarity.LevenshteinDistance;
 import org.batfish.common.CompletionMetadata;
 import org.batfish.common.autocomplete.IpCompletionMetadata;
 import org.batfish.common.autocomplete.IpCompletionRelevance;
+import org.batfish.common.autocomplete.NodeCompletionMetadata;
+import org.batfish.common.autocomplete.SubstringIndex;
 import org.batfish.datamodel.InterfaceType;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.Protocol;
@@ -53,6 +56,9 @@ public final class AutoCompleteUtils {
 
   private static final int MAX_SUGGESTIONS_PER_TYPE = 5;
 
+  /** Characters with a special meaning in regexes */
+  private static final CharMatcher REGEX_METACHARACTERS = CharMatcher.anyOf("\\^$.|?*+()[]{}");
+
   @Nonnull
   public static List<AutocompleteSuggestion> autoComplete(
       Variable.Type completionType, String query, int maxSuggestions) {
@@ -138,34 +144,83 @@ public final class AutoCompleteUtils {
     }
 
     return limitSuggestionsByType(
-        orderSuggestions(query, suggestions), maxSuggestions, MAX_SUGGESTIONS_PER_TYPE);
+        orderTopSuggestions(query, suggestions, maxSuggestions),
+        maxSuggestions,
+        MAX_SUGGESTIONS_PER_TYPE);
   }
 
   /** Basic ordering logic, by suggestion type and then by suggestion text */
   @VisibleForTesting
   static List<AutocompleteSuggestion> orderSuggestions(
       String query, List<AutocompleteSuggestion> suggestions) {
+    return orderTopSuggestions(query, suggestions, Integer.MAX_VALUE);
+  }
+
+  /** A suggestion with its sort keys for {@link #orderTopSuggestions} */
+  private static final class RankedSuggestion {
+    private final AutocompleteSuggestion _suggestion;
+    private final int _commonPrefixLength;
+    private final int _distance;
+    private final int _index;
+
+    private RankedSuggestion(
+        AutocompleteSuggestion suggestion, int commonPrefixLength, int distance, int index) {
+      _suggestion = suggestion;
+      _commonPrefixLength = commonPrefixLength;
+      _distance = distance;
+      _index = index;
+    }
+  }
+
+  private static final Comparator<RankedSuggestion> RANKED_SUGGESTION_ORDER =
+      // first order by suggestion type
+      Comparator.<RankedSuggestion, SuggestionType>comparing(r -> r._suggestion.getSuggestionType())
+          // then by (inverse of) common prefix length
+          .thenComparing(r -> -r._commonPrefixLength)
+          // then by edit distance
+          .thenComparingInt(r -> r._distance)
+          // then by original position
+          .thenComparingInt(r -> r._index);
+
+  /**
+   * Returns the first {@code maxPerType} suggestions of each type, in the order of {@link
+   * #orderSuggestions(String, List)}. The remaining suggestions are never sorted, and their sort
+   * keys are computed only once.
+   *
+   * <p>{@link #limitSuggestionsByType} with a limit of {@code maxPerType} suggestions only ever
+   * selects from these.
+   */
+  @VisibleForTesting
+  static List<AutocompleteSuggestion> orderTopSuggestions(
+      String query, List<AutocompleteSuggestion> suggestions, int maxPerType) {
     final LevenshteinDistance distance = new LevenshteinDistance();
-    return suggestions.stream()
-        .sorted(
-            // first order by suggestion type
-            Comparator.comparing(AutocompleteSuggestion::getSuggestionType)
-                // then by (inverse of) common prefix length
-                .thenComparing(
-                    s ->
-                        -1
-                            * StringUtils.getCommonPrefix(
-                                    query.toLowerCase(),
-                                    (query.substring(0, s.getInsertionIndex()) + s.getText()))
-                                .toLowerCase()
-                                .length())
-                // then by edit distance
-                .thenComparing(
-                    s ->
-                        distance.apply(
-                            query.toLowerCase(),
-                            (query.substring(0, s.getInsertionIndex()) + s.getText())
-                                .toLowerCase())))
+    String lowerQuery = query.toLowerCase();
+    Map<SuggestionType, PriorityQueue<RankedSuggestion>> topByType =
+        new EnumMap<>(SuggestionType.class);
+    for (int i = 0; i < suggestions.size(); i++) {
+      AutocompleteSuggestion s = suggestions.get(i);
+      String completedQuery = query.substring(0, s.getInsertionIndex()) + s.getText();
+      RankedSuggestion ranked =
+          new RankedSuggestion(
+              s,
+              StringUtils.getCommonPrefix(lowerQuery, completedQuery).toLowerCase().length(),
+              distance.apply(lowerQuery, completedQuery.toLowerCase()),
+              i);
+      // the worst of the top suggestions of the type is at the head of its queue
+      PriorityQueue<RankedSuggestion> top =
+          topByType.computeIfAbsent(
+              s.getSuggestionType(), t -> new PriorityQueue<>(RANKED_SUGGESTION_ORDER.reversed()));
+      if (top.size() < maxPerType) {
+        top.add(ranked);
+      } else if (maxPerType > 0 && RANKED_SUGGESTION_ORDER.compare(ranked, top.peek()) < 0) {
+        top.poll();
+        top.add(ranked);
+      }
+    }
+    return topByType.values().stream()
+        .flatMap(Collection::stream)
+        .sorted(RANKED_SUGGESTION_ORDER)
+        .map(r -> r._suggestion)
         .collect(ImmutableList.toImmutableList());
   }
 
@@ -347,13 +402,17 @@ public final class AutoCompleteUtils {
         case FILTER_NAME:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
-            suggestions = stringAutoComplete(query, completionMetadata.getFilterNames());
+            suggestions = stringAutoComplete(query, indexes(completionMetadata).getFilterNames());
             break;
           }
         case FILTER:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
-            suggestions = baseAutoComplete(query, completionMetadata.getFilterNames());
+            suggestions =
+                baseAutoComplete(
+                    query,
+                    indexes(completionMetadata).getFilterNames(),
+                    completionMetadata::getFilterNames);
             break;
           }
         case FILTER_SPEC:
@@ -376,9 +435,11 @@ public final class AutoCompleteUtils {
             suggestions =
                 baseAutoComplete(
                     query,
-                    completionMetadata.getInterfaces().stream()
-                        .map(NodeInterfacePair::toString)
-                        .collect(ImmutableSet.toImmutableSet()));
+                    indexes(completionMetadata).getInterfaces(),
+                    () ->
+                        completionMetadata.getInterfaces().stream()
+                            .map(NodeInterfacePair::toString)
+                            .collect(ImmutableSet.toImmutableSet()));
             break;
           }
         case INTERFACE_GROUP_AND_BOOK:
@@ -399,11 +460,7 @@ public final class AutoCompleteUtils {
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
             suggestions =
-                stringAutoComplete(
-                    query,
-                    completionMetadata.getInterfaces().stream()
-                        .map(NodeInterfacePair::getInterface)
-                        .collect(Collectors.toSet()));
+                stringAutoComplete(query, indexes(completionMetadata).getInterfaceNames());
             break;
           }
         case INTERFACE_TYPE:
@@ -447,7 +504,9 @@ public final class AutoCompleteUtils {
         case IP:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
-            suggestions = ipStringAutoComplete(query, completionMetadata.getIps());
+            suggestions =
+                ipStringAutoComplete(
+                    query, completionMetadata.getIps(), indexes(completionMetadata));
             break;
           }
         case IP_PROTOCOL_SPEC:
@@ -527,7 +586,7 @@ public final class AutoCompleteUtils {
         case MLAG_ID:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
-            suggestions = stringAutoComplete(query, completionMetadata.getMlagIds());
+            suggestions = stringAutoComplete(query, indexes(completionMetadata).getMlagIds());
             break;
           }
         case MLAG_ID_SPEC:
@@ -561,12 +620,13 @@ public final class AutoCompleteUtils {
         case NODE_NAME:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
-            Map<String, Optional<String>> nodesWithDescriptions =
-                toImmutableMap(
-                    completionMetadata.getNodes(),
-                    Entry::getKey,
-                    entry -> Optional.ofNullable(entry.getValue().getHumanName()));
-            suggestions = stringAutoComplete(query, nodesWithDescriptions);
+            Map<String, NodeCompletionMetadata> nodes = completionMetadata.getNodes();
+            suggestions =
+                indexes(completionMetadata).getNodes().search(firstNonNull(query, "")).stream()
+                    .map(
+                        node ->
+                            new AutocompleteSuggestion(node, false, nodes.get(node).getHumanName()))
+                    .collect(ImmutableList.toImmutableList());
             break;
           }
         case NODE_PROPERTY_SPEC:
@@ -666,7 +726,7 @@ public final class AutoCompleteUtils {
         case PREFIX:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
-            suggestions = stringAutoComplete(query, completionMetadata.getPrefixes());
+            suggestions = stringAutoComplete(query, indexes(completionMetadata).getPrefixes());
             break;
           }
         case PROTOCOL:
@@ -691,7 +751,8 @@ public final class AutoCompleteUtils {
         case ROUTING_POLICY_NAME:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
-            suggestions = stringAutoComplete(query, completionMetadata.getRoutingPolicyNames());
+            suggestions =
+                stringAutoComplete(query, indexes(completionMetadata).getRoutingPolicyNames());
             break;
           }
         case ROUTING_POLICY_SPEC:
@@ -744,19 +805,27 @@ public final class AutoCompleteUtils {
         case STRUCTURE_NAME:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
-            suggestions = baseAutoComplete(query, completionMetadata.getStructureNames());
+            suggestions =
+                baseAutoComplete(
+                    query,
+                    indexes(completionMetadata).getStructureNames(),
+                    completionMetadata::getStructureNames);
             break;
           }
         case VRF:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
-            suggestions = baseAutoComplete(query, completionMetadata.getVrfs());
+            suggestions =
+                baseAutoComplete(
+                    query, indexes(completionMetadata).getVrfs(), completionMetadata::getVrfs);
             break;
           }
         case ZONE:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
-            suggestions = baseAutoComplete(query, completionMetadata.getZones());
+            suggestions =
+                baseAutoComplete(
+                    query, indexes(completionMetadata).getZones(), completionMetadata::getZones);
             break;
           }
         default:
@@ -776,18 +845,18 @@ public final class AutoCompleteUtils {
     checkNotNull(
         completionMetadata.getSourceLocations(),
         "cannot autocomplete source locations without LocationInfo");
-    Map<String, Optional<String>> locationsAndHumanNames =
-        completionMetadata.getSourceLocations().stream()
-            .collect(
-                ImmutableMap.toImmutableMap(
-                    ToSpecifierString::toSpecifierString,
-                    location ->
-                        Optional.ofNullable(
-                            completionMetadata
-                                .getNodes()
-                                .get(location.getNodeName())
-                                .getHumanName())));
-    suggestions = stringAutoComplete(query, locationsAndHumanNames);
+    Map<String, NodeCompletionMetadata> nodes = completionMetadata.getNodes();
+    suggestions =
+        indexes(completionMetadata).getSourceLocations().search(firstNonNull(query, "")).stream()
+            .map(
+                location -> {
+                  NodeCompletionMetadata node = nodes.get(location.getNodeName());
+                  return new AutocompleteSuggestion(
+                      ToSpecifierString.toSpecifierString(location),
+                      false,
+                      node == null ? null : node.getHumanName());
+                })
+            .collect(ImmutableList.toImmutableList());
     return suggestions;
   }
 
@@ -820,6 +889,20 @@ public final class AutoCompleteUtils {
     return suggestions.build();
   }
 
+  /**
+   * Like {@link #baseAutoComplete(String, Set)}, but uses {@code index} of the properties when the
+   * query has no special meaning as a regex, in which case it is a plain substring match.
+   */
+  @Nonnull
+  private static List<AutocompleteSuggestion> baseAutoComplete(
+      @Nullable String query, SubstringIndex<String> index, Supplier<Set<String>> allProperties) {
+    String finalQuery = firstNonNull(query, "");
+    if (!REGEX_METACHARACTERS.matchesAnyOf(finalQuery)) {
+      return stringAutoComplete(finalQuery, index);
+    }
+    return baseAutoComplete(finalQuery, allProperties.get());
+  }
+
   /**
    * Returns a list of suggestions based on query strings.
    *
@@ -837,6 +920,18 @@ public final class AutoCompleteUtils {
         .collect(ImmutableList.toImmutableList());
   }
 
+  /**
+   * Returns a list of suggestions for the strings in {@code index} that contain {@code query},
+   * ignoring case.
+   */
+  @Nonnull
+  private static List<AutocompleteSuggestion> stringAutoComplete(
+      @Nullable String query, SubstringIndex<String> index) {
+    return index.search(firstNonNull(query, "")).stream()
+        .map(s -> new AutocompleteSuggestion(s, false))
+        .collect(ImmutableList.toImmutableList());
+  }
+
   /**
    * Returns a list of suggestions based on query strings.
    *
@@ -918,6 +1013,73 @@ public final class AutoCompleteUtils {
         .build();
   }
 
+  /**
+   * Like {@link #ipStringAutoComplete(String, Map)}, but only examines the IPs that {@code indexes}
+   * of the metadata the {@code ips} are from find for each word of the query.
+   */
+  @Nonnull
+  private static ImmutableList<AutocompleteSuggestion> ipStringAutoComplete(
+      @Nullable String query,
+      Map<Ip, IpCompletionMetadata> ips,
+      CompletionMetadataIndexes indexes) {
+
+    String testQuery = query == null ? "" : query.toLowerCase();
+
+    // when the query has multiple words, each of those words should match
+    String[] subQueries = testQuery.split("\\s+");
+
+    // find matching IPs
+    List<Ip> ipMatches = searchAll(indexes.getIps(), subQueries);
+    Set<Ip> ipMatchSet = ImmutableSet.copyOf(ipMatches);
+
+    ImmutableList.Builder<AutocompleteSuggestion> suggestions = ImmutableList.builder();
+    for (Ip ip : ipMatches) {
+      suggestions.add(
+          AutocompleteSuggestion.builder()
+              .setText(ip.toString())
+              .setDescription(toDescription(ips.get(ip)))
+              .setSuggestionType(SuggestionType.ADDRESS_LITERAL)
+              .build());
+    }
+
+    // find relevance matches among the IPs for which each word is in the IP or some tag
+    for (Ip ip : searchAll(indexes.getIpRelevances(), subQueries)) {
+      if (ipMatchSet.contains(ip)) {
+        continue;
+      }
+      List<IpCompletionRelevance> relevances =
+          ips.get(ip).getRelevances().stream()
+              .filter(r -> r.matches(subQueries, ip))
+              .collect(ImmutableList.toImmutableList());
+      if (!relevances.isEmpty()) {
+        suggestions.add(
+            AutocompleteSuggestion.builder()
+                .setText(ip.toString())
+                .setDescription(toDescription(relevances))
+                .setSuggestionType(SuggestionType.ADDRESS_LITERAL)
+                .build());
+      }
+    }
+    return suggestions.build();
+  }
+
+  /** Returns the values in {@code index} that match every one of {@code queries}, in order. */
+  @Nonnull
+  private static <T> List<T> searchAll(SubstringIndex<T> index, String[] queries) {
+    List<T> matches = index.search(queries.length == 0 ? "" : queries[0]);
+    for (int i = 1; i < queries.length && !matches.isEmpty(); i++) {
+      Set<T> queryMatches = ImmutableSet.copyOf(index.search(queries[i]));
+      matches =
+          matches.stream().filter(queryMatches::contains).collect(ImmutableList.toImmutableList());
+    }
+    return matches;
+  }
+
+  @Nonnull
+  private static CompletionMetadataIndexes indexes(CompletionMetadata completionMetadata) {
+    return CompletionMetadataIndexes.of(completionMetadata);
+  }
+
   @Nullable
   @VisibleForTesting
   static String toDescription(IpCompletionMetadata ipCompletionMetadata) {
@@ -0,0 +1,223 @@
+package org.batfish.datamodel.answers;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.CompletionMetadata;
+import org.batfish.common.autocomplete.IpCompletionMetadata;
+import org.batfish.common.autocomplete.IpCompletionRelevance;
+import org.batfish.common.autocomplete.NodeCompletionMetadata;
+import org.batfish.common.autocomplete.SubstringIndex;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.collections.NodeInterfacePair;
+import org.batfish.specifier.Location;
+import org.batfish.specifier.ToSpecifierString;
+
+/**
+ * {@link SubstringIndex Substring indexes} of the properties of a {@link CompletionMetadata} for
+ * {@link AutoCompleteUtils}. Each index is built the first time it is needed, and is kept for as
+ * long as the metadata object is reachable.
+ */
+@ParametersAreNonnullByDefault
+final class CompletionMetadataIndexes {
+
+  /** Indexes by identity of their metadata */
+  private static final LoadingCache<CompletionMetadata, CompletionMetadataIndexes> INDEXES =
+      CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(CompletionMetadataIndexes::new));
+
+  /** Returns the indexes of {@code completionMetadata}. */
+  static @Nonnull CompletionMetadataIndexes of(CompletionMetadata completionMetadata) {
+    return INDEXES.getUnchecked(completionMetadata);
+  }
+
+  private final Supplier<SubstringIndex<String>> _filterNames;
+  private final Supplier<SubstringIndex<String>> _interfaces;
+  private final Supplier<SubstringIndex<String>> _interfaceNames;
+  private final Supplier<SubstringIndex<Ip>> _ips;
+  private final Supplier<SubstringIndex<Ip>> _ipRelevances;
+  private final Supplier<SubstringIndex<String>> _mlagIds;
+  private final Supplier<SubstringIndex<String>> _nodes;
+  private final Supplier<SubstringIndex<String>> _prefixes;
+  private final Supplier<SubstringIndex<String>> _routingPolicyNames;
+  private final Supplier<SubstringIndex<Location>> _sourceLocations;
+  private final Supplier<SubstringIndex<String>> _structureNames;
+  private final Supplier<SubstringIndex<String>> _vrfs;
+  private final Supplier<SubstringIndex<String>> _zones;
+
+  private CompletionMetadataIndexes(CompletionMetadata metadata) {
+    // the suppliers must not capture the metadata itself, which is the weak key of this object
+    Set<NodeInterfacePair> interfaces = metadata.getInterfaces();
+    Map<Ip, IpCompletionMetadata> ips = metadata.getIps();
+    Map<String, NodeCompletionMetadata> nodes = metadata.getNodes();
+    Set<Location> sourceLocations = metadata.getSourceLocations();
+    _filterNames = memoizedIndex(metadata.getFilterNames());
+    _interfaces =
+        Suppliers.memoize(
+            () -> {
+              SubstringIndex.Builder<String> index = SubstringIndex.builder();
+              interfaces.stream()
+                  .map(NodeInterfacePair::toString)
+                  .distinct()
+                  .forEach(iface -> index.add(iface, iface));
+              return index.build();
+            });
+    _interfaceNames =
+        Suppliers.memoize(
+            () -> {
+              SubstringIndex.Builder<String> index = SubstringIndex.builder();
+              interfaces.stream()
+                  .map(NodeInterfacePair::getInterface)
+                  .distinct()
+                  .forEach(name -> index.add(name, name));
+              return index.build();
+            });
+    _ips =
+        Suppliers.memoize(
+            () -> {
+              SubstringIndex.Builder<Ip> index = SubstringIndex.builder();
+              ips.keySet().forEach(ip -> index.add(ip, ip.toString()));
+              return index.build();
+            });
+    _ipRelevances = Suppliers.memoize(() -> indexIpRelevances(ips));
+    _mlagIds = memoizedIndex(metadata.getMlagIds());
+    _nodes =
+        Suppliers.memoize(
+            () -> {
+              SubstringIndex.Builder<String> index = SubstringIndex.builder();
+              nodes.forEach((name, node) -> index.add(name, withHumanName(name, node)));
+              return index.build();
+            });
+    _prefixes = memoizedIndex(metadata.getPrefixes());
+    _routingPolicyNames = memoizedIndex(metadata.getRoutingPolicyNames());
+    _sourceLocations =
+        Suppliers.memoize(
+            () -> {
+              SubstringIndex.Builder<Location> index = SubstringIndex.builder();
+              sourceLocations.forEach(
+                  location ->
+                      index.add(
+                          location,
+                          withHumanName(
+                              ToSpecifierString.toSpecifierString(location),
+                              nodes.get(location.getNodeName()))));
+              return index.build();
+            });
+    _structureNames = memoizedIndex(metadata.getStructureNames());
+    _vrfs = memoizedIndex(metadata.getVrfs());
+    _zones = memoizedIndex(metadata.getZones());
+  }
+
+  private static @Nonnull Supplier<SubstringIndex<String>> memoizedIndex(
+      Collection<String> strings) {
+    return Suppliers.memoize(
+        () -> {
+          SubstringIndex.Builder<String> index = SubstringIndex.builder();
+          strings.forEach(s -> index.add(s, s));
+          return index.build();
+        });
+  }
+
+  /** Indexes each IP by its string and all the tags of its relevances. */
+  private static @Nonnull SubstringIndex<Ip> indexIpRelevances(Map<Ip, IpCompletionMetadata> ips) {
+    SubstringIndex.Builder<Ip> index = SubstringIndex.builder();
+    ips.forEach(
+        (ip, metadata) -> {
+          ImmutableList.Builder<String> texts = ImmutableList.builder();
+          texts.add(ip.toString());
+          for (IpCompletionRelevance relevance : metadata.getRelevances()) {
+            texts.addAll(relevance.getMatchTags());
+          }
+          index.add(ip, texts.build());
+        });
+    return index.build();
+  }
+
+  private static @Nonnull Collection<String> withHumanName(
+      String name, @Nullable NodeCompletionMetadata node) {
+    return node == null || node.getHumanName() == null
+        ? ImmutableList.of(name)
+        : ImmutableList.of(name, node.getHumanName());
+  }
+
+  @Nonnull
+  SubstringIndex<String> getFilterNames() {
+    return _filterNames.get();
+  }
+
+  /** Index of the interfaces, by their {@link NodeInterfacePair#toString() string} */
+  @Nonnull
+  SubstringIndex<String> getInterfaces() {
+    return _interfaces.get();
+  }
+
+  /** Index of the distinct names of the interfaces */
+  @Nonnull
+  SubstringIndex<String> getInterfaceNames() {
+    return _interfaceNames.get();
+  }
+
+  @Nonnull
+  SubstringIndex<Ip> getIps() {
+    return _ips.get();
+  }
+
+  /** Index of the IPs by their string and the tags of their relevances */
+  @Nonnull
+  SubstringIndex<Ip> getIpRelevances() {
+    return _ipRelevances.get();
+  }
+
+  @Nonnull
+  SubstringIndex<String> getMlagIds() {
+    return _mlagIds.get();
+  }
+
+  /** Index of the node names, by their name and human name */
+  @Nonnull
+  SubstringIndex<String> getNodes() {
+    return _nodes.get();
+  }
+
+  @Nonnull
+  SubstringIndex<String> getPrefixes() {
+    return _prefixes.get();
+  }
+
+  @Nonnull
+  SubstringIndex<String> getRoutingPolicyNames() {
+    return _routingPolicyNames.get();
+  }
+
+  /**
+   * Index of the source locations, by their {@link ToSpecifierString#toSpecifierString(Location)
+   * specifier string} and the human name of their node
+   */
+  @Nonnull
+  SubstringIndex<Location> getSourceLocations() {
+    return _sourceLocations.get();
+  }
+
+  @Nonnull
+  SubstringIndex<String> getStructureNames() {
+    return _structureNames.get();
+  }
+
+  @Nonnull
+  SubstringIndex<String> getVrfs() {
+    return _vrfs.get();
+  }
+
+  @Nonnull
+  SubstringIndex<String> getZones() {
+    return _zones.get();
+  }
+}
@@ -9,6 +9,8 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.TreeMultimap;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Set;
 import java.util.SortedMap;
@@ -25,6 +27,11 @@ import org.batfish.version.BatfishVersion;
 /**
  * Stores information extracted while converting vendor-specific configurations to
  * vendor-independent ones.
+ *
+ * <p>Structure definitions and references are Java-serialized as compact {@link
+ * AbstractStructureIndex indexes} rather than nested maps. After deserialization, the nested maps
+ * are only materialized if their getters are called; questions should use the index getters
+ * instead.
  */
 public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
     implements Serializable {
@@ -43,20 +50,25 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
   // This will only be null in legacy objects, which used _failed set instead
   @Nullable private SortedMap<String, ConvertStatus> _convertStatus;
 
-  // filename -> structType -> structName -> info
-  @Nonnull
-  private SortedMap<String, SortedMap<String, SortedMap<String, DefinedStructureInfo>>>
+  // filename -> structType -> structName -> info. Null iff _definedStructureIndex is not.
+  @Nullable
+  private transient SortedMap<String, SortedMap<String, SortedMap<String, DefinedStructureInfo>>>
       _definedStructures;
 
+  @Nullable private DefinedStructureIndex _definedStructureIndex;
+
   /* Map of source filename to generated nodes (e.g. "configs/j1.cfg" -> ["j1_master", "j1_logical_system1"]) */
   @Nonnull private Multimap<String, String> _fileMap;
 
-  // filename -> structType -> structName -> usage -> lines
-  @Nonnull
-  private SortedMap<
+  // filename -> structType -> structName -> usage -> lines. Null iff _referencedStructureIndex is
+  // not.
+  @Nullable
+  private transient SortedMap<
           String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
       _referencedStructures;
 
+  @Nullable private StructureReferenceIndex _referencedStructureIndex;
+
   @Nonnull private SortedMap<String, BatfishException.BatfishStackTrace> _errors;
 
   @Nonnull private SortedMap<String, ErrorDetails> _errorDetails;
@@ -64,12 +76,15 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
   // This is just to support legacy objects, before _convertStatus map was used
   @Nullable private Set<String> _failed;
 
-  // filename -> structType -> structName -> usage -> lines
-  @Nonnull
-  private SortedMap<
+  // filename -> structType -> structName -> usage -> lines. Null iff _undefinedReferenceIndex is
+  // not.
+  @Nullable
+  private transient SortedMap<
           String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
       _undefinedReferences;
 
+  @Nullable private StructureReferenceIndex _undefinedReferenceIndex;
+
   @Nonnull private String _version;
 
   @Nonnull private SortedMap<String, Warnings> _warnings;
@@ -116,9 +131,26 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
   @Nonnull
   public SortedMap<String, SortedMap<String, SortedMap<String, DefinedStructureInfo>>>
       getDefinedStructures() {
+    if (_definedStructures == null) {
+      assert _definedStructureIndex != null;
+      // the returned map may be modified, so it replaces the index
+      _definedStructures = _definedStructureIndex.toMap();
+      _definedStructureIndex = null;
+    }
     return _definedStructures;
   }
 
+  /** Returns an index of {@link #getDefinedStructures()}, without materializing it if possible. */
+  @JsonIgnore
+  @Nonnull
+  public DefinedStructureIndex getDefinedStructureIndex() {
+    if (_definedStructureIndex != null) {
+      return _definedStructureIndex;
+    }
+    assert _definedStructures != null;
+    return DefinedStructureIndex.of(_definedStructures);
+  }
+
   @JsonIgnore
   public SortedMap<String, ConvertStatus> getConvertStatus() {
     return _convertStatus;
@@ -163,17 +195,53 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
   public SortedMap<
           String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
       getReferencedStructures() {
+    if (_referencedStructures == null) {
+      assert _referencedStructureIndex != null;
+      _referencedStructures = _referencedStructureIndex.toMap();
+      _referencedStructureIndex = null;
+    }
     return _referencedStructures;
   }
 
+  /**
+   * Returns an index of {@link #getReferencedStructures()}, without materializing it if possible.
+   */
+  @JsonIgnore
+  @Nonnull
+  public StructureReferenceIndex getReferencedStructureIndex() {
+    if (_referencedStructureIndex != null) {
+      return _referencedStructureIndex;
+    }
+    assert _referencedStructures != null;
+    return StructureReferenceIndex.of(_referencedStructures);
+  }
+
   @JsonProperty(PROP_UNDEFINED_REFERENCES)
   @Nonnull
   public SortedMap<
           String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
       getUndefinedReferences() {
+    if (_undefinedReferences == null) {
+      assert _undefinedReferenceIndex != null;
+      _undefinedReferences = _undefinedReferenceIndex.toMap();
+      _undefinedReferenceIndex = null;
+    }
     return _undefinedReferences;
   }
 
+  /**
+   * Returns an index of {@link #getUndefinedReferences()}, without materializing it if possible.
+   */
+  @JsonIgnore
+  @Nonnull
+  public StructureReferenceIndex getUndefinedReferenceIndex() {
+    if (_undefinedReferenceIndex != null) {
+      return _undefinedReferenceIndex;
+    }
+    assert _undefinedReferences != null;
+    return StructureReferenceIndex.of(_undefinedReferences);
+  }
+
   @JsonProperty(PROP_VERSION)
   @Nonnull
   public String getVersion() {
@@ -198,6 +266,7 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
           SortedMap<String, SortedMap<String, SortedMap<String, DefinedStructureInfo>>>
               definedStructures) {
     _definedStructures = definedStructures;
+    _definedStructureIndex = null;
   }
 
   @Override
@@ -218,6 +287,7 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
                   SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
               undefinedReferences) {
     _undefinedReferences = undefinedReferences;
+    _undefinedReferenceIndex = null;
   }
 
   public void setVersion(String version) {
@@ -228,4 +298,22 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
   public void setWarnings(SortedMap<String, Warnings> warnings) {
     _warnings = warnings;
   }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    // Write indexes instead of the transient maps, without replacing the maps: callers may still
+    // hold and modify them.
+    DefinedStructureIndex definedStructureIndex = _definedStructureIndex;
+    StructureReferenceIndex referencedStructureIndex = _referencedStructureIndex;
+    StructureReferenceIndex undefinedReferenceIndex = _undefinedReferenceIndex;
+    try {
+      _definedStructureIndex = getDefinedStructureIndex();
+      _referencedStructureIndex = getReferencedStructureIndex();
+      _undefinedReferenceIndex = getUndefinedReferenceIndex();
+      out.defaultWriteObject();
+    } finally {
+      _definedStructureIndex = definedStructureIndex;
+      _referencedStructureIndex = referencedStructureIndex;
+      _undefinedReferenceIndex = undefinedReferenceIndex;
+    }
+  }
 }
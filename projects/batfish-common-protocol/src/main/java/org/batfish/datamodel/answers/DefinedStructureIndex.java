@@ -0,0 +1,93 @@
+package org.batfish.datamodel.answers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.DefinedStructureInfo;
+
+/**
+ * Compact, immutable index of defined configuration structures, with the definition lines and
+ * number of referrers of each structure keyed by file, structure type and structure name.
+ *
+ * <p>Stands in for a map of filename -&gt; structure type -&gt; structure name -&gt; {@link
+ * DefinedStructureInfo}, at a fraction of its size.
+ */
+@ParametersAreNonnullByDefault
+public final class DefinedStructureIndex extends AbstractStructureIndex {
+
+  /** Receives the structures visited by {@link #forEach}. */
+  @FunctionalInterface
+  public interface DefinitionConsumer {
+    void accept(String filename, String structureType, String name, DefinedStructureInfo info);
+  }
+
+  /**
+   * Returns an index of {@code definitions}: filename -&gt; structure type -&gt; structure name
+   * -&gt; info.
+   */
+  public static @Nonnull DefinedStructureIndex of(
+      SortedMap<String, SortedMap<String, SortedMap<String, DefinedStructureInfo>>> definitions) {
+    List<RawRow> rows = new ArrayList<>();
+    definitions.forEach(
+        (filename, byType) ->
+            byType.forEach(
+                (type, byName) ->
+                    byName.forEach(
+                        (name, info) ->
+                            rows.add(
+                                new RawRow(
+                                    new String[] {filename, type, name},
+                                    info.getDefinitionLines(),
+                                    info.getNumReferrers())))));
+    return new DefinedStructureIndex(rows);
+  }
+
+  private DefinedStructureIndex(List<RawRow> rows) {
+    super(3, rows, true);
+  }
+
+  /**
+   * Calls {@code consumer} with each structure, in key order, whose file, type and name satisfy the
+   * given predicates. Each call gets a new {@link DefinedStructureInfo}.
+   */
+  public void forEach(
+      Predicate<String> files,
+      Predicate<String> types,
+      Predicate<String> names,
+      DefinitionConsumer consumer) {
+    forEachRow(
+        files,
+        types,
+        names,
+        row ->
+            consumer.accept(
+                key(FILE, row),
+                key(TYPE, row),
+                key(NAME, row),
+                new DefinedStructureInfo(new TreeSet<>(lines(row)), value(row))));
+  }
+
+  /**
+   * Returns a new mutable map of filename -&gt; structure type -&gt; structure name -&gt; info with
+   * the contents of this index.
+   */
+  public @Nonnull SortedMap<String, SortedMap<String, SortedMap<String, DefinedStructureInfo>>>
+      toMap() {
+    SortedMap<String, SortedMap<String, SortedMap<String, DefinedStructureInfo>>> map =
+        new TreeMap<>();
+    forEach(
+        f -> true,
+        t -> true,
+        n -> true,
+        (filename, type, name, info) ->
+            map.computeIfAbsent(filename, k -> new TreeMap<>())
+                .computeIfAbsent(type, k -> new TreeMap<>())
+                .put(name, info));
+    return map;
+  }
+}
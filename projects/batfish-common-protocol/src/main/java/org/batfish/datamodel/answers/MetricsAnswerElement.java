@@ -0,0 +1,36 @@
+package org.batfish.datamodel.answers;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.batfish.common.metrics.MetricRegistry;
+import org.batfish.common.metrics.MetricsSnapshot;
+
+/**
+ * The {@link MetricRegistry metrics} counted and recorded while answering a question, attached to
+ * the answer for debugging.
+ */
+public final class MetricsAnswerElement extends AnswerElement {
+  private static final String PROP_METRICS = "metrics";
+
+  private final @Nonnull MetricsSnapshot _metrics;
+
+  public MetricsAnswerElement(MetricsSnapshot metrics) {
+    _metrics = metrics;
+  }
+
+  @JsonCreator
+  private static @Nonnull MetricsAnswerElement create(
+      @Nullable @JsonProperty(PROP_METRICS) MetricsSnapshot metrics) {
+    checkArgument(metrics != null, "'%s' cannot be null", PROP_METRICS);
+    return new MetricsAnswerElement(metrics);
+  }
+
+  @JsonProperty(PROP_METRICS)
+  public @Nonnull MetricsSnapshot getMetrics() {
+    return _metrics;
+  }
+}
@@ -0,0 +1,98 @@
+package org.batfish.datamodel.answers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Compact, immutable index of references to configuration structures, with the lines of each
+ * reference keyed by file, structure type, structure name and usage.
+ *
+ * <p>Stands in for a map of filename -&gt; structure type -&gt; structure name -&gt; usage -&gt;
+ * lines, at a fraction of its size.
+ */
+@ParametersAreNonnullByDefault
+public final class StructureReferenceIndex extends AbstractStructureIndex {
+
+  private static final int USAGE = 3;
+
+  /** Receives the references visited by {@link #forEach}. */
+  @FunctionalInterface
+  public interface ReferenceConsumer {
+    void accept(
+        String filename, String structureType, String name, String usage, SortedSet<Integer> lines);
+  }
+
+  /**
+   * Returns an index of {@code references}: filename -&gt; structure type -&gt; structure name
+   * -&gt; usage -&gt; lines.
+   */
+  public static @Nonnull StructureReferenceIndex of(
+      SortedMap<String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
+          references) {
+    List<RawRow> rows = new ArrayList<>();
+    references.forEach(
+        (filename, byType) ->
+            byType.forEach(
+                (type, byName) ->
+                    byName.forEach(
+                        (name, byUsage) ->
+                            byUsage.forEach(
+                                (usage, lines) ->
+                                    rows.add(
+                                        new RawRow(
+                                            new String[] {filename, type, name, usage},
+                                            lines,
+                                            0))))));
+    return new StructureReferenceIndex(rows);
+  }
+
+  private StructureReferenceIndex(List<RawRow> rows) {
+    super(4, rows, false);
+  }
+
+  /**
+   * Calls {@code consumer} with each reference, in key order, whose file, structure type and
+   * structure name satisfy the given predicates.
+   */
+  public void forEach(
+      Predicate<String> files,
+      Predicate<String> types,
+      Predicate<String> names,
+      ReferenceConsumer consumer) {
+    forEachRow(
+        files,
+        types,
+        names,
+        row ->
+            consumer.accept(
+                key(FILE, row), key(TYPE, row), key(NAME, row), key(USAGE, row), lines(row)));
+  }
+
+  /**
+   * Returns a new mutable map of filename -&gt; structure type -&gt; structure name -&gt; usage
+   * -&gt; lines with the contents of this index.
+   */
+  public @Nonnull SortedMap<
+          String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
+      toMap() {
+    SortedMap<String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
+        map = new TreeMap<>();
+    forEach(
+        f -> true,
+        t -> true,
+        n -> true,
+        (filename, type, name, usage, lines) ->
+            map.computeIfAbsent(filename, k -> new TreeMap<>())
+                .computeIfAbsent(type, k -> new TreeMap<>())
+                .computeIfAbsent(name, k -> new TreeMap<>())
+                .put(usage, new TreeSet<>(lines)));
+    return map;
+  }
+}
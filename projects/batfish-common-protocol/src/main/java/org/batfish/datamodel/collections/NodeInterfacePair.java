@@ -4,23 +4,19 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import java.io.Serializable;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.util.intern.ObjectInterner;
 import org.batfish.datamodel.Interface;
 
 /** Combination of node name and interface name */
 @ParametersAreNonnullByDefault
 public final class NodeInterfacePair implements Serializable, Comparable<NodeInterfacePair> {
-  // Soft values: let it be garbage collected in times of pressure.
   // Maximum size 2^18: Just some upper bound on cache size, well less than GiB.
   //   (~40 bytes reasonable entry size: 12+12+pointers, would be 10 MiB total).
-  private static final LoadingCache<NodeInterfacePair, NodeInterfacePair> CACHE =
-      CacheBuilder.newBuilder().softValues().maximumSize(1 << 18).build(CacheLoader.from(x -> x));
+  private static final ObjectInterner<NodeInterfacePair> INTERNER = new ObjectInterner<>(18);
 
   private static final String PROP_HOSTNAME = "hostname";
   private static final String PROP_INTERFACE = "interface";
@@ -38,7 +34,7 @@ public final class NodeInterfacePair implements Serializable, Comparable<NodeInt
   }
 
   public static NodeInterfacePair of(String hostname, String interfaceName) {
-    return CACHE.getUnchecked(new NodeInterfacePair(hostname, interfaceName));
+    return INTERNER.intern(new NodeInterfacePair(hostname, interfaceName));
   }
 
   public static NodeInterfacePair of(Interface iface) {
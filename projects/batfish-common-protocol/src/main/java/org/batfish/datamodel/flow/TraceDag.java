@@ -0,0 +1,464 @@
+package org.batfish.datamodel.flow;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.FlowDisposition;
+
+/**
+ * The {@link Trace traces} of a flow as a directed acyclic graph of {@link Hop hops}, in which
+ * traces share their common prefixes and suffixes. Each trace is a path from a root to a node with
+ * a disposition, and traces are ordered by a depth-first traversal from the roots in order.
+ *
+ * <p>ECMP multiplies the number of traces, but not the number of distinct hops, so traces are
+ * counted, searched and pruned on the graph, and only expanded when they are needed.
+ */
+@ParametersAreNonnullByDefault
+public final class TraceDag {
+  private static final String PROP_NODES = "nodes";
+  private static final String PROP_ROOTS = "roots";
+
+  /**
+   * A hop of one or more traces. Either it has successors, or it is the last hop of its traces and
+   * has their disposition.
+   */
+  public static final class Node {
+    private static final String PROP_DISPOSITION = "disposition";
+    private static final String PROP_HOP = "hop";
+    private static final String PROP_REVERSE_FLOW = "reverseFlow";
+    private static final String PROP_SUCCESSORS = "successors";
+
+    private final @Nonnull Hop _hop;
+    private final @Nonnull List<Integer> _successors;
+    private final @Nullable FlowDisposition _disposition;
+    private final @Nullable Flow _reverseFlow;
+    private final @Nonnull Set<FirewallSessionTraceInfo> _newFirewallSessions;
+
+    private Node(
+        Hop hop,
+        List<Integer> successors,
+        @Nullable FlowDisposition disposition,
+        @Nullable Flow reverseFlow,
+        Set<FirewallSessionTraceInfo> newFirewallSessions) {
+      checkArgument(
+          successors.isEmpty() ^ disposition == null,
+          "A node must have either successors or a disposition");
+      checkArgument(
+          disposition != null && disposition.isSuccessful() || reverseFlow == null,
+          "Only the last hop of a successful trace can have a reverse flow");
+      _hop = hop;
+      _successors = successors;
+      _disposition = disposition;
+      _reverseFlow = reverseFlow;
+      _newFirewallSessions = newFirewallSessions;
+    }
+
+    @JsonCreator
+    private static Node jsonCreator(
+        @JsonProperty(PROP_HOP) @Nullable Hop hop,
+        @JsonProperty(PROP_SUCCESSORS) @Nullable List<Integer> successors,
+        @JsonProperty(PROP_DISPOSITION) @Nullable FlowDisposition disposition,
+        @JsonProperty(PROP_REVERSE_FLOW) @Nullable Flow reverseFlow) {
+      checkArgument(hop != null, "Missing %s", PROP_HOP);
+      return new Node(
+          hop,
+          ImmutableList.copyOf(firstNonNull(successors, ImmutableList.of())),
+          disposition,
+          reverseFlow,
+          ImmutableSet.of());
+    }
+
+    @JsonProperty(PROP_HOP)
+    public @Nonnull Hop getHop() {
+      return _hop;
+    }
+
+    /** The indices of the next hops, in trace order */
+    @JsonProperty(PROP_SUCCESSORS)
+    public @Nonnull List<Integer> getSuccessors() {
+      return _successors;
+    }
+
+    /** The disposition of the traces ending at this hop, or {@code null} if they go on */
+    @JsonProperty(PROP_DISPOSITION)
+    public @Nullable FlowDisposition getDisposition() {
+      return _disposition;
+    }
+
+    @JsonProperty(PROP_REVERSE_FLOW)
+    public @Nullable Flow getReverseFlow() {
+      return _reverseFlow;
+    }
+
+    /**
+     * The new firewall sessions of the traces ending at this hop. Not serialized, since sessions
+     * are only used within the analysis of one snapshot.
+     */
+    @JsonIgnore
+    public @Nonnull Set<FirewallSessionTraceInfo> getNewFirewallSessions() {
+      return _newFirewallSessions;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof Node)) {
+        return false;
+      }
+      Node other = (Node) o;
+      return _hop.equals(other._hop)
+          && _successors.equals(other._successors)
+          && _disposition == other._disposition
+          && Objects.equals(_reverseFlow, other._reverseFlow)
+          && _newFirewallSessions.equals(other._newFirewallSessions);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(
+          _hop,
+          _successors,
+          _disposition == null ? -1 : _disposition.ordinal(),
+          _reverseFlow,
+          _newFirewallSessions);
+    }
+  }
+
+  /**
+   * Builder for {@link TraceDag}. Nodes are added after their successors, and equal nodes are only
+   * added once, so that traces share their common suffixes.
+   */
+  public static final class Builder {
+    private final List<Node> _nodes;
+    private final Map<Node, Integer> _nodeIds;
+
+    private Builder() {
+      _nodes = new ArrayList<>();
+      _nodeIds = new HashMap<>();
+    }
+
+    /**
+     * Adds a node for {@code hop} followed by the nodes {@code successors}, and returns its index.
+     */
+    public int addNode(Hop hop, List<Integer> successors) {
+      checkArgument(!successors.isEmpty(), "A node without a disposition must have successors");
+      return addNode(
+          new Node(hop, ImmutableList.copyOf(successors), null, null, ImmutableSet.of()));
+    }
+
+    /** Adds a node for {@code hop} ending traces, and returns its index. */
+    public int addLastNode(
+        Hop hop,
+        FlowDisposition disposition,
+        @Nullable Flow reverseFlow,
+        Iterable<FirewallSessionTraceInfo> newFirewallSessions) {
+      return addNode(
+          new Node(
+              hop,
+              ImmutableList.of(),
+              disposition,
+              reverseFlow,
+              ImmutableSet.copyOf(newFirewallSessions)));
+    }
+
+    private int addNode(Node node) {
+      node._successors.forEach(successor -> checkElementIndex(successor, _nodes.size()));
+      return _nodeIds.computeIfAbsent(
+          node,
+          n -> {
+            _nodes.add(n);
+            return _nodes.size() - 1;
+          });
+    }
+
+    /** Returns a DAG whose traces are those of the given {@code roots}, in order. */
+    public @Nonnull TraceDag build(List<Integer> roots) {
+      return new TraceDag(ImmutableList.copyOf(_nodes), ImmutableList.copyOf(roots));
+    }
+  }
+
+  public static @Nonnull Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns a DAG of {@code traces}, with the same traces in the same order. Consecutive traces
+   * share their common prefixes.
+   */
+  public static @Nonnull TraceDag of(List<TraceAndReverseFlow> traces) {
+    // A trie of the hops of consecutive traces, whose children are either tries or traces
+    class Trie {
+      private final @Nullable Hop _hop;
+      private final List<Object> _children = new ArrayList<>();
+
+      private Trie(@Nullable Hop hop) {
+        _hop = hop;
+      }
+    }
+
+    Trie root = new Trie(null);
+    for (TraceAndReverseFlow trace : traces) {
+      List<Hop> hops = trace.getTrace().getHops();
+      checkArgument(!hops.isEmpty(), "A trace must have hops");
+      Trie trie = root;
+      for (Hop hop : hops.subList(0, hops.size() - 1)) {
+        Object last = Iterables.getLast(trie._children, null);
+        if (last instanceof Trie && hop.equals(((Trie) last)._hop)) {
+          trie = (Trie) last;
+        } else {
+          Trie child = new Trie(hop);
+          trie._children.add(child);
+          trie = child;
+        }
+      }
+      trie._children.add(trace);
+    }
+
+    Builder builder = builder();
+    class TrieBuilder {
+      private int build(Object child) {
+        if (child instanceof TraceAndReverseFlow) {
+          TraceAndReverseFlow trace = (TraceAndReverseFlow) child;
+          return builder.addLastNode(
+              Iterables.getLast(trace.getTrace().getHops()),
+              trace.getTrace().getDisposition(),
+              trace.getReverseFlow(),
+              trace.getNewFirewallSessions());
+        }
+        Trie trie = (Trie) child;
+        assert trie._hop != null;
+        return builder.addNode(trie._hop, buildChildren(trie));
+      }
+
+      private List<Integer> buildChildren(Trie trie) {
+        List<Integer> ids = new ArrayList<>(trie._children.size());
+        for (Object child : trie._children) {
+          ids.add(build(child));
+        }
+        return ids;
+      }
+    }
+    return builder.build(new TrieBuilder().buildChildren(root));
+  }
+
+  private final @Nonnull List<Node> _nodes;
+  private final @Nonnull List<Integer> _roots;
+
+  /** The number of traces through each node, starting at it */
+  private final @Nonnull long[] _traceCounts;
+
+  /** The dispositions of the traces through each node, starting at it */
+  private final @Nonnull List<Set<FlowDisposition>> _dispositions;
+
+  /** The hostnames of the hops of the traces through each node, starting at it */
+  private final @Nonnull List<BitSet> _hostnames;
+
+  private final @Nonnull Map<String, Integer> _hostnameIds;
+
+  private TraceDag(List<Node> nodes, List<Integer> roots) {
+    _nodes = nodes;
+    _roots = roots;
+    _traceCounts = new long[nodes.size()];
+    _dispositions = new ArrayList<>(nodes.size());
+    _hostnames = new ArrayList<>(nodes.size());
+    _hostnameIds = new HashMap<>();
+    // successors precede their predecessors
+    for (int i = 0; i < nodes.size(); i++) {
+      Node node = nodes.get(i);
+      BitSet hostnames = new BitSet();
+      hostnames.set(
+          _hostnameIds.computeIfAbsent(node._hop.getNode().getName(), h -> _hostnameIds.size()));
+      Set<FlowDisposition> dispositions = EnumSet.noneOf(FlowDisposition.class);
+      if (node._disposition != null) {
+        _traceCounts[i] = 1;
+        dispositions.add(node._disposition);
+      }
+      for (int successor : node._successors) {
+        checkArgument(successor < i, "Successors must precede their predecessors");
+        _traceCounts[i] += _traceCounts[successor];
+        dispositions.addAll(_dispositions.get(successor));
+        hostnames.or(_hostnames.get(successor));
+      }
+      _dispositions.add(dispositions);
+      _hostnames.add(hostnames);
+    }
+    roots.forEach(root -> checkElementIndex(root, nodes.size()));
+  }
+
+  @JsonCreator
+  private static TraceDag jsonCreator(
+      @JsonProperty(PROP_NODES) @Nullable List<Node> nodes,
+      @JsonProperty(PROP_ROOTS) @Nullable List<Integer> roots) {
+    return new TraceDag(
+        ImmutableList.copyOf(firstNonNull(nodes, ImmutableList.of())),
+        ImmutableList.copyOf(firstNonNull(roots, ImmutableList.of())));
+  }
+
+  /** The distinct hops of the traces, each after its successors */
+  @JsonProperty(PROP_NODES)
+  public @Nonnull List<Node> getNodes() {
+    return _nodes;
+  }
+
+  /** The indices of the first hops of the traces, in trace order */
+  @JsonProperty(PROP_ROOTS)
+  public @Nonnull List<Integer> getRoots() {
+    return _roots;
+  }
+
+  /** Returns the number of traces. */
+  public long countTraces() {
+    return _roots.stream().mapToLong(root -> _traceCounts[root]).sum();
+  }
+
+  /** Returns the dispositions of the traces. */
+  @JsonIgnore
+  public @Nonnull Set<FlowDisposition> getDispositions() {
+    Set<FlowDisposition> dispositions = EnumSet.noneOf(FlowDisposition.class);
+    _roots.forEach(root -> dispositions.addAll(_dispositions.get(root)));
+    return dispositions;
+  }
+
+  /** Returns the hostnames of the hops of the traces. */
+  @JsonIgnore
+  public @Nonnull Set<String> getHostnames() {
+    BitSet hostnameIds = new BitSet();
+    _roots.forEach(root -> hostnameIds.or(_hostnames.get(root)));
+    return _hostnameIds.entrySet().stream()
+        .filter(entry -> hostnameIds.get(entry.getValue()))
+        .map(Map.Entry::getKey)
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
+  /** Returns the trace at {@code index} in trace order. */
+  public @Nonnull TraceAndReverseFlow getTrace(long index) {
+    checkArgument(0 <= index && index < countTraces(), "No trace at index %s", index);
+    ImmutableList.Builder<Hop> hops = ImmutableList.builder();
+    long remaining = index;
+    List<Integer> candidates = _roots;
+    while (true) {
+      for (int candidate : candidates) {
+        if (remaining < _traceCounts[candidate]) {
+          Node node = _nodes.get(candidate);
+          hops.add(node._hop);
+          if (node._disposition != null) {
+            if (remaining == 0) {
+              return new TraceAndReverseFlow(
+                  new Trace(node._disposition, hops.build()),
+                  node._reverseFlow,
+                  node._newFirewallSessions);
+            }
+            remaining--;
+          }
+          candidates = node._successors;
+          break;
+        }
+        remaining -= _traceCounts[candidate];
+      }
+    }
+  }
+
+  /** Returns all the traces in order, expanding each when it is consumed. */
+  @JsonIgnore
+  public @Nonnull Stream<TraceAndReverseFlow> getTraces() {
+    return LongStream.range(0, countTraces()).mapToObj(this::getTrace);
+  }
+
+  /**
+   * Returns the index of the first trace with {@code disposition}, or -1 if there is none. Only
+   * follows nodes that lead to such a trace.
+   */
+  public long findFirstTrace(FlowDisposition disposition) {
+    return findFirstTrace(
+        node -> _dispositions.get(node).contains(disposition),
+        node -> _nodes.get(node)._disposition == disposition);
+  }
+
+  /**
+   * Returns the index of the first trace with a hop at {@code hostname}, or -1 if there is none.
+   * Only follows nodes that lead to such a trace.
+   */
+  public long findFirstTrace(String hostname) {
+    Integer hostnameId = _hostnameIds.get(hostname);
+    if (hostnameId == null) {
+      return -1;
+    }
+    return findFirstTrace(
+        node -> _hostnames.get(node).get(hostnameId),
+        node -> _nodes.get(node)._hop.getNode().getName().equals(hostname));
+  }
+
+  private interface NodePredicate {
+    boolean test(int node);
+  }
+
+  /**
+   * Returns the index of the first trace with a node satisfying {@code found}, given that {@code
+   * leadsTo} holds for exactly the nodes from which such a node is reachable.
+   */
+  private long findFirstTrace(NodePredicate leadsTo, NodePredicate found) {
+    long index = 0;
+    List<Integer> candidates = _roots;
+    while (true) {
+      Integer next = null;
+      for (int candidate : candidates) {
+        if (leadsTo.test(candidate)) {
+          next = candidate;
+          break;
+        }
+        index += _traceCounts[candidate];
+      }
+      if (next == null) {
+        return -1;
+      }
+      if (found.test(next)) {
+        // the first trace through the node
+        return index;
+      }
+      Node node = _nodes.get(next);
+      if (node._disposition != null) {
+        // the trace ending here precedes the ones going on
+        index++;
+      }
+      candidates = node._successors;
+    }
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof TraceDag)) {
+      return false;
+    }
+    TraceDag other = (TraceDag) o;
+    return _nodes.equals(other._nodes) && _roots.equals(other._roots);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(_nodes, _roots);
+  }
+}
@@ -21,6 +21,8 @@ import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.batfish.common.Warnings;
+import org.batfish.common.metrics.Counter;
+import org.batfish.common.metrics.MetricRegistry;
 import org.batfish.datamodel.AbstractRouteBuilder;
 import org.batfish.datamodel.AbstractRouteDecorator;
 import org.batfish.datamodel.BgpRoute;
@@ -82,6 +84,8 @@ public class RoutingPolicy implements Serializable {
     }
   }
 
+  private static final Counter EVALUATIONS =
+      MetricRegistry.global().counter("routingPolicy.evaluations");
   private static final String PROP_NAME = "name";
   private static final String PROP_STATEMENTS = "statements";
 
@@ -230,6 +234,7 @@ public class RoutingPolicy implements Serializable {
       @Nullable EigrpProcess eigrpProcess,
       Direction direction) {
     checkState(_owner != null, "Cannot evaluate routing policy without a Configuration");
+    EVALUATIONS.increment();
     Environment environment =
         Environment.builder(_owner)
             .setBgpSessionProperties(bgpSessionProperties)
@@ -1,5 +1,6 @@
 package org.batfish.grammar;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,6 +18,35 @@ import org.batfish.grammar.flattener.FlattenerLineMap;
 
 public abstract class BatfishCombinedParser<P extends BatfishParser, L extends BatfishLexer> {
 
+  /**
+   * Caches the constructor used to build each lexer class, so that it is looked up once per grammar
+   * rather than once per parsed file.
+   */
+  private static final ClassValue<Constructor<?>> LEXER_CONSTRUCTORS =
+      new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> lexerClass) {
+          return getConstructor(lexerClass, CharStream.class);
+        }
+      };
+
+  /** Same as {@link #LEXER_CONSTRUCTORS}, for parser classes */
+  private static final ClassValue<Constructor<?>> PARSER_CONSTRUCTORS =
+      new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> parserClass) {
+          return getConstructor(parserClass, TokenStream.class);
+        }
+      };
+
+  private static Constructor<?> getConstructor(Class<?> clazz, Class<?> parameterType) {
+    try {
+      return clazz.getConstructor(parameterType);
+    } catch (NoSuchMethodException | SecurityException e) {
+      throw new BatfishException("Error constructing " + clazz + " using reflection", e);
+    }
+  }
+
   private int _currentModeStart;
 
   private final List<String> _errors;
@@ -56,25 +86,21 @@ public abstract class BatfishCombinedParser<P extends BatfishParser, L extends B
     _lineMap = null;
     CharStream inputStream = CharStreams.fromString(input);
     try {
-      _lexer = lClass.getConstructor(CharStream.class).newInstance(inputStream);
+      _lexer = lClass.cast(LEXER_CONSTRUCTORS.get(lClass).newInstance(inputStream));
     } catch (InstantiationException
         | IllegalAccessException
         | IllegalArgumentException
-        | InvocationTargetException
-        | NoSuchMethodException
-        | SecurityException e) {
+        | InvocationTargetException e) {
       throw new BatfishException("Error constructing lexer using reflection", e);
     }
     _lexer.initErrorListener(this);
     _tokens = new CommonTokenStream(_lexer);
     try {
-      _parser = pClass.getConstructor(TokenStream.class).newInstance(_tokens);
+      _parser = pClass.cast(PARSER_CONSTRUCTORS.get(pClass).newInstance(_tokens));
     } catch (InstantiationException
         | IllegalAccessException
         | IllegalArgumentException
-        | InvocationTargetException
-        | NoSuchMethodException
-        | SecurityException e) {
+        | InvocationTargetException e) {
       throw new Error(e);
     }
     _parser.initErrorListener(this);
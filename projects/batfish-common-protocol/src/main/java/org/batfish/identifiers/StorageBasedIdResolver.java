@@ -26,7 +26,8 @@ public class StorageBasedIdResolver implements IdResolver {
     return Hashing.murmur3_128().hashString(input, UTF_8).toString();
   }
 
-  private @Nonnull Set<String> listResolvableNames(Class<? extends Id> idType, Id... ancestors) {
+  /** Returns the names that have an ID of type {@code idType} with the given ancestors. */
+  protected @Nonnull Set<String> listResolvableNames(Class<? extends Id> idType, Id... ancestors) {
     try {
       return _s.listResolvableNames(idType, ancestors);
     } catch (IOException e) {
@@ -34,7 +35,8 @@ public class StorageBasedIdResolver implements IdResolver {
     }
   }
 
-  private @Nonnull Optional<String> readId(
+  /** Returns the ID of type {@code idType} with the given ancestors mapped to {@code name}. */
+  protected @Nonnull Optional<String> readId(
       Class<? extends Id> idType, String name, Id... ancestors) {
     try {
       return _s.readId(idType, name, ancestors);
@@ -43,6 +45,14 @@ public class StorageBasedIdResolver implements IdResolver {
     }
   }
 
+  /**
+   * Returns true iff {@code name} is mapped to an ID of type {@code idType} with the given
+   * ancestors.
+   */
+  protected boolean hasId(Class<? extends Id> idType, String name, Id... ancestors) {
+    return _s.hasId(idType, name, ancestors);
+  }
+
   protected final StorageProvider _s;
 
   public StorageBasedIdResolver(StorageProvider s) {
@@ -130,39 +140,39 @@ public class StorageBasedIdResolver implements IdResolver {
 
   @Override
   public boolean hasAnalysisId(String analysis, NetworkId networkId) {
-    return _s.hasId(AnalysisId.class, analysis, networkId);
+    return hasId(AnalysisId.class, analysis, networkId);
   }
 
   @Override
   public boolean hasIssueSettingsId(String majorIssueType, NetworkId networkId) {
-    return _s.hasId(IssueSettingsId.class, majorIssueType, networkId);
+    return hasId(IssueSettingsId.class, majorIssueType, networkId);
   }
 
   @Override
   public boolean hasNetworkId(String network) {
-    return _s.hasId(NetworkId.class, network);
+    return hasId(NetworkId.class, network);
   }
 
   @Override
   public boolean hasNetworkNodeRolesId(NetworkId networkId) {
-    return _s.hasId(NodeRolesId.class, NETWORK_NODE_ROLES, networkId);
+    return hasId(NodeRolesId.class, NETWORK_NODE_ROLES, networkId);
   }
 
   @Override
   public boolean hasQuestionId(
       String question, NetworkId networkId, @Nullable AnalysisId analysisId) {
     Id[] ancestors = analysisId != null ? new Id[] {networkId, analysisId} : new Id[] {networkId};
-    return _s.hasId(QuestionId.class, question, ancestors);
+    return hasId(QuestionId.class, question, ancestors);
   }
 
   @Override
   public boolean hasQuestionSettingsId(String questionClassId, NetworkId networkId) {
-    return _s.hasId(QuestionSettingsId.class, questionClassId, networkId);
+    return hasId(QuestionSettingsId.class, questionClassId, networkId);
   }
 
   @Override
   public boolean hasSnapshotId(String snapshot, NetworkId networkId) {
-    return _s.hasId(SnapshotId.class, snapshot, networkId);
+    return hasId(SnapshotId.class, snapshot, networkId);
   }
 
   @Override
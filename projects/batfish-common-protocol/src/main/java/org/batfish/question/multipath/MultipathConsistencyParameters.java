@@ -10,6 +10,7 @@ public final class MultipathConsistencyParameters {
   private final IpSpaceAssignment _srcIpSpaceAssignment;
   private final Set<String> _finalNodes;
   private final Set<String> _forbiddenTransitNodes;
+  private final int _maxInconsistencies;
   private final int _maxTraces;
   private final Set<String> _requiredTransitNodes;
 
@@ -18,12 +19,14 @@ public final class MultipathConsistencyParameters {
       IpSpaceAssignment srcIpSpaceAssignment,
       Set<String> finalNodes,
       Set<String> forbiddenTransitNodes,
+      int maxInconsistencies,
       int maxTraces,
       Set<String> requiredTransitNodes) {
     _headerSpace = headerSpace;
     _srcIpSpaceAssignment = srcIpSpaceAssignment;
     _finalNodes = finalNodes;
     _forbiddenTransitNodes = forbiddenTransitNodes;
+    _maxInconsistencies = maxInconsistencies;
     _maxTraces = maxTraces;
     _requiredTransitNodes = requiredTransitNodes;
   }
@@ -44,6 +47,14 @@ public final class MultipathConsistencyParameters {
     return _forbiddenTransitNodes;
   }
 
+  /**
+   * The maximum number of inconsistent flows to find. The analysis stops once this many have been
+   * found.
+   */
+  public int getMaxInconsistencies() {
+    return _maxInconsistencies;
+  }
+
   public int getMaxTraces() {
     return _maxTraces;
   }
@@ -108,6 +108,42 @@ public final class IpSpaceAssignment {
     return new IpSpaceAssignment(entries);
   }
 
+  /**
+   * Splits this assignment into consecutive assignments of at most {@code maxLocations} locations
+   * each. Entries are kept in order, and an entry is split only when it does not fit in the rest of
+   * the current partition.
+   */
+  public List<IpSpaceAssignment> partition(int maxLocations) {
+    checkArgument(maxLocations > 0, "maxLocations must be positive: %s", maxLocations);
+    ImmutableList.Builder<IpSpaceAssignment> partitions = ImmutableList.builder();
+    ImmutableList.Builder<Entry> entries = ImmutableList.builder();
+    int size = 0;
+    for (Entry entry : _entries) {
+      ImmutableSet.Builder<Location> locations = ImmutableSet.builder();
+      boolean pending = false;
+      for (Location location : entry.getLocations()) {
+        locations.add(location);
+        pending = true;
+        size++;
+        if (size == maxLocations) {
+          entries.add(new Entry(entry.getIpSpace(), locations.build()));
+          partitions.add(new IpSpaceAssignment(entries.build()));
+          entries = ImmutableList.builder();
+          locations = ImmutableSet.builder();
+          pending = false;
+          size = 0;
+        }
+      }
+      if (pending) {
+        entries.add(new Entry(entry.getIpSpace(), locations.build()));
+      }
+    }
+    if (size > 0) {
+      partitions.add(new IpSpaceAssignment(entries.build()));
+    }
+    return partitions.build();
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
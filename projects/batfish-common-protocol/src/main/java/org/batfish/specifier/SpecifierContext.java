@@ -2,6 +2,8 @@ package org.batfish.specifier;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.batfish.datamodel.Configuration;
@@ -32,4 +34,14 @@ public interface SpecifierContext {
 
   /** @return the {@link LocationInfo} for all {@link Location locations}. */
   Map<Location, LocationInfo> getLocationInfo();
+
+  /**
+   * Returns the resolution of {@code specifier}, which is computed by {@code resolver}. Contexts
+   * may remember the results of previous calls for equal specifiers and return them instead; the
+   * default implementation always calls {@code resolver}.
+   */
+  @Nonnull
+  default <T> Set<T> resolveMemoized(Object specifier, Supplier<Set<T>> resolver) {
+    return resolver.get();
+  }
 }
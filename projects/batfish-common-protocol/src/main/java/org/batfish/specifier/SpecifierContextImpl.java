@@ -1,8 +1,14 @@
 package org.batfish.specifier;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.plugin.IBatfish;
@@ -18,10 +24,38 @@ public class SpecifierContextImpl implements SpecifierContext {
 
   private final Map<Location, LocationInfo> _locationInfo;
 
+  /**
+   * Number of reads of network-level data (reference books and node roles) through this context.
+   * Such data can change independently of the snapshot, so resolutions that read it are not
+   * memoized.
+   */
+  private final @Nonnull AtomicInteger _networkDataReads;
+
+  private final @Nonnull Cache<Object, Set<?>> _resolvedSpecifiers;
+
   public SpecifierContextImpl(@Nonnull IBatfish batfish, @Nonnull NetworkSnapshot networkSnapshot) {
+    this(
+        batfish,
+        batfish.loadConfigurations(networkSnapshot),
+        batfish.getLocationInfo(networkSnapshot),
+        CacheBuilder.newBuilder().build());
+  }
+
+  /**
+   * Creates a context for the snapshot with configurations {@code configs} and location info {@code
+   * locationInfo}. Resolved specifiers are memoized in {@code resolvedSpecifiers}, which may be
+   * shared by all contexts for the same configurations.
+   */
+  public SpecifierContextImpl(
+      @Nonnull IBatfish batfish,
+      @Nonnull Map<String, Configuration> configs,
+      @Nonnull Map<Location, LocationInfo> locationInfo,
+      @Nonnull Cache<Object, Set<?>> resolvedSpecifiers) {
     _batfish = batfish;
-    _configs = _batfish.loadConfigurations(networkSnapshot);
-    _locationInfo = ImmutableMap.copyOf(_batfish.getLocationInfo(networkSnapshot));
+    _configs = configs;
+    _locationInfo = ImmutableMap.copyOf(locationInfo);
+    _networkDataReads = new AtomicInteger();
+    _resolvedSpecifiers = resolvedSpecifiers;
   }
 
   @Nonnull
@@ -32,12 +66,14 @@ public class SpecifierContextImpl implements SpecifierContext {
 
   @Override
   public Optional<ReferenceBook> getReferenceBook(String bookName) {
+    _networkDataReads.incrementAndGet();
     return _batfish.getReferenceLibraryData().getReferenceBook(bookName);
   }
 
   @Nonnull
   @Override
   public Optional<NodeRoleDimension> getNodeRoleDimension(String dimension) {
+    _networkDataReads.incrementAndGet();
     return _batfish.getNodeRoleDimension(dimension);
   }
 
@@ -50,4 +86,22 @@ public class SpecifierContextImpl implements SpecifierContext {
   public Map<Location, LocationInfo> getLocationInfo() {
     return _locationInfo;
   }
+
+  @Nonnull
+  @Override
+  public <T> Set<T> resolveMemoized(Object specifier, Supplier<Set<T>> resolver) {
+    @SuppressWarnings("unchecked")
+    Set<T> resolved = (Set<T>) _resolvedSpecifiers.getIfPresent(specifier);
+    if (resolved != null) {
+      return resolved;
+    }
+    int networkDataReads = _networkDataReads.get();
+    resolved = resolver.get();
+    if (_networkDataReads.get() != networkDataReads) {
+      return resolved;
+    }
+    resolved = ImmutableSet.copyOf(resolved);
+    _resolvedSpecifiers.put(specifier, resolved);
+    return resolved;
+  }
 }
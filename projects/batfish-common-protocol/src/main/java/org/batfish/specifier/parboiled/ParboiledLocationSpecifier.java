@@ -167,6 +167,6 @@ public final class ParboiledLocationSpecifier implements LocationSpecifier {
 
   @Override
   public Set<Location> resolve(SpecifierContext ctxt) {
-    return _ast.accept(new LocationAstNodeToLocations(ctxt));
+    return ctxt.resolveMemoized(this, () -> _ast.accept(new LocationAstNodeToLocations(ctxt)));
   }
 }
@@ -141,6 +141,6 @@ public final class ParboiledNodeSpecifier implements NodeSpecifier {
 
   @Override
   public Set<String> resolve(SpecifierContext ctxt) {
-    return _ast.accept(new NodeAstNodeToNodes(ctxt));
+    return ctxt.resolveMemoized(this, () -> _ast.accept(new NodeAstNodeToNodes(ctxt)));
   }
 }
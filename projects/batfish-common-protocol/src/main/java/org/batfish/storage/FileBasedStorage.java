@@ -12,6 +12,8 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Closer;
 import com.google.errorprone.annotations.MustBeClosed;
@@ -29,10 +31,12 @@ import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Base64;
@@ -45,6 +49,7 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
@@ -72,6 +77,7 @@ import org.batfish.datamodel.AnalysisMetadata;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.SnapshotMetadata;
+import org.batfish.datamodel.StructureInterner;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
@@ -207,7 +213,8 @@ public class FileBasedStorage implements StorageProvider {
           "Error reading vendor-independent configs directory: '" + indepDir + "'", e);
     }
     try {
-      return deserializeObjects(namesByPath, Configuration.class);
+      // Devices are serialized separately, so restore the sharing of their equal structures
+      return deserializeObjects(namesByPath, Configuration.class, new StructureInterner());
     } catch (BatfishException e) {
       return null;
     }
@@ -496,7 +503,7 @@ public class FileBasedStorage implements StorageProvider {
         .forEach(
             e -> {
               Path currentOutputPath = outputDir.resolve(e.getKey());
-              serializeObject(e.getValue(), currentOutputPath);
+              serializeObject(e.getValue(), currentOutputPath, new StructureInterner());
               progressCount.incrementAndGet();
             });
   }
@@ -520,29 +527,40 @@ public class FileBasedStorage implements StorageProvider {
    * Returns a single object of the given class deserialized from the given file. Uses the {@link
    * FileBasedStorage} default file encoding including serialization format and compression.
    */
-  @SuppressWarnings("PMD.CloseResource") // PMD does not understand Closer
   private <S extends Serializable> S deserializeObject(Path inputFile, Class<S> outputClass)
       throws BatfishException {
+    return deserializeObject(inputFile, outputClass, null);
+  }
+
+  /**
+   * Like {@link #deserializeObject(Path, Class)}, but if {@code interner} is not {@code null},
+   * replaces the deserialized structures by their canonical instances in it.
+   */
+  @SuppressWarnings("PMD.CloseResource") // PMD does not understand Closer
+  private <S extends Serializable> S deserializeObject(
+      Path inputFile, Class<S> outputClass, @Nullable StructureInterner interner)
+      throws BatfishException {
     Path sanitizedInputFile = validatePath(inputFile);
     try (Closer closer = Closer.create()) {
       FileInputStream fis = closer.register(new FileInputStream(sanitizedInputFile.toFile()));
       PushbackInputStream pbstream = new PushbackInputStream(fis, DEFAULT_HEADER_LENGTH_BYTES);
       Format f = detectFormat(pbstream);
-      ObjectInputStream ois;
+      InputStream in;
       if (f == Format.GZIP) {
-        GZIPInputStream gis =
-            closer.register(new GZIPInputStream(pbstream, 8192 /* enlarge buffer */));
-        ois = new ObjectInputStream(gis);
+        in = closer.register(new GZIPInputStream(pbstream, 8192 /* enlarge buffer */));
       } else if (f == Format.LZ4) {
-        LZ4FrameInputStream lis = closer.register(new LZ4FrameInputStream(pbstream));
-        ois = new ObjectInputStream(lis);
+        in = closer.register(new LZ4FrameInputStream(pbstream));
       } else if (f == Format.JAVA_SERIALIZED) {
-        ois = new ObjectInputStream(pbstream);
+        in = pbstream;
       } else {
         throw new BatfishException(
             String.format("Could not detect format of the file %s", sanitizedInputFile));
       }
-      closer.register(ois);
+      ObjectInputStream ois =
+          closer.register(
+              interner == null
+                  ? new ObjectInputStream(in)
+                  : new InterningObjectInputStream(in, interner));
       return outputClass.cast(ois.readObject());
     } catch (Exception e) {
       throw new BatfishException(
@@ -555,6 +573,11 @@ public class FileBasedStorage implements StorageProvider {
 
   private <S extends Serializable> SortedMap<String, S> deserializeObjects(
       Map<Path, String> namesByPath, Class<S> outputClass) {
+    return deserializeObjects(namesByPath, outputClass, null);
+  }
+
+  private <S extends Serializable> SortedMap<String, S> deserializeObjects(
+      Map<Path, String> namesByPath, Class<S> outputClass, @Nullable StructureInterner interner) {
     String outputClassName = outputClass.getName();
     AtomicInteger completed =
         _newBatch.apply(
@@ -572,7 +595,7 @@ public class FileBasedStorage implements StorageProvider {
                       String name = entry.getValue();
                       _logger.debugf(
                           "Reading %s '%s' from '%s'\n", outputClassName, name, inputPath);
-                      S output = deserializeObject(inputPath, outputClass);
+                      S output = deserializeObject(inputPath, outputClass, interner);
                       completed.incrementAndGet();
                       return output;
                     })));
@@ -583,13 +606,25 @@ public class FileBasedStorage implements StorageProvider {
    * default file encoding including serialization format and compression.
    */
   private void serializeObject(Serializable object, Path outputFile) {
+    serializeObject(object, outputFile, null);
+  }
+
+  /**
+   * Like {@link #serializeObject(Serializable, Path)}, but if {@code interner} is not {@code null},
+   * writes equal structures once, as their canonical instance in it.
+   */
+  private void serializeObject(
+      Serializable object, Path outputFile, @Nullable StructureInterner interner) {
     Path sanitizedOutputFile = validatePath(outputFile);
     try {
       Path tmpFile = Files.createTempFile(null, null);
       try {
         try (OutputStream out = Files.newOutputStream(tmpFile);
             LZ4FrameOutputStream gos = new LZ4FrameOutputStream(out);
-            ObjectOutputStream oos = new ObjectOutputStream(gos)) {
+            ObjectOutputStream oos =
+                interner == null
+                    ? new ObjectOutputStream(gos)
+                    : new InterningObjectOutputStream(gos, interner)) {
           oos.writeObject(object);
         } catch (Throwable e) {
           throw new BatfishException(
@@ -1468,12 +1503,91 @@ public class FileBasedStorage implements StorageProvider {
     return new FileInputStream(getUploadSnapshotZipPath(key, network).toFile());
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The contents are stored once per network in a blob named by their SHA-256 hash, and the
+   * input object is a hard link to that blob. Snapshots with identical input objects therefore
+   * share their storage.
+   */
   @Override
   public void storeSnapshotInputObject(
       InputStream inputStream, String key, NetworkSnapshot snapshot) throws IOException {
-    writeStreamToFile(
-        inputStream,
-        getSnapshotInputObjectPath(snapshot.getNetwork(), snapshot.getSnapshot(), key));
+    Path blob = storeInputBlob(inputStream, snapshot.getNetwork());
+    linkInputObject(
+        blob, getSnapshotInputObjectPath(snapshot.getNetwork(), snapshot.getSnapshot(), key));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The object is hard-linked rather than copied, so this takes constant time regardless of its
+   * size.
+   */
+  @Override
+  public void copySnapshotInputObject(
+      NetworkSnapshot source, String key, NetworkSnapshot destination) throws IOException {
+    Path sourcePath =
+        validatePath(getSnapshotInputObjectPath(source.getNetwork(), source.getSnapshot(), key));
+    if (!isRegularFile(sourcePath)) {
+      throw new FileNotFoundException(String.format("Could not copy: %s", sourcePath));
+    }
+    linkInputObject(
+        sourcePath,
+        getSnapshotInputObjectPath(destination.getNetwork(), destination.getSnapshot(), key));
+  }
+
+  /**
+   * Stores the contents of {@code inputStream} in the input blobs of {@code network}, unless a blob
+   * with the same contents exists already, and returns the path of the blob.
+   */
+  private @Nonnull Path storeInputBlob(InputStream inputStream, NetworkId network)
+      throws IOException {
+    Path blobsDir = validatePath(getInputBlobsDir(network));
+    mkdirs(blobsDir);
+    // hidden, and in the same directory so that it can be renamed into place
+    Path tmpFile = Files.createTempFile(blobsDir, ".", null);
+    try {
+      HashingInputStream hashingInputStream = new HashingInputStream(Hashing.sha256(), inputStream);
+      Files.copy(hashingInputStream, tmpFile, StandardCopyOption.REPLACE_EXISTING);
+      Path blob = blobsDir.resolve(hashingInputStream.hash().toString());
+      if (exists(blob)) {
+        // keep the blob from being garbage collected before it is linked
+        Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+        return blob;
+      }
+      try {
+        Files.move(tmpFile, blob);
+      } catch (FileAlreadyExistsException e) {
+        // stored concurrently
+      }
+      return blob;
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
+  }
+
+  /**
+   * Atomically makes {@code objectPath} a hard link to the file {@code target}, replacing any
+   * existing file. Copies {@code target} instead if the file system does not support hard links.
+   */
+  private void linkInputObject(Path target, Path objectPath) throws IOException {
+    Path sanitizedObjectPath = validatePath(objectPath);
+    mkdirs(sanitizedObjectPath.getParent());
+    // hidden, so that it is never listed as an input object
+    Path tmpLink =
+        sanitizedObjectPath.resolveSibling(
+            String.format(".%s.%s", sanitizedObjectPath.getFileName(), UUID.randomUUID()));
+    try {
+      try {
+        Files.createLink(tmpLink, target);
+      } catch (UnsupportedOperationException e) {
+        Files.copy(target, tmpLink);
+      }
+      Files.move(tmpLink, sanitizedObjectPath, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmpLink);
+    }
   }
 
   @MustBeClosed
@@ -1652,6 +1766,7 @@ public class FileBasedStorage implements StorageProvider {
 
   private static final String RELPATH_BLOBS = "blobs";
   private static final String RELPATH_EXTENDED = "extended";
+  private static final String RELPATH_INPUT_BLOBS = "input_blobs";
   private static final String RELPATH_NODE_ROLES_DIR = "node_roles";
 
   private @Nonnull Path getAdHocQuestionDir(NetworkId network, QuestionId question) {
@@ -1747,6 +1862,13 @@ public class FileBasedStorage implements StorageProvider {
     return getSnapshotOutputDir(network, snapshot).resolve(RELPATH_VENDOR_INDEPENDENT_CONFIG_DIR);
   }
 
+  /** The content-addressed store of the input objects of all snapshots of the network */
+  @VisibleForTesting
+  @Nonnull
+  Path getInputBlobsDir(NetworkId networkId) {
+    return getNetworkDir(networkId).resolve(RELPATH_INPUT_BLOBS);
+  }
+
   private Path getNetworkBlobsDir(NetworkId networkId) {
     return getNetworkDir(networkId).resolve(RELPATH_BLOBS);
   }
@@ -1926,9 +2048,61 @@ public class FileBasedStorage implements StorageProvider {
     // expunge original uploads
     expungeOldEntries(expungeBeforeDate, getOriginalsDir(networkId), true);
 
+    // expunge input blobs of expunged snapshots
+    expungeUnreferencedInputBlobs(expungeBeforeDate, getInputBlobsDir(networkId));
+
     // TODO: expunge question IDs, questions, analysis IDs, analyses, node roles IDs, node roles
   }
 
+  /**
+   * Deletes the input blobs in {@code dir} that no snapshot input object links to any more, and
+   * that were last stored before {@code expungeBeforeDate}. The number of hard links to a blob is
+   * its reference count: one for the blob itself, and one for each input object sharing it. Has no
+   * effect if {@code dir} does not exist.
+   *
+   * @throws IOException if there is an error
+   */
+  @VisibleForTesting
+  void expungeUnreferencedInputBlobs(Instant expungeBeforeDate, Path dir) throws IOException {
+    if (!exists(dir)) {
+      return;
+    }
+    List<Path> toDelete;
+    try (Stream<Path> blobStream = list(dir)) {
+      toDelete =
+          blobStream
+              .filter(
+                  path -> {
+                    try {
+                      return isRegularFile(path)
+                          && getLastModifiedTime(path).compareTo(expungeBeforeDate) < 0
+                          && getLinkCount(path) <= 1;
+                    } catch (IOException e) {
+                      // e.g. the blob was just deleted
+                      return false;
+                    }
+                  })
+              .collect(ImmutableList.toImmutableList());
+    }
+    for (Path path : toDelete) {
+      deleteIfExists(path);
+      _logger.debugf("FBS GC: deleted: %s\n", path);
+    }
+  }
+
+  /**
+   * Returns the number of hard links to {@code path}, or 1 if the file system does not count them.
+   * In the latter case input objects may be hard links to blobs anyway, but deleting a blob then
+   * only forgoes sharing it with input objects stored later.
+   */
+  private static int getLinkCount(Path path) throws IOException {
+    try {
+      return (int) Files.getAttribute(path, "unix:nlink");
+    } catch (UnsupportedOperationException e) {
+      return 1;
+    }
+  }
+
   /**
    * Deletes filesystem entries in {@code dir} whose last modified time precedes {@code
    * expungeBeforeDate}. When deleting regular files, {@code directories} should be {@code false}.
@@ -0,0 +1,29 @@
+package org.batfish.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.StructureInterner;
+
+/**
+ * An {@link ObjectInputStream} that replaces each deserialized structure by its canonical instance
+ * in a {@link StructureInterner}. Sharing one interner across the streams of many objects restores
+ * the sharing between them that separate serialization loses.
+ */
+@ParametersAreNonnullByDefault
+final class InterningObjectInputStream extends ObjectInputStream {
+
+  private final StructureInterner _interner;
+
+  InterningObjectInputStream(InputStream in, StructureInterner interner) throws IOException {
+    super(in);
+    _interner = interner;
+    enableResolveObject(true);
+  }
+
+  @Override
+  protected Object resolveObject(Object obj) {
+    return _interner.intern(obj);
+  }
+}
@@ -0,0 +1,29 @@
+package org.batfish.storage;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.StructureInterner;
+
+/**
+ * An {@link ObjectOutputStream} that writes each structure as its canonical instance in a {@link
+ * StructureInterner}, so that equal structures are written once and read back as a single shared
+ * instance.
+ */
+@ParametersAreNonnullByDefault
+final class InterningObjectOutputStream extends ObjectOutputStream {
+
+  private final StructureInterner _interner;
+
+  InterningObjectOutputStream(OutputStream out, StructureInterner interner) throws IOException {
+    super(out);
+    _interner = interner;
+    enableReplaceObject(true);
+  }
+
+  @Override
+  protected Object replaceObject(Object obj) {
+    return _interner.intern(obj);
+  }
+}
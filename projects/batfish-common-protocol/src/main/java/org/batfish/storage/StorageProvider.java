@@ -750,6 +750,18 @@ public interface StorageProvider {
   void storeSnapshotInputObject(InputStream inputStream, String key, NetworkSnapshot snapshot)
       throws IOException;
 
+  /**
+   * Makes the input object with the given key of the {@code source} snapshot an input object of the
+   * {@code destination} snapshot, replacing any existing object with that key. Implementations
+   * should share the object between the snapshots rather than copy its contents.
+   *
+   * @throws FileNotFoundException if the {@code source} snapshot has no input object with the given
+   *     key
+   * @throws IOException if there is an error
+   */
+  void copySnapshotInputObject(NetworkSnapshot source, String key, NetworkSnapshot destination)
+      throws IOException;
+
   /**
    * Returns a stream of the keys of all input objects for the given snapshot.
    *
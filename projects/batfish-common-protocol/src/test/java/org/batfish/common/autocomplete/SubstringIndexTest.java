@@ -0,0 +1,53 @@
+package org.batfish.common.autocomplete;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+/** Tests of {@link SubstringIndex}. */
+public final class SubstringIndexTest {
+
+  private static SubstringIndex<Integer> index() {
+    return SubstringIndex.<Integer>builder()
+        .add(1, "Ethernet1/1")
+        .add(2, ImmutableList.of("core1", "Core Router"))
+        .add(3, "ethernet2/2")
+        .add(4, "xxx")
+        .build();
+  }
+
+  @Test
+  public void testSearchShortQuery() {
+    SubstringIndex<Integer> index = index();
+    assertThat(index.search(""), contains(1, 2, 3, 4));
+    assertThat(index.search("e"), contains(1, 2, 3));
+    assertThat(index.search("X"), contains(4));
+  }
+
+  @Test
+  public void testSearchLongQuery() {
+    SubstringIndex<Integer> index = index();
+    assertThat(index.search("ETHER"), contains(1, 3));
+    assertThat(index.search("net2/"), contains(3));
+    assertThat(index.search("router"), contains(2));
+    assertThat(index.search("xxxx"), empty());
+    // all trigrams occur, but not together
+    assertThat(index.search("ethernet1/2"), empty());
+  }
+
+  @Test
+  public void testSearchRepeatedTrigram() {
+    SubstringIndex<String> index = SubstringIndex.<String>builder().add("a", "aaaaa").build();
+    assertThat(index.search("aaaa"), contains("a"));
+  }
+
+  @Test
+  public void testSearchSharedText() {
+    SubstringIndex<Integer> index =
+        SubstringIndex.<Integer>builder().add(2, "same").add(1, "SAME").build();
+    assertThat(index.search("sam"), contains(2, 1));
+  }
+}
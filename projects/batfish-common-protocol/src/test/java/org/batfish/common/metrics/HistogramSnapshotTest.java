@@ -0,0 +1,78 @@
+package org.batfish.common.metrics;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.testing.EqualsTester;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.junit.Test;
+
+/** Tests of {@link HistogramSnapshot}. */
+public final class HistogramSnapshotTest {
+
+  private static HistogramSnapshot snapshotOf(long... values) {
+    Histogram histogram = new Histogram();
+    for (long value : values) {
+      histogram.record(value);
+    }
+    return histogram.snapshot();
+  }
+
+  @Test
+  public void testBucket() {
+    assertThat(Histogram.bucket(0), equalTo(0));
+    assertThat(Histogram.bucket(1), equalTo(1));
+    assertThat(Histogram.bucket(2), equalTo(2));
+    assertThat(Histogram.bucket(3), equalTo(2));
+    assertThat(Histogram.bucket(4), equalTo(3));
+    assertThat(Histogram.bucket(Long.MAX_VALUE), equalTo(Histogram.NUM_BUCKETS - 1));
+  }
+
+  @Test
+  public void testStatistics() {
+    HistogramSnapshot snapshot = snapshotOf(0, 1, 2, 3, 4, 5, 6, 7, 8, 1000, -1);
+    assertThat(snapshot.getCount(), equalTo(11L));
+    assertThat(snapshot.getSum(), equalTo(1036L));
+    assertThat(snapshot.getMax(), equalTo(1000L));
+    // The median, 4, is in bucket [4, 8)
+    assertThat(snapshot.quantile(0.5), equalTo(7L));
+    // Quantiles in the last bucket are bounded by the max
+    assertThat(snapshot.quantile(1.0), equalTo(1000L));
+    assertThat(snapshot.quantile(0.0), equalTo(0L));
+    assertThat(snapshotOf().quantile(0.5), equalTo(0L));
+  }
+
+  @Test
+  public void testMinus() {
+    Histogram histogram = new Histogram();
+    histogram.record(1000);
+    HistogramSnapshot before = histogram.snapshot();
+    histogram.record(5);
+    histogram.record(6);
+    HistogramSnapshot delta = histogram.snapshot().minus(before);
+    assertThat(delta.getCount(), equalTo(2L));
+    assertThat(delta.getSum(), equalTo(11L));
+    // The max of the difference is bounded by its highest bucket
+    assertThat(delta.getMax(), equalTo(7L));
+  }
+
+  @Test
+  public void testEquals() {
+    new EqualsTester()
+        .addEqualityGroup(snapshotOf(1, 2), snapshotOf(2, 1))
+        .addEqualityGroup(snapshotOf(1, 3))
+        .addEqualityGroup(snapshotOf(2, 2))
+        .testEquals();
+  }
+
+  @Test
+  public void testJsonSerialization() {
+    HistogramSnapshot snapshot = snapshotOf(0, 3, 100);
+    assertThat(BatfishObjectMapper.clone(snapshot, HistogramSnapshot.class), equalTo(snapshot));
+    MetricsSnapshot metrics =
+        new MetricsSnapshot(
+            ImmutableMap.of("c", 1L), ImmutableMap.of("g", 2L), ImmutableMap.of("h", snapshot));
+    assertThat(BatfishObjectMapper.clone(metrics, MetricsSnapshot.class), equalTo(metrics));
+  }
+}
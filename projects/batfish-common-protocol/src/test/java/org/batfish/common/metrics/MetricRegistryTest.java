@@ -0,0 +1,65 @@
+package org.batfish.common.metrics;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+/** Tests of {@link MetricRegistry}. */
+public final class MetricRegistryTest {
+
+  @Test
+  public void testCounter() {
+    MetricRegistry registry = new MetricRegistry();
+    Counter counter = registry.counter("c");
+    assertThat(registry.counter("c"), sameInstance(counter));
+    IntStream.range(0, 1000).parallel().forEach(i -> counter.increment());
+    counter.add(5);
+    assertThat(counter.getCount(), equalTo(1005L));
+    assertThat(registry.snapshot().getCounters(), hasEntry("c", 1005L));
+  }
+
+  @Test
+  public void testGauge() {
+    MetricRegistry registry = new MetricRegistry();
+    AtomicLong value = new AtomicLong(3);
+    registry.gauge("g", value::get);
+    assertThat(registry.snapshot().getGauges(), hasEntry("g", 3L));
+    value.set(7);
+    assertThat(registry.snapshot().getGauges(), hasEntry("g", 7L));
+  }
+
+  @Test
+  public void testHistogram() {
+    MetricRegistry registry = new MetricRegistry();
+    Histogram histogram = registry.histogram("h");
+    assertThat(registry.histogram("h"), sameInstance(histogram));
+    histogram.record(5);
+    assertThat(registry.snapshot().getHistograms().get("h").getCount(), equalTo(1L));
+  }
+
+  @Test
+  public void testSnapshotMinus() {
+    MetricRegistry registry = new MetricRegistry();
+    registry.counter("c").add(2);
+    registry.histogram("h").record(1);
+    registry.gauge("g", () -> 4L);
+    MetricsSnapshot before = registry.snapshot();
+    registry.counter("c").add(3);
+    registry.counter("new").increment();
+    registry.histogram("h").record(100);
+
+    MetricsSnapshot delta = registry.snapshot().minus(before);
+    assertThat(delta.getCounters(), hasEntry("c", 3L));
+    assertThat(delta.getCounters(), hasEntry("new", 1L));
+    assertThat(delta.getGauges(), hasEntry("g", 4L));
+    HistogramSnapshot h = delta.getHistograms().get("h");
+    assertThat(h.getCount(), equalTo(1L));
+    assertThat(h.getSum(), equalTo(100L));
+    assertThat(h.getMax(), equalTo(100L));
+  }
+}
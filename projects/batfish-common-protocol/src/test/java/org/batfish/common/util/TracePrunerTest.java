@@ -8,6 +8,10 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.flow.EnterInputIfaceStep;
 import org.batfish.datamodel.flow.EnterInputIfaceStep.EnterInputIfaceStepDetail;
@@ -16,6 +20,8 @@ import org.batfish.datamodel.flow.ExitOutputIfaceStep.ExitOutputIfaceStepDetail;
 import org.batfish.datamodel.flow.Hop;
 import org.batfish.datamodel.flow.StepAction;
 import org.batfish.datamodel.flow.Trace;
+import org.batfish.datamodel.flow.TraceAndReverseFlow;
+import org.batfish.datamodel.flow.TraceDag;
 import org.batfish.datamodel.pojo.Node;
 import org.junit.Test;
 
@@ -89,4 +95,38 @@ public class TracePrunerTest {
             3),
         equalTo(ImmutableList.of(TRACE_A_B_ACCEPTED, TRACE_C_ACCEPTED, TRACE_A_ACCEPTED)));
   }
+
+  private static final Flow REVERSE_FLOW =
+      Flow.builder().setIngressNode("node").setDstIp(Ip.ZERO).build();
+
+  /** Prunes the DAG of {@code traces}, which must give the same result as pruning the list. */
+  private static List<Trace> pruneDag(List<Trace> traces, int maxSize) {
+    return prune(
+        TraceDag.of(
+            traces.stream()
+                .map(
+                    trace ->
+                        new TraceAndReverseFlow(
+                            trace,
+                            trace.getDisposition().isSuccessful() ? REVERSE_FLOW : null,
+                            ImmutableSet.of()))
+                .collect(ImmutableList.toImmutableList())),
+        maxSize);
+  }
+
+  @Test
+  public void testPruneTraceDag() {
+    List<Trace> traces =
+        ImmutableList.of(
+            TRACE_A_B_ACCEPTED,
+            TRACE_A_ACCEPTED,
+            TRACE_B_ACCEPTED,
+            TRACE_A_DENIED_IN,
+            TRACE_C_ACCEPTED,
+            TRACE_A_B_ACCEPTED);
+    for (int maxSize = 0; maxSize <= traces.size(); maxSize++) {
+      assertThat(pruneDag(traces, maxSize), equalTo(prune(traces, maxSize)));
+    }
+    assertThat(pruneDag(ImmutableList.of(), 5), empty());
+  }
 }
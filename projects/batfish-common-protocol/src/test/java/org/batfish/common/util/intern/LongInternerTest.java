@@ -0,0 +1,91 @@
+package org.batfish.common.util.intern;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.Prefix;
+import org.junit.Test;
+
+/** Tests of {@link LongInterner}. */
+public final class LongInternerTest {
+
+  /** A value whose instances are distinguished by identity only */
+  private static final class Value {
+    private final long _key;
+
+    private Value(long key) {
+      _key = key;
+    }
+
+    private long getKey() {
+      return _key;
+    }
+  }
+
+  @Test
+  public void testIntern() {
+    LongInterner<Value> interner = new LongInterner<>(4, Value::getKey, Value::new);
+    Value value = interner.intern(5L);
+    assertThat(value.getKey(), equalTo(5L));
+    assertThat(interner.intern(5L), sameInstance(value));
+    assertThat(interner.intern(6L), not(sameInstance(value)));
+  }
+
+  @Test
+  public void testEviction() {
+    // 2^1 slots: at most two values are interned at a time
+    LongInterner<Value> interner = new LongInterner<>(1, Value::getKey, Value::new);
+    Value first = interner.intern(0L);
+    interner.intern(1L);
+    interner.intern(2L);
+    Value again = interner.intern(0L);
+    assertThat(again.getKey(), equalTo(0L));
+    // Once interned again, it stays canonical until evicted again
+    assertThat(interner.intern(0L), sameInstance(again));
+    assertThat(first.getKey(), equalTo(again.getKey()));
+  }
+
+  @Test
+  public void testValuesNotRetained() {
+    LongInterner<Value> interner = new LongInterner<>(4, Value::getKey, Value::new);
+    WeakReference<Value> ref = new WeakReference<>(interner.intern(5L));
+    for (int i = 0; i < 100 && ref.get() != null; i++) {
+      System.gc();
+    }
+    assertThat(ref.get(), nullValue());
+    assertThat(interner.intern(5L).getKey(), equalTo(5L));
+  }
+
+  @Test
+  public void testConcurrentIntern() {
+    LongInterner<Value> interner = new LongInterner<>(10, Value::getKey, Value::new);
+    Set<Value> values =
+        Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    IntStream.range(0, 10_000).parallel().forEach(i -> values.add(interner.intern(i % 100)));
+    assertThat(values, hasSize(100));
+  }
+
+  @Test
+  public void testValueTypes() {
+    assertThat(Ip.create(0x0A000001L), sameInstance(Ip.parse("10.0.0.1")));
+    assertThat(Prefix.create(Ip.parse("10.0.0.1"), 8), sameInstance(Prefix.parse("10.0.0.0/8")));
+    assertThat(Prefix.create(Ip.AUTO, 8), equalTo(Prefix.create(Ip.AUTO, 8)));
+    assertThat(
+        IpWildcard.ipWithWildcardMask(Ip.parse("10.0.0.1"), 0xFFL),
+        sameInstance(IpWildcard.parse("10.0.0.0:0.0.0.255")));
+    assertThat(
+        IpWildcard.create(Prefix.parse("10.0.0.0/24")),
+        sameInstance(IpWildcard.parse("10.0.0.0/24")));
+  }
+}
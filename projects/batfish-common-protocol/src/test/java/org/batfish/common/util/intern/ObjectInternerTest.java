@@ -0,0 +1,49 @@
+package org.batfish.common.util.intern;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.batfish.datamodel.collections.NodeInterfacePair;
+import org.junit.Test;
+
+/** Tests of {@link ObjectInterner}. */
+public final class ObjectInternerTest {
+
+  @Test
+  public void testIntern() {
+    ObjectInterner<String> interner = new ObjectInterner<>(4);
+    String value = new String("a");
+    assertThat(interner.intern(value), sameInstance(value));
+    assertThat(interner.intern(new String("a")), sameInstance(value));
+  }
+
+  @Test
+  public void testEviction() {
+    ObjectInterner<Integer> interner = new ObjectInterner<>(1);
+    IntStream.range(0, 100).forEach(i -> assertThat(interner.intern(i), equalTo(i)));
+  }
+
+  @Test
+  public void testConcurrentIntern() {
+    ObjectInterner<String> interner = new ObjectInterner<>(10);
+    Set<String> values =
+        Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    IntStream.range(0, 10_000)
+        .parallel()
+        .forEach(i -> values.add(interner.intern(Integer.toString(i % 100))));
+    assertThat(values, hasSize(100));
+  }
+
+  @Test
+  public void testNodeInterfacePair() {
+    assertThat(
+        NodeInterfacePair.of("Node", "Ethernet1"),
+        sameInstance(NodeInterfacePair.of("node", "Ethernet1")));
+  }
+}
@@ -0,0 +1,39 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/** Tests of {@link NextHopIndex} */
+public class NextHopIndexTest {
+
+  @Test
+  public void testGetDependents() {
+    NextHopIndex<String> index = new NextHopIndex<>();
+    index.add(Ip.parse("10.0.0.1"), "a");
+    index.add(Ip.parse("10.0.0.1"), "b");
+    index.add(Ip.parse("10.255.255.255"), "c");
+    index.add(Ip.parse("11.0.0.0"), "d");
+
+    assertThat(index.getDependents(Prefix.parse("10.0.0.0/8")), contains("a", "b", "c"));
+    assertThat(index.getDependents(Prefix.parse("10.0.0.1/32")), contains("a", "b"));
+    assertThat(index.getDependents(Prefix.parse("12.0.0.0/8")), empty());
+    assertThat(index.getDependents(Prefix.ZERO), containsInAnyOrder("a", "b", "c", "d"));
+  }
+
+  @Test
+  public void testRemove() {
+    NextHopIndex<String> index = new NextHopIndex<>();
+    index.add(Ip.parse("10.0.0.1"), "a");
+    index.add(Ip.parse("10.0.0.1"), "b");
+
+    index.remove(Ip.parse("10.0.0.1"), "a");
+    // not present
+    index.remove(Ip.parse("10.0.0.2"), "b");
+
+    assertThat(index.getDependents(Prefix.ZERO), contains("b"));
+  }
+}
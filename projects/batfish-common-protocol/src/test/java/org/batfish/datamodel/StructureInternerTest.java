@@ -0,0 +1,72 @@
+package org.batfish.datamodel;
+
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import org.batfish.datamodel.routing_policy.expr.NamedCommunitySet;
+import org.junit.Test;
+
+/** Tests of {@link StructureInterner}. */
+public final class StructureInternerTest {
+
+  private static IpAccessList acl(String sourceName) {
+    return IpAccessList.builder()
+        .setName("acl")
+        .setLines(ExprAclLine.accepting(matchDst(Prefix.parse("10.0.0.0/8"))))
+        .setSourceName(sourceName)
+        .setSourceType("extended ipv4 access-list")
+        .build();
+  }
+
+  @Test
+  public void testInternValues() {
+    StructureInterner interner = new StructureInterner();
+    String name = new String("GigabitEthernet0/0");
+    assertThat(interner.intern(name), sameInstance(name));
+    assertThat(interner.intern(new String("GigabitEthernet0/0")), sameInstance(name));
+
+    IpSpace ipSpace = Prefix.parse("10.0.0.0/8").toIpSpace();
+    assertThat(interner.intern(ipSpace), sameInstance(ipSpace));
+    assertThat(interner.intern(Prefix.parse("10.0.0.0/8").toIpSpace()), sameInstance(ipSpace));
+  }
+
+  @Test
+  public void testInternIpAccessList() {
+    StructureInterner interner = new StructureInterner();
+    IpAccessList acl = acl("acl");
+    assertThat(interner.intern(acl), sameInstance(acl));
+    assertThat(interner.intern(acl("acl")), sameInstance(acl));
+
+    // Equal, but from a different source
+    IpAccessList renamedSource = acl("other");
+    assertThat(renamedSource, equalTo(acl));
+    assertThat(interner.intern(renamedSource), sameInstance(renamedSource));
+  }
+
+  @Test
+  public void testMutableStructuresNotInterned() {
+    StructureInterner interner = new StructureInterner();
+    RouteFilterList list = new RouteFilterList("rfl");
+    interner.intern(list);
+    RouteFilterList equalList = new RouteFilterList("rfl");
+    assertThat(interner.intern(equalList), not(sameInstance(list)));
+  }
+
+  @Test
+  public void testEnvironmentDependentStructuresNotInterned() {
+    StructureInterner interner = new StructureInterner();
+    CommunityListLine line = CommunityListLine.accepting(new NamedCommunitySet("other"));
+    CommunityList list = new CommunityList("cl", ImmutableList.of(line), false);
+    interner.intern(line);
+    interner.intern(list);
+
+    CommunityListLine equalLine = CommunityListLine.accepting(new NamedCommunitySet("other"));
+    CommunityList equalList = new CommunityList("cl", ImmutableList.of(equalLine), false);
+    assertThat(interner.intern(equalLine), sameInstance(equalLine));
+    assertThat(interner.intern(equalList), sameInstance(equalList));
+  }
+}
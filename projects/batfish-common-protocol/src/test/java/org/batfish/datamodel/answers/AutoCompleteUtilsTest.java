@@ -1640,6 +1640,39 @@ public class AutoCompleteUtilsTest {
         orderSuggestions(query, ImmutableList.of(s2, s1)), equalTo(ImmutableList.of(s1, s2)));
   }
 
+  @Test
+  public void testOrderTopSuggestions() {
+    String query = "a";
+    List<AutocompleteSuggestion> suggestions = new ArrayList<>();
+    for (String text : ImmutableList.of("bab", "a", "ab", "ba", "cba", "abc", "b")) {
+      suggestions.add(
+          AutocompleteSuggestion.builder()
+              .setText(text)
+              .setSuggestionType(SuggestionType.NAME_LITERAL)
+              .build());
+      suggestions.add(
+          AutocompleteSuggestion.builder()
+              .setText(text)
+              .setSuggestionType(SuggestionType.CONSTANT)
+              .build());
+    }
+    List<AutocompleteSuggestion> ordered = orderSuggestions(query, suggestions);
+
+    // the top 3 of each type, in overall order
+    assertThat(
+        AutoCompleteUtils.orderTopSuggestions(query, suggestions, 3),
+        equalTo(
+            ordered.stream()
+                .filter(
+                    s ->
+                        ordered.stream()
+                                .filter(o -> o.getSuggestionType() == s.getSuggestionType())
+                                .collect(ImmutableList.toImmutableList())
+                                .indexOf(s)
+                            < 3)
+                .collect(ImmutableList.toImmutableList())));
+  }
+
   @Test
   public void testLimitSuggestionsByType() {
     List<AutocompleteSuggestion> orderedSuggestions =
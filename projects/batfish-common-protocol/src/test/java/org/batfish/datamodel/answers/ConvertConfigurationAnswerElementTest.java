@@ -1,16 +1,21 @@
 package org.batfish.datamodel.answers;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.collection.IsMapContaining.hasEntry;
 import static org.hamcrest.collection.IsMapWithSize.anEmptyMap;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
+import com.google.common.collect.ImmutableSortedSet;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import org.apache.commons.lang3.SerializationUtils;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishException.BatfishStackTrace;
+import org.batfish.datamodel.DefinedStructureInfo;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -73,4 +78,36 @@ public class ConvertConfigurationAnswerElementTest {
     _element.setErrors(errors);
     assertThat(_element.getErrors().get("error"), is(stackTrace));
   }
+
+  @Test
+  public void testJavaSerialization() {
+    _element
+        .getDefinedStructures()
+        .computeIfAbsent("f", k -> new TreeMap<>())
+        .computeIfAbsent("acl", k -> new TreeMap<>())
+        .put("a", new DefinedStructureInfo(ImmutableSortedSet.of(1, 2), 3));
+    _element
+        .getReferencedStructures()
+        .computeIfAbsent("f", k -> new TreeMap<>())
+        .computeIfAbsent("acl", k -> new TreeMap<>())
+        .computeIfAbsent("a", k -> new TreeMap<>())
+        .put("interface", ImmutableSortedSet.of(5));
+    _element
+        .getUndefinedReferences()
+        .computeIfAbsent("f", k -> new TreeMap<>())
+        .computeIfAbsent("acl", k -> new TreeMap<>())
+        .computeIfAbsent("b", k -> new TreeMap<>())
+        .put("interface", ImmutableSortedSet.of(6, 7));
+
+    ConvertConfigurationAnswerElement clone = SerializationUtils.clone(_element);
+
+    // the original is still usable after serialization
+    assertThat(_element.getDefinedStructures().get("f").get("acl").keySet(), contains("a"));
+    assertThat(clone.getReferencedStructures(), equalTo(_element.getReferencedStructures()));
+    assertThat(clone.getUndefinedReferences(), equalTo(_element.getUndefinedReferences()));
+    DefinedStructureInfo info = clone.getDefinedStructures().get("f").get("acl").get("a");
+    assertThat(info.getDefinitionLines(), contains(1, 2));
+    assertThat(info.getNumReferrers(), equalTo(3));
+    assertThat(clone.getDefinedStructureIndex().size(), equalTo(1));
+  }
 }
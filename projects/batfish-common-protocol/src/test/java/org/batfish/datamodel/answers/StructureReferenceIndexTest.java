@@ -0,0 +1,82 @@
+package org.batfish.datamodel.answers;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Test;
+
+/** Tests of {@link StructureReferenceIndex}. */
+public final class StructureReferenceIndexTest {
+
+  private static SortedMap<
+          String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
+      references() {
+    SortedMap<String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
+        map = new TreeMap<>();
+    add(map, "f2", "acl", "a1", "interface", 5, 3);
+    add(map, "f1", "acl", "a1", "interface", 7);
+    add(map, "f1", "acl", "a2", "interface", 9);
+    add(map, "f1", "route-map", "a1", "bgp", 1, 2);
+    add(map, "f3", "acl", "a2", "interface", 4);
+    return map;
+  }
+
+  private static void add(
+      SortedMap<String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
+          map,
+      String file,
+      String type,
+      String name,
+      String usage,
+      Integer... lines) {
+    map.computeIfAbsent(file, k -> new TreeMap<>())
+        .computeIfAbsent(type, k -> new TreeMap<>())
+        .computeIfAbsent(name, k -> new TreeMap<>())
+        .put(usage, ImmutableSortedSet.copyOf(lines));
+  }
+
+  @Test
+  public void testToMap() {
+    StructureReferenceIndex index = StructureReferenceIndex.of(references());
+
+    assertThat(index.size(), equalTo(5));
+    assertThat(index.getFilenames(), contains("f1", "f2", "f3"));
+    assertThat(index.toMap(), equalTo(references()));
+  }
+
+  @Test
+  public void testToMapEmpty() {
+    assertThat(StructureReferenceIndex.of(new TreeMap<>()).toMap(), equalTo(new TreeMap<>()));
+  }
+
+  @Test
+  public void testForEach() {
+    StructureReferenceIndex index = StructureReferenceIndex.of(references());
+    List<String> visited = new ArrayList<>();
+    index.forEach(
+        f -> !f.equals("f2"),
+        "acl"::equals,
+        n -> true,
+        (filename, type, name, usage, lines) ->
+            visited.add(String.join(":", filename, type, name, usage, lines.toString())));
+
+    assertThat(
+        visited,
+        contains("f1:acl:a1:interface:[7]", "f1:acl:a2:interface:[9]", "f3:acl:a2:interface:[4]"));
+  }
+
+  @Test
+  public void testSerialization() {
+    StructureReferenceIndex index = StructureReferenceIndex.of(references());
+
+    assertThat(SerializationUtils.clone(index).toMap(), equalTo(references()));
+  }
+}
@@ -0,0 +1,149 @@
+package org.batfish.datamodel.flow;
+
+import static org.batfish.datamodel.FlowDisposition.ACCEPTED;
+import static org.batfish.datamodel.FlowDisposition.DENIED_IN;
+import static org.batfish.datamodel.FlowDisposition.DENIED_OUT;
+import static org.batfish.datamodel.FlowDisposition.NO_ROUTE;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.util.List;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.FlowDisposition;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.collections.NodeInterfacePair;
+import org.batfish.datamodel.flow.EnterInputIfaceStep.EnterInputIfaceStepDetail;
+import org.batfish.datamodel.flow.ExitOutputIfaceStep.ExitOutputIfaceStepDetail;
+import org.batfish.datamodel.pojo.Node;
+import org.junit.Test;
+
+/** Tests of {@link TraceDag}. */
+public class TraceDagTest {
+
+  private static final Flow REVERSE_FLOW =
+      Flow.builder().setIngressNode("node").setDstIp(Ip.ZERO).build();
+
+  /** A hop at {@code hostname} that enters and exits an interface */
+  private static Hop hop(String hostname, String iface) {
+    return new Hop(
+        new Node(hostname),
+        ImmutableList.of(
+            EnterInputIfaceStep.builder()
+                .setAction(StepAction.RECEIVED)
+                .setDetail(
+                    EnterInputIfaceStepDetail.builder()
+                        .setInputInterface(NodeInterfacePair.of(hostname, iface))
+                        .build())
+                .build(),
+            ExitOutputIfaceStep.builder()
+                .setAction(StepAction.TRANSMITTED)
+                .setDetail(
+                    ExitOutputIfaceStepDetail.builder()
+                        .setOutputInterface(NodeInterfacePair.of(hostname, iface))
+                        .build())
+                .build()));
+  }
+
+  private static final Hop HOP_A = hop("A", "i");
+  private static final Hop HOP_B = hop("B", "i");
+  private static final Hop HOP_C = hop("C", "i");
+
+  private static TraceAndReverseFlow trace(FlowDisposition disposition, Hop... hops) {
+    return new TraceAndReverseFlow(
+        new Trace(disposition, ImmutableList.copyOf(hops)),
+        disposition.isSuccessful() ? REVERSE_FLOW : null,
+        ImmutableSet.of());
+  }
+
+  @Test
+  public void testOf() {
+    List<TraceAndReverseFlow> traces =
+        ImmutableList.of(
+            trace(ACCEPTED, HOP_A, HOP_B),
+            trace(DENIED_IN, HOP_A, HOP_C),
+            trace(DENIED_OUT, HOP_B),
+            trace(ACCEPTED, HOP_A, HOP_B));
+    TraceDag dag = TraceDag.of(traces);
+
+    assertThat(dag.countTraces(), equalTo(4L));
+    assertThat(dag.getTraces().collect(ImmutableList.toImmutableList()), equalTo(traces));
+    // the first two traces share A, and the last hops of equal traces are shared
+    assertThat(dag.getNodes(), hasSize(5));
+    assertThat(dag.getRoots(), hasSize(3));
+    assertThat(dag.getDispositions(), containsInAnyOrder(ACCEPTED, DENIED_IN, DENIED_OUT));
+    assertThat(dag.getHostnames(), containsInAnyOrder("a", "b", "c"));
+  }
+
+  @Test
+  public void testSharedSuffixes() {
+    // A -> {B, C} -> A -> {B, C} -> ... with 2^40 traces through 2 nodes per level
+    TraceDag.Builder builder = TraceDag.builder();
+    int b = builder.addLastNode(HOP_B, NO_ROUTE, null, ImmutableSet.of());
+    int c = builder.addLastNode(HOP_C, NO_ROUTE, null, ImmutableSet.of());
+    for (int level = 0; level < 40; level++) {
+      int a = builder.addNode(HOP_A, ImmutableList.of(b, c));
+      b = builder.addNode(HOP_B, ImmutableList.of(a));
+      c = builder.addNode(HOP_C, ImmutableList.of(a));
+    }
+    TraceDag dag = builder.build(ImmutableList.of(b, c));
+
+    assertThat(dag.getNodes(), hasSize(122));
+    assertThat(dag.countTraces(), equalTo(1L << 41));
+    assertThat(dag.getTrace(0).getTrace().getHops(), hasSize(81));
+    assertThat(dag.getTrace(0).getTrace().getHops().get(80), equalTo(HOP_B));
+    assertThat(dag.getTrace(1).getTrace().getHops().get(80), equalTo(HOP_C));
+    assertThat(dag.getTrace((1L << 41) - 1).getTrace().getHops().get(0), equalTo(HOP_C));
+  }
+
+  @Test
+  public void testFindFirstTrace() {
+    TraceDag dag =
+        TraceDag.of(
+            ImmutableList.of(
+                trace(DENIED_IN, HOP_A, HOP_B),
+                trace(ACCEPTED, HOP_A, HOP_C),
+                trace(DENIED_IN, HOP_C),
+                trace(DENIED_OUT, HOP_B)));
+
+    assertThat(dag.findFirstTrace(DENIED_IN), equalTo(0L));
+    assertThat(dag.findFirstTrace(ACCEPTED), equalTo(1L));
+    assertThat(dag.findFirstTrace(DENIED_OUT), equalTo(3L));
+    assertThat(dag.findFirstTrace(NO_ROUTE), equalTo(-1L));
+    assertThat(dag.findFirstTrace("a"), equalTo(0L));
+    assertThat(dag.findFirstTrace("c"), equalTo(1L));
+    assertThat(dag.findFirstTrace("d"), equalTo(-1L));
+  }
+
+  @Test
+  public void testGetTraces() {
+    TraceDag.Builder builder = TraceDag.builder();
+    int b = builder.addLastNode(HOP_B, ACCEPTED, REVERSE_FLOW, ImmutableSet.of());
+    int c = builder.addLastNode(HOP_C, DENIED_IN, null, ImmutableSet.of());
+    int a = builder.addNode(HOP_A, ImmutableList.of(c, b));
+    TraceDag dag = builder.build(ImmutableList.of(a, b));
+
+    assertThat(
+        dag.getTraces().collect(ImmutableList.toImmutableList()),
+        contains(
+            trace(DENIED_IN, HOP_A, HOP_C), trace(ACCEPTED, HOP_A, HOP_B), trace(ACCEPTED, HOP_B)));
+  }
+
+  @Test
+  public void testJsonSerialization() throws IOException {
+    TraceDag dag =
+        TraceDag.of(
+            ImmutableList.of(trace(ACCEPTED, HOP_A, HOP_B), trace(DENIED_IN, HOP_A, HOP_C)));
+    TraceDag clone = BatfishObjectMapper.clone(dag, TraceDag.class);
+    // steps do not all have value equality, so compare the serialized forms
+    assertThat(
+        BatfishObjectMapper.writeString(clone), equalTo(BatfishObjectMapper.writeString(dag)));
+    assertThat(clone.countTraces(), equalTo(2L));
+  }
+}
@@ -0,0 +1,45 @@
+package org.batfish.specifier;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import org.batfish.datamodel.EmptyIpSpace;
+import org.batfish.datamodel.UniverseIpSpace;
+import org.junit.Test;
+
+/** Tests of {@link IpSpaceAssignment}. */
+public class IpSpaceAssignmentTest {
+  private static final Location L1 = new InterfaceLocation("n", "i1");
+  private static final Location L2 = new InterfaceLocation("n", "i2");
+  private static final Location L3 = new InterfaceLocation("n", "i3");
+  private static final Location L4 = new InterfaceLocation("n", "i4");
+
+  @Test
+  public void testPartition() {
+    IpSpaceAssignment assignment =
+        IpSpaceAssignment.builder()
+            .assign(ImmutableSet.of(L1, L2, L3), UniverseIpSpace.INSTANCE)
+            .assign(L4, EmptyIpSpace.INSTANCE)
+            .build();
+
+    assertThat(
+        assignment.partition(2),
+        contains(
+            IpSpaceAssignment.builder()
+                .assign(ImmutableSet.of(L1, L2), UniverseIpSpace.INSTANCE)
+                .build(),
+            IpSpaceAssignment.builder()
+                .assign(L3, UniverseIpSpace.INSTANCE)
+                .assign(L4, EmptyIpSpace.INSTANCE)
+                .build()));
+    assertThat(assignment.partition(4), contains(assignment));
+    assertThat(assignment.partition(10), contains(assignment));
+  }
+
+  @Test
+  public void testPartitionEmpty() {
+    assertThat(IpSpaceAssignment.empty().partition(1), empty());
+  }
+}
@@ -0,0 +1,71 @@
+package org.batfish.specifier;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.batfish.common.plugin.IBatfishTestAdapter;
+import org.batfish.role.NodeRoleDimension;
+import org.junit.Test;
+
+/** Tests of {@link SpecifierContextImpl}. */
+public final class SpecifierContextImplTest {
+
+  private static final class TestBatfish extends IBatfishTestAdapter {
+    @Override
+    public Optional<NodeRoleDimension> getNodeRoleDimension(String roleDimension) {
+      return Optional.empty();
+    }
+  }
+
+  private static SpecifierContextImpl context(Cache<Object, Set<?>> resolvedSpecifiers) {
+    return new SpecifierContextImpl(
+        new TestBatfish(), ImmutableMap.of(), ImmutableMap.of(), resolvedSpecifiers);
+  }
+
+  @Test
+  public void testResolveMemoized() {
+    Cache<Object, Set<?>> resolvedSpecifiers = CacheBuilder.newBuilder().build();
+    AtomicInteger resolutions = new AtomicInteger();
+    SpecifierContextImpl ctxt = context(resolvedSpecifiers);
+
+    ctxt.resolveMemoized("a", () -> ImmutableSet.of(resolutions.incrementAndGet()));
+    Set<Integer> resolved =
+        ctxt.resolveMemoized("a", () -> ImmutableSet.of(resolutions.incrementAndGet()));
+
+    assertThat(resolved, contains(1));
+    assertThat(resolutions.get(), equalTo(1));
+
+    // another context sharing the cache also reuses the result
+    assertThat(
+        context(resolvedSpecifiers)
+            .resolveMemoized("a", () -> ImmutableSet.of(resolutions.incrementAndGet())),
+        contains(1));
+    assertThat(resolutions.get(), equalTo(1));
+  }
+
+  @Test
+  public void testResolveMemoizedNetworkData() {
+    AtomicInteger resolutions = new AtomicInteger();
+    SpecifierContextImpl ctxt = context(CacheBuilder.newBuilder().build());
+
+    for (int i = 0; i < 2; i++) {
+      ctxt.resolveMemoized(
+          "a",
+          () -> {
+            ctxt.getNodeRoleDimension(null);
+            return ImmutableSet.of(resolutions.incrementAndGet());
+          });
+    }
+
+    // results that depend on node roles are not memoized
+    assertThat(resolutions.get(), equalTo(2));
+  }
+}
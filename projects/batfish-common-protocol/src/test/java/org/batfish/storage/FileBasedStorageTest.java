@@ -1,6 +1,7 @@
 package org.batfish.storage;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
 import static org.batfish.storage.FileBasedStorage.GC_SKEW_ALLOWANCE;
 import static org.batfish.storage.FileBasedStorage.ISP_CONFIGURATION_KEY;
 import static org.batfish.storage.FileBasedStorage.getWorkLogPath;
@@ -11,6 +12,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.io.FileMatchers.anExistingDirectory;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -60,8 +62,12 @@ import org.batfish.common.util.CommonUtil;
 import org.batfish.common.util.UnzipUtility;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.ExprAclLine;
 import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.SnapshotMetadata;
+import org.batfish.datamodel.acl.MatchHeaderSpace;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
 import org.batfish.datamodel.answers.MajorIssueConfig;
 import org.batfish.datamodel.answers.MinorIssueConfig;
@@ -119,6 +125,42 @@ public final class FileBasedStorageTest {
     assertThat(deserialized.keySet(), equalTo(Sets.newHashSet("node1")));
   }
 
+  @Test
+  public void roundTripConfigurationsSharesEqualStructures() throws IOException {
+    NetworkId network = new NetworkId("network");
+    SnapshotId snapshot = new SnapshotId("snapshot");
+
+    Map<String, Configuration> configs = new HashMap<>();
+    for (String hostname : ImmutableList.of("node1", "node2")) {
+      Configuration c = new Configuration(hostname, ConfigurationFormat.CISCO_IOS);
+      IpAccessList.builder()
+          .setOwner(c)
+          .setName("acl")
+          .setLines(ExprAclLine.accepting(matchDst(Prefix.parse("10.0.0.0/8"))))
+          .build();
+      c.getIpSpaces().put("space", Prefix.parse("10.0.0.0/8").toIpSpace());
+      configs.put(hostname, c);
+    }
+
+    _storage.storeConfigurations(
+        configs, new ConvertConfigurationAnswerElement(), Layer1Topology.EMPTY, network, snapshot);
+    Map<String, Configuration> deserialized = _storage.loadConfigurations(network, snapshot);
+    assertThat(deserialized, notNullValue());
+    Configuration node1 = deserialized.get("node1");
+    Configuration node2 = deserialized.get("node2");
+    assertThat(
+        node1.getIpAccessLists().get("acl"), sameInstance(node2.getIpAccessLists().get("acl")));
+    assertThat(node1.getIpSpaces().get("space"), sameInstance(node2.getIpSpaces().get("space")));
+    // Within each device, the IP space of the ACL line is shared with the named IP space
+    assertThat(
+        ((MatchHeaderSpace)
+                ((ExprAclLine) node1.getIpAccessLists().get("acl").getLines().get(0))
+                    .getMatchCondition())
+            .getHeaderspace()
+            .getDstIps(),
+        sameInstance(node1.getIpSpaces().get("space")));
+  }
+
   @Test
   public void loadMissingConfigurationsReturnsNull() {
     assertThat(
@@ -805,4 +847,89 @@ public final class FileBasedStorageTest {
       assertThat(keys.collect(ImmutableSet.toImmutableSet()), equalTo(ImmutableSet.of("k1", "k2")));
     }
   }
+
+  private static @Nonnull InputStream inputStream(String contents) {
+    return new ByteArrayInputStream(contents.getBytes(UTF_8));
+  }
+
+  @Test
+  public void testStoreSnapshotInputObjectSharesContents() throws IOException {
+    NetworkId networkId = new NetworkId("n1");
+    SnapshotId snapshot1 = new SnapshotId("s1");
+    SnapshotId snapshot2 = new SnapshotId("s2");
+    _storage.storeSnapshotInputObject(
+        inputStream("same"), "k1", new NetworkSnapshot(networkId, snapshot1));
+    _storage.storeSnapshotInputObject(
+        inputStream("same"), "k2", new NetworkSnapshot(networkId, snapshot2));
+    _storage.storeSnapshotInputObject(
+        inputStream("other"), "k3", new NetworkSnapshot(networkId, snapshot2));
+
+    Path path1 = _storage.getSnapshotInputObjectPath(networkId, snapshot1, "k1");
+    Path path2 = _storage.getSnapshotInputObjectPath(networkId, snapshot2, "k2");
+    Path path3 = _storage.getSnapshotInputObjectPath(networkId, snapshot2, "k3");
+    assertTrue(Files.isSameFile(path1, path2));
+    assertFalse(Files.isSameFile(path1, path3));
+    assertThat(new String(Files.readAllBytes(path2), UTF_8), equalTo("same"));
+    try (Stream<Path> blobs = Files.list(_storage.getInputBlobsDir(networkId))) {
+      assertThat(blobs.count(), equalTo(2L));
+    }
+  }
+
+  @Test
+  public void testCopySnapshotInputObject() throws IOException {
+    NetworkId networkId = new NetworkId("n1");
+    NetworkSnapshot base = new NetworkSnapshot(networkId, new SnapshotId("s1"));
+    NetworkSnapshot fork = new NetworkSnapshot(networkId, new SnapshotId("s2"));
+    _storage.storeSnapshotInputObject(inputStream("base"), "dir/k", base);
+    _storage.copySnapshotInputObject(base, "dir/k", fork);
+
+    Path basePath = _storage.getSnapshotInputObjectPath(networkId, base.getSnapshot(), "dir/k");
+    Path forkPath = _storage.getSnapshotInputObjectPath(networkId, fork.getSnapshot(), "dir/k");
+    assertTrue(Files.isSameFile(basePath, forkPath));
+
+    // replacing the object in the fork does not affect the base
+    _storage.storeSnapshotInputObject(inputStream("fork"), "dir/k", fork);
+    assertThat(new String(Files.readAllBytes(basePath), UTF_8), equalTo("base"));
+    assertThat(new String(Files.readAllBytes(forkPath), UTF_8), equalTo("fork"));
+  }
+
+  @Test
+  public void testCopySnapshotInputObjectMissing() throws IOException {
+    NetworkId networkId = new NetworkId("n1");
+    _thrown.expect(FileNotFoundException.class);
+    _storage.copySnapshotInputObject(
+        new NetworkSnapshot(networkId, new SnapshotId("s1")),
+        "k",
+        new NetworkSnapshot(networkId, new SnapshotId("s2")));
+  }
+
+  @Test
+  public void testExpungeUnreferencedInputBlobs() throws IOException {
+    NetworkId networkId = new NetworkId("n1");
+    SnapshotId kept = new SnapshotId("s1");
+    SnapshotId deleted = new SnapshotId("s2");
+    _storage.storeSnapshotInputObject(
+        inputStream("kept"), "k", new NetworkSnapshot(networkId, kept));
+    _storage.storeSnapshotInputObject(
+        inputStream("kept"), "k", new NetworkSnapshot(networkId, deleted));
+    _storage.storeSnapshotInputObject(
+        inputStream("deleted"), "k2", new NetworkSnapshot(networkId, deleted));
+    Path blobsDir = _storage.getInputBlobsDir(networkId);
+    FileUtils.deleteDirectory(_storage.getSnapshotDir(networkId, deleted).toFile());
+
+    // recently stored blobs are kept even if unreferenced
+    _storage.expungeUnreferencedInputBlobs(Instant.now().minus(GC_SKEW_ALLOWANCE), blobsDir);
+    try (Stream<Path> blobs = Files.list(blobsDir)) {
+      assertThat(blobs.count(), equalTo(2L));
+    }
+
+    _storage.expungeUnreferencedInputBlobs(Instant.MAX, blobsDir);
+    try (Stream<Path> blobs = Files.list(blobsDir)) {
+      assertThat(blobs.count(), equalTo(1L));
+    }
+    assertThat(
+        new String(
+            Files.readAllBytes(_storage.getSnapshotInputObjectPath(networkId, kept, "k")), UTF_8),
+        equalTo("kept"));
+  }
 }
@@ -479,6 +479,12 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public void copySnapshotInputObject(
+      NetworkSnapshot source, String key, NetworkSnapshot destination) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
   @Nonnull
   @Override
   public Stream<String> listSnapshotInputObjectKeys(NetworkSnapshot snapshot) throws IOException {
@@ -1,17 +1,26 @@
 package org.batfish.bddreachability;
 
-import static org.batfish.bddreachability.BDDReachabilityUtils.backwardFixpoint;
+import static org.batfish.bddreachability.BDDReachabilityUtils.backwardFixpointTransposed;
+import static org.batfish.bddreachability.BDDReachabilityUtils.forwardFixpoint;
 import static org.batfish.bddreachability.BDDReachabilityUtils.getIngressLocationBdds;
+import static org.batfish.bddreachability.BDDReachabilityUtils.transposeAndMaterialize;
 import static org.batfish.common.util.CollectionUtil.toImmutableMap;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Table;
 import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.util.GlobalTracer;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -24,6 +33,10 @@ import org.batfish.bddreachability.transition.Transition;
 import org.batfish.common.bdd.BDDPacket;
 import org.batfish.symbolic.IngressLocation;
 import org.batfish.symbolic.state.StateExpr;
+import org.jgrapht.Graph;
+import org.jgrapht.alg.connectivity.KosarajuStrongConnectivityInspector;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.jgrapht.graph.DefaultEdge;
 
 /** A reachability analysis that detects loops. */
 public class BDDLoopDetectionAnalysis {
@@ -61,134 +74,147 @@ public class BDDLoopDetectionAnalysis {
     Span span = GlobalTracer.get().buildSpan("BDDLoopDetectionAnalysis.detectLoops").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
+      BDD zero = _bddPacket.getFactory().zero();
+
       /*
-       * Run enough rounds to exceed the max TTL (255). It takes at most 6 iterations to go between
-       * hops:
-       * PreInInterface -> PostInInterface -> PostInVrf -> PreOutVrf -> PreOutEdge ->
-       * PreOutEdgePostNat -> PreInInterface
-       *
-       * Since we don't model TTL, all packets on loops will loop forever. But most paths will stop
-       * long before numRounds. What's left will be a few candidate location/headerspace pairs that
-       * may be on loops. In practice this is most likely way more iterations than necessary.
+       * A packet loops forever iff it eventually cycles within one strongly connected component of
+       * the graph, so only the cyclic components, and the states that can reach them, matter.
        */
-      int numRounds = 256 * 6;
-      Map<StateExpr, BDD> reachableInNRounds = reachableInNRounds(numRounds);
+      List<Set<StateExpr>> cyclicComponents = cyclicComponents(_forwardEdgeTable);
+      if (cyclicComponents.isEmpty()) {
+        return getIngressLocationBdds(ImmutableMap.of(), _ingressLocationStates, zero);
+      }
+      Table<StateExpr, StateExpr, Transition> relevantEdges =
+          edgesReaching(
+              _forwardEdgeTable,
+              cyclicComponents.stream()
+                  .flatMap(Set::stream)
+                  .collect(ImmutableSet.toImmutableSet()));
+      Table<StateExpr, StateExpr, Transition> relevantEdgesTransposed =
+          transposeAndMaterialize(relevantEdges);
 
       /*
-       * Identify which of the candidates are actually on loops
+       * Find the packets that can enter each cyclic component.
        */
-      Map<StateExpr, BDD> loopBDDs =
-          reachableInNRounds.entrySet().stream()
-              .filter(entry -> confirmLoop(entry.getKey(), entry.getValue()))
-              .collect(Collectors.toMap(Entry::getKey, Entry::getValue));
+      BDD one = _bddPacket.getFactory().one();
+      Map<StateExpr, BDD> reachable =
+          new HashMap<>(toImmutableMap(_ingressLocationStates, Function.identity(), k -> one));
+      forwardFixpoint(relevantEdges, reachable);
+
+      /*
+       * Within each component, keep the packets that can stay in it forever.
+       */
+      Map<StateExpr, BDD> loopBDDs = new HashMap<>();
+      for (Set<StateExpr> component : cyclicComponents) {
+        loopBDDs.putAll(loopingPackets(component, reachable, relevantEdgesTransposed));
+      }
 
       /*
        * Run backward to find the ingress locations/headerspaces that lead to loops.
        */
-      backwardFixpoint(_forwardEdgeTable, loopBDDs);
+      backwardFixpointTransposed(relevantEdgesTransposed, loopBDDs);
 
       /*
        * Extract the ingress location BDDs.
        */
-      return getIngressLocationBdds(
-          loopBDDs, _ingressLocationStates, _bddPacket.getFactory().zero());
-    } finally {
-      span.finish();
-    }
-  }
-
-  private Map<StateExpr, BDD> propagate(Map<StateExpr, BDD> bdds) {
-    Span span = GlobalTracer.get().buildSpan("BDDLoopDetectionAnalysis.propagate").start();
-    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
-      assert scope != null; // avoid unused warning
-      BDD zero = _bddPacket.getFactory().zero();
-      Map<StateExpr, BDD> newReachableInNRounds = new HashMap<>();
-      bdds.forEach(
-          (source, sourceBdd) ->
-              _forwardEdgeTable
-                  .row(source)
-                  .forEach(
-                      (target, transition) -> {
-                        BDD targetBdd = newReachableInNRounds.getOrDefault(target, zero);
-                        BDD newTragetBdd = targetBdd.or(transition.transitForward(sourceBdd));
-                        if (!newTragetBdd.isZero()) {
-                          newReachableInNRounds.put(target, newTragetBdd);
-                        }
-                      }));
-      return newReachableInNRounds;
+      return getIngressLocationBdds(loopBDDs, _ingressLocationStates, zero);
     } finally {
       span.finish();
     }
   }
 
   /**
-   * Run BFS from one step past the initial state. Each round, check if the initial state has been
-   * reached yet.
+   * Returns the strongly connected components of the graph that contain a cycle: those with more
+   * than one state, or with a self-loop.
    */
-  private boolean confirmLoop(StateExpr stateExpr, BDD bdd) {
-    Span span = GlobalTracer.get().buildSpan("BDDLoopDetectionAnalysis.confirmLoop").start();
-    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
-      assert scope != null; // avoid unused warning
-      Map<StateExpr, BDD> reachable = propagate(ImmutableMap.of(stateExpr, bdd));
-      Set<StateExpr> dirty = new HashSet<>(reachable.keySet());
-
-      BDD zero = _bddPacket.getFactory().zero();
-      while (!dirty.isEmpty()) {
-        Set<StateExpr> newDirty = new HashSet<>();
-
-        dirty.forEach(
-            preState -> {
-              Map<StateExpr, Transition> preStateOutEdges = _forwardEdgeTable.row(preState);
-              if (preStateOutEdges == null) {
-                // preState has no out-edges
-                return;
-              }
-
-              BDD preStateBDD = reachable.get(preState);
-              preStateOutEdges.forEach(
-                  (postState, transition) -> {
-                    BDD result = transition.transitForward(preStateBDD);
-                    if (result.isZero()) {
-                      return;
-                    }
-
-                    // update postState BDD reverse-reachable from leaf
-                    BDD oldReach = reachable.getOrDefault(postState, zero);
-                    BDD newReach = oldReach == null ? result : oldReach.or(result);
-                    if (oldReach == null || !oldReach.equals(newReach)) {
-                      reachable.put(postState, newReach);
-                      newDirty.add(postState);
-                    }
-                  });
+  @VisibleForTesting
+  static List<Set<StateExpr>> cyclicComponents(Table<StateExpr, StateExpr, Transition> edges) {
+    Graph<StateExpr, DefaultEdge> graph = new DefaultDirectedGraph<>(DefaultEdge.class);
+    edges
+        .cellSet()
+        .forEach(
+            cell -> {
+              graph.addVertex(cell.getRowKey());
+              graph.addVertex(cell.getColumnKey());
+              graph.addEdge(cell.getRowKey(), cell.getColumnKey());
             });
+    return new KosarajuStrongConnectivityInspector<>(graph)
+        .stronglyConnectedSets().stream()
+            .filter(
+                component -> {
+                  if (component.size() > 1) {
+                    return true;
+                  }
+                  StateExpr state = component.iterator().next();
+                  return edges.contains(state, state);
+                })
+            .collect(ImmutableList.toImmutableList());
+  }
 
-        dirty = newDirty;
-        if (dirty.contains(stateExpr)) {
-          if (reachable.get(stateExpr).andSat(bdd)) {
-            return true;
-          }
+  /** Returns the edges between states that can reach some state in {@code targets}. */
+  private static Table<StateExpr, StateExpr, Transition> edgesReaching(
+      Table<StateExpr, StateExpr, Transition> edges, Set<StateExpr> targets) {
+    Table<StateExpr, StateExpr, Transition> transposed = transposeAndMaterialize(edges);
+    Set<StateExpr> canReach = new HashSet<>(targets);
+    Deque<StateExpr> queue = new ArrayDeque<>(targets);
+    while (!queue.isEmpty()) {
+      for (StateExpr preState : transposed.row(queue.pop()).keySet()) {
+        if (canReach.add(preState)) {
+          queue.push(preState);
         }
       }
-      return false;
-    } finally {
-      span.finish();
     }
+    ImmutableTable.Builder<StateExpr, StateExpr, Transition> relevantEdges =
+        ImmutableTable.builder();
+    edges.cellSet().stream()
+        .filter(cell -> canReach.contains(cell.getRowKey()))
+        .forEach(relevantEdges::put);
+    return relevantEdges.build();
   }
 
-  private Map<StateExpr, BDD> reachableInNRounds(int numRounds) {
-    Span span = GlobalTracer.get().buildSpan("BDDLoopDetectionAnalysis.reachableInNRounds").start();
+  /**
+   * Returns the packets at each state of {@code component} that can stay in the component forever,
+   * i.e. the greatest subsets of the {@code reachable} packets from which another state of the
+   * subsets can always be reached. These are the packets on loops, since the graph is finite.
+   */
+  private Map<StateExpr, BDD> loopingPackets(
+      Set<StateExpr> component,
+      Map<StateExpr, BDD> reachable,
+      Table<StateExpr, StateExpr, Transition> transposedEdges) {
+    Span span = GlobalTracer.get().buildSpan("BDDLoopDetectionAnalysis.loopingPackets").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      BDD one = _bddPacket.getFactory().one();
+      BDD zero = _bddPacket.getFactory().zero();
+      Map<StateExpr, BDD> looping = new HashMap<>();
+      component.forEach(state -> looping.put(state, reachable.getOrDefault(state, zero)));
 
-      // All ingress locations are reachable in 0 rounds.
-      Map<StateExpr, BDD> reachableInNRounds =
-          toImmutableMap(_ingressLocationStates, Function.identity(), k -> one);
+      Set<StateExpr> dirty = new LinkedHashSet<>(component);
+      while (!dirty.isEmpty()) {
+        StateExpr state = dirty.iterator().next();
+        dirty.remove(state);
+        BDD stateBdd = looping.get(state);
+        if (stateBdd.isZero()) {
+          continue;
+        }
 
-      for (int round = 0; !reachableInNRounds.isEmpty() && round < numRounds; round++) {
-        reachableInNRounds = propagate(reachableInNRounds);
+        // keep the packets that can move to a looping packet of another state in the component
+        BDD canContinue = zero;
+        for (Entry<StateExpr, Transition> edge : _forwardEdgeTable.row(state).entrySet()) {
+          BDD postStateBdd = looping.get(edge.getKey());
+          if (postStateBdd != null && !postStateBdd.isZero()) {
+            canContinue = canContinue.or(edge.getValue().transitBackward(postStateBdd));
+          }
+        }
+        BDD newStateBdd = stateBdd.and(canContinue);
+        if (!newStateBdd.equals(stateBdd)) {
+          looping.put(state, newStateBdd);
+          transposedEdges.row(state).keySet().stream()
+              .filter(component::contains)
+              .forEach(dirty::add);
+        }
       }
-      return reachableInNRounds;
+      looping.values().removeIf(BDD::isZero);
+      return looping;
     } finally {
       span.finish();
     }
@@ -0,0 +1,73 @@
+package org.batfish.bddreachability;
+
+import static org.batfish.bddreachability.BDDMultipathInconsistency.streamMultipathInconsistencies;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import net.sf.javabdd.BDD;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.datamodel.Flow;
+import org.batfish.specifier.IpSpaceAssignment;
+import org.batfish.symbolic.IngressLocation;
+
+/**
+ * Finds multipath inconsistencies one batch of sources at a time. The backward reachability of the
+ * success and (non-loop) failure dispositions does not depend on the sources, so it is computed
+ * once for all sources when the analysis is created. Only loop detection, which runs forward from
+ * the sources, is done per batch.
+ *
+ * <p>Not thread-safe: like its {@link BDDPacket}, an instance must be confined to one thread.
+ */
+public final class BDDMultipathConsistencyAnalysis {
+  private final BDDPacket _bddPacket;
+  private final Map<IngressLocation, BDD> _successBdds;
+  private final Map<IngressLocation, BDD> _failureBdds;
+  private final Function<IpSpaceAssignment, Map<IngressLocation, BDD>> _loopDetection;
+
+  BDDMultipathConsistencyAnalysis(
+      BDDPacket bddPacket,
+      Map<IngressLocation, BDD> successBdds,
+      Map<IngressLocation, BDD> failureBdds,
+      Function<IpSpaceAssignment, Map<IngressLocation, BDD>> loopDetection) {
+    _bddPacket = bddPacket;
+    _successBdds = successBdds;
+    _failureBdds = failureBdds;
+    _loopDetection = loopDetection;
+  }
+
+  /**
+   * Adds example flows for the multipath inconsistencies of the sources in {@code batch} to {@code
+   * flows}, stopping once it holds {@code maxFlows} flows. The BDDs computed for the batch are
+   * freed before returning.
+   */
+  public void addInconsistencies(IpSpaceAssignment batch, Set<Flow> flows, int maxFlows) {
+    // only includes the sources of the batch that can originate the headerspace
+    Map<IngressLocation, BDD> loopBdds = _loopDetection.apply(batch);
+    Map<IngressLocation, BDD> successBdds =
+        ImmutableMap.copyOf(Maps.filterKeys(_successBdds, loopBdds::containsKey));
+    Map<IngressLocation, BDD> failureBdds =
+        loopBdds.entrySet().stream()
+            .collect(
+                ImmutableMap.toImmutableMap(
+                    Map.Entry::getKey,
+                    entry -> _failureBdds.get(entry.getKey()).or(entry.getValue())));
+
+    Iterator<Flow> inconsistencies =
+        streamMultipathInconsistencies(_bddPacket, successBdds, failureBdds).iterator();
+    while (flows.size() < maxFlows && inconsistencies.hasNext()) {
+      flows.add(inconsistencies.next());
+    }
+
+    // the same BDD may be reachable from several locations, so free each one only once
+    Set<BDD> bdds = Collections.newSetFromMap(new IdentityHashMap<>());
+    bdds.addAll(loopBdds.values());
+    bdds.addAll(failureBdds.values());
+    bdds.forEach(BDD::free);
+  }
+}
@@ -29,11 +29,29 @@ public class BDDMultipathInconsistency {
       BDDPacket bddPacket,
       Map<IngressLocation, BDD> disposition1FlowBdds,
       Map<IngressLocation, BDD> disposition2FlowBdds) {
-    return computeMultipathInconsistencyBDDs(disposition1FlowBdds, disposition2FlowBdds)
-        .map(violation -> multipathInconsistencyToFlow(bddPacket, violation))
+    return streamMultipathInconsistencies(bddPacket, disposition1FlowBdds, disposition2FlowBdds)
         .collect(ImmutableList.toImmutableList());
   }
 
+  /**
+   * Return a lazy stream of example {@link Flow flows} for the {@link MultipathInconsistency
+   * multipath consistency violations} detected in the network. Each ingress location is checked
+   * only when the stream reaches it, and the violation's {@link BDD} is freed once its flow is
+   * built, so a consumer that stops early does no work for the remaining locations.
+   */
+  public static Stream<Flow> streamMultipathInconsistencies(
+      BDDPacket bddPacket,
+      Map<IngressLocation, BDD> disposition1FlowBdds,
+      Map<IngressLocation, BDD> disposition2FlowBdds) {
+    return computeMultipathInconsistencyBDDs(disposition1FlowBdds, disposition2FlowBdds)
+        .map(
+            violation -> {
+              Flow flow = multipathInconsistencyToFlow(bddPacket, violation);
+              violation.getBDD().free();
+              return flow;
+            });
+  }
+
   @VisibleForTesting
   static Stream<MultipathInconsistency> computeMultipathInconsistencyBDDs(
       Map<IngressLocation, BDD> disposition1FlowBdds,
@@ -50,10 +68,11 @@ public class BDDMultipathInconsistency {
               BDD query2Bdd = disposition2FlowBdds.get(loc);
 
               BDD intersection = query1Bdd.and(query2Bdd);
-
-              return intersection.isZero()
-                  ? Stream.empty()
-                  : Stream.of(new MultipathInconsistency(loc, intersection));
+              if (intersection.isZero()) {
+                intersection.free();
+                return Stream.empty();
+              }
+              return Stream.of(new MultipathInconsistency(loc, intersection));
             });
   }
 
@@ -26,6 +26,7 @@ import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.collect.Streams;
 import io.opentracing.Scope;
 import io.opentracing.Span;
@@ -236,6 +237,12 @@ public final class BDDReachabilityAnalysisFactory {
   // node --> interface --> vrf
   private final Map<String, Map<String, String>> _interfacesToVrfsMap;
 
+  // the factory whose per-node BDDs are shared for _sharedNodes, if any
+  private final @Nullable BDDReachabilityAnalysisFactory _base;
+
+  // nodes whose per-node BDDs are taken from _base rather than computed
+  private final Set<String> _sharedNodes;
+
   private BDD _zero;
 
   public BDDReachabilityAnalysisFactory(
@@ -245,9 +252,50 @@ public final class BDDReachabilityAnalysisFactory {
       IpsRoutedOutInterfacesFactory ipsRoutedOutInterfacesFactory,
       boolean ignoreFilters,
       boolean initializeSessions) {
+    this(
+        packet,
+        configs,
+        forwardingAnalysis,
+        ipsRoutedOutInterfacesFactory,
+        ignoreFilters,
+        initializeSessions,
+        null,
+        ImmutableSet.of());
+  }
+
+  /**
+   * Creates a factory for a snapshot that may share nodes with the snapshot of {@code base}, e.g.
+   * the other snapshot of a differential analysis. The per-node BDDs of {@code unchangedNodes}
+   * (source tracking, ACLs, transformations and forwarding) are taken from {@code base} instead of
+   * being recomputed, so each node must have the same configuration and forwarding analysis in both
+   * snapshots (see {@link UnchangedNodes}).
+   */
+  public BDDReachabilityAnalysisFactory(
+      BDDPacket packet,
+      Map<String, Configuration> configs,
+      ForwardingAnalysis forwardingAnalysis,
+      IpsRoutedOutInterfacesFactory ipsRoutedOutInterfacesFactory,
+      boolean ignoreFilters,
+      boolean initializeSessions,
+      @Nullable BDDReachabilityAnalysisFactory base,
+      Set<String> unchangedNodes) {
+    checkArgument(
+        base == null || base._bddPacket == packet, "Shared BDDs must use the same BDDPacket");
+    checkArgument(
+        base == null || base._ignoreFilters == ignoreFilters,
+        "Shared BDDs must have the same ignoreFilters setting");
+    checkArgument(
+        base == null || !initializeSessions, "Cannot share BDDs when initializing sessions");
     Span span = GlobalTracer.get().buildSpan("Construct BDDReachabilityAnalysisFactory").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
+      _base = base;
+      _sharedNodes =
+          base == null
+              ? ImmutableSet.of()
+              : ImmutableSet.copyOf(Sets.intersection(unchangedNodes, configs.keySet()));
+      // the configurations of the nodes whose per-node BDDs must be computed
+      Map<String, Configuration> computedConfigs = unshared(configs);
       _bddPacket = packet;
       _one = packet.getFactory().one();
       _zero = packet.getFactory().zero();
@@ -262,7 +310,12 @@ public final class BDDReachabilityAnalysisFactory {
               ? new LastHopOutgoingInterfaceManager(packet, configs, _topologyEdges)
               : null;
       _requiredTransitNodeBDD = _bddPacket.allocateBDDBit("requiredTransitNodes");
-      _bddSourceManagers = BDDSourceManager.forNetwork(_bddPacket, configs, initializeSessions);
+      _bddSourceManagers =
+          withShared(
+              computedConfigs.isEmpty()
+                  ? ImmutableMap.of()
+                  : BDDSourceManager.forNetwork(_bddPacket, computedConfigs, initializeSessions),
+              f -> f._bddSourceManagers);
       if (_ignoreFilters) {
         // If ignoring filters, make all BDDOutgoingOriginalFlowFilterManagers trivial; they should
         // never enforce any constraints.
@@ -272,34 +325,76 @@ public final class BDDReachabilityAnalysisFactory {
             toImmutableMap(configs.keySet(), Function.identity(), k -> empty);
       } else {
         _bddOutgoingOriginalFlowFilterManagers =
-            BDDOutgoingOriginalFlowFilterManager.forNetwork(
-                _bddPacket, configs, _bddSourceManagers);
+            withShared(
+                computedConfigs.isEmpty()
+                    ? ImmutableMap.of()
+                    : BDDOutgoingOriginalFlowFilterManager.forNetwork(
+                        _bddPacket, computedConfigs, _bddSourceManagers),
+                f -> f._bddOutgoingOriginalFlowFilterManagers);
       }
       _configs = configs;
       _dstIpSpaceToBDD = _bddPacket.getDstIpSpaceToBDD();
       _srcIpSpaceToBDD = _bddPacket.getSrcIpSpaceToBDD();
 
-      _aclPermitBDDs = computeAclBDDs(_bddPacket, _bddSourceManagers, configs);
-      _aclDenyBDDs = computeAclDenyBDDs(_aclPermitBDDs);
-
-      _bddIncomingTransformations = computeBDDIncomingTransformations();
-      _bddOutgoingTransformations = computeBDDOutgoingTransformations();
-
-      _arpTrueEdgeBDDs = computeArpTrueEdgeBDDs(forwardingAnalysis, _dstIpSpaceToBDD);
+      _aclPermitBDDs =
+          withShared(
+              computeAclBDDs(_bddPacket, _bddSourceManagers, computedConfigs),
+              f -> f._aclPermitBDDs);
+      _aclDenyBDDs = withShared(computeAclDenyBDDs(unshared(_aclPermitBDDs)), f -> f._aclDenyBDDs);
+
+      _bddIncomingTransformations =
+          withShared(
+              computeBDDIncomingTransformations(computedConfigs),
+              f -> f._bddIncomingTransformations);
+      _bddOutgoingTransformations =
+          withShared(
+              computeBDDOutgoingTransformations(computedConfigs),
+              f -> f._bddOutgoingTransformations);
+
+      _arpTrueEdgeBDDs =
+          withShared(
+              computeArpTrueEdgeBDDs(
+                  unshared(forwardingAnalysis.getArpTrueEdge()), _dstIpSpaceToBDD),
+              f -> f._arpTrueEdgeBDDs);
       _neighborUnreachableBDDs =
-          computeDispositionBDDs(forwardingAnalysis.getNeighborUnreachable(), _dstIpSpaceToBDD);
+          withShared(
+              computeDispositionBDDs(
+                  unshared(forwardingAnalysis.getNeighborUnreachable()), _dstIpSpaceToBDD),
+              f -> f._neighborUnreachableBDDs);
       _deliveredToSubnetBDDs =
-          computeDispositionBDDs(forwardingAnalysis.getDeliveredToSubnet(), _dstIpSpaceToBDD);
+          withShared(
+              computeDispositionBDDs(
+                  unshared(forwardingAnalysis.getDeliveredToSubnet()), _dstIpSpaceToBDD),
+              f -> f._deliveredToSubnetBDDs);
       _exitsNetworkBDDs =
-          computeDispositionBDDs(forwardingAnalysis.getExitsNetwork(), _dstIpSpaceToBDD);
+          withShared(
+              computeDispositionBDDs(
+                  unshared(forwardingAnalysis.getExitsNetwork()), _dstIpSpaceToBDD),
+              f -> f._exitsNetworkBDDs);
       _insufficientInfoBDDs =
-          computeDispositionBDDs(forwardingAnalysis.getInsufficientInfo(), _dstIpSpaceToBDD);
-      _nullRoutedBDDs = computeNullRoutedBDDs(forwardingAnalysis, _dstIpSpaceToBDD);
-      _routableBDDs = computeRoutableBDDs(forwardingAnalysis, _dstIpSpaceToBDD);
+          withShared(
+              computeDispositionBDDs(
+                  unshared(forwardingAnalysis.getInsufficientInfo()), _dstIpSpaceToBDD),
+              f -> f._insufficientInfoBDDs);
+      _nullRoutedBDDs =
+          withShared(
+              computeNullRoutedBDDs(
+                  unshared(forwardingAnalysis.getNullRoutedIps()), _dstIpSpaceToBDD),
+              f -> f._nullRoutedBDDs);
+      _routableBDDs =
+          withShared(
+              computeRoutableBDDs(unshared(forwardingAnalysis.getRoutableIps()), _dstIpSpaceToBDD),
+              f -> f._routableBDDs);
       _ifaceAcceptBDDs =
-          computeIfaceAcceptBDDs(configs, forwardingAnalysis.getAcceptsIps(), _dstIpSpaceToBDD);
+          withShared(
+              computeIfaceAcceptBDDs(
+                  computedConfigs, forwardingAnalysis.getAcceptsIps(), _dstIpSpaceToBDD),
+              f -> f._ifaceAcceptBDDs);
       _vrfAcceptBDDs = computeVrfAcceptBDDs(); // must do this after populating _ifaceAcceptBDDs
-      _nextVrfBDDs = computeNextVrfBDDs(forwardingAnalysis.getNextVrfIps(), _dstIpSpaceToBDD);
+      _nextVrfBDDs =
+          withShared(
+              computeNextVrfBDDs(unshared(forwardingAnalysis.getNextVrfIps()), _dstIpSpaceToBDD),
+              f -> f._nextVrfBDDs);
       _interfacesToVrfsMap = computeInterfacesToVrfsMap(configs);
 
       _convertedPacketPolicies = convertPacketPolicies(configs, ipsRoutedOutInterfacesFactory);
@@ -330,6 +425,35 @@ public final class BDDReachabilityAnalysisFactory {
     }
   }
 
+  /** Returns the entries of {@code perNode} for the nodes whose per-node BDDs are computed. */
+  private <V> Map<String, V> unshared(Map<String, V> perNode) {
+    return _sharedNodes.isEmpty()
+        ? perNode
+        : Maps.filterKeys(perNode, node -> !_sharedNodes.contains(node));
+  }
+
+  /**
+   * Returns {@code computed} together with the entries of the shared nodes in the corresponding
+   * per-node map of {@link #_base}.
+   */
+  private <V> Map<String, V> withShared(
+      Map<String, V> computed, Function<BDDReachabilityAnalysisFactory, Map<String, V>> perNode) {
+    if (_sharedNodes.isEmpty()) {
+      return computed;
+    }
+    assert _base != null;
+    Map<String, V> basePerNode = perNode.apply(_base);
+    ImmutableMap.Builder<String, V> builder = ImmutableMap.builder();
+    builder.putAll(computed);
+    for (String node : _sharedNodes) {
+      V value = basePerNode.get(node);
+      if (value != null) {
+        builder.put(node, value);
+      }
+    }
+    return builder.build();
+  }
+
   /**
    * Computes VRF accept BDDs based on interface accept BDDs. Each VRF's accept BDD is the union of
    * its interfaces' accept BDDs.
@@ -421,7 +545,8 @@ public final class BDDReachabilityAnalysisFactory {
             node.getIpAccessLists()));
   }
 
-  private Map<String, Map<String, Transition>> computeBDDIncomingTransformations() {
+  private Map<String, Map<String, Transition>> computeBDDIncomingTransformations(
+      Map<String, Configuration> configs) {
     Span span =
         GlobalTracer.get()
             .buildSpan("BDDReachabilityAnalysisFactory.computeBDDIncomingTransformations")
@@ -429,7 +554,7 @@ public final class BDDReachabilityAnalysisFactory {
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
       return toImmutableMap(
-          _configs,
+          configs,
           Entry::getKey, /* node */
           nodeEntry -> {
             Configuration node = nodeEntry.getValue();
@@ -445,7 +570,8 @@ public final class BDDReachabilityAnalysisFactory {
     }
   }
 
-  private Map<String, Map<String, Transition>> computeBDDOutgoingTransformations() {
+  private Map<String, Map<String, Transition>> computeBDDOutgoingTransformations(
+      Map<String, Configuration> configs) {
     Span span =
         GlobalTracer.get()
             .buildSpan("BDDReachabilityAnalysisFactory.computeBDDOutgoingTransformations")
@@ -453,7 +579,7 @@ public final class BDDReachabilityAnalysisFactory {
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
       return toImmutableMap(
-          _configs,
+          configs,
           Entry::getKey, /* node */
           nodeEntry -> {
             Configuration node = nodeEntry.getValue();
@@ -470,7 +596,7 @@ public final class BDDReachabilityAnalysisFactory {
   }
 
   private static @Nonnull Map<String, Map<String, BDD>> computeNullRoutedBDDs(
-      ForwardingAnalysis forwardingAnalysis, IpSpaceToBDD ipSpaceToBDD) {
+      Map<String, Map<String, IpSpace>> nullRoutedIps, IpSpaceToBDD ipSpaceToBDD) {
     Span span =
         GlobalTracer.get()
             .buildSpan("BDDReachabilityAnalysisFactory.computeNullRoutedBDDs")
@@ -478,7 +604,7 @@ public final class BDDReachabilityAnalysisFactory {
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
       return toImmutableMap(
-          forwardingAnalysis.getNullRoutedIps(),
+          nullRoutedIps,
           Entry::getKey /* hostname */,
           nullRoutedIpsByNodeVrfEntry ->
               toImmutableMap(
@@ -492,13 +618,13 @@ public final class BDDReachabilityAnalysisFactory {
   }
 
   private static Map<String, Map<String, BDD>> computeRoutableBDDs(
-      ForwardingAnalysis forwardingAnalysis, IpSpaceToBDD ipSpaceToBDD) {
+      Map<String, Map<String, IpSpace>> routableIps, IpSpaceToBDD ipSpaceToBDD) {
     Span span =
         GlobalTracer.get().buildSpan("BDDReachabilityAnalysisFactory.computeRoutableBDDs").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
       return toImmutableMap(
-          forwardingAnalysis.getRoutableIps(),
+          routableIps,
           Entry::getKey,
           nodeEntry ->
               toImmutableMap(
@@ -564,7 +690,9 @@ public final class BDDReachabilityAnalysisFactory {
   }
 
   private static Map<String, Map<String, Map<org.batfish.datamodel.Edge, BDD>>>
-      computeArpTrueEdgeBDDs(ForwardingAnalysis forwardingAnalysis, IpSpaceToBDD ipSpaceToBDD) {
+      computeArpTrueEdgeBDDs(
+          Map<String, Map<String, Map<org.batfish.datamodel.Edge, IpSpace>>> arpTrueEdge,
+          IpSpaceToBDD ipSpaceToBDD) {
     Span span =
         GlobalTracer.get()
             .buildSpan("BDDReachabilityAnalysisFactory.computeArpTrueEdgeBDDs")
@@ -572,7 +700,7 @@ public final class BDDReachabilityAnalysisFactory {
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
       return toImmutableMap(
-          forwardingAnalysis.getArpTrueEdge(),
+          arpTrueEdge,
           Entry::getKey, // node
           nodeEntry ->
               toImmutableMap(
@@ -1471,6 +1599,80 @@ public final class BDDReachabilityAnalysisFactory {
     }
   }
 
+  /**
+   * Create a {@link BDDMultipathConsistencyAnalysis} with the specified parameters. This runs the
+   * backward reachability of the success and failure dispositions for all sources, which later
+   * batches of sources share.
+   *
+   * @param srcIpSpaceAssignment An assignment of active source locations to the corresponding
+   *     source {@link IpSpace}.
+   * @param initialHeaderSpace The initial headerspace (i.e. before any packet transformations).
+   * @param forbiddenTransitNodes A set of hostnames that must not be transited.
+   * @param requiredTransitNodes A set of hostnames of which one must be transited.
+   * @param finalNodes Find flows that stop at one of these nodes.
+   * @param successActions Dispositions of successful flows.
+   * @param failureActions Dispositions of failed flows, which must include {@link
+   *     FlowDisposition#LOOP}.
+   */
+  public BDDMultipathConsistencyAnalysis bddMultipathConsistencyAnalysis(
+      IpSpaceAssignment srcIpSpaceAssignment,
+      AclLineMatchExpr initialHeaderSpace,
+      Set<String> forbiddenTransitNodes,
+      Set<String> requiredTransitNodes,
+      Set<String> finalNodes,
+      Set<FlowDisposition> successActions,
+      Set<FlowDisposition> failureActions) {
+    checkArgument(!successActions.contains(LOOP), "Loops are not successful");
+    checkArgument(failureActions.contains(LOOP), "Loops must be failures");
+    Span span =
+        GlobalTracer.get()
+            .buildSpan("BDDReachabilityAnalysisFactory.bddMultipathConsistencyAnalysis")
+            .start();
+    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
+      assert scope != null; // avoid unused warning
+      Set<FlowDisposition> nonLoopFailureActions = new HashSet<>(failureActions);
+      nonLoopFailureActions.remove(LOOP);
+
+      BDD initialHeaderSpaceBdd = computeInitialHeaderSpaceBdd(initialHeaderSpace);
+      BDD finalHeaderSpaceBdd = computeFinalHeaderSpaceBdd(initialHeaderSpaceBdd);
+      Map<StateExpr, BDD> roots =
+          rootConstraints(srcIpSpaceAssignment, initialHeaderSpaceBdd, false);
+      List<Edge> sharedEdges = generateEdges().collect(Collectors.toList());
+
+      Function<Set<FlowDisposition>, Map<IngressLocation, BDD>> reachableBdds =
+          actions -> {
+            Stream<Edge> edges =
+                Streams.concat(
+                    sharedEdges.stream(),
+                    generateRootEdges(roots),
+                    generateDispositionEdges(finalNodes),
+                    generateQueryEdges(actions));
+            edges = instrumentForbiddenTransitNodes(forbiddenTransitNodes, edges);
+            edges = instrumentRequiredTransitNodes(requiredTransitNodes, edges);
+            return new BDDReachabilityAnalysis(
+                    _bddPacket, roots.keySet(), edges, finalHeaderSpaceBdd)
+                .getIngressLocationReachableBDDs();
+          };
+      Map<IngressLocation, BDD> successBdds = reachableBdds.apply(successActions);
+      Map<IngressLocation, BDD> failureBdds = reachableBdds.apply(nonLoopFailureActions);
+
+      Function<IpSpaceAssignment, Map<IngressLocation, BDD>> loopDetection =
+          batch -> {
+            Map<StateExpr, BDD> batchRoots =
+                compatibleRootConstraints(batch, initialHeaderSpaceBdd, false);
+            return new BDDLoopDetectionAnalysis(
+                    _bddPacket,
+                    Stream.concat(sharedEdges.stream(), generateRootEdges(batchRoots)),
+                    batchRoots.keySet())
+                .detectLoops();
+          };
+      return new BDDMultipathConsistencyAnalysis(
+          _bddPacket, successBdds, failureBdds, loopDetection);
+    } finally {
+      span.finish();
+    }
+  }
+
   private BDDReachabilityAndLoopDetectionAnalysis bddReachabilityAndLoopDetectionAnalysis(
       IpSpaceAssignment srcIpSpaceAssignment,
       AclLineMatchExpr initialHeaderSpace,
@@ -1830,6 +2032,18 @@ public final class BDDReachabilityAnalysisFactory {
       IpSpaceAssignment srcIpSpaceAssignment,
       BDD initialHeaderSpaceBdd,
       boolean useInterfaceRoots) {
+    Map<StateExpr, BDD> rootConstraints =
+        compatibleRootConstraints(srcIpSpaceAssignment, initialHeaderSpaceBdd, useInterfaceRoots);
+    // make sure there is at least one possible source
+    checkArgument(
+        !rootConstraints.isEmpty(), "No sources are compatible with the headerspace constraint");
+    return rootConstraints;
+  }
+
+  private Map<StateExpr, BDD> compatibleRootConstraints(
+      IpSpaceAssignment srcIpSpaceAssignment,
+      BDD initialHeaderSpaceBdd,
+      boolean useInterfaceRoots) {
     Span span =
         GlobalTracer.get().buildSpan("BDDReachabilityAnalysisFactory.rootConstraints").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
@@ -1850,21 +2064,12 @@ public final class BDDReachabilityAnalysisFactory {
       }
 
       // add the global initial HeaderSpace and remove unsat entries
-      Map<StateExpr, BDD> finalRootConstraints =
-          rootConstraints.entrySet().stream()
-              .map(
-                  entry ->
-                      Maps.immutableEntry(
-                          entry.getKey(), entry.getValue().and(initialHeaderSpaceBdd)))
-              .filter(entry -> !entry.getValue().isZero())
-              .collect(ImmutableMap.toImmutableMap(Entry::getKey, Entry::getValue));
-
-      // make sure there is at least one possible source
-      checkArgument(
-          !finalRootConstraints.isEmpty(),
-          "No sources are compatible with the headerspace constraint");
-
-      return finalRootConstraints;
+      return rootConstraints.entrySet().stream()
+          .map(
+              entry ->
+                  Maps.immutableEntry(entry.getKey(), entry.getValue().and(initialHeaderSpaceBdd)))
+          .filter(entry -> !entry.getValue().isZero())
+          .collect(ImmutableMap.toImmutableMap(Entry::getKey, Entry::getValue));
     } finally {
       span.finish();
     }
@@ -0,0 +1,97 @@
+package org.batfish.bddreachability;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ForwardingAnalysis;
+
+/**
+ * Finds the nodes that are the same in two snapshots, so that a differential analysis can share
+ * their per-node BDDs between the two reachability graphs (see {@link
+ * BDDReachabilityAnalysisFactory}).
+ *
+ * <p>A node is unchanged if its {@link Configuration} serializes to the same bytes in both
+ * snapshots, and every per-node entry of the {@link ForwardingAnalysis} is equal. Comparing
+ * serialized forms is conservative: equivalent configurations that serialize differently are
+ * reported as changed, which only forgoes sharing.
+ */
+@ParametersAreNonnullByDefault
+public final class UnchangedNodes {
+
+  /** The per-node parts of a {@link ForwardingAnalysis} that the reachability graph depends on */
+  private static final Set<Function<ForwardingAnalysis, Map<String, ?>>> PER_NODE_FORWARDING =
+      ImmutableSet.of(
+          ForwardingAnalysis::getAcceptsIps,
+          ForwardingAnalysis::getArpTrueEdge,
+          ForwardingAnalysis::getDeliveredToSubnet,
+          ForwardingAnalysis::getExitsNetwork,
+          ForwardingAnalysis::getInsufficientInfo,
+          ForwardingAnalysis::getNeighborUnreachable,
+          ForwardingAnalysis::getNextVrfIps,
+          ForwardingAnalysis::getNullRoutedIps,
+          ForwardingAnalysis::getRoutableIps);
+
+  /**
+   * Returns the nodes present in both snapshots whose configuration and forwarding analysis are the
+   * same in both.
+   */
+  public static @Nonnull Set<String> unchangedNodes(
+      Map<String, Configuration> configs1,
+      ForwardingAnalysis forwardingAnalysis1,
+      Map<String, Configuration> configs2,
+      ForwardingAnalysis forwardingAnalysis2) {
+    return configs1.keySet().stream()
+        .filter(configs2::containsKey)
+        .filter(
+            node ->
+                PER_NODE_FORWARDING.stream()
+                    .allMatch(
+                        perNode ->
+                            Objects.equals(
+                                perNode.apply(forwardingAnalysis1).get(node),
+                                perNode.apply(forwardingAnalysis2).get(node))))
+        .filter(
+            node ->
+                configurationHash(configs1.get(node)).equals(configurationHash(configs2.get(node))))
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
+  /**
+   * Returns true iff the two snapshots have the same nodes, and all of them are unchanged according
+   * to {@link #unchangedNodes}.
+   */
+  public static boolean allUnchanged(
+      Map<String, Configuration> configs1,
+      Set<String> unchangedNodes,
+      Map<String, Configuration> configs2) {
+    return configs1.keySet().equals(configs2.keySet())
+        && unchangedNodes.containsAll(configs1.keySet());
+  }
+
+  /** Hashes the serialized form of {@code configuration}. */
+  @VisibleForTesting
+  static @Nonnull HashCode configurationHash(Configuration configuration) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    try (ObjectOutputStream out = new ObjectOutputStream(Funnels.asOutputStream(hasher))) {
+      out.writeObject(configuration);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return hasher.hash();
+  }
+
+  private UnchangedNodes() {}
+}
@@ -13,6 +13,7 @@ import javax.annotation.Nullable;
 import org.batfish.common.BaseSettings;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
+import org.batfish.common.BfConsts.TaskCategory;
 import org.batfish.common.CoordConsts;
 import org.batfish.grammar.GrammarSettings;
 import org.batfish.identifiers.AnalysisId;
@@ -60,8 +61,12 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   private static final String ARG_MAX_PARSE_TREE_PRINT_LENGTH = "maxparsetreeprintlength";
 
+  private static final String ARG_MAX_CONCURRENT_TASKS = "maxconcurrenttasks";
+
   private static final String ARG_MAX_RUNTIME_MS = "maxruntime";
 
+  private static final String ARG_NO_PARSER_WARMUP = "noparserwarmup";
+
   private static final String ARG_NO_SHUFFLE = "noshuffle";
 
   private static final String ARG_PRINT_PARSE_TREES = "ppt";
@@ -301,6 +306,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getInt(ARG_MAX_PARSE_TREE_PRINT_LENGTH);
   }
 
+  public int getMaxConcurrentTasks() {
+    return _config.getInt(ARG_MAX_CONCURRENT_TASKS);
+  }
+
   public int getMaxRuntimeMs() {
     return _config.getInt(ARG_MAX_RUNTIME_MS);
   }
@@ -352,6 +361,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getInt(ARG_SERVICE_PORT);
   }
 
+  public boolean getParserWarmup() {
+    return !_config.getBoolean(ARG_NO_PARSER_WARMUP);
+  }
+
   public boolean getShuffleJobs() {
     return !_config.getBoolean(ARG_NO_SHUFFLE);
   }
@@ -373,6 +386,25 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getString(TASK_ID);
   }
 
+  /**
+   * Returns the {@link TaskCategory} hint supplied by the coordinator, if any. An unrecognized hint
+   * is ignored, so that the category is inferred from the commands instead.
+   */
+  public @Nullable TaskCategory getTaskCategory() {
+    String category = _config.getString(BfConsts.ARG_TASK_CATEGORY);
+    if (category == null) {
+      return null;
+    }
+    try {
+      return TaskCategory.valueOf(category);
+    } catch (IllegalArgumentException e) {
+      if (_logger != null) {
+        _logger.warnf("Ignoring unknown task category: %s\n", category);
+      }
+      return null;
+    }
+  }
+
   public String getTaskPlugin() {
     return _config.getString(BfConsts.ARG_TASK_PLUGIN);
   }
@@ -468,8 +500,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(ARG_MAX_PARSER_CONTEXT_LINES, 10);
     setDefaultProperty(ARG_MAX_PARSER_CONTEXT_TOKENS, 10);
     setDefaultProperty(ARG_MAX_PARSE_TREE_PRINT_LENGTH, 0);
+    setDefaultProperty(ARG_MAX_CONCURRENT_TASKS, 4);
     setDefaultProperty(ARG_MAX_RUNTIME_MS, 0);
     setDefaultProperty(ARG_CHECK_BGP_REACHABILITY, true);
+    setDefaultProperty(ARG_NO_PARSER_WARMUP, false);
     setDefaultProperty(ARG_NO_SHUFFLE, false);
     setDefaultProperty(ARG_PARSE_REUSE, true);
     setDefaultProperty(ARG_PRINT_PARSE_TREES, false);
@@ -483,6 +517,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(ARG_SERVICE_PORT, BfConsts.SVC_PORT);
     setDefaultProperty(BfConsts.ARG_SNAPSHOT_NAME, null);
     setDefaultProperty(BfConsts.ARG_STORAGE_BASE, null);
+    setDefaultProperty(BfConsts.ARG_TASK_CATEGORY, null);
     setDefaultProperty(BfConsts.ARG_TASK_PLUGIN, null);
     setDefaultProperty(ARG_THROW_ON_LEXER_ERROR, true);
     setDefaultProperty(ARG_THROW_ON_PARSER_ERROR, true);
@@ -630,8 +665,17 @@ public final class Settings extends BaseSettings implements GrammarSettings {
             + "(<= 0 is treated as no limit)",
         ARGNAME_NUMBER);
 
+    addOption(
+        ARG_MAX_CONCURRENT_TASKS,
+        "maximum number of tasks a worker service runs concurrently",
+        ARGNAME_NUMBER);
+
     addOption(ARG_MAX_RUNTIME_MS, "maximum time (in ms) to allow a task to run", ARGNAME_NUMBER);
 
+    addBooleanOption(
+        ARG_NO_PARSER_WARMUP,
+        "do not warm up configuration parsers when starting a worker service");
+
     addBooleanOption(ARG_NO_SHUFFLE, "do not shuffle parallel jobs");
 
     addBooleanOption(ARG_PARSE_REUSE, "reuse parse results when appropriate");
@@ -669,6 +713,13 @@ public final class Settings extends BaseSettings implements GrammarSettings {
         BfConsts.ARG_SYNTHESIZE_TOPOLOGY,
         "synthesize topology from interface ip subnet information");
 
+    addOption(
+        BfConsts.ARG_TASK_CATEGORY,
+        "resource category of task, used for admission by worker service",
+        Arrays.stream(TaskCategory.values())
+            .map(Object::toString)
+            .collect(Collectors.joining("|")));
+
     addOption(BfConsts.ARG_TASK_PLUGIN, "fully-qualified name of task plugin class", ARGNAME_NAME);
 
     addOption(BfConsts.ARG_TESTRIG, "ID of snapshot", ARGNAME_NAME);
@@ -797,6 +848,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getIntOptionValue(ARG_MAX_PARSER_CONTEXT_LINES);
     getIntOptionValue(ARG_MAX_PARSER_CONTEXT_TOKENS);
     getIntOptionValue(ARG_MAX_PARSE_TREE_PRINT_LENGTH);
+    getIntOptionValue(ARG_MAX_CONCURRENT_TASKS);
     getIntOptionValue(ARG_MAX_RUNTIME_MS);
     getBooleanOptionValue(ARG_PRINT_PARSE_TREES);
     getBooleanOptionValue(ARG_PRINT_PARSE_TREE_LINE_NUMS);
@@ -809,10 +861,12 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getStringOptionValue(ARG_SERVICE_HOST);
     getStringOptionValue(ARG_SERVICE_NAME);
     getIntOptionValue(ARG_SERVICE_PORT);
+    getBooleanOptionValue(ARG_NO_PARSER_WARMUP);
     getBooleanOptionValue(ARG_NO_SHUFFLE);
     getBooleanOptionValue(ARG_PARSE_REUSE);
     getStringOptionValue(BfConsts.ARG_SNAPSHOT_NAME);
     getPathOptionValue(BfConsts.ARG_STORAGE_BASE);
+    getStringOptionValue(BfConsts.ARG_TASK_CATEGORY);
     getStringOptionValue(BfConsts.ARG_TASK_PLUGIN);
     getStringOptionValue(BfConsts.ARG_TESTRIG);
     getBooleanOptionValue(ARG_THROW_ON_LEXER_ERROR);
@@ -9,6 +9,7 @@ import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.flow.FirewallSessionTraceInfo;
 import org.batfish.datamodel.flow.TraceAndReverseFlow;
+import org.batfish.datamodel.flow.TraceDag;
 import org.batfish.dataplane.traceroute.TracerouteEngineImplContext;
 
 /** The default implementation of a traceroute engine */
@@ -28,4 +29,12 @@ public final class TracerouteEngineImpl implements TracerouteEngine {
             _dataPlane, _topology, sessions, flows, _dataPlane.getFibs(), ignoreFilters)
         .buildTracesAndReturnFlows();
   }
+
+  @Override
+  public SortedMap<Flow, TraceDag> computeTraceDags(
+      Set<Flow> flows, Set<FirewallSessionTraceInfo> sessions, boolean ignoreFilters) {
+    return new TracerouteEngineImplContext(
+            _dataPlane, _topology, sessions, flows, _dataPlane.getFibs(), ignoreFilters)
+        .buildTraceDags();
+  }
 }
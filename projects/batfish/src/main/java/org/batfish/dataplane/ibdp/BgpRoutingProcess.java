@@ -1168,22 +1168,22 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
     return session.get();
   }
 
-  int iterationHashCode() {
-    return Stream.of(
-            // RIBs
-            _bgpv4Rib.getTypedRoutes(),
-            _evpnRib.getTypedRoutes(),
-            // Message queues
-            _bgpv4IncomingRoutes,
-            _evpnType3IncomingRoutes,
-            _evpnType5IncomingRoutes,
-            // Delta builders
-            _bgpv4DeltaBuilder.build(),
-            _evpnDeltaBuilder.build(),
-            // intermediate state
-            _type5RoutesToSendForEveryone,
-            _type5RoutesToSendPerNeighbor)
-        .collect(toOrderedHashCode());
+  long iterationHashCode() {
+    int hashCode =
+        Stream.of(
+                // Message queues
+                _bgpv4IncomingRoutes,
+                _evpnType3IncomingRoutes,
+                _evpnType5IncomingRoutes,
+                // Delta builders
+                _bgpv4DeltaBuilder.build(),
+                _evpnDeltaBuilder.build(),
+                // intermediate state
+                _type5RoutesToSendForEveryone,
+                _type5RoutesToSendPerNeighbor)
+            .collect(toOrderedHashCode());
+    // RIBs
+    return 31 * (31 * (long) hashCode + _bgpv4Rib.getFingerprint()) + _evpnRib.getFingerprint();
   }
 
   /**
@@ -559,12 +559,13 @@ final class EigrpRoutingProcess implements RoutingProcess<EigrpTopology, EigrpRo
    *
    * @return integer hashcode
    */
-  int computeIterationHashCode() {
-    return Stream.of(
-            _rib,
-            _incomingInternalRoutes.values().stream(),
-            _incomingExternalRoutes.values().stream())
-        .collect(toOrderedHashCode());
+  long computeIterationHashCode() {
+    int queuesHashCode =
+        Stream.concat(
+                _incomingInternalRoutes.values().stream().flatMap(Queue::stream),
+                _incomingExternalRoutes.values().stream().flatMap(Queue::stream))
+            .collect(toOrderedHashCode());
+    return 31 * (long) queuesHashCode + _rib.getFingerprint();
   }
 
   /** Return the AS number of this process */
@@ -31,6 +31,9 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BdpOscillationException;
+import org.batfish.common.metrics.Counter;
+import org.batfish.common.metrics.Histogram;
+import org.batfish.common.metrics.MetricRegistry;
 import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
 import org.batfish.common.plugin.TracerouteEngine;
 import org.batfish.common.topology.IpOwners;
@@ -58,6 +61,7 @@ import org.batfish.datamodel.vxlan.VxlanTopologyUtils;
 import org.batfish.dataplane.TracerouteEngineImpl;
 import org.batfish.dataplane.ibdp.schedule.IbdpSchedule;
 import org.batfish.dataplane.ibdp.schedule.IbdpSchedule.Schedule;
+import org.batfish.dataplane.rib.AbstractRib;
 import org.batfish.dataplane.rib.Bgpv4Rib;
 import org.batfish.dataplane.rib.RibDelta;
 import org.batfish.version.BatfishVersion;
@@ -67,6 +71,19 @@ class IncrementalBdpEngine {
   private static final Logger LOGGER = LogManager.getLogger(IncrementalBdpEngine.class);
   private static final int MAX_TOPOLOGY_ITERATIONS = 10;
 
+  private static final Counter COMPUTATIONS =
+      MetricRegistry.global().counter("dataplane.computations");
+  private static final Histogram COMPUTATION_MILLIS =
+      MetricRegistry.global().histogram("dataplane.computationMillis");
+  private static final Counter ITERATIONS = MetricRegistry.global().counter("dataplane.iterations");
+  private static final Histogram ITERATION_MILLIS =
+      MetricRegistry.global().histogram("dataplane.iterationMillis");
+  /** Counted by the RIBs themselves, so includes merges of data planes computed concurrently */
+  private static final Counter RIB_MERGES = MetricRegistry.global().counter("rib.merges");
+
+  private static final Histogram RIB_MERGES_PER_ITERATION =
+      MetricRegistry.global().histogram("dataplane.ribMergesPerIteration");
+
   private int _numIterations;
   private final BatfishLogger _bfLogger;
   private final IncrementalDataPlaneSettings _settings;
@@ -80,6 +97,8 @@ class IncrementalBdpEngine {
       Map<String, Configuration> configurations,
       TopologyContext callerTopologyContext,
       Set<BgpAdvertisement> externalAdverts) {
+    COMPUTATIONS.increment();
+    long startNanos = System.nanoTime();
     Span span = GlobalTracer.get().buildSpan("Compute Data Plane").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
@@ -258,6 +277,7 @@ class IncrementalBdpEngine {
       return new ComputeDataPlaneResult(answerElement, finalDataplane, currentTopologyContext);
     } finally {
       span.finish();
+      COMPUTATION_MILLIS.recordMillisSince(startNanos);
     }
   }
 
@@ -644,6 +664,9 @@ class IncrementalBdpEngine {
       }
 
       // OSPF internal routes
+      if (_settings.getOspfSpf()) {
+        computeOspfIntraAreaRoutes(nodes);
+      }
       numOspfInternalIterations = initOspfInternalRoutes(nodes, topologyContext.getOspfTopology());
 
       // RIP internal routes
@@ -755,13 +778,16 @@ class IncrementalBdpEngine {
        * has been previously encountered, we switch our schedule to a more restrictive one.
        */
 
-      Map<Integer, SortedSet<Integer>> iterationsByHashCode = new HashMap<>();
+      Map<Long, SortedSet<Integer>> iterationsByHashCode = new HashMap<>();
 
       Schedule currentSchedule = _settings.getScheduleName();
 
       // Go into iteration mode, until the routes converge (or oscillation is detected)
       do {
         _numIterations++;
+        ITERATIONS.increment();
+        long iterationStartNanos = System.nanoTime();
+        long ribMergesBefore = RIB_MERGES.getCount();
         Span iterSpan = GlobalTracer.get().buildSpan("Iteration " + _numIterations).start();
         LOGGER.info("Iteration {} begins", _numIterations);
         try (Scope innerScope = GlobalTracer.get().scopeManager().activate(iterSpan)) {
@@ -805,7 +831,7 @@ class IncrementalBdpEngine {
           computeIterationStatistics(nodes, ae, _numIterations);
 
           // This hashcode uniquely identifies the iteration (i.e., network state)
-          int iterationHashCode = computeIterationHashCode(nodes);
+          long iterationHashCode = computeIterationHashCode(nodes);
           SortedSet<Integer> iterationsWithThisHashCode =
               iterationsByHashCode.computeIfAbsent(iterationHashCode, h -> new TreeSet<>());
 
@@ -824,6 +850,8 @@ class IncrementalBdpEngine {
           }
         } finally {
           iterSpan.finish();
+          ITERATION_MILLIS.recordMillisSince(iterationStartNanos);
+          RIB_MERGES_PER_ITERATION.record(RIB_MERGES.getCount() - ribMergesBefore);
         }
       } while (hasNotReachedRoutingFixedPoint(nodes));
 
@@ -852,12 +880,15 @@ class IncrementalBdpEngine {
   }
 
   /**
-   * Compute the hashcode that uniquely identifies the state of the network at a given iteration
+   * Compute the hashcode that uniquely identifies the state of the network at a given iteration.
+   * Takes time proportional to the number of routers rather than routes, since RIB contents are
+   * represented by their incrementally maintained {@link AbstractRib#getFingerprint()
+   * fingerprints}.
    *
    * @param nodes map of nodes, keyed by hostname
-   * @return integer hashcode
+   * @return 64-bit hashcode
    */
-  private int computeIterationHashCode(Map<String, Node> nodes) {
+  private long computeIterationHashCode(Map<String, Node> nodes) {
     Span span =
         GlobalTracer.get().buildSpan("Iteration " + _numIterations + ": Compute hashCode").start();
     LOGGER.info("Iteration {}: Compute hashCode", _numIterations);
@@ -867,7 +898,7 @@ class IncrementalBdpEngine {
           .values()
           .parallelStream()
           .flatMap(node -> node.getVirtualRouters().values().stream())
-          .mapToInt(VirtualRouter::computeIterationHashCode)
+          .mapToLong(VirtualRouter::computeIterationHashCode)
           .sum();
     } finally {
       span.finish();
@@ -923,6 +954,23 @@ class IncrementalBdpEngine {
                 vrfEntry -> ImmutableSet.copyOf(vrfEntry.getValue().getMainRib().getRoutes())));
   }
 
+  /**
+   * Install converged OSPF intra-area routes computed by {@link OspfIntraAreaSpf}, so that the
+   * subsequent message passing only has to propagate inter-area and external routes.
+   *
+   * @param allNodes nodes whose OSPF processes have been initialized
+   */
+  private static void computeOspfIntraAreaRoutes(Map<String, Node> allNodes) {
+    Span span = GlobalTracer.get().buildSpan("OSPF internal: intra-area SPF").start();
+    LOGGER.info("OSPF internal: intra-area SPF");
+    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
+      assert scope != null; // avoid unused warning
+      OspfIntraAreaSpf.computeIntraAreaRoutes(allNodes);
+    } finally {
+      span.finish();
+    }
+  }
+
   /**
    * Run the IGP OSPF computation until convergence.
    *
@@ -17,6 +17,7 @@ public class IncrementalDataPlaneSettings {
   private Configuration _config;
 
   public static final String PROP_COLORING = "coloring";
+  public static final String PROP_OSPF_SPF = "ospfspf";
   public static final String PROP_SCHEDULE = "schedule";
 
   /**
@@ -48,6 +49,7 @@ public class IncrementalDataPlaneSettings {
   /** Initialize defaults for all properties */
   private void initDefaults() {
     _config.setProperty(PROP_COLORING, SATURATION.toString());
+    _config.setProperty(PROP_OSPF_SPF, false);
     _config.setProperty(PROP_SCHEDULE, NODE_COLORED.toString());
   }
 
@@ -56,6 +58,18 @@ public class IncrementalDataPlaneSettings {
     return Schedule.valueOf(_config.getString(PROP_SCHEDULE));
   }
 
+  /**
+   * Whether to compute OSPF intra-area routes with a shortest-path-first search over the OSPF
+   * topology (see {@link OspfIntraAreaSpf}), rather than by exchanging route advertisements
+   */
+  public boolean getOspfSpf() {
+    return _config.getBoolean(PROP_OSPF_SPF);
+  }
+
+  public void setOspfSpf(boolean ospfSpf) {
+    _config.setProperty(PROP_OSPF_SPF, ospfSpf);
+  }
+
   /**
    * If the schedule is of type {@link NodeColoredSchedule}, get the type of {@link Coloring} to
    * perform
@@ -0,0 +1,128 @@
+package org.batfish.dataplane.ibdp;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.OspfIntraAreaRoute;
+import org.batfish.datamodel.Prefix;
+
+/**
+ * Computes converged OSPF intra-area routes with a shortest-path-first search, instead of
+ * exchanging route advertisements over many iterations (which amounts to a distributed
+ * Bellman-Ford).
+ *
+ * <p>The routes for each prefix are independent of those for other prefixes, so every prefix gets
+ * its own Dijkstra search over the OSPF adjacencies, starting at the processes that originate it,
+ * and prefixes are searched in parallel. Each hop applies the same export and import
+ * transformations as message passing (see {@link
+ * OspfRoutingProcess#forEachIntraAreaAdvertisement}), and each process keeps all routes with its
+ * lowest metric, like {@link org.batfish.dataplane.rib.OspfIntraAreaRib}. The result is the fixed
+ * point that message passing converges to.
+ */
+@ParametersAreNonnullByDefault
+final class OspfIntraAreaSpf {
+
+  /** A candidate route at a process, ordered by metric in the search */
+  private static final class Label {
+    private final @Nonnull OspfRoutingProcess _process;
+    private final @Nonnull OspfIntraAreaRoute _route;
+
+    private Label(OspfRoutingProcess process, OspfIntraAreaRoute route) {
+      _process = process;
+      _route = route;
+    }
+  }
+
+  private static final Comparator<Label> BY_METRIC =
+      Comparator.comparingLong(label -> label._route.getMetric());
+
+  /**
+   * Computes the converged intra-area routes of all OSPF processes in {@code allNodes}, which must
+   * be initialized, and installs them in the processes.
+   */
+  static void computeIntraAreaRoutes(Map<String, Node> allNodes) {
+    List<OspfRoutingProcess> processes =
+        allNodes.values().stream()
+            .flatMap(n -> n.getVirtualRouters().values().stream())
+            .flatMap(vr -> vr.getOspfProcesses().values().stream())
+            .collect(ImmutableList.toImmutableList());
+
+    // the routes each process originates, by prefix
+    Map<Prefix, Map<OspfRoutingProcess, Set<OspfIntraAreaRoute>>> origins = new HashMap<>();
+    for (OspfRoutingProcess process : processes) {
+      for (OspfIntraAreaRoute route : process.getIntraAreaRoutes()) {
+        origins
+            .computeIfAbsent(route.getNetwork(), p -> new HashMap<>())
+            .computeIfAbsent(process, p -> new HashSet<>())
+            .add(route);
+      }
+    }
+
+    List<Map<OspfRoutingProcess, Set<OspfIntraAreaRoute>>> routesByPrefix =
+        origins
+            .values()
+            .parallelStream()
+            .map(prefixOrigins -> shortestPaths(prefixOrigins, allNodes))
+            .collect(ImmutableList.toImmutableList());
+    Map<OspfRoutingProcess, List<OspfIntraAreaRoute>> routesByProcess = new HashMap<>();
+    routesByPrefix.forEach(
+        prefixRoutes ->
+            prefixRoutes.forEach(
+                (process, routes) ->
+                    routesByProcess
+                        .computeIfAbsent(process, p -> new ArrayList<>())
+                        .addAll(routes)));
+    routesByProcess
+        .entrySet()
+        .parallelStream()
+        .forEach(e -> e.getKey().installIntraAreaRoutes(e.getValue()));
+  }
+
+  /**
+   * Returns the best routes of each process for one prefix, given the routes that each process
+   * originates for it.
+   */
+  private static Map<OspfRoutingProcess, Set<OspfIntraAreaRoute>> shortestPaths(
+      Map<OspfRoutingProcess, ? extends Collection<OspfIntraAreaRoute>> origins,
+      Map<String, Node> allNodes) {
+    Map<OspfRoutingProcess, Long> bestMetrics = new HashMap<>();
+    Map<OspfRoutingProcess, Set<OspfIntraAreaRoute>> bestRoutes = new HashMap<>();
+    PriorityQueue<Label> queue = new PriorityQueue<>(BY_METRIC);
+    origins.forEach(
+        (process, routes) -> routes.forEach(route -> queue.add(new Label(process, route))));
+    while (!queue.isEmpty()) {
+      Label label = queue.poll();
+      long metric = label._route.getMetric();
+      Long bestMetric = bestMetrics.putIfAbsent(label._process, metric);
+      if (bestMetric != null && bestMetric != metric) {
+        // the process already has better routes
+        continue;
+      }
+      // Equal-metric routes are kept for multipath, and advertised in turn
+      if (!bestRoutes.computeIfAbsent(label._process, p -> new HashSet<>()).add(label._route)) {
+        continue;
+      }
+      label._process.forEachIntraAreaAdvertisement(
+          label._route,
+          allNodes,
+          (neighbor, route) -> {
+            Long neighborMetric = bestMetrics.get(neighbor);
+            if (neighborMetric == null || neighborMetric >= route.getMetric()) {
+              queue.add(new Label(neighbor, route));
+            }
+          });
+    }
+    return bestRoutes;
+  }
+
+  private OspfIntraAreaSpf() {}
+}
@@ -18,6 +18,7 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -553,24 +554,80 @@ final class OspfRoutingProcess implements RoutingProcess<OspfTopology, OspfRoute
     RibDelta.Builder<OspfIntraAreaRoute> intraAreaDelta = RibDelta.builder();
     _intraAreaIncomingRoutes.forEach(
         (edgeId, queue) -> {
-          String ifaceName = edgeId.getHead().getInterfaceName();
-          long incrementalCost = getIncrementalCost(ifaceName, false);
           while (!queue.isEmpty()) {
             RouteAdvertisement<OspfIntraAreaRoute> routeAdvertisement = queue.remove();
-            OspfIntraAreaRoute.Builder ospfRouteBuilder =
-                transformIntraAreaRouteOnImport(routeAdvertisement.getRoute(), incrementalCost);
-
-            applyDistributeList(_c, _vrfName, ifaceName, ospfRouteBuilder);
-
             intraAreaDelta.from(
                 processRouteAdvertisement(
-                    routeAdvertisement.toBuilder().setRoute(ospfRouteBuilder.build()).build(),
+                    routeAdvertisement
+                        .toBuilder()
+                        .setRoute(importIntraAreaRoute(edgeId, routeAdvertisement.getRoute()))
+                        .build(),
                     _intraAreaRib));
           }
         });
     return intraAreaDelta.build();
   }
 
+  /**
+   * Returns the route that this process installs when it receives intra-area {@code route} over the
+   * incoming edge {@code edgeId}.
+   */
+  @Nonnull
+  private OspfIntraAreaRoute importIntraAreaRoute(EdgeId edgeId, OspfIntraAreaRoute route) {
+    String ifaceName = edgeId.getHead().getInterfaceName();
+    OspfIntraAreaRoute.Builder ospfRouteBuilder =
+        transformIntraAreaRouteOnImport(route, getIncrementalCost(ifaceName, false));
+    applyDistributeList(_c, _vrfName, ifaceName, ospfRouteBuilder);
+    return ospfRouteBuilder.build();
+  }
+
+  /** Returns the intra-area routes currently in this process's intra-area RIB. */
+  @Nonnull
+  Set<OspfIntraAreaRoute> getIntraAreaRoutes() {
+    return _intraAreaRib.getTypedRoutes();
+  }
+
+  /**
+   * Calls {@code consumer} with each neighbor process and the route it would install if this
+   * process advertised intra-area {@code route} from its RIB. Applies the same export and import
+   * transformations as message passing.
+   */
+  void forEachIntraAreaAdvertisement(
+      OspfIntraAreaRoute route,
+      Map<String, Node> allNodes,
+      BiConsumer<OspfRoutingProcess, OspfIntraAreaRoute> consumer) {
+    _intraAreaIncomingRoutes
+        .keySet()
+        .forEach(
+            edgeId -> {
+              Optional<OspfSessionProperties> session = _topology.getSession(edgeId);
+              assert session.isPresent(); // Otherwise the edge should not have been established
+              if (route.getArea() != session.get().getArea()) {
+                return;
+              }
+              OspfRoutingProcess remoteProcess = getNeighborProcess(edgeId.getTail(), allNodes);
+              assert remoteProcess != null; // Otherwise the edge should not have been established
+              OspfIntraAreaRoute exported =
+                  route.toBuilder().setNextHopIp(session.get().getIpLink().getIp2()).build();
+              consumer.accept(
+                  remoteProcess, remoteProcess.importIntraAreaRoute(edgeId.reverse(), exported));
+            });
+  }
+
+  /**
+   * Replaces the result of initialization with converged intra-area routes computed by {@link
+   * OspfIntraAreaSpf}. The first iteration then advertises all of them at once, so that inter-area
+   * and external routes are computed by message passing as before.
+   */
+  void installIntraAreaRoutes(Collection<OspfIntraAreaRoute> routes) {
+    RibDelta.Builder<OspfIntraAreaRoute> deltaBuilder = RibDelta.builder();
+    routes.forEach(r -> deltaBuilder.from(_intraAreaRib.mergeRouteGetDelta(r)));
+    RibDelta<OspfIntraAreaRoute> delta = deltaBuilder.build();
+    _initializationDelta =
+        RibDelta.<OspfIntraAreaRoute>builder().from(_initializationDelta).from(delta).build();
+    _changeset.from(RibDelta.importRibDelta(_ospfRib, delta));
+  }
+
   /**
    * Transform intra-area routes on import.
    *
@@ -1489,22 +1546,26 @@ final class OspfRoutingProcess implements RoutingProcess<OspfTopology, OspfRoute
     _type2IncomingRoutes.get(edge).addAll(routes);
   }
 
-  int iterationHashCode() {
-    return Stream.of(
-            // Message queues
-            Stream.of(
-                    _intraAreaIncomingRoutes,
-                    _interAreaIncomingRoutes,
-                    _type1IncomingRoutes,
-                    _type2IncomingRoutes)
-                .flatMap(m -> m.values().stream())
-                .flatMap(Queue::stream),
-            // Deltas
-            _activatedGeneratedRoutes.getActions(),
-            // RIB state
-            Stream.of(_intraAreaRib, _interAreaRib, _type1Rib, _type2Rib)
-                .map(AbstractRib::getTypedRoutes))
-        .collect(toOrderedHashCode());
+  long iterationHashCode() {
+    long hashCode =
+        Stream.concat(
+                // Message queues
+                Stream.of(
+                        _intraAreaIncomingRoutes,
+                        _interAreaIncomingRoutes,
+                        _type1IncomingRoutes,
+                        _type2IncomingRoutes)
+                    .flatMap(m -> m.values().stream())
+                    .flatMap(Queue::stream),
+                // Deltas
+                _activatedGeneratedRoutes.getActions())
+            .collect(toOrderedHashCode());
+    // RIB state
+    for (AbstractRib<?> rib :
+        ImmutableList.<AbstractRib<?>>of(_intraAreaRib, _interAreaRib, _type1Rib, _type2Rib)) {
+      hashCode = 31 * hashCode + rib.getFingerprint();
+    }
+    return hashCode;
   }
 
   /** Wrapper around intra- and inter-area RIB deltas */
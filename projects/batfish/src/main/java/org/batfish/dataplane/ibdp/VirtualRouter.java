@@ -18,17 +18,24 @@ import static org.batfish.dataplane.rib.RibDelta.importDeltaToBuilder;
 import static org.batfish.dataplane.rib.RibDelta.importRibDelta;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Ordering;
+import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Streams;
 import com.google.common.graph.Network;
 import java.io.Serializable;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -70,6 +77,7 @@ import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.IsisRoute;
 import org.batfish.datamodel.LocalRoute;
 import org.batfish.datamodel.NetworkConfigurations;
+import org.batfish.datamodel.NextHopIndex;
 import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.RipInternalRoute;
 import org.batfish.datamodel.RipProcess;
@@ -175,8 +183,23 @@ public class VirtualRouter implements Serializable {
   transient StaticRib _staticUnconditionalRib;
   transient StaticRib _staticNextHopRib;
 
+  /** Routes in {@link #_staticNextHopRib}, indexed by next-hop IP */
+  private transient NextHopIndex<StaticRoute> _staticRoutesByNextHopIp;
+
+  /** Routes in {@link #_staticNextHopRib}, indexed by network */
+  private transient SetMultimap<Prefix, StaticRoute> _staticRoutesByNetwork;
+
+  /**
+   * Routes in {@link #_staticNextHopRib} to be re-evaluated by {@link #activateStaticRoutes()},
+   * because main RIB routes for their network or covering their next-hop IP changed.
+   */
+  private transient Set<StaticRoute> _staticRoutesToActivate;
+
   /** FIB (forwarding information base) built from the main RIB */
-  private Fib _fib;
+  private FibImpl _fib;
+
+  /** Prefixes whose main RIB routes changed since {@link #_fib} was last computed */
+  private transient Set<Prefix> _prefixesChangedSinceFib;
 
   /** RIB containing generated routes */
   private transient Rib _generatedRib;
@@ -208,6 +231,8 @@ public class VirtualRouter implements Serializable {
     _vrf = _c.getVrfs().get(name);
     // Main RIB + delta builder
     _mainRib = new Rib();
+    _prefixesChangedSinceFib = new HashSet<>();
+    _mainRib.addPrefixChangeListener(this::mainRibPrefixChanged);
     _mainRibs = ImmutableMap.of(RibId.DEFAULT_RIB_NAME, _mainRib);
     _mainRibRouteDeltaBuilder = RibDelta.builder();
     _routesForIsisRedistribution = RibDelta.builder();
@@ -470,9 +495,22 @@ public class VirtualRouter implements Serializable {
    * there exists an active route to the {@code routes}'s next-hop-ip.
    *
    * <p>Removes static route from the main RIB for which next-hop-ip has become unreachable.
+   *
+   * <p>Only routes affected by main RIB changes since they were last evaluated are re-evaluated,
+   * each at most once per call. Routes affected by changes made during this call are evaluated in
+   * the same call if they have not been evaluated yet, and by the next call otherwise.
    */
   void activateStaticRoutes() {
-    for (StaticRoute sr : _staticNextHopRib.getTypedRoutes()) {
+    Set<StaticRoute> evaluated = new HashSet<>();
+    List<StaticRoute> deferred = new ArrayList<>();
+    while (!_staticRoutesToActivate.isEmpty()) {
+      Iterator<StaticRoute> iterator = _staticRoutesToActivate.iterator();
+      StaticRoute sr = iterator.next();
+      iterator.remove();
+      if (!evaluated.add(sr)) {
+        deferred.add(sr);
+        continue;
+      }
       if (shouldActivateNextHopIpRoute(sr, _mainRib)) {
         _mainRibRouteDeltaBuilder.from(_mainRib.mergeRouteGetDelta(annotateRoute(sr)));
       } else {
@@ -483,11 +521,20 @@ public class VirtualRouter implements Serializable {
             _mainRib.removeRouteGetDelta(annotateRoute(sr), Reason.WITHDRAW));
       }
     }
+    _staticRoutesToActivate.addAll(deferred);
   }
 
-  /** Compute the FIB from the main RIB */
+  /**
+   * Compute the FIB from the main RIB. After the first call, only the parts of the FIB affected by
+   * main RIB changes since the previous call are recomputed.
+   */
   public void computeFib() {
-    _fib = new FibImpl(_mainRib);
+    if (_fib == null) {
+      _fib = new FibImpl(_mainRib);
+    } else {
+      _fib.update(_mainRib, _prefixesChangedSinceFib);
+    }
+    _prefixesChangedSinceFib.clear();
   }
 
   /**
@@ -1070,6 +1117,9 @@ public class VirtualRouter implements Serializable {
     // Static
     _staticNextHopRib = new StaticRib();
     _staticUnconditionalRib = new StaticRib();
+    _staticRoutesByNextHopIp = new NextHopIndex<>();
+    _staticRoutesByNetwork = HashMultimap.create();
+    _staticRoutesToActivate = new LinkedHashSet<>();
   }
 
   private boolean isL1Only() {
@@ -1107,6 +1157,30 @@ public class VirtualRouter implements Serializable {
         _staticNextHopRib.mergeRouteGetDelta(sr);
       }
     }
+    _staticRoutesByNextHopIp = new NextHopIndex<>();
+    _staticRoutesByNetwork = HashMultimap.create();
+    _staticRoutesToActivate = new LinkedHashSet<>();
+    for (StaticRoute sr : _staticNextHopRib.getTypedRoutes()) {
+      _staticRoutesByNextHopIp.add(sr.getNextHopIp(), sr);
+      _staticRoutesByNetwork.put(sr.getNetwork(), sr);
+      _staticRoutesToActivate.add(sr);
+    }
+  }
+
+  /**
+   * Records that the FIB is out of date for {@code prefix}, and marks the static routes whose
+   * activation may be affected by a change to main RIB routes for {@code prefix}: those with a
+   * next-hop IP in {@code prefix}, whose longest prefix match may have changed, and those for
+   * {@code prefix} itself, which may now win or lose against other routes.
+   */
+  private void mainRibPrefixChanged(Prefix prefix) {
+    _prefixesChangedSinceFib.add(prefix);
+    if (_staticRoutesToActivate == null) {
+      // static RIBs not initialized yet
+      return;
+    }
+    _staticRoutesByNextHopIp.addDependents(prefix, _staticRoutesToActivate);
+    _staticRoutesToActivate.addAll(_staticRoutesByNetwork.get(prefix));
   }
 
   /**
@@ -1901,22 +1975,28 @@ public class VirtualRouter implements Serializable {
    *
    * @return integer hashcode
    */
-  int computeIterationHashCode() {
-    return Streams.concat(
-            // RIB State
-            Stream.of(_mainRib.getTypedRoutes()),
-            // Message queues
-            Stream.of(_isisIncomingRoutes, _crossVrfIncomingRoutes)
-                .flatMap(m -> m.values().stream())
-                .flatMap(Queue::stream),
-            Stream.of(_routesForIsisRedistribution),
-            // Processes
-            Stream.of(_ospfProcesses.values().stream().map(OspfRoutingProcess::iterationHashCode)),
-            Stream.of(_eigrpProcesses)
-                .flatMap(m -> m.values().stream())
-                .map(EigrpRoutingProcess::computeIterationHashCode),
-            Stream.of(_bgpRoutingProcess == null ? 0 : _bgpRoutingProcess.iterationHashCode()))
-        .collect(toOrderedHashCode());
+  long computeIterationHashCode() {
+    long hashCode =
+        Streams.concat(
+                // Message queues
+                Stream.of(_isisIncomingRoutes, _crossVrfIncomingRoutes)
+                    .flatMap(m -> m.values().stream())
+                    .flatMap(Queue::stream),
+                Stream.of(_routesForIsisRedistribution))
+            .collect(toOrderedHashCode());
+    // RIB state
+    hashCode = 31 * hashCode + _mainRib.getFingerprint();
+    // Processes
+    for (OspfRoutingProcess ospfProcess : _ospfProcesses.values()) {
+      hashCode = 31 * hashCode + ospfProcess.iterationHashCode();
+    }
+    for (EigrpRoutingProcess eigrpProcess : _eigrpProcesses.values()) {
+      hashCode = 31 * hashCode + eigrpProcess.computeIterationHashCode();
+    }
+    if (_bgpRoutingProcess != null) {
+      hashCode = 31 * hashCode + _bgpRoutingProcess.iterationHashCode();
+    }
+    return hashCode;
   }
 
   @Nonnull
@@ -7,6 +7,8 @@ import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.metrics.Counter;
+import org.batfish.common.metrics.MetricRegistry;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.AbstractRouteDecorator;
 import org.batfish.datamodel.AnnotatedRoute;
@@ -26,12 +28,21 @@ import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
 @ParametersAreNonnullByDefault
 public abstract class AbstractRib<R extends AbstractRouteDecorator> implements GenericRib<R> {
 
+  /** Routes merged into any RIB, whether or not they changed it */
+  private static final Counter MERGES = MetricRegistry.global().counter("rib.merges");
+
+  /** Routes removed from any RIB, whether or not they were present */
+  private static final Counter REMOVALS = MetricRegistry.global().counter("rib.removals");
+
   /** Root of our prefix trie */
   private final RibTree<R> _tree;
 
   /** Memoized set of all routes in this RIB */
   @Nullable private Set<R> _allRoutes;
 
+  /** Order-independent fingerprint of the routes in this RIB. See {@link #getFingerprint()}. */
+  private long _fingerprint;
+
   /**
    * Keep a (insert ordered) set of alternative routes. Used to update the RIB if best routes are
    * withdrawn.
@@ -123,6 +134,50 @@ public abstract class AbstractRib<R extends AbstractRouteDecorator> implements G
   public final void clear() {
     _tree.clear();
     _allRoutes = null;
+    _fingerprint = 0L;
+    prefixChanged(Prefix.ZERO);
+  }
+
+  /**
+   * Called after routes for {@code prefix} were added to or removed from this RIB. {@link #clear()}
+   * reports {@link Prefix#ZERO}, since it may affect the longest prefix match of any IP.
+   */
+  protected void prefixChanged(Prefix prefix) {}
+
+  /**
+   * Returns the contribution of a single route to a RIB fingerprint. Contributions are summed, so
+   * the fingerprint does not depend on the order in which routes were added.
+   */
+  protected static long fingerprint(Object route) {
+    // murmur3 finalizer, so that similar hash codes spread over all 64 bits
+    long h = route.hashCode();
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  /**
+   * Returns an order-independent fingerprint of the routes in this RIB, i.e. of {@link
+   * #getTypedRoutes()}. RIBs with the same routes have the same fingerprint.
+   *
+   * <p>Unlike hashing {@link #getTypedRoutes()}, this takes constant time: the fingerprint is
+   * updated from the delta of every merged or removed route.
+   */
+  public long getFingerprint() {
+    return _fingerprint;
+  }
+
+  private void updateFingerprint(RibDelta<R> delta) {
+    delta
+        .getActions()
+        .forEach(
+            a -> {
+              long routeFingerprint = fingerprint(a.getRoute());
+              _fingerprint += a.isWithdrawn() ? -routeFingerprint : routeFingerprint;
+            });
   }
 
   public final boolean containsRoute(R route) {
@@ -182,11 +237,14 @@ public abstract class AbstractRib<R extends AbstractRouteDecorator> implements G
    */
   @Nonnull
   public RibDelta<R> mergeRouteGetDelta(R route) {
+    MERGES.increment();
     RibDelta<R> delta = _tree.mergeRoute(route);
     addBackupRoute(route);
     if (!delta.isEmpty()) {
       // A change to routes has been made
       _allRoutes = null;
+      updateFingerprint(delta);
+      delta.getPrefixes().forEach(this::prefixChanged);
     }
     return delta;
   }
@@ -213,12 +271,15 @@ public abstract class AbstractRib<R extends AbstractRouteDecorator> implements G
    */
   @Nonnull
   public RibDelta<R> removeRouteGetDelta(R route, Reason reason) {
+    REMOVALS.increment();
     // Remove the backup route first, then remove route from rib
     removeBackupRoute(route);
     RibDelta<R> delta = _tree.removeRouteGetDelta(route, reason);
     if (!delta.isEmpty()) {
       // A change to routes has been made
       _allRoutes = null;
+      updateFingerprint(delta);
+      delta.getPrefixes().forEach(this::prefixChanged);
     }
     return delta;
   }
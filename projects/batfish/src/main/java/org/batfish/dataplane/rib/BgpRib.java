@@ -45,6 +45,8 @@ public abstract class BgpRib<R extends BgpRoute<?, ?>> extends AbstractRib<R> {
   // Best BGP paths. Invariant: must be re-evaluated (per prefix) each time a route is added or
   // evicted
   @Nonnull protected final Map<Prefix, R> _bestPaths;
+  /** Fingerprint of {@link #_bestPaths}, maintained like {@link AbstractRib#getFingerprint()} */
+  private long _bestPathsFingerprint;
   /**
    * This logical clock helps us keep track when routes were merged into the RIB to determine their
    * age. It's incremented each time a route is merged into the RIB.
@@ -166,6 +168,11 @@ public abstract class BgpRib<R extends BgpRoute<?, ?>> extends AbstractRib<R> {
     return delta;
   }
 
+  @Override
+  public final long getFingerprint() {
+    return isMultipath() ? super.getFingerprint() : _bestPathsFingerprint;
+  }
+
   @Override
   @Nonnull
   public final Set<R> getTypedRoutes() {
@@ -208,12 +215,17 @@ public abstract class BgpRib<R extends BgpRoute<?, ?>> extends AbstractRib<R> {
 
   private void selectBestPath(Prefix prefix) {
     Optional<R> s = extractRoutes(prefix).stream().max(this::bestPathComparator);
+    R oldBestPath;
     if (!s.isPresent()) {
       // Remove best path and return
-      _bestPaths.remove(prefix);
-      return;
+      oldBestPath = _bestPaths.remove(prefix);
+    } else {
+      oldBestPath = _bestPaths.put(prefix, s.get());
+      _bestPathsFingerprint += fingerprint(s.get());
+    }
+    if (oldBestPath != null) {
+      _bestPathsFingerprint -= fingerprint(oldBestPath);
     }
-    _bestPaths.put(prefix, s.get());
   }
 
   /**
@@ -281,6 +293,10 @@ public abstract class BgpRib<R extends BgpRoute<?, ?>> extends AbstractRib<R> {
   /**
    * Attempt to calculate the cost to reach given routes next hop IP.
    *
+   * <p>The cost is looked up in the main RIB on every comparison and is not indexed or cached.
+   * Routes are only ranked when they are merged, and less preferred routes are not kept, so a later
+   * change to the main RIB does not re-rank the routes already in this RIB.
+   *
    * @param route bgp route
    * @return if next hop IP matches a route we have, returns the metric for that route; otherwise
    *     {@link Long#MAX_VALUE}
@@ -1,11 +1,16 @@
 package org.batfish.dataplane.rib;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.Prefix;
 
 /**
  * Represents a general RIB, capable of storing routes across different protocols. Uses
@@ -14,11 +19,33 @@ import org.batfish.datamodel.AnnotatedRoute;
 @ParametersAreNonnullByDefault
 public class Rib extends AnnotatedRib<AbstractRoute> implements Serializable {
 
+  /** Listeners notified of every prefix whose routes changed */
+  @Nullable private transient List<Consumer<Prefix>> _prefixChangeListeners;
+
   /** Create a new empty RIB. */
   public Rib() {
     super();
   }
 
+  /**
+   * Registers a listener to be called (in the thread modifying this RIB) with every prefix whose
+   * routes are added or removed. Used together with a {@link org.batfish.datamodel.NextHopIndex} to
+   * find the routes whose next-hop resolution may have changed.
+   */
+  public void addPrefixChangeListener(Consumer<Prefix> listener) {
+    if (_prefixChangeListeners == null) {
+      _prefixChangeListeners = new ArrayList<>(1);
+    }
+    _prefixChangeListeners.add(listener);
+  }
+
+  @Override
+  protected void prefixChanged(Prefix prefix) {
+    if (_prefixChangeListeners != null) {
+      _prefixChangeListeners.forEach(listener -> listener.accept(prefix));
+    }
+  }
+
   @Override
   public int comparePreference(
       @Nonnull AnnotatedRoute<AbstractRoute> lhs, @Nonnull AnnotatedRoute<AbstractRoute> rhs) {
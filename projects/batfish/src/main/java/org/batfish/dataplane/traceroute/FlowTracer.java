@@ -45,11 +45,12 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.Stack;
 import java.util.function.BiConsumer;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.batfish.common.BatfishException;
+import org.batfish.common.metrics.Counter;
+import org.batfish.common.metrics.MetricRegistry;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConnectedRoute;
 import org.batfish.datamodel.Fib;
@@ -104,7 +105,6 @@ import org.batfish.datamodel.flow.SetupSessionStep.SetupSessionStepDetail;
 import org.batfish.datamodel.flow.Step;
 import org.batfish.datamodel.flow.StepAction;
 import org.batfish.datamodel.flow.Trace;
-import org.batfish.datamodel.flow.TraceAndReverseFlow;
 import org.batfish.datamodel.flow.TransformationStep;
 import org.batfish.datamodel.packet_policy.ActionVisitor;
 import org.batfish.datamodel.packet_policy.Drop;
@@ -123,8 +123,8 @@ import org.batfish.datamodel.visitors.SessionActionVisitor;
 
 /**
  * Generates {@link Trace Traces} for a particular flow. Does depth-first search over all ECMP paths
- * for the flow. When the path terminates (for whatever reason), builds a trace and passes to a
- * {@link Consumer}.
+ * for the flow. When the path terminates (for whatever reason), passes the trace to a {@link
+ * TraceRecorder}.
  *
  * <p>Maintains some state about the current path: the current flow, breadcrumbs for loop detection,
  * new sessions setup by the path, {@link Trace trace} {@link Hop hops} for previously visited
@@ -135,6 +135,8 @@ import org.batfish.datamodel.visitors.SessionActionVisitor;
  */
 class FlowTracer {
 
+  private static final Counter HOPS = MetricRegistry.global().counter("traceroute.hops");
+
   /* Comparator used to deterministically order FibAction branches to visit */
   private static final class FibActionComparator implements Comparator<FibAction> {
 
@@ -206,14 +208,14 @@ class FlowTracer {
   private final Configuration _currentConfig;
   private final @Nullable String _ingressInterface;
   private final Node _currentNode;
-  private final Consumer<TraceAndReverseFlow> _flowTraces;
+  private final TraceRecorder _traceRecorder;
   private final @Nullable NodeInterfacePair _lastHopNodeAndOutgoingInterface;
   private final Set<FirewallSessionTraceInfo> _newSessions;
   private final Flow _originalFlow;
   private final @Nonnull String _vrfName;
 
-  // Mutable list of hops in the current trace
-  private final List<Hop> _hops;
+  // Hops in the current trace, shared with the tracers this one was forked from
+  private HopPath _hops;
 
   // Mutable list of steps in the current hop
   private final List<Step<?>> _steps;
@@ -230,19 +232,19 @@ class FlowTracer {
       String node,
       @Nullable String ingressInterface,
       Flow originalFlow,
-      Consumer<TraceAndReverseFlow> flowTraces) {
+      TraceRecorder traceRecorder) {
     Configuration currentConfig = tracerouteContext.getConfigurations().get(node);
     return new FlowTracer(
         tracerouteContext,
         currentConfig,
         ingressInterface,
         new Node(node),
-        flowTraces,
+        traceRecorder,
         null,
         new HashSet<>(),
         originalFlow,
         initVrfName(ingressInterface, currentConfig, originalFlow),
-        new ArrayList<>(),
+        HopPath.EMPTY,
         new ArrayList<>(),
         new Stack<>(),
         originalFlow);
@@ -267,12 +269,12 @@ class FlowTracer {
         newConfig,
         newIngressInterface,
         new Node(newConfig.getHostname()),
-        _flowTraces,
+        _traceRecorder,
         lastHopNodeAndOutgoingInterface,
         new HashSet<>(_newSessions),
         _originalFlow,
         newVrfName,
-        new ArrayList<>(_hops),
+        _hops,
         new ArrayList<>(initialSteps),
         _breadcrumbs,
         _currentFlow);
@@ -300,12 +302,12 @@ class FlowTracer {
       Configuration currentConfig,
       @Nullable String ingressInterface,
       Node currentNode,
-      Consumer<TraceAndReverseFlow> flowTraces,
+      TraceRecorder traceRecorder,
       @Nullable NodeInterfacePair lastHopNodeAndOutgoingInterface,
       Set<FirewallSessionTraceInfo> newSessions,
       Flow originalFlow,
       @Nonnull String vrfName,
-      List<Hop> hops,
+      HopPath hops,
       List<Step<?>> steps,
       Stack<Breadcrumb> breadcrumbs,
       Flow currentFlow) {
@@ -317,7 +319,7 @@ class FlowTracer {
     _currentConfig = currentConfig;
     _ingressInterface = ingressInterface;
     _currentNode = currentNode;
-    _flowTraces = flowTraces;
+    _traceRecorder = traceRecorder;
     _lastHopNodeAndOutgoingInterface = lastHopNodeAndOutgoingInterface;
     _newSessions = newSessions;
     _originalFlow = originalFlow;
@@ -349,13 +351,13 @@ class FlowTracer {
         newConfig,
         newIngressInterface,
         new Node(newConfig.getHostname()),
-        _flowTraces,
+        _traceRecorder,
         exitIface,
         new HashSet<>(_newSessions),
         // the original flow of the next hop is the final (i.e. current) flow of this hop
         _currentFlow,
         initVrfName(newIngressInterface, newConfig, _currentFlow),
-        new ArrayList<>(_hops),
+        _hops,
         new ArrayList<>(ImmutableList.of()),
         _breadcrumbs,
         _currentFlow);
@@ -404,7 +406,7 @@ class FlowTracer {
     }
 
     Hop hop = new Hop(_currentNode, _steps);
-    _hops.add(hop);
+    _hops = _hops.append(hop);
 
     NodeInterfacePair exitIface = NodeInterfacePair.of(_currentNode.getName(), outgoingInterface);
     interfacesThatReplyToArp.forEach(
@@ -448,6 +450,7 @@ class FlowTracer {
   }
 
   void processHop() {
+    HOPS.increment();
     checkState(_steps.isEmpty(), "Steps must be empty when processHop is called");
     checkState(
         _hops.size() == _breadcrumbs.size(), "Must have equal number of hops and breadcrumbs");
@@ -928,7 +931,7 @@ class FlowTracer {
                         FlowDisposition.EXITS_NETWORK);
                     return null;
                   }
-                  _hops.add(new Hop(new Node(currentNodeName), _steps));
+                  _hops = _hops.append(new Hop(new Node(currentNodeName), _steps));
 
                   // Forward to neighbor.
                   forkTracerFollowEdge(
@@ -950,9 +953,8 @@ class FlowTracer {
     checkState(
         Iterables.getLast(_steps).getAction() == NULL_ROUTED,
         "The last routing step should should have the action as NULL_ROUTED");
-    _hops.add(new Hop(_currentNode, _steps));
-    Trace trace = new Trace(FlowDisposition.NULL_ROUTED, _hops);
-    _flowTraces.accept(new TraceAndReverseFlow(trace, null, _newSessions));
+    _hops = _hops.append(new Hop(_currentNode, _steps));
+    _traceRecorder.recordTrace(_hops, FlowDisposition.NULL_ROUTED, null, _newSessions);
   }
 
   /** add a step for NO_ROUTE from source to output interface */
@@ -962,9 +964,8 @@ class FlowTracer {
         .setDetail(RoutingStepDetail.builder().build())
         .setAction(StepAction.NO_ROUTE);
     _steps.add(routingStepBuilder.build());
-    _hops.add(new Hop(_currentNode, _steps));
-    Trace trace = new Trace(FlowDisposition.NO_ROUTE, _hops);
-    _flowTraces.accept(new TraceAndReverseFlow(trace, null, _newSessions));
+    _hops = _hops.append(new Hop(_currentNode, _steps));
+    _traceRecorder.recordTrace(_hops, FlowDisposition.NO_ROUTE, null, _newSessions);
   }
 
   /**
@@ -1166,17 +1167,15 @@ class FlowTracer {
     InboundStep inboundStep =
         InboundStep.builder().setDetail(new InboundStepDetail(acceptingInterface)).build();
     _steps.add(inboundStep);
-    _hops.add(new Hop(_currentNode, _steps));
-    Trace trace = new Trace(FlowDisposition.ACCEPTED, _hops);
+    _hops = _hops.append(new Hop(_currentNode, _steps));
     Flow returnFlow = returnFlow(_currentFlow, _currentNode.getName(), _vrfName, null);
-    _flowTraces.accept(new TraceAndReverseFlow(trace, returnFlow, _newSessions));
+    _traceRecorder.recordTrace(_hops, FlowDisposition.ACCEPTED, returnFlow, _newSessions);
   }
 
   private void buildLoopTrace() {
     _steps.add(LoopStep.INSTANCE);
-    _hops.add(new Hop(_currentNode, _steps));
-    Trace trace = new Trace(FlowDisposition.LOOP, _hops);
-    _flowTraces.accept(new TraceAndReverseFlow(trace, null, _newSessions));
+    _hops = _hops.append(new Hop(_currentNode, _steps));
+    _traceRecorder.recordTrace(_hops, FlowDisposition.LOOP, null, _newSessions);
   }
 
   /**
@@ -1221,9 +1220,8 @@ class FlowTracer {
 
   @VisibleForTesting
   void buildDeniedTrace(FlowDisposition disposition) {
-    _hops.add(new Hop(_currentNode, _steps));
-    Trace trace = new Trace(disposition, _hops);
-    _flowTraces.accept(new TraceAndReverseFlow(trace, null, _newSessions));
+    _hops = _hops.append(new Hop(_currentNode, _steps));
+    _traceRecorder.recordTrace(_hops, disposition, null, _newSessions);
   }
 
   /**
@@ -1237,15 +1235,14 @@ class FlowTracer {
 
     _steps.add(buildArpFailureStep(outInterface, resolvedNhIp, disposition));
 
-    _hops.add(new Hop(_currentNode, _steps));
+    _hops = _hops.append(new Hop(_currentNode, _steps));
 
     Flow returnFlow =
         disposition.isSuccessful()
             ? returnFlow(_currentFlow, currentNodeName, null, outInterface)
             : null;
 
-    Trace trace = new Trace(disposition, _hops);
-    _flowTraces.accept(new TraceAndReverseFlow(trace, returnFlow, _newSessions));
+    _traceRecorder.recordTrace(_hops, disposition, returnFlow, _newSessions);
   }
 
   @VisibleForTesting
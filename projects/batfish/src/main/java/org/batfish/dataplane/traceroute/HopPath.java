@@ -0,0 +1,61 @@
+package org.batfish.dataplane.traceroute;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.flow.Hop;
+
+/**
+ * The {@link Hop hops} of a trace so far, as an immutable linked list from the last hop back to the
+ * first. Appending does not copy, so the traces forked at a hop all share the path leading to it.
+ */
+@ParametersAreNonnullByDefault
+final class HopPath {
+  static final HopPath EMPTY = new HopPath(null, null, 0);
+
+  private final @Nullable HopPath _previous;
+  private final @Nullable Hop _last;
+  private final int _size;
+
+  private HopPath(@Nullable HopPath previous, @Nullable Hop last, int size) {
+    _previous = previous;
+    _last = last;
+    _size = size;
+  }
+
+  /** Returns the path of these hops followed by {@code hop}. */
+  @Nonnull
+  HopPath append(Hop hop) {
+    return new HopPath(this, hop, _size + 1);
+  }
+
+  /** The path without its last hop, or {@code null} if this path is empty */
+  @Nullable
+  HopPath getPrevious() {
+    return _previous;
+  }
+
+  /** The last hop, or {@code null} if this path is empty */
+  @Nullable
+  Hop getLast() {
+    return _last;
+  }
+
+  int size() {
+    return _size;
+  }
+
+  @Nonnull
+  List<Hop> toList() {
+    Hop[] hops = new Hop[_size];
+    HopPath path = this;
+    for (int i = _size - 1; i >= 0; i--) {
+      assert path._last != null && path._previous != null;
+      hops[i] = path._last;
+      path = path._previous;
+    }
+    return ImmutableList.copyOf(hops);
+  }
+}
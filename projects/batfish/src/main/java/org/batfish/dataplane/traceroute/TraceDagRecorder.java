@@ -0,0 +1,112 @@
+package org.batfish.dataplane.traceroute;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.FlowDisposition;
+import org.batfish.datamodel.flow.FirewallSessionTraceInfo;
+import org.batfish.datamodel.flow.Hop;
+import org.batfish.datamodel.flow.TraceDag;
+
+/**
+ * Records the traces of one flow as a {@link TraceDag}. The traces forked at a hop share the {@link
+ * HopPath} leading to it, so the prefix tree of the traces is recorded without copying any hops;
+ * {@link #build()} then merges its equal subtrees.
+ */
+@ParametersAreNonnullByDefault
+final class TraceDagRecorder implements TraceRecorder {
+
+  /** The last hop of a trace */
+  private static final class LastHop {
+    private final @Nonnull FlowDisposition _disposition;
+    private final @Nullable Flow _reverseFlow;
+    private final @Nonnull Set<FirewallSessionTraceInfo> _newSessions;
+
+    private LastHop(
+        FlowDisposition disposition,
+        @Nullable Flow reverseFlow,
+        Set<FirewallSessionTraceInfo> newSessions) {
+      _disposition = disposition;
+      _reverseFlow = reverseFlow;
+      _newSessions = newSessions;
+    }
+  }
+
+  /** The extensions of each path that some trace goes on through, in trace order */
+  private final Map<HopPath, List<HopPath>> _successors;
+
+  /** The paths of the traces */
+  private final Map<HopPath, LastHop> _lastHops;
+
+  TraceDagRecorder() {
+    _successors = new IdentityHashMap<>();
+    _lastHops = new IdentityHashMap<>();
+  }
+
+  @Override
+  public void recordTrace(
+      HopPath hops,
+      FlowDisposition disposition,
+      @Nullable Flow reverseFlow,
+      Set<FirewallSessionTraceInfo> newSessions) {
+    checkArgument(hops.size() > 0, "A trace must have hops");
+    checkState(
+        _lastHops.put(hops, new LastHop(disposition, reverseFlow, ImmutableSet.copyOf(newSessions)))
+            == null,
+        "Trace already recorded");
+    // Link the new part of the path, up to the first path recorded by an earlier trace
+    HopPath path = hops;
+    while (path != HopPath.EMPTY) {
+      HopPath previous = path.getPrevious();
+      assert previous != null;
+      List<HopPath> successors = _successors.get(previous);
+      if (successors != null) {
+        successors.add(path);
+        return;
+      }
+      successors = new ArrayList<>();
+      successors.add(path);
+      _successors.put(previous, successors);
+      path = previous;
+    }
+  }
+
+  /** Returns the recorded traces, in the order they were recorded. */
+  @Nonnull
+  TraceDag build() {
+    TraceDag.Builder builder = TraceDag.builder();
+    return builder.build(buildSuccessors(builder, HopPath.EMPTY));
+  }
+
+  private @Nonnull List<Integer> buildSuccessors(TraceDag.Builder builder, HopPath path) {
+    List<HopPath> successors = _successors.getOrDefault(path, ImmutableList.of());
+    List<Integer> ids = new ArrayList<>(successors.size());
+    for (HopPath successor : successors) {
+      ids.add(build(builder, successor));
+    }
+    return ids;
+  }
+
+  private int build(TraceDag.Builder builder, HopPath path) {
+    Hop hop = path.getLast();
+    assert hop != null;
+    LastHop lastHop = _lastHops.get(path);
+    if (lastHop == null) {
+      return builder.addNode(hop, buildSuccessors(builder, path));
+    }
+    checkState(!_successors.containsKey(path), "A trace cannot go on after its last hop");
+    return builder.addLastNode(
+        hop, lastHop._disposition, lastHop._reverseFlow, lastHop._newSessions);
+  }
+}
@@ -0,0 +1,36 @@
+package org.batfish.dataplane.traceroute;
+
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.FlowDisposition;
+import org.batfish.datamodel.flow.FirewallSessionTraceInfo;
+import org.batfish.datamodel.flow.Trace;
+import org.batfish.datamodel.flow.TraceAndReverseFlow;
+
+/** Receives the traces completed by a {@link FlowTracer}, in order. */
+@FunctionalInterface
+@ParametersAreNonnullByDefault
+interface TraceRecorder {
+
+  /**
+   * Records the trace along {@code hops} with {@code disposition}. {@code newSessions} may be
+   * modified by the caller afterwards.
+   */
+  void recordTrace(
+      HopPath hops,
+      FlowDisposition disposition,
+      @Nullable Flow reverseFlow,
+      Set<FirewallSessionTraceInfo> newSessions);
+
+  /** Returns a recorder that builds each {@link Trace} and passes it to {@code flowTraces}. */
+  static @Nonnull TraceRecorder forEachTrace(Consumer<TraceAndReverseFlow> flowTraces) {
+    return (hops, disposition, reverseFlow, newSessions) ->
+        flowTraces.accept(
+            new TraceAndReverseFlow(
+                new Trace(disposition, hops.toList()), reverseFlow, newSessions));
+  }
+}
@@ -21,6 +21,9 @@ import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
 import org.batfish.common.BatfishException;
+import org.batfish.common.metrics.Counter;
+import org.batfish.common.metrics.Histogram;
+import org.batfish.common.metrics.MetricRegistry;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Fib;
@@ -34,6 +37,7 @@ import org.batfish.datamodel.flow.FirewallSessionTraceInfo;
 import org.batfish.datamodel.flow.Hop;
 import org.batfish.datamodel.flow.Trace;
 import org.batfish.datamodel.flow.TraceAndReverseFlow;
+import org.batfish.datamodel.flow.TraceDag;
 
 /**
  * An implementation of {@link org.batfish.dataplane.TracerouteEngineImpl#computeTraces(Set,
@@ -44,6 +48,11 @@ import org.batfish.datamodel.flow.TraceAndReverseFlow;
  * the context is shared among each of the concurrent {@link FlowTracer FlowTracers}.
  */
 public class TracerouteEngineImplContext {
+  private static final Counter FLOWS = MetricRegistry.global().counter("traceroute.flows");
+  private static final Histogram FLOW_MILLIS =
+      MetricRegistry.global().histogram("traceroute.flowMillis");
+  private static final Counter TRACES = MetricRegistry.global().counter("traceroute.traces");
+
   private final Map<String, Configuration> _configurations;
   private final DataPlane _dataPlane;
   private final Multimap<NodeInterfacePair, FirewallSessionTraceInfo> _sessionsByIngressInterface;
@@ -84,18 +93,53 @@ public class TracerouteEngineImplContext {
         .parallelStream()
         .forEach(
             flow -> {
+              long startNanos = System.nanoTime();
               List<TraceAndReverseFlow> currentTraces =
                   traces.computeIfAbsent(flow, k -> new ArrayList<>());
               validateInputs(_configurations, flow);
               String ingressNodeName = flow.getIngressNode();
               String ingressInterfaceName = flow.getIngressInterface();
               initialFlowTracer(
-                      this, ingressNodeName, ingressInterfaceName, flow, currentTraces::add)
+                      this,
+                      ingressNodeName,
+                      ingressInterfaceName,
+                      flow,
+                      TraceRecorder.forEachTrace(currentTraces::add))
                   .processHop();
+              recordFlowMetrics(currentTraces.size(), startNanos);
             });
     return new TreeMap<>(traces);
   }
 
+  /**
+   * Builds the {@link TraceDag} of each flow. Unlike {@link #buildTracesAndReturnFlows()}, never
+   * materializes the hops of each trace separately.
+   */
+  public SortedMap<Flow, TraceDag> buildTraceDags() {
+    Map<Flow, TraceDag> traceDags = new ConcurrentHashMap<>();
+    _flows
+        .parallelStream()
+        .forEach(
+            flow -> {
+              long startNanos = System.nanoTime();
+              validateInputs(_configurations, flow);
+              TraceDagRecorder recorder = new TraceDagRecorder();
+              initialFlowTracer(
+                      this, flow.getIngressNode(), flow.getIngressInterface(), flow, recorder)
+                  .processHop();
+              TraceDag traceDag = recorder.build();
+              traceDags.put(flow, traceDag);
+              recordFlowMetrics(traceDag.countTraces(), startNanos);
+            });
+    return new TreeMap<>(traceDags);
+  }
+
+  private static void recordFlowMetrics(long traces, long startNanos) {
+    FLOWS.increment();
+    TRACES.add(traces);
+    FLOW_MILLIS.recordMillisSince(startNanos);
+  }
+
   /**
    * Returns dispositions for the special case when a {@link Flow} either exits the network, gets
    * delivered to subnet, gets terminated due to an unreachable neighbor or when information is not
@@ -3,7 +3,6 @@ package org.batfish.grammar.flatjuniper;
 import static org.batfish.grammar.flatjuniper.ConfigurationBuilder.unquote;
 
 import com.google.common.base.Throwables;
-import java.util.ArrayList;
 import java.util.List;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
@@ -34,10 +33,10 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
 
   private boolean _inGroup;
 
-  private List<ParseTree> _newConfigurationLines;
-
   private boolean _reenablePathRecording;
 
+  private LineSplicer _splicer;
+
   private final Warnings _w;
 
   public ApplyGroupsApplicator(Hierarchy hierarchy, Warnings warnings) {
@@ -70,8 +69,7 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
       List<ParseTree> applyGroupsLines =
           _hierarchy.getApplyGroupsLines(
               groupName, _currentPath, _configurationContext, clusterGroup);
-      int insertionIndex = _newConfigurationLines.indexOf(_currentSetLine);
-      _newConfigurationLines.addAll(insertionIndex, applyGroupsLines);
+      _splicer.insertBefore(_currentSetLine, applyGroupsLines);
     } catch (PartialGroupMatchException e) {
       _w.pedantic(applyGroupsExceptionMessage(groupName, e));
     } catch (UndefinedGroupBatfishException e) {
@@ -85,7 +83,7 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
       _w.redFlag(applyGroupsExceptionMessage(groupName, e));
     }
     if (removeApplyLine) {
-      _newConfigurationLines.remove(_currentSetLine);
+      _splicer.remove(_currentSetLine);
     }
     _changed = true;
   }
@@ -95,13 +93,13 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
     if (_inGroup) {
       _w.redFlag("Do not know how to handle apply-groups-except occurring within group statement");
     }
-    _newConfigurationLines.remove(_currentSetLine);
+    _splicer.remove(_currentSetLine);
   }
 
   @Override
   public void enterFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
     _configurationContext = ctx;
-    _newConfigurationLines = new ArrayList<>(ctx.children);
+    _splicer = new LineSplicer();
   }
 
   @Override
@@ -132,7 +130,7 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
 
   @Override
   public void exitFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
-    _configurationContext.children = _newConfigurationLines;
+    _configurationContext.children = _splicer.apply(_configurationContext.children);
   }
 
   @Override
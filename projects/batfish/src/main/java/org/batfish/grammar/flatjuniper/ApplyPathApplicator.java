@@ -1,6 +1,5 @@
 package org.batfish.grammar.flatjuniper;
 
-import java.util.ArrayList;
 import java.util.List;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
@@ -25,10 +24,10 @@ public class ApplyPathApplicator extends FlatJuniperParserBaseListener {
 
   private Hierarchy _hierarchy;
 
-  private List<ParseTree> _newConfigurationLines;
-
   private boolean _reenablePathRecording;
 
+  private LineSplicer _splicer;
+
   private final Warnings _w;
 
   public ApplyPathApplicator(Hierarchy hierarchy, Warnings warnings) {
@@ -39,7 +38,7 @@ public class ApplyPathApplicator extends FlatJuniperParserBaseListener {
   @Override
   public void enterFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
     _configurationContext = ctx;
-    _newConfigurationLines = new ArrayList<>(ctx.children);
+    _splicer = new LineSplicer();
   }
 
   @Override
@@ -67,7 +66,6 @@ public class ApplyPathApplicator extends FlatJuniperParserBaseListener {
         applyPathPath.addNode(pathComponent, line);
       }
     }
-    int insertionIndex = _newConfigurationLines.indexOf(_currentSetLine);
     List<ParseTree> newLines = null;
     try {
       newLines = _hierarchy.getApplyPathLines(_currentPath, applyPathPath, _configurationContext);
@@ -79,7 +77,7 @@ public class ApplyPathApplicator extends FlatJuniperParserBaseListener {
               + "addresses or prefixes");
     }
     if (newLines != null) {
-      _newConfigurationLines.addAll(insertionIndex + 1, newLines);
+      _splicer.insertAfter(_currentSetLine, newLines);
     }
   }
 
@@ -96,7 +94,7 @@ public class ApplyPathApplicator extends FlatJuniperParserBaseListener {
 
   @Override
   public void exitFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
-    _configurationContext.children = _newConfigurationLines;
+    _configurationContext.children = _splicer.apply(_configurationContext.children);
   }
 
   @Override
@@ -1,8 +1,5 @@
 package org.batfish.grammar.flatjuniper;
 
-import java.util.ArrayList;
-import java.util.List;
-import org.antlr.v4.runtime.tree.ParseTree;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.Deactivate_lineContext;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.Flat_juniper_configurationContext;
 
@@ -10,21 +7,21 @@ public class DeactivateLinePruner extends FlatJuniperParserBaseListener {
 
   private Flat_juniper_configurationContext _configurationContext;
 
-  private List<ParseTree> _newConfigurationLines;
+  private LineSplicer _splicer;
 
   @Override
   public void enterFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
     _configurationContext = ctx;
-    _newConfigurationLines = new ArrayList<>(ctx.children);
+    _splicer = new LineSplicer();
   }
 
   @Override
   public void exitDeactivate_line(Deactivate_lineContext ctx) {
-    _newConfigurationLines.remove(ctx);
+    _splicer.remove(ctx);
   }
 
   @Override
   public void exitFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
-    _configurationContext.children = _newConfigurationLines;
+    _configurationContext.children = _splicer.apply(_configurationContext.children);
   }
 }
@@ -1,8 +1,5 @@
 package org.batfish.grammar.flatjuniper;
 
-import java.util.ArrayList;
-import java.util.List;
-import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.Flat_juniper_configurationContext;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.Interface_idContext;
@@ -22,7 +19,7 @@ public class DeactivatedLinePruner extends FlatJuniperParserBaseListener {
 
   private Hierarchy _hierarchy;
 
-  private List<ParseTree> _newConfigurationLines;
+  private LineSplicer _splicer;
 
   private boolean _reenablePathRecording;
 
@@ -33,7 +30,7 @@ public class DeactivatedLinePruner extends FlatJuniperParserBaseListener {
   @Override
   public void enterFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
     _configurationContext = ctx;
-    _newConfigurationLines = new ArrayList<>(ctx.children);
+    _splicer = new LineSplicer();
   }
 
   @Override
@@ -59,7 +56,7 @@ public class DeactivatedLinePruner extends FlatJuniperParserBaseListener {
 
   @Override
   public void exitFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
-    _configurationContext.children = _newConfigurationLines;
+    _configurationContext.children = _splicer.apply(_configurationContext.children);
   }
 
   @Override
@@ -74,7 +71,7 @@ public class DeactivatedLinePruner extends FlatJuniperParserBaseListener {
   public void exitSet_line(Set_lineContext ctx) {
     if (_checkLine) {
       if (_hierarchy.isDeactivated(_currentPath)) {
-        _newConfigurationLines.remove(ctx);
+        _splicer.remove(ctx);
       }
       _currentPath = null;
     }
@@ -1,8 +1,5 @@
 package org.batfish.grammar.flatjuniper;
 
-import java.util.ArrayList;
-import java.util.List;
-import org.antlr.v4.runtime.tree.ParseTree;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.Flat_juniper_configurationContext;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.S_groupsContext;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.Set_lineContext;
@@ -13,17 +10,17 @@ public class GroupPruner extends FlatJuniperParserBaseListener {
 
   private boolean _isGroupsLine;
 
-  private List<ParseTree> _newConfigurationLines;
+  private LineSplicer _splicer;
 
   @Override
   public void enterFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
     _configurationContext = ctx;
-    _newConfigurationLines = new ArrayList<>(ctx.children);
+    _splicer = new LineSplicer();
   }
 
   @Override
   public void exitFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
-    _configurationContext.children = _newConfigurationLines;
+    _configurationContext.children = _splicer.apply(_configurationContext.children);
   }
 
   @Override
@@ -34,7 +31,7 @@ public class GroupPruner extends FlatJuniperParserBaseListener {
   @Override
   public void exitSet_line(Set_lineContext ctx) {
     if (_isGroupsLine) {
-      _newConfigurationLines.remove(ctx);
+      _splicer.remove(ctx);
     }
     _isGroupsLine = false;
   }
@@ -1,5 +1,10 @@
 package org.batfish.grammar.flatjuniper;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -8,11 +13,13 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.antlr.v4.runtime.CommonToken;
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.WritableToken;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.antlr.v4.runtime.tree.TerminalNode;
@@ -51,20 +58,31 @@ public final class Hierarchy {
     }
   }
 
+  /**
+   * Records the input text of each visited token, and sets its line to the line of the
+   * configuration text the generated statement containing it stands for.
+   */
   private static class TokenInputMarker extends FlatJuniperParserBaseListener {
 
     private final String _input;
 
+    private final int _line;
+
     private final Map<Token, String> _tokenInputs;
 
-    public TokenInputMarker(String input, Map<Token, String> tokenInputs) {
+    public TokenInputMarker(String input, int line, Map<Token, String> tokenInputs) {
       _input = input;
+      _line = line;
       _tokenInputs = tokenInputs;
     }
 
     @Override
     public void visitTerminal(TerminalNode node) {
-      _tokenInputs.put(node.getSymbol(), _input);
+      Token token = node.getSymbol();
+      if (token instanceof WritableToken) {
+        ((WritableToken) token).setLine(_line);
+      }
+      _tokenInputs.put(token, _input);
     }
   }
 
@@ -80,6 +98,9 @@ public final class Hierarchy {
 
       private Set_lineContext _line;
       protected int _lineNumber;
+      /** Insertion order of this node among the children of its parent */
+      protected int _position;
+
       protected String _sourceGroup;
       public List<String> _sourceWildcards;
       protected String _text;
@@ -116,7 +137,7 @@ public final class Hierarchy {
 
       @Override
       public boolean isMatchedBy(HierarchyWildcardNode node) {
-        return matchWithJuniperRegex(_text, node._wildcard);
+        return node.getPattern().matcher(_text).matches();
       }
 
       @Override
@@ -143,6 +164,9 @@ public final class Hierarchy {
 
       protected Set<String> _blacklistedGroups;
       private Map<String, HierarchyChildNode> _children;
+      private int _nextChildPosition;
+      /** Wildcard children in insertion order, the only children a literal may match by pattern */
+      private List<HierarchyWildcardNode> _wildcardChildren;
 
       /**
        * Add a set line to {@code output} prefixed by {@code prefix} for each path from this node to
@@ -163,6 +187,7 @@ public final class Hierarchy {
 
       public HierarchyNode() {
         _children = new LinkedHashMap<>();
+        _wildcardChildren = new ArrayList<>();
         _blacklistedGroups = new HashSet<>();
       }
 
@@ -170,8 +195,18 @@ public final class Hierarchy {
         _blacklistedGroups.add(groupName);
       }
 
+      /** Adds {@code node}, which must not have the same text as an existing child. */
       public void addChildNode(HierarchyChildNode node) {
+        node._position = _nextChildPosition++;
         _children.put(node._text, node);
+        if (node instanceof HierarchyWildcardNode) {
+          _wildcardChildren.add((HierarchyWildcardNode) node);
+        }
+      }
+
+      public void clearChildren() {
+        _children.clear();
+        _wildcardChildren.clear();
       }
 
       public HierarchyChildNode getChildNode(String text) {
@@ -182,14 +217,27 @@ public final class Hierarchy {
         return _children;
       }
 
+      /**
+       * Returns the first child in insertion order that matches {@code node}. A wildcard only
+       * matches a wildcard with the same text, so only a literal has to be matched against the
+       * patterns of the wildcard children.
+       */
       @Nullable
       public HierarchyChildNode getFirstMatchingChildNode(HierarchyChildNode node) {
-        for (HierarchyChildNode child : _children.values()) {
-          if (child.matches(node)) {
-            return child;
+        HierarchyChildNode sameText = _children.get(node._text);
+        if (node.isWildcard()) {
+          return sameText != null && sameText.isWildcard() ? sameText : null;
+        }
+        HierarchyChildNode literal = sameText != null && !sameText.isWildcard() ? sameText : null;
+        for (HierarchyWildcardNode wildcardChild : _wildcardChildren) {
+          if (literal != null && literal._position < wildcardChild._position) {
+            return literal;
+          }
+          if (wildcardChild.matches(node)) {
+            return wildcardChild;
           }
         }
-        return null;
+        return literal;
       }
 
       public boolean isWildcard() {
@@ -242,6 +290,9 @@ public final class Hierarchy {
 
       private String _wildcard;
 
+      /** Compiled {@link #_wildcard}, shared by copies of this node */
+      private @Nullable Pattern _pattern;
+
       private HierarchyWildcardNode(String text, int lineNumber) {
         super(text, lineNumber);
         if (text.charAt(0) != '<' || text.charAt(text.length() - 1) != '>') {
@@ -252,7 +303,16 @@ public final class Hierarchy {
 
       @Override
       public HierarchyChildNode copy() {
-        return new HierarchyWildcardNode(_text, _lineNumber);
+        HierarchyWildcardNode copy = new HierarchyWildcardNode(_text, _lineNumber);
+        copy._pattern = _pattern;
+        return copy;
+      }
+
+      private @Nonnull Pattern getPattern() {
+        if (_pattern == null) {
+          _pattern = compileJuniperRegex(_wildcard);
+        }
+        return _pattern;
       }
 
       @Override
@@ -282,6 +342,75 @@ public final class Hierarchy {
       }
     }
 
+    /**
+     * Set lines generated by a single expansion. Their statements are produced by parsing the text
+     * of all of them at once, rather than by running a new parser for each line.
+     */
+    private static final class SetLineBatch {
+
+      private final List<Integer> _overrideLines;
+      private final List<Set_lineContext> _setLines;
+      private final StringBuilder _text;
+
+      private SetLineBatch() {
+        _overrideLines = new ArrayList<>();
+        _setLines = new ArrayList<>();
+        _text = new StringBuilder();
+      }
+
+      /**
+       * Adds {@code setLine}, whose statement will be that of a set line for {@code path} appearing
+       * at line {@code overrideLine} of the configuration.
+       */
+      void add(Set_lineContext setLine, HierarchyPath path, int overrideLine) {
+        _setLines.add(setLine);
+        _overrideLines.add(overrideLine);
+        _text.append("set ").append(path.pathString()).append('\n');
+      }
+
+      @Nonnull
+      List<Set_lineContext> getSetLines() {
+        return _setLines;
+      }
+
+      /** Parses the text of all added set lines and fills in their children. */
+      void parse(boolean markWildcards, Map<Token, String> tokenInputs) {
+        if (_setLines.isEmpty()) {
+          return;
+        }
+        String text = _text.toString();
+        FlatJuniperCombinedParser parser = new FlatJuniperCombinedParser(text, parserSettings());
+        parser.setMarkWildcards(markWildcards);
+        List<Set_lineContext> parsedLines =
+            parser.getParser().flat_juniper_configuration().set_line();
+        if (parsedLines.size() != _setLines.size()) {
+          throw new BatfishException(
+              String.format(
+                  "Expected %d generated set lines, but parsed %d",
+                  _setLines.size(), parsedLines.size()));
+        }
+        ParseTreeWalker walker = new BatfishParseTreeWalker(parser);
+        for (int i = 0; i < _setLines.size(); i++) {
+          Set_lineContext setLine = _setLines.get(i);
+          StatementContext newStatement = parsedLines.get(i).set_line_tail().statement();
+          // Use the supplied line number for the constructed nodes
+          walker.walk(new TokenInputMarker(text, _overrideLines.get(i), tokenInputs), newStatement);
+
+          TerminalNode set = new TerminalNodeImpl(new CommonToken(FlatJuniperLexer.SET, "set"));
+          Set_line_tailContext setLineTail = new Set_line_tailContext(setLine, -1);
+          TerminalNode newline =
+              new TerminalNodeImpl(new CommonToken(FlatJuniperLexer.NEWLINE, "\n"));
+          setLine.children = new ArrayList<>();
+          setLine.children.add(set);
+          setLine.children.add(setLineTail);
+          setLine.children.add(newline);
+          newStatement.parent = setLineTail;
+          setLineTail.children = new ArrayList<>();
+          setLineTail.children.add(newStatement);
+        }
+      }
+    }
+
     private static GrammarSettings parserSettings() {
       return new GrammarSettings() {
         @Override
@@ -355,21 +484,15 @@ public final class Hierarchy {
         Collection<HierarchyChildNode> currentGroupChildren,
         HierarchyTree masterTree,
         HierarchyPath path,
-        List<ParseTree> lines,
         Flat_juniper_configurationContext configurationContext,
-        boolean clusterGroup,
-        Map<Token, String> tokenInputs) {
+        SetLineBatch batch) {
       if (groupLine != null) {
         int overrideLine = groupLine.getStart().getLine();
         Set_lineContext setLine = new Set_lineContext(configurationContext, -1);
         if (masterTree.addPath(path, setLine, _groupName) == AddPathResult.BLACKLISTED) {
           return;
         }
-        StatementContext newStatement =
-            setLineHelper(setLine, path, overrideLine, true, tokenInputs);
-        if (!(clusterGroup && IsHostnameStatement.isHostnameStatement(newStatement))) {
-          lines.add(setLine);
-        }
+        batch.add(setLine, path, overrideLine);
       }
       for (HierarchyChildNode childNode : currentGroupChildren) {
         HierarchyChildNode newPathNode = childNode.copy();
@@ -379,10 +502,8 @@ public final class Hierarchy {
             childNode.getChildren().values(),
             masterTree,
             path,
-            lines,
             configurationContext,
-            clusterGroup,
-            tokenInputs);
+            batch);
         path._nodes.remove(path._nodes.size() - 1);
       }
     }
@@ -425,7 +546,7 @@ public final class Hierarchy {
       }
       List<String> appliedWildcards = new ArrayList<>();
       HierarchyPath newPath = new HierarchyPath();
-      List<ParseTree> lines = new ArrayList<>();
+      SetLineBatch batch = new SetLineBatch();
       applyWildcardPath(
           path,
           configurationContext,
@@ -435,10 +556,10 @@ public final class Hierarchy {
           remainingWildcards,
           appliedWildcards,
           newPath,
-          lines,
-          lineNumber,
-          tokenInputs);
-      return lines;
+          batch,
+          lineNumber);
+      batch.parse(false, tokenInputs);
+      return new ArrayList<>(batch.getSetLines());
     }
 
     private void applyWildcardPath(
@@ -450,9 +571,8 @@ public final class Hierarchy {
         int remainingWildcards,
         List<String> appliedWildcards,
         HierarchyPath newPath,
-        List<ParseTree> lines,
-        int overrideLineNumber,
-        Map<Token, String> tokenInputs) {
+        SetLineBatch batch,
+        int overrideLineNumber) {
       if (destinationTreeRoot._blacklistedGroups.contains(sourceGroup)) {
         return;
       }
@@ -469,15 +589,14 @@ public final class Hierarchy {
             return;
           }
           newDestinationTreeRoot = currentPathNode.copy();
-          destinationTreeRoot._children.put(newDestinationTreeRoot._text, newDestinationTreeRoot);
+          destinationTreeRoot.addChildNode(newDestinationTreeRoot);
         }
         newPath._nodes.add(newDestinationTreeRoot);
         if (startingIndex == path._nodes.size() - 1) {
           newDestinationTreeRoot._sourceWildcards = new ArrayList<>();
           newDestinationTreeRoot._sourceWildcards.addAll(appliedWildcards);
-          newDestinationTreeRoot._line =
-              generateSetLine(newPath, configurationContext, overrideLineNumber, tokenInputs);
-          lines.add(newDestinationTreeRoot._line);
+          newDestinationTreeRoot._line = new Set_lineContext(configurationContext, -1);
+          batch.add(newDestinationTreeRoot._line, newPath, overrideLineNumber);
         } else {
           applyWildcardPath(
               path,
@@ -488,9 +607,8 @@ public final class Hierarchy {
               remainingWildcards,
               appliedWildcards,
               newPath,
-              lines,
-              overrideLineNumber,
-              tokenInputs);
+              batch,
+              overrideLineNumber);
         }
         newPath._nodes.remove(newPath._nodes.size() - 1);
       } else {
@@ -510,9 +628,8 @@ public final class Hierarchy {
                   remainingWildcards - 1,
                   appliedWildcards,
                   newPath,
-                  lines,
-                  overrideLineNumber,
-                  tokenInputs);
+                  batch,
+                  overrideLineNumber);
               newPath._nodes.remove(newPath._nodes.size() - 1);
             }
           }
@@ -549,83 +666,19 @@ public final class Hierarchy {
       return matchNode;
     }
 
-    /**
-     * Populate the specified setLine's children with the supplied path and return the generated set
-     * statement
-     */
-    private static StatementContext setLineHelper(
-        Set_lineContext setLine,
-        HierarchyPath path,
-        int overrideLine,
-        boolean markWildcards,
-        Map<Token, String> tokenInputs) {
-      StringBuilder sb = new StringBuilder();
-      for (HierarchyChildNode pathNode : path._nodes) {
-        sb.append(pathNode._text);
-        sb.append(" ");
-      }
-      String newStatementText = sb.toString();
-      // Get rid of last " ", which matters for tokens where whitespace is not ignored
-      newStatementText =
-          "set " + newStatementText.substring(0, newStatementText.length() - 1) + "\n";
-      TerminalNode set = new TerminalNodeImpl(new CommonToken(FlatJuniperLexer.SET, "set"));
-      Set_line_tailContext setLineTail = new Set_line_tailContext(setLine, -1);
-      TerminalNode newline = new TerminalNodeImpl(new CommonToken(FlatJuniperLexer.NEWLINE, "\n"));
-      setLine.children = new ArrayList<>();
-      setLine.children.add(set);
-      setLine.children.add(setLineTail);
-      setLine.children.add(newline);
-      FlatJuniperCombinedParser parser =
-          new FlatJuniperCombinedParser(newStatementText, parserSettings());
-      // Use the supplied line number for the constructed nodes
-      parser.getLexer().setOverrideTokenStartLine(overrideLine);
-      if (markWildcards) {
-        parser.setMarkWildcards(true);
-      }
-      Flat_juniper_configurationContext newConfiguration =
-          parser.getParser().flat_juniper_configuration();
-      markTokenInputs(newConfiguration, newStatementText, tokenInputs, parser);
-      if (markWildcards) {
-        parser.setMarkWildcards(false);
-      }
-      StatementContext newStatement = newConfiguration.set_line(0).set_line_tail().statement();
-      newStatement.parent = setLineTail;
-
-      setLineTail.children = new ArrayList<>();
-      setLineTail.children.add(newStatement);
-      return newStatement;
-    }
-
-    private Set_lineContext generateSetLine(
-        HierarchyPath path,
-        Flat_juniper_configurationContext configurationContext,
-        int overrideLine,
-        Map<Token, String> tokenInputs) {
-      Set_lineContext setLine = new Set_lineContext(configurationContext, -1);
-      setLineHelper(setLine, path, overrideLine, false, tokenInputs);
-      return setLine;
-    }
-
     public List<ParseTree> getApplyGroupsLines(
         HierarchyPath path,
         Flat_juniper_configurationContext configurationContext,
         HierarchyTree masterTree,
         boolean clusterGroup,
         Map<Token, String> tokenInputs) {
-      List<ParseTree> lines = new ArrayList<>();
       HierarchyNode currentGroupNode = _root;
       HierarchyChildNode matchNode = null;
       HierarchyPath partialMatch = new HierarchyPath();
+      SetLineBatch batch = new SetLineBatch();
       if (path._nodes.isEmpty()) {
         addGroupPaths(
-            null,
-            _root.getChildren().values(),
-            masterTree,
-            path,
-            lines,
-            configurationContext,
-            clusterGroup,
-            tokenInputs);
+            null, _root.getChildren().values(), masterTree, path, configurationContext, batch);
       } else {
         for (HierarchyChildNode currentPathNode : path._nodes) {
           matchNode = currentGroupNode.getFirstMatchingChildNode(currentPathNode);
@@ -652,31 +705,27 @@ public final class Hierarchy {
             matchNode.getChildren().values(),
             masterTree,
             path,
-            lines,
             configurationContext,
-            clusterGroup,
-            tokenInputs);
+            batch);
+      }
+      batch.parse(true, tokenInputs);
+      List<ParseTree> lines = new ArrayList<>();
+      for (Set_lineContext setLine : batch.getSetLines()) {
+        if (!(clusterGroup
+            && IsHostnameStatement.isHostnameStatement(setLine.set_line_tail().statement()))) {
+          lines.add(setLine);
+        }
       }
       return lines;
     }
 
-    private static void markTokenInputs(
-        Flat_juniper_configurationContext newConfiguration,
-        String newStatementText,
-        Map<Token, String> tokenInputs,
-        FlatJuniperCombinedParser parser) {
-      TokenInputMarker listener = new TokenInputMarker(newStatementText, tokenInputs);
-      ParseTreeWalker walker = new BatfishParseTreeWalker(parser);
-      walker.walk(listener, newConfiguration);
-    }
-
     public List<ParseTree> getApplyPathLines(
         HierarchyPath basePath,
         HierarchyPath applyPathPath,
         Flat_juniper_configurationContext configurationContext,
         Map<Token, String> tokenInputs) {
-      List<ParseTree> lines = new ArrayList<>();
       List<HierarchyChildNode> candidateNodes = getApplyPathPrefixes(applyPathPath);
+      SetLineBatch batch = new SetLineBatch();
       for (HierarchyChildNode candidateNode : candidateNodes) {
         String concreteText = candidateNode._text;
         int candidateLineNumber = candidateNode._lineNumber;
@@ -694,12 +743,11 @@ public final class Hierarchy {
           finalPrefixStr = concreteText;
         }
         basePath.addNode(finalPrefixStr, candidateLineNumber);
-        Set_lineContext setLine =
-            generateSetLine(basePath, configurationContext, candidateLineNumber, tokenInputs);
-        lines.add(setLine);
+        batch.add(new Set_lineContext(configurationContext, -1), basePath, candidateLineNumber);
         basePath._nodes.remove(basePath._nodes.size() - 1);
       }
-      return lines;
+      batch.parse(false, tokenInputs);
+      return new ArrayList<>(batch.getSetLines());
     }
 
     private List<HierarchyChildNode> getApplyPathPrefixes(HierarchyPath path) {
@@ -722,6 +770,14 @@ public final class Hierarchy {
         }
       } else {
         HierarchyChildNode currentPathNode = path._nodes.get(currentDepth);
+        if (!currentPathNode.isWildcard()) {
+          // a literal only matches the literal child with the same text
+          HierarchyChildNode currentChild = currentNode.getChildNode(currentPathNode._text);
+          if (currentChild != null && !currentChild.isWildcard()) {
+            getApplyPathPrefixes(path, currentChild, currentDepth + 1, prefixes);
+          }
+          return;
+        }
         for (HierarchyChildNode currentChild : currentNode.getChildren().values()) {
           if (currentPathNode.matches(currentChild)) {
             getApplyPathPrefixes(path, currentChild, currentDepth + 1, prefixes);
@@ -736,7 +792,7 @@ public final class Hierarchy {
 
     public void pruneAfterPath(HierarchyPath path) {
       HierarchyChildNode pathEnd = findExactPathMatchNode(path);
-      pathEnd.getChildren().clear();
+      pathEnd.clearChildren();
     }
 
     public void setApplyGroupsExcept(HierarchyPath path, String groupName) {
@@ -826,10 +882,27 @@ public final class Hierarchy {
   }
 
   static boolean matchWithJuniperRegex(String candidate, String juniperRegex) {
-    String regex = GroupWildcard.toJavaRegex(juniperRegex);
-    return candidate.matches(regex);
+    return compileJuniperRegex(juniperRegex).matcher(candidate).matches();
   }
 
+  private static @Nonnull Pattern compileJuniperRegex(String juniperRegex) {
+    try {
+      return JUNIPER_REGEX_PATTERNS.getUnchecked(juniperRegex);
+    } catch (UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  // Converting a Juniper regex runs a parboiled parser, so cache the compiled patterns.
+  private static final LoadingCache<String, Pattern> JUNIPER_REGEX_PATTERNS =
+      CacheBuilder.newBuilder()
+          .softValues()
+          .maximumSize(1 << 12)
+          .build(
+              CacheLoader.from(
+                  juniperRegex -> Pattern.compile(GroupWildcard.toJavaRegex(juniperRegex))));
+
   public Map<Token, String> getTokenInputs() {
     return _tokenInputs;
   }
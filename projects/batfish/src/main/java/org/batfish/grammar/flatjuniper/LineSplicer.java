@@ -0,0 +1,78 @@
+package org.batfish.grammar.flatjuniper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+/**
+ * Collects lines to insert around or remove from the lines of a flat Juniper configuration while it
+ * is being walked, and applies them all at once in a single pass over the lines.
+ *
+ * <p>Lines are identified by identity, so each edit costs constant time regardless of the size of
+ * the configuration.
+ */
+@ParametersAreNonnullByDefault
+final class LineSplicer {
+
+  private final Map<ParseTree, List<ParseTree>> _after;
+  private final Map<ParseTree, List<ParseTree>> _before;
+  private final Set<ParseTree> _removed;
+
+  LineSplicer() {
+    _after = new IdentityHashMap<>();
+    _before = new IdentityHashMap<>();
+    _removed = Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+
+  /**
+   * Inserts {@code lines} right after {@code anchor}, before lines previously inserted after it.
+   */
+  void insertAfter(ParseTree anchor, List<? extends ParseTree> lines) {
+    if (!lines.isEmpty()) {
+      _after.computeIfAbsent(anchor, a -> new ArrayList<>()).addAll(0, lines);
+    }
+  }
+
+  /**
+   * Inserts {@code lines} right before {@code anchor}, after lines previously inserted before it.
+   */
+  void insertBefore(ParseTree anchor, List<? extends ParseTree> lines) {
+    if (!lines.isEmpty()) {
+      _before.computeIfAbsent(anchor, a -> new ArrayList<>()).addAll(lines);
+    }
+  }
+
+  /** Removes {@code line}. Lines inserted around it are kept. */
+  void remove(ParseTree line) {
+    _removed.add(line);
+  }
+
+  /** Returns a copy of {@code lines} with all edits applied. */
+  @Nonnull
+  List<ParseTree> apply(List<ParseTree> lines) {
+    if (_after.isEmpty() && _before.isEmpty() && _removed.isEmpty()) {
+      return lines;
+    }
+    List<ParseTree> newLines = new ArrayList<>(lines.size());
+    for (ParseTree line : lines) {
+      List<ParseTree> before = _before.get(line);
+      if (before != null) {
+        newLines.addAll(before);
+      }
+      if (!_removed.contains(line)) {
+        newLines.add(line);
+      }
+      List<ParseTree> after = _after.get(line);
+      if (after != null) {
+        newLines.addAll(after);
+      }
+    }
+    return newLines;
+  }
+}
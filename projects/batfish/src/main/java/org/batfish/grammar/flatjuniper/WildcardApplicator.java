@@ -1,6 +1,5 @@
 package org.batfish.grammar.flatjuniper;
 
-import java.util.ArrayList;
 import java.util.List;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
@@ -20,10 +19,10 @@ public class WildcardApplicator extends FlatJuniperParserBaseListener {
 
   private Hierarchy _hierarchy;
 
-  private List<ParseTree> _newConfigurationLines;
-
   private boolean _reenablePathRecording;
 
+  private LineSplicer _splicer;
+
   public WildcardApplicator(Hierarchy hierarchy) {
     _hierarchy = hierarchy;
   }
@@ -31,7 +30,7 @@ public class WildcardApplicator extends FlatJuniperParserBaseListener {
   @Override
   public void enterFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
     _configurationContext = ctx;
-    _newConfigurationLines = new ArrayList<>(ctx.children);
+    _splicer = new LineSplicer();
   }
 
   @Override
@@ -52,7 +51,7 @@ public class WildcardApplicator extends FlatJuniperParserBaseListener {
 
   @Override
   public void exitFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
-    _configurationContext.children = _newConfigurationLines;
+    _configurationContext.children = _splicer.apply(_configurationContext.children);
   }
 
   @Override
@@ -70,8 +69,7 @@ public class WildcardApplicator extends FlatJuniperParserBaseListener {
           _hierarchy
               .getMasterTree()
               .applyWildcardPath(_currentPath, _configurationContext, _hierarchy.getTokenInputs());
-      int insertionIndex = _newConfigurationLines.indexOf(ctx);
-      _newConfigurationLines.addAll(insertionIndex, lines);
+      _splicer.insertBefore(ctx, lines);
     }
     _currentPath = null;
   }
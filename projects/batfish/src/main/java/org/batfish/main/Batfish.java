@@ -6,7 +6,6 @@ import static com.google.common.base.Verify.verify;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.regex.Pattern.CASE_INSENSITIVE;
 import static java.util.stream.Collectors.toMap;
-import static org.batfish.bddreachability.BDDMultipathInconsistency.computeMultipathInconsistencies;
 import static org.batfish.bddreachability.BDDReachabilityUtils.constructFlows;
 import static org.batfish.common.runtime.SnapshotRuntimeData.EMPTY_SNAPSHOT_RUNTIME_DATA;
 import static org.batfish.common.util.CompletionMetadataUtils.getFilterNames;
@@ -23,7 +22,6 @@ import static org.batfish.common.util.isp.IspModelingUtils.INTERNET_HOST_NAME;
 import static org.batfish.datamodel.acl.AclLineMatchExprs.not;
 import static org.batfish.main.ReachabilityParametersResolver.resolveReachabilityParameters;
 import static org.batfish.main.StreamDecoder.decodeStreamAndAppendNewline;
-import static org.batfish.specifier.LocationInfoUtils.computeLocationInfo;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -86,10 +84,12 @@ import org.apache.commons.lang3.SerializationUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.batfish.bddreachability.BDDLoopDetectionAnalysis;
+import org.batfish.bddreachability.BDDMultipathConsistencyAnalysis;
 import org.batfish.bddreachability.BDDReachabilityAnalysis;
 import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
 import org.batfish.bddreachability.BidirectionalReachabilityAnalysis;
 import org.batfish.bddreachability.IpsRoutedOutInterfacesFactory;
+import org.batfish.bddreachability.UnchangedNodes;
 import org.batfish.common.Answerer;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishException.BatfishStackTrace;
@@ -104,6 +104,10 @@ import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.Warning;
 import org.batfish.common.Warnings;
 import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.metrics.Counter;
+import org.batfish.common.metrics.Histogram;
+import org.batfish.common.metrics.MetricRegistry;
+import org.batfish.common.metrics.MetricsSnapshot;
 import org.batfish.common.plugin.BgpTablePlugin;
 import org.batfish.common.plugin.DataPlanePlugin;
 import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
@@ -152,6 +156,7 @@ import org.batfish.datamodel.answers.DataPlaneAnswerElement;
 import org.batfish.datamodel.answers.InitInfoAnswerElement;
 import org.batfish.datamodel.answers.InitStepAnswerElement;
 import org.batfish.datamodel.answers.MajorIssueConfig;
+import org.batfish.datamodel.answers.MetricsAnswerElement;
 import org.batfish.datamodel.answers.ParseAnswerElement;
 import org.batfish.datamodel.answers.ParseEnvironmentBgpTablesAnswerElement;
 import org.batfish.datamodel.answers.ParseStatus;
@@ -238,6 +243,35 @@ import org.jgrapht.traverse.TopologicalOrderIterator;
 /** This class encapsulates the main control logic for Batfish. */
 public class Batfish extends PluginConsumer implements IBatfish {
 
+  /**
+   * Debug flag that attaches the {@link MetricRegistry metrics} counted and recorded while
+   * answering a question to its answer.
+   */
+  public static final String DEBUG_FLAG_METRICS = "metrics";
+
+  private static final Histogram PARSE_MILLIS =
+      MetricRegistry.global().histogram("parser.parseMillis");
+  private static final Counter PARSES = MetricRegistry.global().counter("parser.parses");
+
+  /** The maximum number of sources whose loops are detected together by multipath consistency */
+  private static final int MULTIPATH_CONSISTENCY_BATCH_SIZE = 64;
+
+  private static final Set<FlowDisposition> MULTIPATH_FAILURE_DISPOSITIONS =
+      ImmutableSet.of(
+          FlowDisposition.DENIED_IN,
+          FlowDisposition.DENIED_OUT,
+          FlowDisposition.LOOP,
+          FlowDisposition.INSUFFICIENT_INFO,
+          FlowDisposition.NEIGHBOR_UNREACHABLE,
+          FlowDisposition.NO_ROUTE,
+          FlowDisposition.NULL_ROUTED);
+
+  private static final Set<FlowDisposition> MULTIPATH_SUCCESS_DISPOSITIONS =
+      ImmutableSet.of(
+          FlowDisposition.ACCEPTED,
+          FlowDisposition.DELIVERED_TO_SUBNET,
+          FlowDisposition.EXITS_NETWORK);
+
   private static final Pattern MANAGEMENT_INTERFACES =
       Pattern.compile(
           "(\\Amgmt)|(\\Amanagement)|(\\Afxp0)|(\\Aem0)|(\\Ame0)|(\\Avme)|(\\Awlan-ap)",
@@ -393,10 +427,14 @@ public class Batfish extends PluginConsumer implements IBatfish {
   public static ParserRuleContext parse(
       BatfishCombinedParser<?, ?> parser, BatfishLogger logger, GrammarSettings settings) {
     ParserRuleContext tree;
+    PARSES.increment();
+    long startNanos = System.nanoTime();
     try {
       tree = parser.parse();
     } catch (BatfishException e) {
       throw new ParserBatfishException("Parser error", e);
+    } finally {
+      PARSE_MILLIS.recordMillisSince(startNanos);
     }
     List<String> errors = parser.getErrors();
     int numErrors = errors.size();
@@ -423,6 +461,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   private final Cache<NetworkSnapshot, DataPlane> _cachedDataPlanes;
 
+  private final Cache<NetworkSnapshot, SnapshotArtifacts> _cachedSnapshotArtifacts;
+
   private final Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
       _cachedEnvironmentBgpTables;
 
@@ -455,6 +495,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
       Cache<NetworkSnapshot, DataPlane> cachedDataPlanes,
       Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>> cachedEnvironmentBgpTables,
       Cache<NetworkSnapshot, Map<String, VendorConfiguration>> cachedVendorConfigurations,
+      Cache<NetworkSnapshot, SnapshotArtifacts> cachedSnapshotArtifacts,
       @Nullable StorageProvider alternateStorageProvider,
       @Nullable IdResolver alternateIdResolver) {
     _settings = settings;
@@ -463,6 +504,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
     _cachedDataPlanes = cachedDataPlanes;
     _cachedEnvironmentBgpTables = cachedEnvironmentBgpTables;
     _cachedVendorConfigurations = cachedVendorConfigurations;
+    _cachedSnapshotArtifacts = cachedSnapshotArtifacts;
     _externalBgpAdvertisementPlugins = new TreeSet<>();
     initLocalSettings(settings);
     _logger = _settings.getLogger();
@@ -475,7 +517,9 @@ public class Batfish extends PluginConsumer implements IBatfish {
             : new FileBasedStorage(_settings.getStorageBase(), _logger, this::newBatch);
     _idResolver =
         alternateIdResolver != null ? alternateIdResolver : new StorageBasedIdResolver(_storage);
-    _topologyProvider = new TopologyProviderImpl(this, _storage);
+    _topologyProvider =
+        new TopologyProviderImpl(
+            this, _storage, snapshot -> getSnapshotArtifacts(snapshot).getIpOwners());
     loadPlugins();
   }
 
@@ -604,6 +648,9 @@ public class Batfish extends PluginConsumer implements IBatfish {
     boolean diff = question.getDifferential();
     _settings.setDiffQuestion(diff);
 
+    MetricsSnapshot metricsBefore =
+        debugFlagEnabled(DEBUG_FLAG_METRICS) ? MetricRegistry.global().snapshot() : null;
+
     // Ensures configurations are parsed and ready
     loadConfigurations(getSnapshot());
     // TODO: why doesn't this check diff and load diff configurations?
@@ -645,6 +692,10 @@ public class Batfish extends PluginConsumer implements IBatfish {
       answer.setStatus(AnswerStatus.FAILURE);
       answer.addAnswerElement(exception.getBatfishStackTrace());
     }
+    if (metricsBefore != null) {
+      answer.addAnswerElement(
+          new MetricsAnswerElement(MetricRegistry.global().snapshot().minus(metricsBefore)));
+    }
     return answer;
   }
 
@@ -801,8 +852,22 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   @Override
   public Map<Location, LocationInfo> getLocationInfo(NetworkSnapshot snapshot) {
-    return computeLocationInfo(
-        getTopologyProvider().getIpOwners(snapshot), loadConfigurations(snapshot));
+    return getSnapshotArtifacts(snapshot).getLocationInfo();
+  }
+
+  /**
+   * Returns the {@link SnapshotArtifacts} for the current configurations of {@code snapshot},
+   * deriving them anew if the configurations have changed since they were last derived.
+   */
+  @Nonnull
+  private SnapshotArtifacts getSnapshotArtifacts(NetworkSnapshot snapshot) {
+    SortedMap<String, Configuration> configurations = loadConfigurations(snapshot);
+    SnapshotArtifacts artifacts = _cachedSnapshotArtifacts.getIfPresent(snapshot);
+    if (artifacts == null || !artifacts.isFor(configurations)) {
+      artifacts = new SnapshotArtifacts(configurations);
+      _cachedSnapshotArtifacts.put(snapshot, artifacts);
+    }
+    return artifacts;
   }
 
   private void disableUnusableVlanInterfaces(Map<String, Configuration> configurations) {
@@ -2784,7 +2849,12 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   @Override
   public SpecifierContext specifierContext(NetworkSnapshot networkSnapshot) {
-    return new SpecifierContextImpl(this, networkSnapshot);
+    SnapshotArtifacts artifacts = getSnapshotArtifacts(networkSnapshot);
+    return new SpecifierContextImpl(
+        this,
+        loadConfigurations(networkSnapshot),
+        artifacts.getLocationInfo(),
+        artifacts.getResolvedSpecifiers());
   }
 
   @Override
@@ -2911,47 +2981,33 @@ public class Batfish extends PluginConsumer implements IBatfish {
     Span span = GlobalTracer.get().buildSpan("bddMultipathConsistency").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
+      Map<String, Configuration> configurations = loadConfigurations(snapshot);
+      DataPlane dataPlane = loadDataPlane(snapshot);
+      IpSpaceAssignment sources = parameters.getSrcIpSpaceAssignment();
+      int maxInconsistencies = parameters.getMaxInconsistencies();
       BDDPacket pkt = new BDDPacket();
       // TODO add ignoreFilters parameter
       boolean ignoreFilters = false;
-      BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
-          getBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters);
-      IpSpaceAssignment srcIpSpaceAssignment = parameters.getSrcIpSpaceAssignment();
-      Set<String> finalNodes = parameters.getFinalNodes();
-      Set<FlowDisposition> failureDispositions =
-          ImmutableSet.of(
-              FlowDisposition.DENIED_IN,
-              FlowDisposition.DENIED_OUT,
-              FlowDisposition.LOOP,
-              FlowDisposition.INSUFFICIENT_INFO,
-              FlowDisposition.NEIGHBOR_UNREACHABLE,
-              FlowDisposition.NO_ROUTE,
-              FlowDisposition.NULL_ROUTED);
-      Set<FlowDisposition> successDispositions =
-          ImmutableSet.of(
-              FlowDisposition.ACCEPTED,
-              FlowDisposition.DELIVERED_TO_SUBNET,
-              FlowDisposition.EXITS_NETWORK);
-      Set<String> forbiddenTransitNodes = parameters.getForbiddenTransitNodes();
-      Set<String> requiredTransitNodes = parameters.getRequiredTransitNodes();
-      Map<IngressLocation, BDD> successBdds =
-          bddReachabilityAnalysisFactory.getAllBDDs(
-              srcIpSpaceAssignment,
-              parameters.getHeaderSpace(),
-              forbiddenTransitNodes,
-              requiredTransitNodes,
-              finalNodes,
-              successDispositions);
-      Map<IngressLocation, BDD> failureBdds =
-          bddReachabilityAnalysisFactory.getAllBDDs(
-              srcIpSpaceAssignment,
-              parameters.getHeaderSpace(),
-              forbiddenTransitNodes,
-              requiredTransitNodes,
-              finalNodes,
-              failureDispositions);
-
-      return ImmutableSet.copyOf(computeMultipathInconsistencies(pkt, successBdds, failureBdds));
+      // Computes the backward reachability shared by all batches once. JFactory is not
+      // thread-safe, so the batches are analyzed one at a time with the same factory.
+      BDDMultipathConsistencyAnalysis analysis =
+          newBddReachabilityAnalysisFactory(pkt, configurations, dataPlane, ignoreFilters)
+              .bddMultipathConsistencyAnalysis(
+                  sources,
+                  parameters.getHeaderSpace(),
+                  parameters.getForbiddenTransitNodes(),
+                  parameters.getRequiredTransitNodes(),
+                  parameters.getFinalNodes(),
+                  MULTIPATH_SUCCESS_DISPOSITIONS,
+                  MULTIPATH_FAILURE_DISPOSITIONS);
+      Set<Flow> flows = new LinkedHashSet<>();
+      for (IpSpaceAssignment batch : sources.partition(MULTIPATH_CONSISTENCY_BATCH_SIZE)) {
+        if (flows.size() >= maxInconsistencies) {
+          break;
+        }
+        analysis.addInconsistencies(batch, flows, maxInconsistencies);
+      }
+      return ImmutableSet.copyOf(flows);
     } finally {
       span.finish();
     }
@@ -2960,7 +3016,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
   @Nonnull
   public IpSpaceAssignment getAllSourcesInferFromLocationIpSpaceAssignment(
       NetworkSnapshot snapshot) {
-    SpecifierContextImpl specifierContext = new SpecifierContextImpl(this, snapshot);
+    SpecifierContext specifierContext = specifierContext(snapshot);
     Set<Location> locations =
         new UnionLocationSpecifier(
                 AllInterfacesLocationSpecifier.INSTANCE,
@@ -2975,19 +3031,27 @@ public class Batfish extends PluginConsumer implements IBatfish {
     Span span = GlobalTracer.get().buildSpan("getBddReachabilityAnalysisFactory").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      DataPlane dataPlane = loadDataPlane(snapshot);
-      return new BDDReachabilityAnalysisFactory(
-          pkt,
-          loadConfigurations(snapshot),
-          dataPlane.getForwardingAnalysis(),
-          new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
-          ignoreFilters,
-          false);
+      return newBddReachabilityAnalysisFactory(
+          pkt, loadConfigurations(snapshot), loadDataPlane(snapshot), ignoreFilters);
     } finally {
       span.finish();
     }
   }
 
+  private static BDDReachabilityAnalysisFactory newBddReachabilityAnalysisFactory(
+      BDDPacket pkt,
+      Map<String, Configuration> configurations,
+      DataPlane dataPlane,
+      boolean ignoreFilters) {
+    return new BDDReachabilityAnalysisFactory(
+        pkt,
+        configurations,
+        dataPlane.getForwardingAnalysis(),
+        new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
+        ignoreFilters,
+        false);
+  }
+
   public BDDReachabilityAnalysis getBddReachabilityAnalysis(
       NetworkSnapshot snapshot,
       BDDPacket pkt,
@@ -3032,6 +3096,42 @@ public class Batfish extends PluginConsumer implements IBatfish {
               ? not(parameters.getHeaderSpace())
               : parameters.getHeaderSpace();
 
+      Map<String, Configuration> baseConfigs = loadConfigurations(snapshot);
+      DataPlane baseDataPlane = loadDataPlane(snapshot);
+      Map<String, Configuration> deltaConfigs = loadConfigurations(reference);
+      DataPlane deltaDataPlane = loadDataPlane(reference);
+
+      // The per-node BDDs of nodes that are the same in both snapshots are built once and shared
+      // by the two reachability graphs. If no node changed, neither graph needs to be built.
+      Set<String> unchangedNodes =
+          UnchangedNodes.unchangedNodes(
+              baseConfigs,
+              baseDataPlane.getForwardingAnalysis(),
+              deltaConfigs,
+              deltaDataPlane.getForwardingAnalysis());
+      if (UnchangedNodes.allUnchanged(baseConfigs, unchangedNodes, deltaConfigs)) {
+        return new DifferentialReachabilityResult(ImmutableSet.of(), ImmutableSet.of());
+      }
+
+      BDDReachabilityAnalysisFactory baseFactory =
+          new BDDReachabilityAnalysisFactory(
+              pkt,
+              baseConfigs,
+              baseDataPlane.getForwardingAnalysis(),
+              new IpsRoutedOutInterfacesFactory(baseDataPlane.getFibs()),
+              parameters.getIgnoreFilters(),
+              false);
+      BDDReachabilityAnalysisFactory deltaFactory =
+          new BDDReachabilityAnalysisFactory(
+              pkt,
+              deltaConfigs,
+              deltaDataPlane.getForwardingAnalysis(),
+              new IpsRoutedOutInterfacesFactory(deltaDataPlane.getFibs()),
+              parameters.getIgnoreFilters(),
+              false,
+              baseFactory,
+              unchangedNodes);
+
       /*
        * TODO should we have separate parameters for base and delta?
        * E.g. suppose we add a host subnet in the delta network. This would be a source of
@@ -3039,24 +3139,22 @@ public class Batfish extends PluginConsumer implements IBatfish {
        * IpSpaceAssignment.
        */
       Map<IngressLocation, BDD> baseAcceptBDDs =
-          getBddReachabilityAnalysisFactory(snapshot, pkt, parameters.getIgnoreFilters())
-              .getAllBDDs(
-                  parameters.getIpSpaceAssignment(),
-                  headerSpace,
-                  parameters.getForbiddenTransitNodes(),
-                  parameters.getRequiredTransitNodes(),
-                  parameters.getFinalNodes(),
-                  parameters.getFlowDispositions());
+          baseFactory.getAllBDDs(
+              parameters.getIpSpaceAssignment(),
+              headerSpace,
+              parameters.getForbiddenTransitNodes(),
+              parameters.getRequiredTransitNodes(),
+              parameters.getFinalNodes(),
+              parameters.getFlowDispositions());
 
       Map<IngressLocation, BDD> deltaAcceptBDDs =
-          getBddReachabilityAnalysisFactory(reference, pkt, parameters.getIgnoreFilters())
-              .getAllBDDs(
-                  parameters.getIpSpaceAssignment(),
-                  headerSpace,
-                  parameters.getForbiddenTransitNodes(),
-                  parameters.getRequiredTransitNodes(),
-                  parameters.getFinalNodes(),
-                  parameters.getFlowDispositions());
+          deltaFactory.getAllBDDs(
+              parameters.getIpSpaceAssignment(),
+              headerSpace,
+              parameters.getForbiddenTransitNodes(),
+              parameters.getRequiredTransitNodes(),
+              parameters.getFinalNodes(),
+              parameters.getFlowDispositions());
 
       Set<IngressLocation> commonSources =
           Sets.intersection(baseAcceptBDDs.keySet(), deltaAcceptBDDs.keySet());
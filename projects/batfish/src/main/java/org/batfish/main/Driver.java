@@ -1,5 +1,6 @@
 package org.batfish.main;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -18,8 +19,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -30,6 +33,7 @@ import org.apache.commons.collections4.map.LRUMap;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
+import org.batfish.common.BfConsts.TaskCategory;
 import org.batfish.common.BfConsts.TaskStatus;
 import org.batfish.common.CleanBatfishException;
 import org.batfish.common.CoordConsts;
@@ -44,6 +48,9 @@ import org.batfish.datamodel.answers.AnswerStatus;
 import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
 import org.batfish.vendor.VendorConfiguration;
 import org.batfish.version.BatfishVersion;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
 import org.glassfish.grizzly.http.server.HttpServer;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.jettison.JettisonFeature;
@@ -57,19 +64,25 @@ public class Driver {
     WORKSERVICE,
   }
 
-  private static boolean _idle = true;
-
   private static Date _lastPollFromCoordinator = new Date();
 
   private static BatfishLogger _mainLogger = null;
 
   private static Settings _mainSettings = null;
 
+  private static TaskAdmission _taskAdmission = new TaskAdmission(1);
+
+  /** The address under which this worker service is registered with the coordinator, if any */
+  @Nullable private static volatile String _workerAddress = null;
+
   private static final Cache<NetworkSnapshot, DataPlane> CACHED_DATA_PLANES = buildDataPlaneCache();
 
   private static final Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
       CACHED_ENVIRONMENT_BGP_TABLES = buildEnvironmentBgpTablesCache();
 
+  private static final Cache<NetworkSnapshot, SnapshotArtifacts> CACHED_SNAPSHOT_ARTIFACTS =
+      buildSnapshotArtifactsCache();
+
   private static final Cache<NetworkSnapshot, SortedMap<String, Configuration>> CACHED_TESTRIGS =
       buildTestrigCache();
 
@@ -88,6 +101,8 @@ public class Driver {
 
   private static final int MAX_CACHED_ENVIRONMENT_BGP_TABLES = 4;
 
+  private static final int MAX_CACHED_SNAPSHOT_ARTIFACTS = 5;
+
   private static final int MAX_CACHED_TESTRIGS = 5;
 
   private static final int MAX_CACHED_VENDOR_CONFIGURATIONS = 2;
@@ -104,6 +119,13 @@ public class Driver {
     return Collections.synchronizedMap(new LRUMap<>(MAX_CACHED_ENVIRONMENT_BGP_TABLES));
   }
 
+  private static Cache<NetworkSnapshot, SnapshotArtifacts> buildSnapshotArtifactsCache() {
+    return CacheBuilder.newBuilder()
+        .softValues()
+        .maximumSize(MAX_CACHED_SNAPSHOT_ARTIFACTS)
+        .build();
+  }
+
   private static Cache<NetworkSnapshot, SortedMap<String, Configuration>> buildTestrigCache() {
     return CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_TESTRIGS).build();
   }
@@ -116,18 +138,45 @@ public class Driver {
         .build();
   }
 
-  private static synchronized boolean claimIdle() {
-    if (_idle) {
-      _idle = false;
-      return true;
-    }
-
-    return false;
+  /**
+   * Returns the admission state of this worker service and the resource usage of its running tasks.
+   * Also records that the coordinator has polled this worker.
+   */
+  public static JSONObject getStatusJson() throws JSONException {
+    _lastPollFromCoordinator = new Date();
+    JSONObject status = _taskAdmission.getStatusJson();
+    status.put(
+        BfConsts.SVC_STATUS_CACHED_SNAPSHOTS_KEY,
+        getCachedSnapshotsJson(CACHED_TESTRIGS.asMap(), CACHED_DATA_PLANES.asMap().keySet()));
+    return status;
   }
 
-  public static synchronized boolean getIdle() {
-    _lastPollFromCoordinator = new Date();
-    return _idle;
+  /**
+   * Returns a JSON description of the snapshots whose configurations or data planes are cached by
+   * this worker, so that the coordinator can send work to the worker that already has its inputs in
+   * memory. The number of devices approximates how expensive the cached objects are to reload.
+   */
+  @VisibleForTesting
+  static JSONArray getCachedSnapshotsJson(
+      Map<NetworkSnapshot, SortedMap<String, Configuration>> cachedConfigurations,
+      Set<NetworkSnapshot> cachedDataPlanes)
+      throws JSONException {
+    Set<NetworkSnapshot> snapshots = new HashSet<>(cachedConfigurations.keySet());
+    snapshots.addAll(cachedDataPlanes);
+    JSONArray array = new JSONArray();
+    for (NetworkSnapshot snapshot : snapshots) {
+      SortedMap<String, Configuration> configurations = cachedConfigurations.get(snapshot);
+      array.put(
+          new JSONObject()
+              .put(BfConsts.SVC_CACHED_NETWORK_KEY, snapshot.getNetwork().getId())
+              .put(BfConsts.SVC_CACHED_SNAPSHOT_KEY, snapshot.getSnapshot().getId())
+              .put(BfConsts.SVC_CACHED_CONFIGURATIONS_KEY, configurations != null)
+              .put(BfConsts.SVC_CACHED_DATA_PLANE_KEY, cachedDataPlanes.contains(snapshot))
+              .put(
+                  BfConsts.SVC_CACHED_DEVICES_KEY,
+                  configurations == null ? 0 : configurations.size()));
+    }
+    return array;
   }
 
   public static BatfishLogger getMainLogger() {
@@ -157,6 +206,7 @@ public class Driver {
   private static void mainInit(String[] args) {
     try {
       _mainSettings = new Settings(args);
+      _taskAdmission = new TaskAdmission(_mainSettings.getMaxConcurrentTasks());
       networkListenerLogger.setLevel(Level.WARNING);
       httpServerLogger.setLevel(Level.WARNING);
     } catch (Exception e) {
@@ -198,6 +248,10 @@ public class Driver {
       initTracer();
     }
 
+    if (_mainSettings.getParserWarmup()) {
+      ParserWarmup.warmUpInBackground(_mainLogger);
+    }
+
     String baseUrl = String.format("http://%s", _mainSettings.getServiceBindHost());
     URI baseUri = UriBuilder.fromUri(baseUrl).port(_mainSettings.getServicePort()).build();
     _mainLogger.debug(String.format("Starting server at %s\n", baseUri));
@@ -239,8 +293,31 @@ public class Driver {
     }
   }
 
-  private static synchronized void makeIdle() {
-    _idle = true;
+  /**
+   * Tells the coordinator that the state of task {@code taskId} changed, so that it need not wait
+   * for its next poll to collect the result and assign more work. Failures are only logged, since
+   * the coordinator's polling eventually notices the change anyway.
+   */
+  private static void notifyCoordinatorOfTaskUpdate(String taskId) {
+    String workerAddress = _workerAddress;
+    if (workerAddress == null) {
+      return;
+    }
+    String taskUpdateUrl =
+        String.format(
+            "http://%s:%s%s/%s",
+            _mainSettings.getCoordinatorHost(),
+            _mainSettings.getCoordinatorPoolPort(),
+            CoordConsts.SVC_CFG_POOL_MGR,
+            CoordConsts.SVC_RSC_POOL_TASK_UPDATE);
+    Map<String, String> params = new HashMap<>();
+    params.put(CoordConsts.SVC_KEY_WORKER, workerAddress);
+    params.put(CoordConsts.SVC_KEY_WORKID, taskId);
+    try {
+      CoordinatorClient.talkToCoordinator(taskUpdateUrl, params, _mainSettings, _mainLogger);
+    } catch (BatfishException e) {
+      _mainLogger.errorf("Could not notify coordinator of task update: %s\n", e.getMessage());
+    }
   }
 
   private static boolean registerWithCoordinator(String poolRegUrl, int listenPort) {
@@ -271,6 +348,7 @@ public class Driver {
         Thread.sleep(COORDINATOR_REGISTRATION_RETRY_INTERVAL_MS);
       }
     } while (!registrationSuccess);
+    _workerAddress = _mainSettings.getServiceHost() + ":" + listenPort;
   }
 
   @SuppressWarnings("deprecation")
@@ -286,6 +364,7 @@ public class Driver {
               CACHED_DATA_PLANES,
               CACHED_ENVIRONMENT_BGP_TABLES,
               CACHED_VENDOR_CONFIGURATIONS,
+              CACHED_SNAPSHOT_ARTIFACTS,
               null,
               null);
 
@@ -377,6 +456,9 @@ public class Driver {
                 }
               });
 
+      if (settings.getTaskId() != null) {
+        _taskAdmission.attachThread(settings.getTaskId(), thread);
+      }
       thread.start();
       thread.join(settings.getMaxRuntimeMs());
 
@@ -415,12 +497,16 @@ public class Driver {
       return Arrays.asList(BfConsts.SVC_FAILURE_KEY, "Non-executable command");
     }
 
-    if (!claimIdle()) {
-      return Arrays.asList(BfConsts.SVC_FAILURE_KEY, "Not idle");
-    }
-
-    // try/catch so that the worker becomes idle again in case of problem submitting thread.
+    // try/catch so that a rejected task is reported as a failure, and so that the capacity is
+    // released in case of problem submitting thread.
+    boolean admitted = false;
     try {
+      TaskCategory category = TaskAdmission.categorize(settings);
+      if (!_taskAdmission.tryAdmit(taskId, category)) {
+        return Arrays.asList(
+            BfConsts.SVC_BUSY_KEY, String.format("Insufficient capacity for %s task", category));
+      }
+      admitted = true;
 
       BatfishLogger jobLogger =
           new BatfishLogger(settings.getLogLevel(), settings.getTimestamp(), settings.getLogFile());
@@ -436,7 +522,7 @@ public class Driver {
               ? null
               : GlobalTracer.get().activeSpan().context();
 
-      // run batfish on a new thread and set idle to true when done
+      // run batfish on a new thread and release capacity when done
       Thread thread =
           new Thread(
               () -> {
@@ -457,18 +543,22 @@ public class Driver {
                   }
                   task.setTerminated(new Date());
                   jobLogger.close();
-                  makeIdle();
                 } finally {
+                  _taskAdmission.release(taskId);
                   runBatfishSpan.finish();
                 }
+                notifyCoordinatorOfTaskUpdate(taskId);
               });
 
+      _taskAdmission.attachThread(taskId, thread);
       thread.start();
 
       return Arrays.asList(BfConsts.SVC_SUCCESS_KEY, "running now");
     } catch (Exception e) {
       _mainLogger.error("Exception while running task: " + e.getMessage());
-      makeIdle();
+      if (admitted) {
+        _taskAdmission.release(taskId);
+      }
       return Arrays.asList(BfConsts.SVC_FAILURE_KEY, e.getMessage());
     }
   }
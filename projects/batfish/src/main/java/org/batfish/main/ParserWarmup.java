@@ -0,0 +1,97 @@
+package org.batfish.main;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.batfish.common.util.Resources.readResource;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.Warnings;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.batfish.job.ParseVendorConfigurationJob;
+import org.batfish.job.ParseVendorConfigurationResult;
+
+/**
+ * Warms up the configuration parsers of a freshly started worker by parsing a small bundled sample
+ * configuration for each of the most common vendors.
+ *
+ * <p>ANTLR keeps the DFA it learns while predicting alternatives in static per-grammar caches that
+ * are shared by all lexer and parser instances, but start out empty in every JVM. Until they fill
+ * up, the first files of each vendor parse several times slower. Parsing the samples in the
+ * background right after startup moves most of that cost off the path of the first snapshot.
+ */
+@ParametersAreNonnullByDefault
+final class ParserWarmup {
+
+  private static final String SAMPLES_DIR = "org/batfish/main/warmup/";
+
+  /** Sample configuration resources (relative to {@link #SAMPLES_DIR}) and their formats */
+  @VisibleForTesting
+  static final Map<String, ConfigurationFormat> SAMPLES =
+      ImmutableMap.<String, ConfigurationFormat>builder()
+          .put("arista.cfg", ConfigurationFormat.ARISTA)
+          .put("cisco_ios.cfg", ConfigurationFormat.CISCO_IOS)
+          .put("cisco_nxos.cfg", ConfigurationFormat.CISCO_NX)
+          .put("cisco_xr.cfg", ConfigurationFormat.CISCO_IOS_XR)
+          .put("juniper.cfg", ConfigurationFormat.JUNIPER)
+          .put("palo_alto.cfg", ConfigurationFormat.PALO_ALTO)
+          .build();
+
+  /** Parses the sample configuration {@code sample} as if it were part of a real snapshot. */
+  @VisibleForTesting
+  static @Nonnull ParseVendorConfigurationResult parseSample(
+      String sample, ConfigurationFormat format) {
+    return new ParseVendorConfigurationJob(
+            new Settings(),
+            new NetworkSnapshot(new NetworkId("warmup"), new SnapshotId("warmup")),
+            readResource(SAMPLES_DIR + sample, UTF_8),
+            sample,
+            new Warnings(),
+            format,
+            ImmutableMultimap.of(),
+            null)
+        .call();
+  }
+
+  /** Parses every sample in turn. Failures are logged and otherwise ignored. */
+  static void warmUp(BatfishLogger logger) {
+    long start = System.currentTimeMillis();
+    for (Map.Entry<String, ConfigurationFormat> sample : SAMPLES.entrySet()) {
+      try {
+        ParseVendorConfigurationResult result = parseSample(sample.getKey(), sample.getValue());
+        if (result.getFailureCause() != null) {
+          logger.warnf(
+              "Parser warmup failed for %s: %s\n",
+              sample.getKey(), Throwables.getStackTraceAsString(result.getFailureCause()));
+        }
+      } catch (RuntimeException e) {
+        logger.warnf(
+            "Parser warmup failed for %s: %s\n",
+            sample.getKey(), Throwables.getStackTraceAsString(e));
+      }
+    }
+    logger.debugf("Parser warmup took %d ms\n", System.currentTimeMillis() - start);
+  }
+
+  /**
+   * Runs {@link #warmUp(BatfishLogger)} on a low-priority daemon thread, so the worker can accept
+   * tasks while it is in progress.
+   */
+  static void warmUpInBackground(BatfishLogger logger) {
+    Thread thread = new Thread(() -> warmUp(logger), "parser-warmup");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    thread.start();
+  }
+
+  private ParserWarmup() {}
+}
@@ -13,6 +13,7 @@ import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.BfConsts.TaskStatus;
 import org.batfish.common.Task;
+import org.batfish.common.metrics.MetricRegistry;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONObject;
@@ -32,15 +33,26 @@ public class Service {
                 + "methods"));
   }
 
+  /** Returns the current values of the metrics of this worker. */
+  @GET
+  @Path(BfConsts.SVC_GET_METRICS_RSC)
+  @Produces(MediaType.APPLICATION_JSON)
+  public JSONArray getMetrics() {
+    try {
+      String metricsStr = BatfishObjectMapper.writeString(MetricRegistry.global().snapshot());
+      return new JSONArray(Arrays.asList(BfConsts.SVC_SUCCESS_KEY, metricsStr));
+    } catch (Exception e) {
+      return new JSONArray(Arrays.asList(BfConsts.SVC_FAILURE_KEY, e.getMessage()));
+    }
+  }
+
   @GET
   @Path(BfConsts.SVC_GET_STATUS_RSC)
   @Produces(MediaType.APPLICATION_JSON)
   public JSONArray getStatus() {
     try {
       return new JSONArray(
-          Arrays.asList(
-              BfConsts.SVC_SUCCESS_KEY,
-              (new JSONObject().put("idle", Driver.getIdle())).toString()));
+          Arrays.asList(BfConsts.SVC_SUCCESS_KEY, Driver.getStatusJson().toString()));
     } catch (Exception e) {
       return new JSONArray(Arrays.asList(BfConsts.SVC_FAILURE_KEY, e.getMessage()));
     }
@@ -0,0 +1,72 @@
+package org.batfish.main;
+
+import static org.batfish.specifier.LocationInfoUtils.computeLocationInfo;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.topology.IpOwners;
+import org.batfish.datamodel.Configuration;
+import org.batfish.specifier.Location;
+import org.batfish.specifier.LocationInfo;
+import org.batfish.specifier.SpecifierContextImpl;
+
+/**
+ * Artifacts derived from the configurations of a snapshot that are reused by every question asked
+ * about it: {@link IpOwners}, {@link LocationInfo}, and the results of resolving specifiers.
+ *
+ * <p>The artifacts are only valid for the exact configurations they were derived from; see {@link
+ * #isFor(SortedMap)}.
+ */
+@ParametersAreNonnullByDefault
+final class SnapshotArtifacts {
+
+  /** Maximum number of resolved specifiers to keep */
+  private static final int MAX_RESOLVED_SPECIFIERS = 256;
+
+  private final @Nonnull SortedMap<String, Configuration> _configurations;
+  private final @Nonnull Supplier<IpOwners> _ipOwners;
+  private final @Nonnull Supplier<Map<Location, LocationInfo>> _locationInfo;
+  private final @Nonnull Cache<Object, Set<?>> _resolvedSpecifiers;
+
+  SnapshotArtifacts(SortedMap<String, Configuration> configurations) {
+    _configurations = configurations;
+    _ipOwners = Suppliers.memoize(() -> new IpOwners(configurations));
+    _locationInfo =
+        Suppliers.memoize(
+            () -> ImmutableMap.copyOf(computeLocationInfo(_ipOwners.get(), configurations)));
+    _resolvedSpecifiers =
+        CacheBuilder.newBuilder().softValues().maximumSize(MAX_RESOLVED_SPECIFIERS).build();
+  }
+
+  /** Returns whether these artifacts were derived from {@code configurations}. */
+  boolean isFor(SortedMap<String, Configuration> configurations) {
+    return _configurations == configurations;
+  }
+
+  @Nonnull
+  IpOwners getIpOwners() {
+    return _ipOwners.get();
+  }
+
+  @Nonnull
+  Map<Location, LocationInfo> getLocationInfo() {
+    return _locationInfo.get();
+  }
+
+  /**
+   * Returns the cache of resolved specifiers to use in {@link SpecifierContextImpl}s for this
+   * snapshot.
+   */
+  @Nonnull
+  Cache<Object, Set<?>> getResolvedSpecifiers() {
+    return _resolvedSpecifiers;
+  }
+}
@@ -0,0 +1,249 @@
+package org.batfish.main;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.GuardedBy;
+import org.batfish.common.BfConsts;
+import org.batfish.common.BfConsts.TaskCategory;
+import org.batfish.config.Settings;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+/**
+ * Decides whether a worker service may start another task, based on the estimated CPU and heap cost
+ * of the tasks it is already running.
+ *
+ * <p>Costs are expressed as fractions of the whole worker. Heavy tasks are admitted only while the
+ * running total stays within one worker's worth of CPU and heap. {@link
+ * TaskCategory#LIGHT_ANSWERING} tasks use a fast lane: they are bounded only by the maximum number
+ * of concurrent tasks, so a cheap question is never stuck behind a long data plane computation.
+ */
+@ParametersAreNonnullByDefault
+final class TaskAdmission {
+
+  private static final String PROP_ALLOCATED_BYTES = "allocatedBytes";
+  private static final String PROP_CATEGORY = "category";
+  private static final String PROP_CPU_TIME_MS = "cpuTimeMs";
+  private static final String PROP_ELAPSED_MS = "elapsedMs";
+  private static final String PROP_ESTIMATED_CPU = "estimatedCpu";
+  private static final String PROP_ESTIMATED_MEMORY = "estimatedMemory";
+  private static final String PROP_HEAP_MAX_BYTES = "heapMaxBytes";
+  private static final String PROP_HEAP_USED_BYTES = "heapUsedBytes";
+  private static final String PROP_MAX_CONCURRENT_TASKS = "maxConcurrentTasks";
+  private static final String PROP_PROCESSORS = "processors";
+  private static final String PROP_TASK_ID = "taskId";
+
+  /** Tolerance for floating-point accumulation of cost fractions */
+  private static final double EPSILON = 1e-9;
+
+  private static final class RunningTask {
+    private final @Nonnull TaskCategory _category;
+    private final long _startNanos;
+    private final @Nonnull List<Thread> _threads;
+
+    private RunningTask(TaskCategory category) {
+      _category = category;
+      _startNanos = System.nanoTime();
+      _threads = new ArrayList<>();
+    }
+  }
+
+  /** Estimated fraction of the worker's CPU used by a task of the given category */
+  @VisibleForTesting
+  static double cpuCost(TaskCategory category) {
+    switch (category) {
+      case PARSING:
+      case DATAPLANING:
+        return 1.0;
+      case ANSWERING:
+        return 0.5;
+      case LIGHT_ANSWERING:
+        return 0.1;
+      default:
+        throw new IllegalArgumentException("Unsupported task category: " + category);
+    }
+  }
+
+  /** Estimated fraction of the worker's heap used by a task of the given category */
+  @VisibleForTesting
+  static double memoryCost(TaskCategory category) {
+    switch (category) {
+      case PARSING:
+        return 0.5;
+      case DATAPLANING:
+        return 0.6;
+      case ANSWERING:
+        return 0.3;
+      case LIGHT_ANSWERING:
+        return 0.1;
+      default:
+        throw new IllegalArgumentException("Unsupported task category: " + category);
+    }
+  }
+
+  /**
+   * Returns the {@link TaskCategory} of the task described by {@code settings}, preferring the hint
+   * supplied by the coordinator and otherwise inferring it from the requested commands.
+   */
+  public static @Nonnull TaskCategory categorize(Settings settings) {
+    TaskCategory hint = settings.getTaskCategory();
+    if (hint != null) {
+      return hint;
+    }
+    if (settings.getSerializeVendor() || settings.getSerializeIndependent()) {
+      return TaskCategory.PARSING;
+    }
+    if (settings.getDataPlane()) {
+      return TaskCategory.DATAPLANING;
+    }
+    return TaskCategory.ANSWERING;
+  }
+
+  private final int _maxConcurrentTasks;
+
+  @GuardedBy("this")
+  private final Map<String, RunningTask> _runningTasks;
+
+  TaskAdmission(int maxConcurrentTasks) {
+    checkArgument(maxConcurrentTasks > 0, "Worker must be able to run at least one task");
+    _maxConcurrentTasks = maxConcurrentTasks;
+    _runningTasks = new LinkedHashMap<>();
+  }
+
+  @GuardedBy("this")
+  private boolean canAdmit(TaskCategory category) {
+    if (_runningTasks.size() >= _maxConcurrentTasks) {
+      return false;
+    }
+    if (_runningTasks.isEmpty() || category == TaskCategory.LIGHT_ANSWERING) {
+      return true;
+    }
+    double cpu = cpuCost(category);
+    double memory = memoryCost(category);
+    for (RunningTask task : _runningTasks.values()) {
+      memory += memoryCost(task._category);
+      if (task._category != TaskCategory.LIGHT_ANSWERING) {
+        // fast-lane tasks do not hold back heavy tasks on CPU
+        cpu += cpuCost(task._category);
+      }
+    }
+    return cpu <= 1.0 + EPSILON && memory <= 1.0 + EPSILON;
+  }
+
+  /** Returns the categories of tasks that would currently be admitted. */
+  public synchronized @Nonnull Set<TaskCategory> getAdmittableCategories() {
+    Set<TaskCategory> admittable = EnumSet.noneOf(TaskCategory.class);
+    for (TaskCategory category : TaskCategory.values()) {
+      if (canAdmit(category)) {
+        admittable.add(category);
+      }
+    }
+    return admittable;
+  }
+
+  /** Returns the number of tasks currently admitted. */
+  public synchronized int getRunningTaskCount() {
+    return _runningTasks.size();
+  }
+
+  /**
+   * Associates {@code thread} with the running task {@code taskId}, so that its CPU time and
+   * allocations are reported as part of that task's resource usage.
+   */
+  public synchronized void attachThread(String taskId, Thread thread) {
+    RunningTask task = _runningTasks.get(taskId);
+    if (task != null) {
+      task._threads.add(thread);
+    }
+  }
+
+  /** Releases the capacity held by task {@code taskId}. */
+  public synchronized void release(String taskId) {
+    _runningTasks.remove(taskId);
+  }
+
+  /**
+   * Admits task {@code taskId} if a task of the given {@code category} fits within the remaining
+   * capacity of the worker.
+   *
+   * @return {@code true} iff the task was admitted, in which case {@link #release(String)} must be
+   *     called when it terminates
+   */
+  public synchronized boolean tryAdmit(String taskId, TaskCategory category) {
+    checkArgument(!_runningTasks.containsKey(taskId), "Task %s is already running", taskId);
+    if (!canAdmit(category)) {
+      return false;
+    }
+    _runningTasks.put(taskId, new RunningTask(category));
+    return true;
+  }
+
+  /**
+   * Returns a JSON summary of the admission state of this worker and the resources used so far by
+   * each running task.
+   */
+  public synchronized @Nonnull JSONObject getStatusJson() throws JSONException {
+    Set<TaskCategory> admittable = getAdmittableCategories();
+    JSONObject status = new JSONObject();
+    status.put(BfConsts.SVC_STATUS_IDLE_KEY, !admittable.isEmpty());
+    status.put(
+        BfConsts.SVC_STATUS_ADMITTABLE_KEY,
+        new JSONArray(
+            admittable.stream()
+                .map(TaskCategory::toString)
+                .collect(ImmutableList.toImmutableList())));
+    status.put(PROP_MAX_CONCURRENT_TASKS, _maxConcurrentTasks);
+    status.put(PROP_PROCESSORS, Runtime.getRuntime().availableProcessors());
+    Runtime runtime = Runtime.getRuntime();
+    status.put(PROP_HEAP_USED_BYTES, runtime.totalMemory() - runtime.freeMemory());
+    status.put(PROP_HEAP_MAX_BYTES, runtime.maxMemory());
+
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    long now = System.nanoTime();
+    ImmutableList.Builder<JSONObject> tasks = ImmutableList.builder();
+    for (Map.Entry<String, RunningTask> entry : _runningTasks.entrySet()) {
+      RunningTask task = entry.getValue();
+      long cpuNanos = 0L;
+      long allocatedBytes = 0L;
+      for (Thread thread : task._threads) {
+        if (!thread.isAlive()) {
+          continue;
+        }
+        if (threadBean.isThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled()) {
+          cpuNanos += Math.max(0L, threadBean.getThreadCpuTime(thread.getId()));
+        }
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+          allocatedBytes +=
+              Math.max(
+                  0L,
+                  ((com.sun.management.ThreadMXBean) threadBean)
+                      .getThreadAllocatedBytes(thread.getId()));
+        }
+      }
+      tasks.add(
+          new JSONObject()
+              .put(PROP_TASK_ID, entry.getKey())
+              .put(PROP_CATEGORY, task._category.toString())
+              .put(PROP_ELAPSED_MS, (now - task._startNanos) / 1_000_000L)
+              .put(PROP_CPU_TIME_MS, cpuNanos / 1_000_000L)
+              .put(PROP_ALLOCATED_BYTES, allocatedBytes)
+              .put(PROP_ESTIMATED_CPU, cpuCost(task._category))
+              .put(PROP_ESTIMATED_MEMORY, memoryCost(task._category)));
+    }
+    status.put(BfConsts.SVC_STATUS_TASKS_KEY, new JSONArray(tasks.build()));
+    return status;
+  }
+}
@@ -10,6 +10,7 @@ import io.opentracing.util.GlobalTracer;
 import java.io.IOException;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.common.BatfishException;
@@ -36,8 +37,20 @@ import org.batfish.storage.StorageProvider;
 public final class TopologyProviderImpl implements TopologyProvider {
   /** Create a new topology provider for a given instance of {@link IBatfish} */
   public TopologyProviderImpl(IBatfish batfish, StorageProvider storage) {
+    this(batfish, storage, snapshot -> new IpOwners(batfish.loadConfigurations(snapshot)));
+  }
+
+  /**
+   * Create a new topology provider for a given instance of {@link IBatfish} that gets {@link
+   * IpOwners} from {@code ipOwnersLoader}.
+   */
+  public TopologyProviderImpl(
+      IBatfish batfish,
+      StorageProvider storage,
+      Function<NetworkSnapshot, IpOwners> ipOwnersLoader) {
     _batfish = batfish;
     _storage = storage;
+    _ipOwnersLoader = ipOwnersLoader;
   }
 
   @Override
@@ -163,6 +176,7 @@ public final class TopologyProviderImpl implements TopologyProvider {
   private static final int MAX_CACHED_SNAPSHOTS = 3;
 
   private final IBatfish _batfish;
+  private final Function<NetworkSnapshot, IpOwners> _ipOwnersLoader;
   private final StorageProvider _storage;
 
   // NOTE: only the "raw" or "initial" versions of topologies are cached. This choice was made to
@@ -227,7 +241,7 @@ public final class TopologyProviderImpl implements TopologyProvider {
     Span span = GlobalTracer.get().buildSpan("TopologyProviderImpl::computeIpOwners").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      return new IpOwners(_batfish.loadConfigurations(snapshot));
+      return _ipOwnersLoader.apply(snapshot);
     } finally {
       span.finish();
     }
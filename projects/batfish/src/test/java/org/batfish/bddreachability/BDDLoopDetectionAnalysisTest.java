@@ -1,22 +1,29 @@
 package org.batfish.bddreachability;
 
+import static org.batfish.bddreachability.BDDLoopDetectionAnalysis.cyclicComponents;
 import static org.batfish.bddreachability.TestNetwork.LINK_1_NETWORK;
 import static org.batfish.bddreachability.TestNetwork.LINK_2_NETWORK;
 import static org.batfish.bddreachability.transition.Transitions.constraint;
 import static org.batfish.symbolic.IngressLocation.interfaceLink;
 import static org.batfish.symbolic.IngressLocation.vrf;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Table;
 import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.stream.Stream;
 import net.sf.javabdd.BDD;
+import org.batfish.bddreachability.transition.Transition;
+import org.batfish.bddreachability.transition.Transitions;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.bdd.BDDPacket;
 import org.batfish.common.bdd.IpSpaceToBDD;
@@ -170,4 +177,48 @@ public final class BDDLoopDetectionAnalysisTest {
 
     assertEquals(expected, actual);
   }
+
+  @Test
+  public void testLoopOnlyInCyclicComponent() {
+    StateExpr ingress = new OriginateVrf("node1", "vrf1");
+    StateExpr state1 = new OriginateVrf("node2", "vrf2");
+    StateExpr state2 = new OriginateVrf("node3", "vrf3");
+    StateExpr state3 = new OriginateVrf("node4", "vrf4");
+    BDD dst1 = DST.toBDD(DST_PREFIX_1);
+    BDD dst2 = DST.toBDD(DST_PREFIX_2);
+
+    // ingress -> state1 <-> state2 loops for dst1; dst2 escapes from state2 to state3
+    Map<IngressLocation, BDD> actual =
+        new BDDLoopDetectionAnalysis(
+                PKT,
+                Stream.of(
+                    new Edge(ingress, state1, constraint(dst1.or(dst2))),
+                    new Edge(state1, state2, constraint(dst1.or(dst2))),
+                    new Edge(state2, state1, constraint(dst1)),
+                    new Edge(state2, state3, constraint(dst2))),
+                ImmutableSet.of(ingress))
+            .detectLoops();
+
+    assertEquals(ImmutableMap.of(vrf("node1", "vrf1"), dst1), actual);
+  }
+
+  @Test
+  public void testCyclicComponents() {
+    StateExpr state1 = new OriginateVrf("node1", "vrf1");
+    StateExpr state2 = new OriginateVrf("node2", "vrf2");
+    StateExpr state3 = new OriginateVrf("node3", "vrf3");
+    StateExpr state4 = new OriginateVrf("node4", "vrf4");
+    Table<StateExpr, StateExpr, Transition> edges =
+        BDDReachabilityUtils.computeForwardEdgeTable(
+            ImmutableList.of(
+                new Edge(state1, state2, Transitions.IDENTITY),
+                new Edge(state2, state1, Transitions.IDENTITY),
+                new Edge(state2, state3, Transitions.IDENTITY),
+                new Edge(state3, state4, Transitions.IDENTITY),
+                new Edge(state4, state4, Transitions.IDENTITY)));
+
+    assertThat(
+        cyclicComponents(edges),
+        containsInAnyOrder(ImmutableSet.of(state1, state2), ImmutableSet.of(state4)));
+  }
 }
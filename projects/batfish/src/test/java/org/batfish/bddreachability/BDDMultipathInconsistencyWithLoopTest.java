@@ -1,6 +1,7 @@
 package org.batfish.bddreachability;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
 
@@ -22,10 +23,22 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
-public class BDDMultipathInonsistencyWithLoop {
+public class BDDMultipathInconsistencyWithLoopTest {
 
   @Rule public TemporaryFolder temp = new TemporaryFolder();
 
+  private static MultipathConsistencyParameters parameters(
+      Batfish batfish, NetworkSnapshot snapshot, int maxInconsistencies) {
+    return new MultipathConsistencyParameters(
+        AclLineMatchExprs.TRUE,
+        batfish.getAllSourcesInferFromLocationIpSpaceAssignment(snapshot),
+        batfish.loadConfigurations(snapshot).keySet(),
+        ImmutableSet.of(),
+        maxInconsistencies,
+        TracePruner.DEFAULT_MAX_TRACES,
+        ImmutableSet.of());
+  }
+
   @Test
   public void testLoopInMultipathConsistency() throws IOException {
     Batfish batfish =
@@ -33,16 +46,8 @@ public class BDDMultipathInonsistencyWithLoop {
     NetworkSnapshot snapshot = batfish.getSnapshot();
     batfish.computeDataPlane(snapshot);
 
-    MultipathConsistencyParameters multipathConsistencyParameters =
-        new MultipathConsistencyParameters(
-            AclLineMatchExprs.TRUE,
-            batfish.getAllSourcesInferFromLocationIpSpaceAssignment(snapshot),
-            batfish.loadConfigurations(snapshot).keySet(),
-            ImmutableSet.of(),
-            TracePruner.DEFAULT_MAX_TRACES,
-            ImmutableSet.of());
-
-    Set<Flow> flows = batfish.bddMultipathConsistency(snapshot, multipathConsistencyParameters);
+    Set<Flow> flows =
+        batfish.bddMultipathConsistency(snapshot, parameters(batfish, snapshot, Integer.MAX_VALUE));
 
     // Flows starting from configuration 1 and configuration 2 should result in inconsistent
     // dispositions
@@ -59,4 +64,19 @@ public class BDDMultipathInonsistencyWithLoop {
           flowDispositions, containsInAnyOrder(FlowDisposition.ACCEPTED, FlowDisposition.LOOP));
     }
   }
+
+  @Test
+  public void testMaxInconsistencies() throws IOException {
+    Batfish batfish =
+        BatfishTestUtils.getBatfish(MPIWithLoopNetwork.testMPIWithLoopNetwork(), temp);
+    NetworkSnapshot snapshot = batfish.getSnapshot();
+    batfish.computeDataPlane(snapshot);
+
+    Set<Flow> allFlows =
+        batfish.bddMultipathConsistency(snapshot, parameters(batfish, snapshot, Integer.MAX_VALUE));
+    Set<Flow> flows = batfish.bddMultipathConsistency(snapshot, parameters(batfish, snapshot, 1));
+
+    assertThat(flows, hasSize(1));
+    assertThat(allFlows, hasItems(flows.toArray(new Flow[0])));
+  }
 }
@@ -0,0 +1,72 @@
+package org.batfish.bddreachability;
+
+import static org.batfish.bddreachability.UnchangedNodes.allUnchanged;
+import static org.batfish.bddreachability.UnchangedNodes.unchangedNodes;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.MockForwardingAnalysis;
+import org.batfish.datamodel.NetworkFactory;
+import org.junit.Test;
+
+/** Tests of {@link UnchangedNodes}. */
+public final class UnchangedNodesTest {
+
+  private static Configuration config(String hostname, String description) {
+    Configuration c =
+        new NetworkFactory()
+            .configurationBuilder()
+            .setHostname(hostname)
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    c.setDomainName(description);
+    return c;
+  }
+
+  private static final ForwardingAnalysis NO_FORWARDING = MockForwardingAnalysis.builder().build();
+
+  @Test
+  public void testUnchangedNodes() {
+    Map<String, Configuration> configs1 =
+        ImmutableMap.of("a", config("a", "x"), "b", config("b", "x"), "c", config("c", "x"));
+    Map<String, Configuration> configs2 =
+        ImmutableMap.of("a", config("a", "x"), "b", config("b", "y"), "d", config("d", "x"));
+
+    assertThat(
+        unchangedNodes(configs1, NO_FORWARDING, configs2, NO_FORWARDING), containsInAnyOrder("a"));
+  }
+
+  @Test
+  public void testChangedForwarding() {
+    Map<String, Configuration> configs1 = ImmutableMap.of("a", config("a", "x"));
+    Map<String, Configuration> configs2 = ImmutableMap.of("a", config("a", "x"));
+    ForwardingAnalysis forwarding =
+        MockForwardingAnalysis.builder()
+            .setRoutableIps(ImmutableMap.of("a", ImmutableMap.of("vrf", Ip.ZERO.toIpSpace())))
+            .build();
+
+    assertThat(unchangedNodes(configs1, NO_FORWARDING, configs2, forwarding), empty());
+    assertThat(unchangedNodes(configs1, forwarding, configs2, forwarding), containsInAnyOrder("a"));
+  }
+
+  @Test
+  public void testAllUnchanged() {
+    Map<String, Configuration> configs1 = ImmutableMap.of("a", config("a", "x"));
+    Map<String, Configuration> configs2 =
+        ImmutableMap.of("a", config("a", "x"), "b", config("b", "x"));
+
+    assertTrue(allUnchanged(configs1, ImmutableSet.of("a"), configs1));
+    assertFalse(allUnchanged(configs1, ImmutableSet.of(), configs1));
+    assertFalse(allUnchanged(configs1, ImmutableSet.of("a"), configs2));
+  }
+}
@@ -9,6 +9,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.not;
 
@@ -17,6 +18,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.Set;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.ConcreteInterfaceAddress;
@@ -334,4 +336,85 @@ public class FibImplTest {
     Set<AbstractRoute> fibRoutesEth2 = getTopLevelRoutesByInterface(fib, "Eth2");
     assertThat(fibRoutesEth2, empty());
   }
+
+  @Test
+  public void testUpdate() {
+    Rib rib = new Rib();
+    Set<Prefix> changed = new HashSet<>();
+    rib.addPrefixChangeListener(changed::add);
+
+    StaticRoute interfaceRoute =
+        StaticRoute.builder()
+            .setNetwork(Prefix.parse("1.1.1.0/24"))
+            .setNextHopInterface("Eth1")
+            .setAdministrativeCost(1)
+            .build();
+    StaticRoute moreSpecificInterfaceRoute =
+        StaticRoute.builder()
+            .setNetwork(Prefix.parse("1.1.1.0/30"))
+            .setNextHopInterface("Eth2")
+            .setAdministrativeCost(1)
+            .build();
+    StaticRoute recursiveRoute =
+        StaticRoute.builder()
+            .setNetwork(Prefix.parse("2.2.2.0/24"))
+            .setNextHopIp(Ip.parse("1.1.1.1"))
+            .setAdministrativeCost(1)
+            .build();
+    StaticRoute doublyRecursiveRoute =
+        StaticRoute.builder()
+            .setNetwork(Prefix.parse("3.3.3.0/24"))
+            .setNextHopIp(Ip.parse("2.2.2.2"))
+            .setAdministrativeCost(1)
+            .build();
+    StaticRoute unrelatedRoute =
+        StaticRoute.builder()
+            .setNetwork(Prefix.parse("4.4.4.0/24"))
+            .setNextHopInterface("Eth4")
+            .setAdministrativeCost(1)
+            .build();
+
+    rib.mergeRoute(annotateRoute(interfaceRoute));
+    rib.mergeRoute(annotateRoute(recursiveRoute));
+    rib.mergeRoute(annotateRoute(unrelatedRoute));
+    FibImpl fib = new FibImpl(rib);
+    // compute matching IPs so they are maintained by updates
+    fib.getMatchingIps();
+    changed.clear();
+
+    // a more specific route for the next hop changes how the recursive route resolves
+    rib.mergeRoute(annotateRoute(moreSpecificInterfaceRoute));
+    rib.mergeRoute(annotateRoute(doublyRecursiveRoute));
+    fib.update(rib, changed);
+    changed.clear();
+    assertThat(fib.allEntries(), equalTo(new FibImpl(rib).allEntries()));
+    assertThat(fib.getMatchingIps(), equalTo(new FibImpl(rib).getMatchingIps()));
+    assertThat(
+        getTopLevelRoutesByInterface(fib, "Eth2"),
+        containsInAnyOrder(moreSpecificInterfaceRoute, recursiveRoute, doublyRecursiveRoute));
+
+    // removing it makes both recursive routes fall back to the less specific route
+    rib.removeRoute(annotateRoute(moreSpecificInterfaceRoute));
+    fib.update(rib, changed);
+    changed.clear();
+    assertThat(fib.allEntries(), equalTo(new FibImpl(rib).allEntries()));
+    assertThat(fib.getMatchingIps(), equalTo(new FibImpl(rib).getMatchingIps()));
+
+    // removing the last route for the next hop leaves the recursive routes unresolved
+    rib.removeRoute(annotateRoute(interfaceRoute));
+    fib.update(rib, changed);
+    changed.clear();
+    assertThat(fib.allEntries(), equalTo(new FibImpl(rib).allEntries()));
+    assertThat(fib.getMatchingIps(), equalTo(new FibImpl(rib).getMatchingIps()));
+    assertThat(getTopLevelRoutesByInterface(fib, "Eth4"), contains(unrelatedRoute));
+
+    // and adding it back resolves them again
+    rib.mergeRoute(annotateRoute(interfaceRoute));
+    fib.update(rib, changed);
+    assertThat(fib.allEntries(), equalTo(new FibImpl(rib).allEntries()));
+    assertThat(fib.getMatchingIps(), equalTo(new FibImpl(rib).getMatchingIps()));
+    assertThat(
+        getTopLevelRoutesByInterface(fib, "Eth1"),
+        containsInAnyOrder(interfaceRoute, recursiveRoute, doublyRecursiveRoute));
+  }
 }
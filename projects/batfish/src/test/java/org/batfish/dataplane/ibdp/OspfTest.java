@@ -7,10 +7,13 @@ import static org.batfish.datamodel.RoutingProtocol.OSPF_IA;
 import static org.batfish.datamodel.ospf.OspfTopologyUtils.computeOspfTopology;
 import static org.batfish.dataplane.ibdp.TestUtils.assertNoRoute;
 import static org.batfish.dataplane.ibdp.TestUtils.assertRoute;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSortedMap;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -150,6 +153,34 @@ public class OspfTest {
       Long maxMetricStubNetworks,
       Long maxMetricSummaryNetworks,
       Long maxMetricTransitLinks) {
+    return getOspfRoutes(
+        areaA,
+        areaB,
+        areaC,
+        areaD,
+        areaE,
+        areaF,
+        areaG,
+        maxMetricExternalNetworks,
+        maxMetricStubNetworks,
+        maxMetricSummaryNetworks,
+        maxMetricTransitLinks,
+        new IncrementalDataPlaneSettings());
+  }
+
+  private static SortedMap<String, SortedMap<String, Set<AbstractRoute>>> getOspfRoutes(
+      long areaA,
+      long areaB,
+      long areaC,
+      long areaD,
+      long areaE,
+      long areaF,
+      long areaG,
+      Long maxMetricExternalNetworks,
+      Long maxMetricStubNetworks,
+      Long maxMetricSummaryNetworks,
+      Long maxMetricTransitLinks,
+      IncrementalDataPlaneSettings settings) {
 
     String l0Name = "Loopback0";
     String l1Name = "Loopback1";
@@ -346,9 +377,7 @@ public class OspfTest {
             .put(c4.getHostname(), c4)
             .build();
     IncrementalBdpEngine engine =
-        new IncrementalBdpEngine(
-            new IncrementalDataPlaneSettings(),
-            new BatfishLogger(BatfishLogger.LEVELSTR_OUTPUT, false));
+        new IncrementalBdpEngine(settings, new BatfishLogger(BatfishLogger.LEVELSTR_OUTPUT, false));
     OspfTopologyUtils.initNeighborConfigs(NetworkConfigurations.of(configurations));
     Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
     IncrementalDataPlane dp =
@@ -381,6 +410,15 @@ public class OspfTest {
    */
   private static SortedMap<String, SortedMap<String, Set<AbstractRoute>>> getOspfStubBehavior(
       boolean noSummaryStub1, boolean noSummaryNssa2, OspfDefaultOriginateType nssaDefaultType) {
+    return getOspfStubBehavior(
+        noSummaryStub1, noSummaryNssa2, nssaDefaultType, new IncrementalDataPlaneSettings());
+  }
+
+  private static SortedMap<String, SortedMap<String, Set<AbstractRoute>>> getOspfStubBehavior(
+      boolean noSummaryStub1,
+      boolean noSummaryNssa2,
+      OspfDefaultOriginateType nssaDefaultType,
+      IncrementalDataPlaneSettings settings) {
     String r0Name = "r0";
     String r1Name = "r1";
     String r2Name = "r2";
@@ -586,9 +624,7 @@ public class OspfTest {
             .put(r6.getHostname(), r6)
             .build();
     IncrementalBdpEngine engine =
-        new IncrementalBdpEngine(
-            new IncrementalDataPlaneSettings(),
-            new BatfishLogger(BatfishLogger.LEVELSTR_OUTPUT, false));
+        new IncrementalBdpEngine(settings, new BatfishLogger(BatfishLogger.LEVELSTR_OUTPUT, false));
     OspfTopologyUtils.initNeighborConfigs(NetworkConfigurations.of(configurations));
     Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
     IncrementalDataPlane dp =
@@ -1085,4 +1121,56 @@ public class OspfTest {
         routes, OSPF, "listener", Prefix.parse("192.168.61.4/32"), 11, Ip.parse("14.2.0.2"));
     assertNoRoute(routes, "listener", Prefix.parse("192.168.61.0/24"));
   }
+
+  private static IncrementalDataPlaneSettings ospfSpfSettings() {
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings.setOspfSpf(true);
+    return settings;
+  }
+
+  @Test
+  public void testOspfSpfMatchesMessagePassing() {
+    long[][] areaAssignments = {
+      {0L, 0L, 0L, 0L, 0L, 0L, 0L},
+      {1L, 0L, 0L, 0L, 0L, 0L, 0L},
+      {1L, 1L, 1L, 0L, 0L, 0L, 2L},
+      {1L, 1L, 0L, 0L, 0L, 2L, 2L},
+    };
+    for (long[] areas : areaAssignments) {
+      for (Long maxMetric : Arrays.asList(null, MAX_METRIC_TRANSIT_LINKS)) {
+        assertThat(
+            getOspfRoutes(
+                areas[0],
+                areas[1],
+                areas[2],
+                areas[3],
+                areas[4],
+                areas[5],
+                areas[6],
+                MAX_METRIC_EXTERNAL_NETWORKS,
+                maxMetric,
+                null,
+                maxMetric,
+                ospfSpfSettings()),
+            equalTo(
+                getOspfRoutes(
+                    areas[0],
+                    areas[1],
+                    areas[2],
+                    areas[3],
+                    areas[4],
+                    areas[5],
+                    areas[6],
+                    MAX_METRIC_EXTERNAL_NETWORKS,
+                    maxMetric,
+                    null,
+                    maxMetric)));
+      }
+    }
+    for (OspfDefaultOriginateType nssaDefaultType : OspfDefaultOriginateType.values()) {
+      assertThat(
+          getOspfStubBehavior(true, false, nssaDefaultType, ospfSpfSettings()),
+          equalTo(getOspfStubBehavior(true, false, nssaDefaultType)));
+    }
+  }
 }
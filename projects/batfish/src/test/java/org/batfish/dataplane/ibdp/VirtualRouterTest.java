@@ -220,6 +220,39 @@ public class VirtualRouterTest {
     assertThat(vr.getMainRib().getRoutes(), not(hasItem(dependentRoute)));
   }
 
+  /**
+   * Test that {@link VirtualRouter#activateStaticRoutes()} re-evaluates a route once a route to its
+   * next-hop IP appears after it was first evaluated.
+   */
+  @Test
+  public void testActivateStaticRoutesAfterNextHopResolves() {
+    VirtualRouter vr = makeIosVirtualRouter("n1");
+    StaticRoute baseRoute =
+        StaticRoute.builder()
+            .setNetwork(Prefix.parse("1.1.1.0/24"))
+            .setNextHopInterface("Ethernet1")
+            .setAdministrativeCost(1)
+            .build();
+    StaticRoute dependentRoute =
+        StaticRoute.builder()
+            .setNetwork(Prefix.parse("2.2.2.2/32"))
+            .setNextHopIp(Ip.parse("1.1.1.1"))
+            .setAdministrativeCost(1)
+            .build();
+    vr.getConfiguration()
+        .getVrfs()
+        .get(DEFAULT_VRF_NAME)
+        .setStaticRoutes(ImmutableSortedSet.of(dependentRoute));
+
+    vr.initStaticRibs();
+    vr.activateStaticRoutes();
+    assertThat(vr.getMainRib().getRoutes(), not(hasItem(dependentRoute)));
+
+    vr.getMainRib().mergeRoute(new AnnotatedRoute<>(baseRoute, DEFAULT_VRF_NAME));
+    vr.activateStaticRoutes();
+    assertThat(vr.getMainRib().getRoutes(), hasItem(dependentRoute));
+  }
+
   /** Check that initialization of Connected RIB is as expected */
   @Test
   public void testInitConnectedRib() {
@@ -331,6 +331,80 @@ public class AbstractRibTest {
     assertThat(delta.getRoutes(), hasItem(newRoute));
   }
 
+  @Test
+  public void testFingerprint() {
+    int admin = RoutingProtocol.RIP.getDefaultAdministrativeCost(ConfigurationFormat.CISCO_IOS);
+    Prefix prefix1 = Prefix.parse("10.0.0.0/8");
+    Prefix prefix2 = Prefix.parse("10.0.0.0/16");
+    RipInternalRoute worse = new RipInternalRoute(prefix1, Ip.ZERO, admin, 10, 0L);
+    RipInternalRoute better = new RipInternalRoute(prefix1, Ip.ZERO, admin, 5, 0L);
+    RipInternalRoute other = new RipInternalRoute(prefix2, Ip.ZERO, admin, 5, 0L);
+
+    AbstractRib<RipInternalRoute> rib1 = new RipInternalRib();
+    assertThat(rib1.getFingerprint(), equalTo(0L));
+    rib1.mergeRouteGetDelta(worse);
+    rib1.mergeRouteGetDelta(better); // evicts the worse route
+    rib1.mergeRouteGetDelta(other);
+
+    AbstractRib<RipInternalRoute> rib2 = new RipInternalRib();
+    rib2.mergeRouteGetDelta(other);
+    rib2.mergeRouteGetDelta(better);
+    rib2.mergeRouteGetDelta(worse); // not preferred, so not added
+
+    // Same routes in different order
+    assertThat(rib1.getFingerprint(), equalTo(rib2.getFingerprint()));
+
+    rib1.removeRouteGetDelta(other);
+    assertThat(rib1.getFingerprint(), not(equalTo(rib2.getFingerprint())));
+    AbstractRib<RipInternalRoute> rib3 = new RipInternalRib();
+    rib3.mergeRouteGetDelta(better);
+    assertThat(rib1.getFingerprint(), equalTo(rib3.getFingerprint()));
+
+    rib1.clear();
+    assertThat(rib1.getFingerprint(), equalTo(0L));
+  }
+
+  @Test
+  public void testFingerprintBestPath() {
+    Bgpv4Rib rib =
+        new Bgpv4Rib(
+            null,
+            BgpTieBreaker.ROUTER_ID,
+            1,
+            MultipathEquivalentAsPathMatchMode.EXACT_PATH,
+            true,
+            false);
+    Bgpv4Rib expected =
+        new Bgpv4Rib(
+            null,
+            BgpTieBreaker.ROUTER_ID,
+            1,
+            MultipathEquivalentAsPathMatchMode.EXACT_PATH,
+            true,
+            false);
+    Bgpv4Route.Builder routeBuilder =
+        new Bgpv4Route.Builder()
+            .setNetwork(Prefix.ZERO)
+            .setOriginType(OriginType.INCOMPLETE)
+            .setOriginatorIp(Ip.parse("1.1.1.1"))
+            .setProtocol(RoutingProtocol.IBGP)
+            .setReceivedFromIp(Ip.parse("1.1.1.1"));
+    Bgpv4Route route1 = routeBuilder.setLocalPreference(100).build();
+    Bgpv4Route route2 = routeBuilder.setLocalPreference(200).build();
+
+    rib.mergeRoute(route1);
+    rib.mergeRoute(route2);
+    expected.mergeRoute(route2);
+    assertThat(rib.getFingerprint(), equalTo(expected.getFingerprint()));
+
+    // the backup route becomes the best path
+    rib.removeRoute(route2);
+    expected.removeRoute(route2);
+    expected.mergeRoute(route1);
+    assertThat(rib.getTypedRoutes(), contains(route1));
+    assertThat(rib.getFingerprint(), equalTo(expected.getFingerprint()));
+  }
+
   /**
    * Test that {@link AbstractRib#removeRoute} actually removes the route and returns correct {@link
    * RibDelta}
@@ -1,14 +1,18 @@
 package org.batfish.dataplane.rib;
 
 import static org.batfish.dataplane.ibdp.TestUtils.annotateRoute;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.lessThan;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.StaticRoute;
 import org.junit.Test;
@@ -20,6 +24,42 @@ public class RibTest {
     assertThat(new Rib().getRoutes(), empty());
   }
 
+  @Test
+  public void testLongestPrefixMatchInvalidated() {
+    Rib rib = new Rib();
+    StaticRoute.Builder sb = StaticRoute.builder().setNextHopInterface("foo").setAdmin(1);
+    AnnotatedRoute<AbstractRoute> defaultRoute = annotateRoute(sb.setNetwork(Prefix.ZERO).build());
+    AnnotatedRoute<AbstractRoute> specificRoute =
+        annotateRoute(sb.setNetwork(Prefix.parse("10.0.0.0/8")).build());
+    Ip ip = Ip.parse("10.0.0.1");
+
+    rib.mergeRoute(defaultRoute);
+    assertThat(rib.longestPrefixMatch(ip), contains(defaultRoute));
+    rib.mergeRoute(specificRoute);
+    assertThat(rib.longestPrefixMatch(ip), contains(specificRoute));
+    rib.removeRoute(specificRoute);
+    assertThat(rib.longestPrefixMatch(ip), contains(defaultRoute));
+    rib.clear();
+    assertThat(rib.longestPrefixMatch(ip), empty());
+  }
+
+  @Test
+  public void testPrefixChangeListener() {
+    Rib rib = new Rib();
+    List<Prefix> changed = new ArrayList<>();
+    rib.addPrefixChangeListener(changed::add);
+    StaticRoute.Builder sb = StaticRoute.builder().setNextHopInterface("foo");
+    Prefix prefix = Prefix.parse("10.0.0.0/8");
+
+    rib.mergeRoute(annotateRoute(sb.setNetwork(prefix).setAdmin(10).build()));
+    // less preferred, so no change
+    rib.mergeRoute(annotateRoute(sb.setNetwork(prefix).setAdmin(20).build()));
+    assertThat(changed, contains(prefix));
+
+    rib.clear();
+    assertThat(changed, contains(prefix, Prefix.ZERO));
+  }
+
   @Test
   public void testNonRoutingIsNotInstalled() {
     Rib rib = new Rib();
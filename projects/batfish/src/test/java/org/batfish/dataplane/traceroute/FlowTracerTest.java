@@ -22,6 +22,7 @@ import static org.batfish.dataplane.traceroute.FlowTracer.buildRoutingStep;
 import static org.batfish.dataplane.traceroute.FlowTracer.getSessionAction;
 import static org.batfish.dataplane.traceroute.FlowTracer.initialFlowTracer;
 import static org.batfish.dataplane.traceroute.FlowTracer.matchSessionReturnFlow;
+import static org.batfish.dataplane.traceroute.TraceRecorder.forEachTrace;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.contains;
@@ -152,7 +153,8 @@ public final class FlowTracerTest {
             ImmutableSet.of(),
             ImmutableMap.of(),
             false);
-    FlowTracer flowTracer = initialFlowTracer(ctxt, c.getHostname(), null, flow, traces::add);
+    FlowTracer flowTracer =
+        initialFlowTracer(ctxt, c.getHostname(), null, flow, forEachTrace(traces::add));
     flowTracer.buildDeniedTrace(DENIED_IN);
     assertThat(
         traces,
@@ -193,12 +195,12 @@ public final class FlowTracerTest {
             c,
             null,
             new Node(c.getHostname()),
-            traces::add,
+            forEachTrace(traces::add),
             NodeInterfacePair.of("node", "iface"),
             ImmutableSet.of(sessionInfo),
             flow,
             vrf.getName(),
-            new ArrayList<>(),
+            HopPath.EMPTY,
             ImmutableList.of(),
             new Stack<>(),
             flow);
@@ -262,12 +264,12 @@ public final class FlowTracerTest {
             c,
             ingressIface.getName(),
             new Node(c.getHostname()),
-            traces::add,
+            forEachTrace(traces::add),
             lastHopNodeAndOutgoingInterface,
             new HashSet<>(),
             flow,
             vrf.getName(),
-            new ArrayList<>(),
+            HopPath.EMPTY,
             new ArrayList<>(),
             new Stack<>(),
             flow);
@@ -404,12 +406,12 @@ public final class FlowTracerTest {
             c,
             null,
             new Node(c.getHostname()),
-            traces::add,
+            forEachTrace(traces::add),
             null,
             new HashSet<>(),
             flow,
             vrf.getName(),
-            new ArrayList<>(),
+            HopPath.EMPTY,
             new ArrayList<>(),
             new Stack<>(),
             flow);
@@ -490,12 +492,12 @@ public final class FlowTracerTest {
               c,
               null,
               new Node(c.getHostname()),
-              traces::add,
+              forEachTrace(traces::add),
               null,
               new HashSet<>(),
               returnFlow,
               vrf.getName(),
-              new ArrayList<>(),
+              HopPath.EMPTY,
               new ArrayList<>(),
               new Stack<>(),
               returnFlow);
@@ -519,12 +521,12 @@ public final class FlowTracerTest {
               c,
               null,
               new Node(c.getHostname()),
-              traces::add,
+              forEachTrace(traces::add),
               null,
               new HashSet<>(),
               nonMatchingReturnFlow,
               vrf.getName(),
-              new ArrayList<>(),
+              HopPath.EMPTY,
               new ArrayList<>(),
               new Stack<>(),
               nonMatchingReturnFlow);
@@ -583,7 +585,8 @@ public final class FlowTracerTest {
             ImmutableSet.of(),
             ImmutableMap.of(hostname, ImmutableMap.of(srcVrfName, srcFib)),
             false);
-    FlowTracer flowTracer = initialFlowTracer(ctxt, hostname, null, flow, traces::add);
+    FlowTracer flowTracer =
+        initialFlowTracer(ctxt, hostname, null, flow, forEachTrace(traces::add));
     flowTracer.fibLookup(dstIp, hostname, srcFib);
     List<TraceAndReverseFlow> finalTraces = traces.build();
     assertThat(traces.build(), contains(hasTrace(hasDisposition(NULL_ROUTED))));
@@ -646,7 +649,8 @@ public final class FlowTracerTest {
             ImmutableSet.of(),
             ImmutableMap.of(hostname, ImmutableMap.of(srcVrfName, srcFib, nextVrfName, nextFib)),
             false);
-    FlowTracer flowTracer = initialFlowTracer(ctxt, hostname, null, flow, traces::add);
+    FlowTracer flowTracer =
+        initialFlowTracer(ctxt, hostname, null, flow, forEachTrace(traces::add));
     flowTracer.fibLookup(dstIp, hostname, srcFib);
 
     // Should be delegated from srcFib to nextFib and eventually NULL_ROUTED
@@ -724,7 +728,8 @@ public final class FlowTracerTest {
             ImmutableSet.of(),
             ImmutableMap.of(hostname, ImmutableMap.of(vrf1Name, fib1, vrf2Name, fib2)),
             false);
-    FlowTracer flowTracer = initialFlowTracer(ctxt, hostname, null, flow, traces::add);
+    FlowTracer flowTracer =
+        initialFlowTracer(ctxt, hostname, null, flow, forEachTrace(traces::add));
     flowTracer.fibLookup(dstIp, hostname, fib1);
 
     // Should be delegated from fib1 to fib2 and then looped back to fib1
@@ -825,7 +830,8 @@ public final class FlowTracerTest {
             ImmutableSet.of(),
             ImmutableMap.of(hostname, ImmutableMap.of(srcVrfName, srcFib)),
             false);
-    FlowTracer flowTracer = initialFlowTracer(ctxt, hostname, null, flow, traces::add);
+    FlowTracer flowTracer =
+        initialFlowTracer(ctxt, hostname, null, flow, forEachTrace(traces::add));
     flowTracer.fibLookup(dstIp, hostname, srcFib);
     List<TraceAndReverseFlow> finalTraces = traces.build();
     assertThat(traces.build(), contains(hasTrace(hasDisposition(DELIVERED_TO_SUBNET))));
@@ -892,21 +898,24 @@ public final class FlowTracerTest {
     // 1. evaluate dstIp=ip1 on c1. Should be transformed to ip3
     {
       Flow flow = fb.setDstIp(ip1).build();
-      FlowTracer flowTracer = initialFlowTracer(ctxt, c1.getHostname(), null, flow, tarf -> {});
+      FlowTracer flowTracer =
+          initialFlowTracer(ctxt, c1.getHostname(), null, flow, forEachTrace(tarf -> {}));
       assertThat(flowTracer.eval(transformation).getOutputFlow().getDstIp(), equalTo(ip3));
     }
 
     // 2. evaluate dstIp=ip2 on c1. Should not be transformed.
     {
       Flow flow = fb.setDstIp(ip2).build();
-      FlowTracer flowTracer = initialFlowTracer(ctxt, c1.getHostname(), null, flow, tarf -> {});
+      FlowTracer flowTracer =
+          initialFlowTracer(ctxt, c1.getHostname(), null, flow, forEachTrace(tarf -> {}));
       assertThat(flowTracer.eval(transformation).getOutputFlow().getDstIp(), equalTo(ip2));
     }
 
     // 3. evaluate dstIp=ip1 after forking to c2. Should not be transformed
     {
       Flow flow = fb.setDstIp(ip1).build();
-      FlowTracer flowTracer = initialFlowTracer(ctxt, c1.getHostname(), null, flow, tarf -> {});
+      FlowTracer flowTracer =
+          initialFlowTracer(ctxt, c1.getHostname(), null, flow, forEachTrace(tarf -> {}));
       flowTracer =
           flowTracer.forkTracer(c2, null, new ArrayList<>(), null, Configuration.DEFAULT_VRF_NAME);
       assertThat(flowTracer.eval(transformation).getOutputFlow().getDstIp(), equalTo(ip1));
@@ -915,7 +924,8 @@ public final class FlowTracerTest {
     // 4. evaluate dstIp=ip2 after forking to c2. Should be transformed to ip3
     {
       Flow flow = fb.setDstIp(ip2).build();
-      FlowTracer flowTracer = initialFlowTracer(ctxt, c1.getHostname(), null, flow, tarf -> {});
+      FlowTracer flowTracer =
+          initialFlowTracer(ctxt, c1.getHostname(), null, flow, forEachTrace(tarf -> {}));
       flowTracer =
           flowTracer.forkTracer(c2, null, new ArrayList<>(), null, Configuration.DEFAULT_VRF_NAME);
       assertThat(flowTracer.eval(transformation).getOutputFlow().getDstIp(), equalTo(ip3));
@@ -1162,12 +1172,12 @@ public final class FlowTracerTest {
             c,
             null,
             new Node(c.getHostname()),
-            traces::add,
+            forEachTrace(traces::add),
             NodeInterfacePair.of(node, iface),
             ImmutableSet.of(),
             flow,
             vrf.getName(),
-            new ArrayList<>(),
+            HopPath.EMPTY,
             ImmutableList.of(),
             new Stack<>(),
             flow);
@@ -1374,12 +1384,12 @@ public final class FlowTracerTest {
             currentConfig,
             null,
             new Node(node),
-            traceAndReverseFlow -> {},
+            forEachTrace(traceAndReverseFlow -> {}),
             null,
             new HashSet<>(),
             flow,
             vrf.getName(),
-            new ArrayList<>(),
+            HopPath.EMPTY,
             new ArrayList<>(),
             breadcrumbs,
             flow);
@@ -1422,7 +1432,8 @@ public final class FlowTracerTest {
             ImmutableMap.of(),
             false);
     FlowTracer flowTracer =
-        initialFlowTracer(ctxt, c1.getHostname(), null, flow, traceAndReverseFlow -> {});
+        initialFlowTracer(
+            ctxt, c1.getHostname(), null, flow, forEachTrace(traceAndReverseFlow -> {}));
 
     Ip dstIp2 = Ip.parse("2.2.2.2");
     flowTracer.applyTransformation(
@@ -1509,12 +1520,12 @@ public final class FlowTracerTest {
               c,
               null,
               new Node(c.getHostname()),
-              traces::add,
+              forEachTrace(traces::add),
               NodeInterfacePair.of("node", "iface"),
               ImmutableSet.of(),
               flowWithBlockedSrc, // original flow
               vrf.getName(),
-              new ArrayList<>(),
+              HopPath.EMPTY,
               steps,
               new Stack<>(),
               flowWithPermittedSrc); // current flow
@@ -1535,12 +1546,12 @@ public final class FlowTracerTest {
               c,
               null,
               new Node(c.getHostname()),
-              traces::add,
+              forEachTrace(traces::add),
               NodeInterfacePair.of("node", "iface"),
               ImmutableSet.of(),
               flowWithPermittedSrc, // original flow
               vrf.getName(),
-              new ArrayList<>(),
+              HopPath.EMPTY,
               steps,
               new Stack<>(),
               flowWithBlockedSrc); // current flow
@@ -1,5 +1,6 @@
 package org.batfish.dataplane.traceroute;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static org.batfish.datamodel.ExprAclLine.ACCEPT_ALL;
 import static org.batfish.datamodel.ExprAclLine.REJECT_ALL;
 import static org.batfish.datamodel.ExprAclLine.accepting;
@@ -127,6 +128,7 @@ import org.batfish.datamodel.flow.Step;
 import org.batfish.datamodel.flow.StepAction;
 import org.batfish.datamodel.flow.Trace;
 import org.batfish.datamodel.flow.TraceAndReverseFlow;
+import org.batfish.datamodel.flow.TraceDag;
 import org.batfish.datamodel.flow.TransformationStep;
 import org.batfish.datamodel.flow.TransformationStep.TransformationStepDetail;
 import org.batfish.datamodel.transformation.IpField;
@@ -2318,6 +2320,17 @@ public class TracerouteEngineImplTest {
     assertThat(
         traces,
         contains(hasHops(contains(hasSteps(hasSize(3)))), hasHops(contains(hasSteps(hasSize(3))))));
+
+    // The DAG of the traces has the same traces
+    TraceDag traceDag =
+        tracerouteEngine
+            .computeTraceDags(ImmutableSet.of(flow), ImmutableSet.of(), false)
+            .get(flow);
+    assertThat(traceDag.countTraces(), equalTo(2L));
+    assertThat(
+        BatfishObjectMapper.writeString(
+            traceDag.getTraces().map(TraceAndReverseFlow::getTrace).collect(toImmutableList())),
+        equalTo(BatfishObjectMapper.writeString(traces)));
   }
 
   @Test
@@ -0,0 +1,45 @@
+package org.batfish.grammar.flatjuniper;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+import org.junit.Test;
+
+/** Tests of {@link LineSplicer}. */
+public final class LineSplicerTest {
+
+  private static ParseTree line(String text) {
+    return new TerminalNodeImpl(new CommonToken(FlatJuniperLexer.NEWLINE, text));
+  }
+
+  @Test
+  public void testApply() {
+    ParseTree a = line("a");
+    ParseTree b = line("b");
+    ParseTree c = line("c");
+    ParseTree x1 = line("x1");
+    ParseTree x2 = line("x2");
+    ParseTree y1 = line("y1");
+    ParseTree y2 = line("y2");
+    LineSplicer splicer = new LineSplicer();
+    splicer.insertBefore(b, ImmutableList.of(x1));
+    splicer.insertBefore(b, ImmutableList.of(x2));
+    splicer.remove(b);
+    splicer.insertAfter(c, ImmutableList.of(y2));
+    splicer.insertAfter(c, ImmutableList.of(y1));
+
+    assertThat(splicer.apply(ImmutableList.of(a, b, c)), contains(a, x1, x2, c, y1, y2));
+  }
+
+  @Test
+  public void testApplyNoEdits() {
+    List<ParseTree> lines = ImmutableList.of(line("a"));
+    assertThat(new LineSplicer().apply(lines), sameInstance(lines));
+  }
+}
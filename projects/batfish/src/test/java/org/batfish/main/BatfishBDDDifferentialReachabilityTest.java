@@ -505,6 +505,16 @@ public class BatfishBDDDifferentialReachabilityTest {
     checkDispositions(batfish, flows, DENIED_OUT);
   }
 
+  @Test
+  public void testNoChanges() throws IOException {
+    DeniedOutForwardNetworkGenerator generator = new DeniedOutForwardNetworkGenerator();
+    Batfish batfish = initBatfish(delta -> generator.generateConfigs(false));
+    DifferentialReachabilityResult differentialReachabilityResult =
+        getResult(batfish, parameters(batfish, ImmutableSet.of(DENIED_OUT, ACCEPTED)));
+    assertThat(differentialReachabilityResult.getIncreasedReachabilityFlows(), empty());
+    assertThat(differentialReachabilityResult.getDecreasedReachabilityFlows(), empty());
+  }
+
   class NoRouteNetworkGenerator implements NetworkGenerator {
     @Override
     public SortedMap<String, Configuration> generateConfigs(boolean delta) {
@@ -64,6 +64,10 @@ public class BatfishTestUtils {
     return Collections.synchronizedMap(new LRUMap<>(4));
   }
 
+  private static Cache<NetworkSnapshot, SnapshotArtifacts> makeSnapshotArtifactsCache() {
+    return CacheBuilder.newBuilder().maximumSize(2).build();
+  }
+
   private static Cache<NetworkSnapshot, DataPlane> makeDataPlaneCache() {
     return CacheBuilder.newBuilder().softValues().maximumSize(2).build();
   }
@@ -94,6 +98,7 @@ public class BatfishTestUtils {
             makeDataPlaneCache(),
             makeEnvBgpCache(),
             makeVendorConfigurationCache(),
+            makeSnapshotArtifactsCache(),
             null,
             new TestStorageBasedIdResolver(settings.getStorageBase()));
     if (!configurations.isEmpty()) {
@@ -128,6 +133,7 @@ public class BatfishTestUtils {
             makeDataPlaneCache(),
             makeEnvBgpCache(),
             makeVendorConfigurationCache(),
+            makeSnapshotArtifactsCache(),
             null,
             new TestStorageBasedIdResolver(settings.getStorageBase()));
     batfish.getSettings().setDiffQuestion(true);
@@ -188,6 +194,7 @@ public class BatfishTestUtils {
             makeDataPlaneCache(),
             makeEnvBgpCache(),
             makeVendorConfigurationCache(),
+            makeSnapshotArtifactsCache(),
             null,
             new TestStorageBasedIdResolver(settings.getStorageBase()));
     StorageProvider storage = new FileBasedStorage(settings.getStorageBase(), batfish.getLogger());
@@ -262,6 +269,7 @@ public class BatfishTestUtils {
             makeDataPlaneCache(),
             makeEnvBgpCache(),
             makeVendorConfigurationCache(),
+            makeSnapshotArtifactsCache(),
             storageProvider,
             idResolver);
     registerDataPlanePlugins(batfish);
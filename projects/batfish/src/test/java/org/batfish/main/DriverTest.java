@@ -0,0 +1,50 @@
+package org.batfish.main;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import org.batfish.common.BfConsts;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONObject;
+import org.junit.Test;
+
+/** Tests of {@link Driver}. */
+public final class DriverTest {
+
+  @Test
+  public void testGetCachedSnapshotsJson() throws Exception {
+    NetworkSnapshot parsed = new NetworkSnapshot(new NetworkId("net"), new SnapshotId("parsed"));
+    NetworkSnapshot dataPlaned = new NetworkSnapshot(new NetworkId("net"), new SnapshotId("dp"));
+    Configuration c = new Configuration("c", ConfigurationFormat.CISCO_IOS);
+
+    JSONArray array =
+        Driver.getCachedSnapshotsJson(
+            ImmutableMap.of(parsed, ImmutableSortedMap.of("c", c)), ImmutableSet.of(dataPlaned));
+
+    assertThat(array.length(), equalTo(2));
+    for (int i = 0; i < array.length(); i++) {
+      JSONObject entry = array.getJSONObject(i);
+      assertThat(entry.getString(BfConsts.SVC_CACHED_NETWORK_KEY), equalTo("net"));
+      if (entry.getString(BfConsts.SVC_CACHED_SNAPSHOT_KEY).equals("parsed")) {
+        assertTrue(entry.getBoolean(BfConsts.SVC_CACHED_CONFIGURATIONS_KEY));
+        assertFalse(entry.getBoolean(BfConsts.SVC_CACHED_DATA_PLANE_KEY));
+        assertThat(entry.getInt(BfConsts.SVC_CACHED_DEVICES_KEY), equalTo(1));
+      } else {
+        assertThat(entry.getString(BfConsts.SVC_CACHED_SNAPSHOT_KEY), equalTo("dp"));
+        assertFalse(entry.getBoolean(BfConsts.SVC_CACHED_CONFIGURATIONS_KEY));
+        assertTrue(entry.getBoolean(BfConsts.SVC_CACHED_DATA_PLANE_KEY));
+        assertThat(entry.getInt(BfConsts.SVC_CACHED_DEVICES_KEY), equalTo(0));
+      }
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package org.batfish.main;
+
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Map;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.job.ParseVendorConfigurationResult;
+import org.junit.Test;
+
+/** Tests of {@link ParserWarmup}. */
+public final class ParserWarmupTest {
+
+  @Test
+  public void testSamplesParse() {
+    for (Map.Entry<String, ConfigurationFormat> sample : ParserWarmup.SAMPLES.entrySet()) {
+      ParseVendorConfigurationResult result =
+          ParserWarmup.parseSample(sample.getKey(), sample.getValue());
+      assertThat(sample.getKey(), result.getFailureCause(), nullValue());
+      assertThat(sample.getKey(), result.getVendorConfiguration(), notNullValue());
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package org.batfish.main;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.batfish.common.BfConsts;
+import org.batfish.common.BfConsts.TaskCategory;
+import org.batfish.config.Settings;
+import org.codehaus.jettison.json.JSONObject;
+import org.junit.Test;
+
+/** Tests of {@link TaskAdmission}. */
+public final class TaskAdmissionTest {
+
+  @Test
+  public void testCategorizeFromCommands() {
+    Settings settings = new Settings(new String[] {"-" + BfConsts.COMMAND_PARSE_VENDOR_SPECIFIC});
+    assertThat(TaskAdmission.categorize(settings), equalTo(TaskCategory.PARSING));
+
+    settings = new Settings(new String[] {"-" + BfConsts.COMMAND_DUMP_DP});
+    assertThat(TaskAdmission.categorize(settings), equalTo(TaskCategory.DATAPLANING));
+
+    settings = new Settings(new String[] {"-" + BfConsts.COMMAND_ANSWER});
+    assertThat(TaskAdmission.categorize(settings), equalTo(TaskCategory.ANSWERING));
+  }
+
+  @Test
+  public void testCategorizeFromHint() {
+    Settings settings =
+        new Settings(
+            new String[] {
+              "-" + BfConsts.COMMAND_ANSWER,
+              "-" + BfConsts.ARG_TASK_CATEGORY,
+              TaskCategory.LIGHT_ANSWERING.toString()
+            });
+    assertThat(TaskAdmission.categorize(settings), equalTo(TaskCategory.LIGHT_ANSWERING));
+  }
+
+  @Test
+  public void testCategorizeFromUnknownHint() {
+    Settings settings =
+        new Settings(
+            new String[] {
+              "-" + BfConsts.COMMAND_ANSWER, "-" + BfConsts.ARG_TASK_CATEGORY, "NOT_A_CATEGORY"
+            });
+    assertThat(TaskAdmission.categorize(settings), equalTo(TaskCategory.ANSWERING));
+  }
+
+  @Test
+  public void testEmptyWorkerAdmitsAnything() {
+    TaskAdmission admission = new TaskAdmission(1);
+    assertThat(admission.getAdmittableCategories(), containsInAnyOrder(TaskCategory.values()));
+    assertTrue(admission.tryAdmit("t1", TaskCategory.DATAPLANING));
+    assertThat(admission.getAdmittableCategories(), empty());
+  }
+
+  @Test
+  public void testFastLane() {
+    TaskAdmission admission = new TaskAdmission(3);
+    assertTrue(admission.tryAdmit("dp", TaskCategory.DATAPLANING));
+
+    // heavy tasks must wait, but cheap questions get through
+    assertFalse(admission.tryAdmit("parse", TaskCategory.PARSING));
+    assertFalse(admission.tryAdmit("answer", TaskCategory.ANSWERING));
+    assertTrue(admission.tryAdmit("light1", TaskCategory.LIGHT_ANSWERING));
+    assertTrue(admission.tryAdmit("light2", TaskCategory.LIGHT_ANSWERING));
+
+    // the fast lane is still bounded by the maximum number of concurrent tasks
+    assertFalse(admission.tryAdmit("light3", TaskCategory.LIGHT_ANSWERING));
+
+    admission.release("dp");
+    admission.release("light1");
+    assertThat(admission.getAdmittableCategories(), containsInAnyOrder(TaskCategory.values()));
+  }
+
+  @Test
+  public void testHeavyTasksShareCapacity() {
+    TaskAdmission admission = new TaskAdmission(4);
+    assertTrue(admission.tryAdmit("a1", TaskCategory.ANSWERING));
+    assertTrue(admission.tryAdmit("a2", TaskCategory.ANSWERING));
+    assertFalse(admission.tryAdmit("a3", TaskCategory.ANSWERING));
+    assertThat(
+        admission.getAdmittableCategories(), containsInAnyOrder(TaskCategory.LIGHT_ANSWERING));
+  }
+
+  @Test
+  public void testStatusJson() throws Exception {
+    TaskAdmission admission = new TaskAdmission(2);
+    admission.tryAdmit("t1", TaskCategory.PARSING);
+    admission.attachThread("t1", Thread.currentThread());
+
+    JSONObject status = admission.getStatusJson();
+    assertTrue(status.getBoolean(BfConsts.SVC_STATUS_IDLE_KEY));
+    assertThat(status.getJSONArray(BfConsts.SVC_STATUS_ADMITTABLE_KEY).length(), equalTo(1));
+    assertThat(
+        status.getJSONArray(BfConsts.SVC_STATUS_ADMITTABLE_KEY).getString(0),
+        equalTo(TaskCategory.LIGHT_ANSWERING.toString()));
+    JSONObject task = status.getJSONArray(BfConsts.SVC_STATUS_TASKS_KEY).getJSONObject(0);
+    assertThat(task.getString("taskId"), equalTo("t1"));
+    assertThat(task.getString("category"), equalTo(TaskCategory.PARSING.toString()));
+  }
+}
@@ -45,8 +45,22 @@ import javax.annotation.Nonnull;
  * @version $Id: JFactory.java,v 1.28 2005/09/27 22:56:18 joewhaley Exp $
  */
 public final class JFactory extends BDDFactory {
-  /** Whether to maintain (and in some cases print) statistics about the cache use. */
-  private static final boolean CACHESTATS = false;
+  /**
+   * The system property that enables {@link #CACHESTATS}. Off by default, since maintaining the
+   * statistics slows down every operation.
+   */
+  public static final String CACHESTATS_PROPERTY = "batfish.bdd.cacheStats";
+
+  /**
+   * Whether to maintain (and in some cases print) statistics about the cache use. Read once, so
+   * that the JIT compiler can still remove the bookkeeping when disabled.
+   */
+  private static final boolean CACHESTATS = Boolean.getBoolean(CACHESTATS_PROPERTY);
+
+  /** Returns whether the {@link #getCacheStats() cache statistics} of JFactories are maintained. */
+  public static boolean cacheStatsEnabled() {
+    return CACHESTATS;
+  }
 
   /**
    * Whether to flush (clear completely) the cache when live BDD nodes are garbage collected. If
@@ -0,0 +1,25 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.ObjectArrays;
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+/**
+ * Runs the benchmarks with the JMH command line. Unless another result format is requested, the
+ * results are also written as JSON, which {@link CompareResults} compares between releases.
+ *
+ * <p>Usage: {@code java -jar benchmarks/target/benchmarks-bundle-<version>.jar [JMH options]}, e.g.
+ * {@code -p leaves=16 Traceroute} to run the traceroute benchmarks on a small fabric only.
+ */
+public final class BenchmarkMain {
+
+  public static void main(String[] args) throws Exception {
+    if (new CommandLineOptions(args).getResultFormat().hasValue()) {
+      Main.main(args);
+    } else {
+      Main.main(ObjectArrays.concat(new String[] {"-rf", "json"}, args, String.class));
+    }
+  }
+
+  private BenchmarkMain() {}
+}
@@ -0,0 +1,105 @@
+package org.batfish.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AsPath;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.OriginType;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
+
+/**
+ * Generates synthetic Internet routing tables. Prefix lengths follow the rough shape of the real
+ * table (mostly /24s, then /22-/23s, then shorter prefixes), and every prefix is announced over
+ * several paths. The output depends only on the arguments, so runs are comparable.
+ */
+@ParametersAreNonnullByDefault
+public final class BgpFullTable {
+
+  /** The AS of the first peer announcing the table; peer {@code i} is in AS {@code PEER_AS + i} */
+  public static final long PEER_AS = 64512L;
+
+  /** Returns {@code count} distinct unicast prefixes generated from {@code seed}. */
+  public static @Nonnull List<Prefix> prefixes(int count, long seed) {
+    checkArgument(count >= 0, "Invalid prefix count: %s", count);
+    Random random = new Random(seed);
+    Set<Prefix> prefixes = new LinkedHashSet<>(count);
+    while (prefixes.size() < count) {
+      // first octet in 1-223
+      long ip = ((1L + random.nextInt(223)) << 24) | random.nextInt(1 << 24);
+      prefixes.add(Prefix.create(Ip.create(ip), prefixLength(random)));
+    }
+    return ImmutableList.copyOf(prefixes);
+  }
+
+  private static int prefixLength(Random random) {
+    int bucket = random.nextInt(100);
+    if (bucket < 55) {
+      return 24;
+    } else if (bucket < 75) {
+      return 22 + random.nextInt(2);
+    } else if (bucket < 95) {
+      return 16 + random.nextInt(6);
+    } else {
+      return 8 + random.nextInt(8);
+    }
+  }
+
+  /** The address of the {@code i}th peer announcing the table */
+  public static @Nonnull Ip peerIp(int i) {
+    return Ip.create(Ip.parse("192.0.2.1").asLong() + i);
+  }
+
+  /**
+   * Returns a route to each of {@code prefixes} from each of {@code paths} peers, ordered by
+   * prefix. The AS paths of a prefix share its origin AS and differ in length, so some but not all
+   * of them are equally good.
+   */
+  public static @Nonnull List<Bgpv4Route> routes(List<Prefix> prefixes, int paths, long seed) {
+    checkArgument(paths > 0, "Invalid path count: %s", paths);
+    Random random = new Random(seed);
+    ImmutableList.Builder<Bgpv4Route> routes = ImmutableList.builder();
+    Bgpv4Route.Builder rb =
+        Bgpv4Route.builder()
+            .setLocalPreference(100)
+            .setOriginType(OriginType.IGP)
+            .setProtocol(RoutingProtocol.BGP)
+            .setSrcProtocol(RoutingProtocol.BGP);
+    for (Prefix prefix : prefixes) {
+      long originAs = 1L + random.nextInt(60000);
+      for (int i = 0; i < paths; i++) {
+        Ip peerIp = peerIp(i);
+        routes.add(
+            rb.setNetwork(prefix)
+                .setAsPath(asPath(PEER_AS + i, originAs, random))
+                .setNextHopIp(peerIp)
+                .setOriginatorIp(peerIp)
+                .setReceivedFromIp(peerIp)
+                .build());
+      }
+    }
+    return routes.build();
+  }
+
+  /** An AS path from {@code peerAs} through up to two transit ASes to {@code originAs} */
+  private static @Nonnull AsPath asPath(long peerAs, long originAs, Random random) {
+    int transits = random.nextInt(3);
+    ImmutableList.Builder<Long> asns = ImmutableList.builder();
+    asns.add(peerAs);
+    for (int i = 0; i < transits; i++) {
+      asns.add(1L + random.nextInt(60000));
+    }
+    asns.add(originAs);
+    return AsPath.ofSingletonAsSets(asns.build());
+  }
+
+  private BgpFullTable() {}
+}
@@ -0,0 +1,281 @@
+package org.batfish.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AsPath;
+import org.batfish.datamodel.BgpActivePeerConfig;
+import org.batfish.datamodel.BgpAdvertisement;
+import org.batfish.datamodel.BgpAdvertisement.BgpAdvertisementType;
+import org.batfish.datamodel.BgpProcess;
+import org.batfish.datamodel.ConcreteInterfaceAddress;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.MultipathEquivalentAsPathMatchMode;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.OriginType;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixRange;
+import org.batfish.datamodel.PrefixSpace;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.bgp.Ipv4UnicastAddressFamily;
+import org.batfish.datamodel.routing_policy.expr.BooleanExpr;
+import org.batfish.datamodel.routing_policy.expr.DestinationNetwork;
+import org.batfish.datamodel.routing_policy.expr.Disjunction;
+import org.batfish.datamodel.routing_policy.expr.ExplicitPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.MatchPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.MatchProtocol;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+
+/**
+ * Generates a two-tier Clos fabric running eBGP. Every leaf connects to every spine over a /31,
+ * announces the /24 of its hosts, and load-balances over all spines. The spines share one AS and
+ * each leaf has its own. Optionally, the first leaf also peers with an ISP that announces a full
+ * table (see {@link #ispAdvertisements(List)}).
+ */
+@ParametersAreNonnullByDefault
+public final class ClosFabric {
+
+  public static final long SPINE_AS = 65000L;
+
+  /** The AS of the ISP peering with the first leaf */
+  public static final long ISP_AS = BgpFullTable.PEER_AS;
+
+  private static final String EXPORT_POLICY_NAME = "export";
+  private static final String ISP_EXPORT_POLICY_NAME = "export-isp";
+  private static final Ip FIRST_LINK_IP = Ip.parse("10.0.0.0");
+  private static final Ip FIRST_HOST_PREFIX_IP = Ip.parse("172.16.0.0");
+  private static final Ip FIRST_SPINE_ROUTER_ID = Ip.parse("192.168.0.0");
+  private static final Ip ISP_LINK_LEAF_IP = Ip.parse("100.64.0.0");
+  private static final Ip ISP_LINK_ISP_IP = Ip.parse("100.64.0.1");
+  private static final int LINK_PREFIX_LENGTH = 31;
+  private static final int HOST_PREFIX_LENGTH = 24;
+
+  private final int _spines;
+  private final int _leaves;
+
+  public ClosFabric(int spines, int leaves) {
+    checkArgument(spines > 0, "Invalid number of spines: %s", spines);
+    checkArgument(leaves > 0 && leaves <= 1 << 12, "Invalid number of leaves: %s", leaves);
+    _spines = spines;
+    _leaves = leaves;
+  }
+
+  public static @Nonnull String spineName(int spine) {
+    return "spine" + spine;
+  }
+
+  public static @Nonnull String leafName(int leaf) {
+    return "leaf" + leaf;
+  }
+
+  /** The prefix of the hosts attached to {@code leaf} */
+  public static @Nonnull Prefix hostPrefix(int leaf) {
+    return Prefix.create(
+        Ip.create(FIRST_HOST_PREFIX_IP.asLong() + ((long) leaf << 8)), HOST_PREFIX_LENGTH);
+  }
+
+  /** The address of {@code leaf} on its host subnet */
+  private static @Nonnull Ip leafHostIp(int leaf) {
+    return Ip.create(hostPrefix(leaf).getStartIp().asLong() + 1);
+  }
+
+  /** The address of a host attached to {@code leaf} */
+  public static @Nonnull Ip hostIp(int leaf) {
+    return Ip.create(hostPrefix(leaf).getStartIp().asLong() + 10);
+  }
+
+  /** The address of the spine ({@code leafSide} false) or leaf end of a link */
+  private @Nonnull Ip linkIp(int spine, int leaf, boolean leafSide) {
+    long link = (long) spine * _leaves + leaf;
+    return Ip.create(FIRST_LINK_IP.asLong() + 2 * link + (leafSide ? 1 : 0));
+  }
+
+  /** Returns the configurations of the fabric, by hostname. */
+  public @Nonnull SortedMap<String, Configuration> generate() {
+    NetworkFactory nf = new NetworkFactory();
+    ImmutableSortedMap.Builder<String, Configuration> configs = ImmutableSortedMap.naturalOrder();
+    for (int spine = 0; spine < _spines; spine++) {
+      Configuration c = spine(nf, spine);
+      configs.put(c.getHostname(), c);
+    }
+    for (int leaf = 0; leaf < _leaves; leaf++) {
+      Configuration c = leaf(nf, leaf);
+      configs.put(c.getHostname(), c);
+    }
+    return configs.build();
+  }
+
+  private @Nonnull Configuration spine(NetworkFactory nf, int spine) {
+    Configuration c = newConfiguration(nf, spineName(spine));
+    Vrf vrf = nf.vrfBuilder().setOwner(c).setName(Configuration.DEFAULT_VRF_NAME).build();
+    exportPolicy(nf, c, EXPORT_POLICY_NAME, new MatchProtocol(RoutingProtocol.BGP));
+    BgpProcess proc = newBgpProcess(nf, vrf, Ip.create(FIRST_SPINE_ROUTER_ID.asLong() + spine + 1));
+    Interface.Builder ib = nf.interfaceBuilder().setOwner(c).setVrf(vrf);
+    BgpActivePeerConfig.Builder nb = newBgpPeer(nf, proc, SPINE_AS);
+    for (int leaf = 0; leaf < _leaves; leaf++) {
+      Ip localIp = linkIp(spine, leaf, false);
+      ib.setName("to-" + leafName(leaf))
+          .setAddress(ConcreteInterfaceAddress.create(localIp, LINK_PREFIX_LENGTH))
+          .build();
+      nb.setLocalIp(localIp)
+          .setPeerAddress(linkIp(spine, leaf, true))
+          .setRemoteAs(leafAs(leaf))
+          .build();
+    }
+    return c;
+  }
+
+  private @Nonnull Configuration leaf(NetworkFactory nf, int leaf) {
+    Configuration c = newConfiguration(nf, leafName(leaf));
+    Vrf vrf = nf.vrfBuilder().setOwner(c).setName(Configuration.DEFAULT_VRF_NAME).build();
+    exportPolicy(
+        nf,
+        c,
+        EXPORT_POLICY_NAME,
+        new Disjunction(
+            new MatchProtocol(RoutingProtocol.BGP),
+            new MatchPrefixSet(
+                DestinationNetwork.instance(),
+                new ExplicitPrefixSet(new PrefixSpace(PrefixRange.fromPrefix(hostPrefix(leaf)))))));
+    BgpProcess proc = newBgpProcess(nf, vrf, leafHostIp(leaf));
+    Interface.Builder ib = nf.interfaceBuilder().setOwner(c).setVrf(vrf);
+    ib.setName("hosts")
+        .setAddress(ConcreteInterfaceAddress.create(leafHostIp(leaf), HOST_PREFIX_LENGTH))
+        .build();
+    BgpActivePeerConfig.Builder nb = newBgpPeer(nf, proc, leafAs(leaf));
+    for (int spine = 0; spine < _spines; spine++) {
+      Ip localIp = linkIp(spine, leaf, true);
+      ib.setName("to-" + spineName(spine))
+          .setAddress(ConcreteInterfaceAddress.create(localIp, LINK_PREFIX_LENGTH))
+          .build();
+      nb.setLocalIp(localIp)
+          .setPeerAddress(linkIp(spine, leaf, false))
+          .setRemoteAs(SPINE_AS)
+          .build();
+    }
+    if (leaf == 0) {
+      // announces nothing to the ISP
+      nf.routingPolicyBuilder()
+          .setOwner(c)
+          .setName(ISP_EXPORT_POLICY_NAME)
+          .setStatements(ImmutableList.of(Statements.ExitReject.toStaticStatement()))
+          .build();
+      ib.setName("to-isp")
+          .setAddress(ConcreteInterfaceAddress.create(ISP_LINK_LEAF_IP, LINK_PREFIX_LENGTH))
+          .build();
+      nb.setLocalIp(ISP_LINK_LEAF_IP)
+          .setPeerAddress(ISP_LINK_ISP_IP)
+          .setRemoteAs(ISP_AS)
+          .setIpv4UnicastAddressFamily(
+              Ipv4UnicastAddressFamily.builder().setExportPolicy(ISP_EXPORT_POLICY_NAME).build())
+          .build();
+    }
+    return c;
+  }
+
+  private static long leafAs(int leaf) {
+    return SPINE_AS + 1 + leaf;
+  }
+
+  private static @Nonnull Configuration newConfiguration(NetworkFactory nf, String hostname) {
+    return nf.configurationBuilder()
+        .setHostname(hostname)
+        .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+        .build();
+  }
+
+  /** Adds a policy accepting exactly the routes matching {@code guard} to {@code c}. */
+  private static void exportPolicy(
+      NetworkFactory nf, Configuration c, String name, BooleanExpr guard) {
+    nf.routingPolicyBuilder()
+        .setOwner(c)
+        .setName(name)
+        .setStatements(
+            ImmutableList.of(
+                new If(
+                    guard,
+                    ImmutableList.of(Statements.ExitAccept.toStaticStatement()),
+                    ImmutableList.of(Statements.ExitReject.toStaticStatement()))))
+        .build();
+  }
+
+  private static @Nonnull BgpProcess newBgpProcess(NetworkFactory nf, Vrf vrf, Ip routerId) {
+    BgpProcess proc =
+        nf.bgpProcessBuilder()
+            .setRouterId(routerId)
+            .setVrf(vrf)
+            .setAdminCostsToVendorDefaults(ConfigurationFormat.CISCO_IOS)
+            .build();
+    proc.setMultipathEbgp(true);
+    proc.setMultipathEquivalentAsPathMatchMode(MultipathEquivalentAsPathMatchMode.EXACT_PATH);
+    return proc;
+  }
+
+  private static @Nonnull BgpActivePeerConfig.Builder newBgpPeer(
+      NetworkFactory nf, BgpProcess proc, long localAs) {
+    return nf.bgpNeighborBuilder()
+        .setBgpProcess(proc)
+        .setLocalAs(localAs)
+        .setIpv4UnicastAddressFamily(
+            Ipv4UnicastAddressFamily.builder().setExportPolicy(EXPORT_POLICY_NAME).build());
+  }
+
+  /** Returns the advertisements of {@code prefixes} from the ISP to the first leaf. */
+  public static @Nonnull Set<BgpAdvertisement> ispAdvertisements(List<Prefix> prefixes) {
+    BgpAdvertisement.Builder ab =
+        BgpAdvertisement.builder()
+            .setAsPath(AsPath.ofSingletonAsSets(ISP_AS))
+            .setClusterList(ImmutableSortedSet.of())
+            .setCommunities(ImmutableSortedSet.of())
+            .setDstIp(ISP_LINK_LEAF_IP)
+            .setDstNode(leafName(0))
+            .setDstVrf(Configuration.DEFAULT_VRF_NAME)
+            .setNextHopIp(ISP_LINK_ISP_IP)
+            .setOriginatorIp(ISP_LINK_ISP_IP)
+            .setOriginType(OriginType.IGP)
+            .setSrcIp(ISP_LINK_ISP_IP)
+            .setSrcNode("isp")
+            .setSrcProtocol(RoutingProtocol.BGP)
+            .setSrcVrf(Configuration.DEFAULT_VRF_NAME)
+            .setType(BgpAdvertisementType.EBGP_SENT);
+    ImmutableSet.Builder<BgpAdvertisement> adverts = ImmutableSet.builder();
+    for (Prefix prefix : prefixes) {
+      adverts.add(ab.setNetwork(prefix).build());
+    }
+    return adverts.build();
+  }
+
+  /** Returns a TCP flow from a host on each leaf to a host on each other leaf. */
+  public @Nonnull Set<Flow> hostToHostFlows() {
+    ImmutableSet.Builder<Flow> flows = ImmutableSet.builder();
+    Flow.Builder fb =
+        Flow.builder()
+            .setIngressVrf(Configuration.DEFAULT_VRF_NAME)
+            .setIpProtocol(IpProtocol.TCP)
+            .setDstPort(80);
+    for (int src = 0; src < _leaves; src++) {
+      fb.setIngressNode(leafName(src)).setSrcIp(hostIp(src));
+      for (int dst = 0; dst < _leaves; dst++) {
+        if (src != dst) {
+          flows.add(fb.setDstIp(hostIp(dst)).setSrcPort(49152 + dst).build());
+        }
+      }
+    }
+    return flows.build();
+  }
+}
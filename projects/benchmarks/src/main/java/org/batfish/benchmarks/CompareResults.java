@@ -0,0 +1,141 @@
+package org.batfish.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.util.BatfishObjectMapper;
+
+/**
+ * Compares two sets of JSON benchmark results, such as those of two releases. Prints the change of
+ * every benchmark present in both, and exits with status 1 if any got worse by more than the
+ * threshold percentage (10 by default).
+ *
+ * <p>Usage: {@code CompareResults <baseline.json> <candidate.json> [threshold-percent]}
+ */
+@ParametersAreNonnullByDefault
+public final class CompareResults {
+
+  private static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+  /** The scores of one benchmark with one set of parameters in the two runs */
+  static final class Comparison {
+    private final @Nonnull String _name;
+    private final double _baseline;
+    private final double _candidate;
+    private final boolean _higherIsBetter;
+    private final @Nonnull String _unit;
+
+    Comparison(
+        String name, double baseline, double candidate, boolean higherIsBetter, String unit) {
+      _name = name;
+      _baseline = baseline;
+      _candidate = candidate;
+      _higherIsBetter = higherIsBetter;
+      _unit = unit;
+    }
+
+    @Nonnull
+    String getName() {
+      return _name;
+    }
+
+    /** The change of the score in percent, positive if the candidate is worse */
+    double getRegressionPercent() {
+      double change = (_candidate - _baseline) / _baseline * 100;
+      return _higherIsBetter ? -change : change;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%-80s %12.3f %12.3f %-8s %+7.1f%%",
+          _name, _baseline, _candidate, _unit, getRegressionPercent());
+    }
+  }
+
+  /**
+   * Returns the comparisons of the benchmarks in both {@code baseline} and {@code candidate}, which
+   * are JMH results in JSON format.
+   */
+  static @Nonnull List<Comparison> compare(JsonNode baseline, JsonNode candidate) {
+    Map<String, JsonNode> baselineByName = byName(baseline);
+    ImmutableList.Builder<Comparison> comparisons = ImmutableList.builder();
+    for (Entry<String, JsonNode> entry : byName(candidate).entrySet()) {
+      JsonNode base = baselineByName.get(entry.getKey());
+      if (base == null) {
+        continue;
+      }
+      JsonNode metric = entry.getValue().get("primaryMetric");
+      comparisons.add(
+          new Comparison(
+              entry.getKey(),
+              base.get("primaryMetric").get("score").asDouble(),
+              metric.get("score").asDouble(),
+              entry.getValue().get("mode").asText().equals("thrpt"),
+              metric.get("scoreUnit").asText()));
+    }
+    return comparisons.build();
+  }
+
+  /** Indexes results by benchmark name and parameters, e.g. {@code a.B.c(n=1,m=2)} */
+  private static @Nonnull Map<String, JsonNode> byName(JsonNode results) {
+    checkArgument(results.isArray(), "Benchmark results must be a JSON array");
+    Map<String, JsonNode> byName = new LinkedHashMap<>();
+    for (JsonNode result : results) {
+      SortedMap<String, String> params = new TreeMap<>();
+      JsonNode paramsNode = result.get("params");
+      if (paramsNode != null) {
+        Iterator<Entry<String, JsonNode>> fields = paramsNode.fields();
+        while (fields.hasNext()) {
+          Entry<String, JsonNode> field = fields.next();
+          params.put(field.getKey(), field.getValue().asText());
+        }
+      }
+      StringBuilder name = new StringBuilder(result.get("benchmark").asText());
+      if (!params.isEmpty()) {
+        name.append('(');
+        params.forEach((key, value) -> name.append(key).append('=').append(value).append(','));
+        name.setCharAt(name.length() - 1, ')');
+      }
+      byName.put(name.toString(), result);
+    }
+    return byName;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2 || args.length > 3) {
+      System.err.println(
+          "Usage: CompareResults <baseline.json> <candidate.json> [threshold-percent]");
+      System.exit(2);
+    }
+    double threshold = args.length == 3 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+    List<Comparison> comparisons =
+        compare(
+            BatfishObjectMapper.mapper().readTree(Files.readAllBytes(Paths.get(args[0]))),
+            BatfishObjectMapper.mapper().readTree(Files.readAllBytes(Paths.get(args[1]))));
+    boolean regressed = false;
+    for (Comparison comparison : comparisons) {
+      boolean regression = comparison.getRegressionPercent() > threshold;
+      regressed |= regression;
+      System.out.println(comparison + (regression ? "  REGRESSION" : ""));
+    }
+    if (regressed) {
+      System.exit(1);
+    }
+  }
+
+  private CompareResults() {}
+}
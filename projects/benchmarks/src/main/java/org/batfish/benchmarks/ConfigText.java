@@ -0,0 +1,221 @@
+package org.batfish.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Ip;
+import org.batfish.grammar.BatfishCombinedParser;
+import org.batfish.grammar.GrammarSettings;
+import org.batfish.grammar.arista.AristaCombinedParser;
+import org.batfish.grammar.cisco.CiscoCombinedParser;
+import org.batfish.grammar.flatjuniper.FlatJuniperCombinedParser;
+
+/**
+ * Generates the configuration text of a router in several vendor grammars, for parser benchmarks.
+ * The text grows linearly with the number of units: each unit adds an interface with an address and
+ * a BGP peer, an ACL line, a prefix-list entry, and a route-map clause.
+ */
+@ParametersAreNonnullByDefault
+public final class ConfigText {
+
+  /** A grammar the benchmarks parse */
+  public enum Grammar {
+    ARISTA {
+      @Override
+      public @Nonnull String generate(int units) {
+        return arista(units);
+      }
+
+      @Override
+      public @Nonnull BatfishCombinedParser<?, ?> newParser(String text, GrammarSettings settings) {
+        return new AristaCombinedParser(text, settings);
+      }
+    },
+    CISCO_IOS {
+      @Override
+      public @Nonnull String generate(int units) {
+        return ciscoIos(units);
+      }
+
+      @Override
+      public @Nonnull BatfishCombinedParser<?, ?> newParser(String text, GrammarSettings settings) {
+        return new CiscoCombinedParser(text, settings, ConfigurationFormat.CISCO_IOS);
+      }
+    },
+    FLAT_JUNIPER {
+      @Override
+      public @Nonnull String generate(int units) {
+        return flatJuniper(units);
+      }
+
+      @Override
+      public @Nonnull BatfishCombinedParser<?, ?> newParser(String text, GrammarSettings settings) {
+        return new FlatJuniperCombinedParser(text, settings, null);
+      }
+    };
+
+    /** Returns configuration text in this grammar with {@code units} units. */
+    public abstract @Nonnull String generate(int units);
+
+    public abstract @Nonnull BatfishCombinedParser<?, ?> newParser(
+        String text, GrammarSettings settings);
+  }
+
+  private static final long FIRST_LINK_IP = Ip.parse("10.0.0.0").asLong();
+  private static final long FIRST_PREFIX_IP = Ip.parse("172.16.0.0").asLong();
+
+  /** The local address of the {@code unit}th /31 link */
+  private static @Nonnull Ip localIp(int unit) {
+    return Ip.create(FIRST_LINK_IP + 2L * unit + 1);
+  }
+
+  /** The peer address of the {@code unit}th /31 link */
+  private static @Nonnull Ip peerIp(int unit) {
+    return Ip.create(FIRST_LINK_IP + 2L * unit);
+  }
+
+  /** The start of the {@code unit}th /24 */
+  private static @Nonnull Ip prefixIp(int unit) {
+    return Ip.create(FIRST_PREFIX_IP + ((long) unit << 8));
+  }
+
+  private static void checkUnits(int units) {
+    checkArgument(units > 0 && units < 1 << 16, "Invalid number of units: %s", units);
+  }
+
+  static @Nonnull String arista(int units) {
+    checkUnits(units);
+    StringBuilder sb = new StringBuilder("hostname r1\n!\n");
+    for (int i = 0; i < units; i++) {
+      sb.append(
+          String.format(
+              "interface Ethernet%d\n"
+                  + "   description link %d\n"
+                  + "   no switchport\n"
+                  + "   ip address %s/31\n"
+                  + "   ip access-group acl-in in\n"
+                  + "!\n",
+              i + 1, i, localIp(i)));
+    }
+    sb.append("ip access-list acl-in\n");
+    for (int i = 0; i < units; i++) {
+      sb.append(
+          String.format(
+              "   %d permit tcp %s/24 host %s eq 80\n", 10 * (i + 1), prefixIp(i), peerIp(i)));
+    }
+    sb.append("!\n");
+    for (int i = 0; i < units; i++) {
+      sb.append(
+          String.format("ip prefix-list pl seq %d permit %s/24 le 32\n", 5 * (i + 1), prefixIp(i)));
+    }
+    sb.append("!\n");
+    for (int i = 0; i < units; i++) {
+      sb.append(
+          String.format(
+              "route-map rm permit %d\n"
+                  + "   match ip address prefix-list pl\n"
+                  + "   set local-preference %d\n"
+                  + "!\n",
+              10 * (i + 1), 100 + i));
+    }
+    sb.append("router bgp 65001\n   router-id 1.1.1.1\n");
+    for (int i = 0; i < units; i++) {
+      sb.append(
+          String.format(
+              "   neighbor %s remote-as 65000\n   neighbor %s route-map rm in\n",
+              peerIp(i), peerIp(i)));
+    }
+    return sb.append("!\n").toString();
+  }
+
+  static @Nonnull String ciscoIos(int units) {
+    checkUnits(units);
+    StringBuilder sb = new StringBuilder("hostname r1\n!\n");
+    for (int i = 0; i < units; i++) {
+      sb.append(
+          String.format(
+              "interface GigabitEthernet0/%d\n"
+                  + " description link %d\n"
+                  + " ip address %s 255.255.255.254\n"
+                  + " ip access-group acl-in in\n"
+                  + "!\n",
+              i, i, localIp(i)));
+    }
+    sb.append("ip access-list extended acl-in\n");
+    for (int i = 0; i < units; i++) {
+      sb.append(String.format(" permit tcp %s 0.0.0.255 host %s eq 80\n", prefixIp(i), peerIp(i)));
+    }
+    sb.append("!\n");
+    for (int i = 0; i < units; i++) {
+      sb.append(
+          String.format("ip prefix-list pl seq %d permit %s/24 le 32\n", 5 * (i + 1), prefixIp(i)));
+    }
+    sb.append("!\n");
+    for (int i = 0; i < units; i++) {
+      sb.append(
+          String.format(
+              "route-map rm permit %d\n"
+                  + " match ip address prefix-list pl\n"
+                  + " set local-preference %d\n"
+                  + "!\n",
+              10 * (i + 1), 100 + i));
+    }
+    sb.append("router bgp 65001\n bgp router-id 1.1.1.1\n");
+    for (int i = 0; i < units; i++) {
+      sb.append(
+          String.format(
+              " neighbor %s remote-as 65000\n neighbor %s route-map rm in\n",
+              peerIp(i), peerIp(i)));
+    }
+    return sb.append("!\n").toString();
+  }
+
+  static @Nonnull String flatJuniper(int units) {
+    checkUnits(units);
+    StringBuilder sb = new StringBuilder("set system host-name r1\n");
+    for (int i = 0; i < units; i++) {
+      String iface = String.format("xe-%d/0/%d", i / 48, i % 48);
+      sb.append(
+          String.format(
+              "set interfaces %s description \"link %d\"\n"
+                  + "set interfaces %s unit 0 family inet address %s/31\n"
+                  + "set interfaces %s unit 0 family inet filter input acl-in\n",
+              iface, i, iface, localIp(i), iface));
+    }
+    for (int i = 0; i < units; i++) {
+      String term = "set firewall family inet filter acl-in term t" + i;
+      sb.append(
+          String.format(
+              "%s from source-address %s/24\n"
+                  + "%s from destination-address %s/32\n"
+                  + "%s from protocol tcp\n"
+                  + "%s from destination-port 80\n"
+                  + "%s then accept\n",
+              term, prefixIp(i), term, peerIp(i), term, term, term));
+    }
+    for (int i = 0; i < units; i++) {
+      sb.append(String.format("set policy-options prefix-list pl %s/24\n", prefixIp(i)));
+    }
+    for (int i = 0; i < units; i++) {
+      String term = "set policy-options policy-statement rm term t" + i;
+      sb.append(
+          String.format(
+              "%s from prefix-list pl\n" + "%s then local-preference %d\n" + "%s then accept\n",
+              term, term, 100 + i, term));
+    }
+    sb.append(
+        "set routing-options router-id 1.1.1.1\n"
+            + "set routing-options autonomous-system 65001\n"
+            + "set protocols bgp group g type external\n"
+            + "set protocols bgp group g peer-as 65000\n"
+            + "set protocols bgp group g import rm\n");
+    for (int i = 0; i < units; i++) {
+      sb.append(String.format("set protocols bgp group g neighbor %s\n", peerIp(i)));
+    }
+    return sb.toString();
+  }
+
+  private ConfigText() {}
+}
@@ -0,0 +1,68 @@
+package org.batfish.benchmarks;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.batfish.common.topology.TopologyUtil;
+import org.batfish.datamodel.BgpAdvertisement;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.Topology;
+import org.batfish.dataplane.ibdp.BenchmarkDataPlanes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of computing the data plane of a {@link ClosFabric}, which is dominated by the
+ * iterations of the BGP routing processes. The first leaf optionally receives a full table from an
+ * ISP, which then propagates through the whole fabric.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@State(Scope.Benchmark)
+public class DataPlaneBenchmark {
+
+  @Param({"4"})
+  public int spines;
+
+  @Param({"16", "64"})
+  public int leaves;
+
+  /** The number of prefixes the ISP announces */
+  @Param({"0", "10000"})
+  public int externalRoutes;
+
+  private Set<BgpAdvertisement> _externalAdverts;
+  private Map<String, Configuration> _configs;
+  private Topology _topology;
+
+  @Setup(Level.Trial)
+  public void setupAdverts() {
+    _externalAdverts = ClosFabric.ispAdvertisements(BgpFullTable.prefixes(externalRoutes, 1L));
+  }
+
+  /** Generates fresh configurations, since computing the data plane may annotate them. */
+  @Setup(Level.Invocation)
+  public void setupConfigs() {
+    _configs = new ClosFabric(spines, leaves).generate();
+    _topology = TopologyUtil.synthesizeL3Topology(_configs);
+  }
+
+  @Benchmark
+  public DataPlane computeDataPlane() {
+    return BenchmarkDataPlanes.computeDataPlane(_configs, _topology, _externalAdverts);
+  }
+}
@@ -0,0 +1,57 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.concurrent.TimeUnit;
+import net.sf.javabdd.BDD;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.BDDSourceManager;
+import org.batfish.common.bdd.IpAccessListToBddImpl;
+import org.batfish.datamodel.IpAccessList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of converting large ACLs to BDDs with {@link IpAccessListToBddImpl}. Each invocation
+ * gets a fresh {@link BDDPacket}, so neither the converter nor the BDD factory has cached results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class IpAccessListToBddBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  public int lines;
+
+  private IpAccessList _acl;
+  private BDDPacket _pkt;
+
+  @Setup(Level.Trial)
+  public void setupAcl() {
+    _acl = LargeAcl.generate("acl", lines, 1L);
+  }
+
+  @Setup(Level.Invocation)
+  public void setupPacket() {
+    _pkt = new BDDPacket();
+  }
+
+  @Benchmark
+  public BDD toBdd() {
+    return new IpAccessListToBddImpl(
+            _pkt, BDDSourceManager.empty(_pkt), ImmutableMap.of(), ImmutableMap.of())
+        .toBdd(_acl);
+  }
+}
@@ -0,0 +1,94 @@
+package org.batfish.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import net.sf.javabdd.JFactory;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.IpSpaceToBDD;
+import org.batfish.datamodel.Prefix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the {@link JFactory} apply and if-then-else operations over the header-space BDDs
+ * of many prefixes. Each invocation gets a fresh factory, so the operation caches start out empty.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class JFactoryBenchmark {
+
+  @Param({"1000", "10000"})
+  public int prefixes;
+
+  private List<Prefix> _prefixList;
+  private BDDFactory _factory;
+  private BDD[] _dstBdds;
+  private BDD[] _srcBdds;
+
+  @Setup(Level.Trial)
+  public void setupPrefixes() {
+    _prefixList = BgpFullTable.prefixes(prefixes, 1L);
+  }
+
+  @Setup(Level.Invocation)
+  public void setupBdds() {
+    BDDPacket pkt = new BDDPacket();
+    _factory = pkt.getFactory();
+    IpSpaceToBDD dst = pkt.getDstIpSpaceToBDD();
+    IpSpaceToBDD src = pkt.getSrcIpSpaceToBDD();
+    int n = _prefixList.size();
+    _dstBdds = new BDD[n];
+    _srcBdds = new BDD[n];
+    for (int i = 0; i < n; i++) {
+      _dstBdds[i] = dst.toBDD(_prefixList.get(i));
+      // pair each destination with a different source to avoid trivial structure
+      _srcBdds[i] = src.toBDD(_prefixList.get((i + 1) % n));
+    }
+  }
+
+  /** Unions the destination prefixes one at a time, as ACL and FIB encodings do. */
+  @Benchmark
+  public BDD or() {
+    BDD result = _factory.zero();
+    for (BDD bdd : _dstBdds) {
+      result = result.or(bdd);
+    }
+    return result;
+  }
+
+  /** Unions source-destination pairs, as the encoding of a permit-only ACL does. */
+  @Benchmark
+  public BDD andOr() {
+    BDD result = _factory.zero();
+    for (int i = 0; i < _dstBdds.length; i++) {
+      result = result.or(_srcBdds[i].and(_dstBdds[i]));
+    }
+    return result;
+  }
+
+  /** Folds the pairs into a first-match chain, as the encoding of an ACL does. */
+  @Benchmark
+  public BDD ite() {
+    BDD result = _factory.zero();
+    for (int i = _dstBdds.length - 1; i >= 0; i--) {
+      result = _srcBdds[i].ite(_dstBdds[i], result);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,75 @@
+package org.batfish.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.and;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDstPort;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchIpProtocol;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchSrc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import java.util.List;
+import java.util.Random;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AclLine;
+import org.batfish.datamodel.ExprAclLine;
+import org.batfish.datamodel.IntegerSpace;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.acl.AclLineMatchExpr;
+
+/**
+ * Generates large firewall-style {@link IpAccessList ACLs}: each line matches a source prefix, a
+ * destination prefix, and usually a protocol and a destination port range. Every fourth line
+ * denies, so the lines shadow each other in the ways real ACLs do.
+ */
+@ParametersAreNonnullByDefault
+public final class LargeAcl {
+
+  private static final List<IpProtocol> PROTOCOLS =
+      ImmutableList.of(IpProtocol.TCP, IpProtocol.TCP, IpProtocol.UDP, IpProtocol.ICMP);
+
+  /** Returns an ACL named {@code name} with {@code lines} lines generated from {@code seed}. */
+  public static @Nonnull IpAccessList generate(String name, int lines, long seed) {
+    checkArgument(lines >= 0, "Invalid number of lines: %s", lines);
+    Random random = new Random(seed);
+    // draw the prefixes from a smaller pool so that lines overlap
+    List<Prefix> prefixes = BgpFullTable.prefixes(Math.max(1, lines / 4), seed);
+    ImmutableList.Builder<AclLine> aclLines = ImmutableList.builder();
+    for (int i = 0; i < lines; i++) {
+      AclLineMatchExpr match = line(prefixes, random);
+      String lineName = "line" + i;
+      aclLines.add(
+          i % 4 == 3
+              ? ExprAclLine.rejecting(lineName, match)
+              : ExprAclLine.accepting(lineName, match));
+    }
+    return IpAccessList.builder().setName(name).setLines(aclLines.build()).build();
+  }
+
+  private static @Nonnull AclLineMatchExpr line(List<Prefix> prefixes, Random random) {
+    AclLineMatchExpr src = matchSrc(prefixes.get(random.nextInt(prefixes.size())));
+    AclLineMatchExpr dst = matchDst(prefixes.get(random.nextInt(prefixes.size())));
+    int kind = random.nextInt(PROTOCOLS.size() + 1);
+    if (kind == PROTOCOLS.size()) {
+      // any protocol
+      return and(src, dst);
+    }
+    IpProtocol protocol = PROTOCOLS.get(kind);
+    if (protocol == IpProtocol.ICMP) {
+      return and(src, dst, matchIpProtocol(protocol));
+    }
+    int low = random.nextInt(1 << 16);
+    int high = Math.min((1 << 16) - 1, low + random.nextInt(64));
+    return and(
+        src,
+        dst,
+        matchIpProtocol(protocol),
+        matchDstPort(IntegerSpace.of(Range.closed(low, high))));
+  }
+
+  private LargeAcl() {}
+}
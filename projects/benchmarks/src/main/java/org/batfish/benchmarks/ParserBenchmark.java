@@ -0,0 +1,64 @@
+package org.batfish.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.batfish.benchmarks.ConfigText.Grammar;
+import org.batfish.common.BatfishLogger;
+import org.batfish.config.Settings;
+import org.batfish.grammar.BatfishCombinedParser;
+import org.batfish.main.Batfish;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link BatfishCombinedParser} throughput for each {@link Grammar}, on generated
+ * configuration text.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+  @Param({"ARISTA", "CISCO_IOS", "FLAT_JUNIPER"})
+  public Grammar grammar;
+
+  @Param({"100", "1000"})
+  public int units;
+
+  private BatfishLogger _logger;
+  private Settings _settings;
+  private String _text;
+
+  @Setup
+  public void setup() {
+    _text = grammar.generate(units);
+    _settings = parserSettings();
+    _logger = new BatfishLogger(BatfishLogger.LEVELSTR_FATAL, false);
+  }
+
+  /** Settings that fail on any text the grammar does not recognize */
+  static Settings parserSettings() {
+    Settings settings = new Settings();
+    settings.setDisableUnrecognized(true);
+    settings.setThrowOnLexerError(true);
+    settings.setThrowOnParserError(true);
+    return settings;
+  }
+
+  @Benchmark
+  public ParserRuleContext parse() {
+    return Batfish.parse(grammar.newParser(_text, _settings), _logger, _settings);
+  }
+}
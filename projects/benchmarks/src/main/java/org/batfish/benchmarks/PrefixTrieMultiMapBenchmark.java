@@ -0,0 +1,77 @@
+package org.batfish.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixTrieMultiMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Benchmarks of building {@link PrefixTrieMultiMap} and of longest-prefix-match lookups in it. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class PrefixTrieMultiMapBenchmark {
+
+  private static final int LOOKUPS = 100_000;
+
+  @Param({"10000", "100000"})
+  public int prefixes;
+
+  private List<Prefix> _prefixList;
+  private Ip[] _lookups;
+  private PrefixTrieMultiMap<Prefix> _trie;
+
+  @Setup
+  public void setup() {
+    _prefixList = BgpFullTable.prefixes(prefixes, 1L);
+    _trie = buildTrie(_prefixList);
+    // half of the lookups hit a prefix of the table, the rest are random
+    Random random = new Random(2L);
+    _lookups = new Ip[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      if (i % 2 == 0) {
+        Prefix prefix = _prefixList.get(random.nextInt(_prefixList.size()));
+        int hostBits = Prefix.MAX_PREFIX_LENGTH - prefix.getPrefixLength();
+        _lookups[i] = Ip.create(prefix.getStartIp().asLong() + random.nextInt(1 << hostBits));
+      } else {
+        _lookups[i] = Ip.create(random.nextInt() & 0xFFFFFFFFL);
+      }
+    }
+  }
+
+  private static PrefixTrieMultiMap<Prefix> buildTrie(List<Prefix> prefixList) {
+    PrefixTrieMultiMap<Prefix> trie = new PrefixTrieMultiMap<>();
+    for (Prefix prefix : prefixList) {
+      trie.put(prefix, prefix);
+    }
+    return trie;
+  }
+
+  @Benchmark
+  public PrefixTrieMultiMap<Prefix> put() {
+    return buildTrie(_prefixList);
+  }
+
+  @Benchmark
+  public void longestPrefixMatch(Blackhole blackhole) {
+    for (Ip ip : _lookups) {
+      blackhole.consume(_trie.longestPrefixMatch(ip));
+    }
+  }
+}
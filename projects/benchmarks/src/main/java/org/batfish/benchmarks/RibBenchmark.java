@@ -0,0 +1,81 @@
+package org.batfish.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.BgpTieBreaker;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.MultipathEquivalentAsPathMatchMode;
+import org.batfish.dataplane.rib.Bgpv4Rib;
+import org.batfish.dataplane.rib.Rib;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of merging a full BGP table into an empty {@link Bgpv4Rib} and main {@link Rib}, which
+ * exercises their route trees.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class RibBenchmark {
+
+  @Param({"10000", "100000"})
+  public int prefixes;
+
+  /** The number of peers announcing each prefix */
+  @Param({"1", "4"})
+  public int paths;
+
+  private List<Bgpv4Route> _routes;
+  private List<AnnotatedRoute<AbstractRoute>> _annotatedRoutes;
+
+  @Setup
+  public void setup() {
+    _routes = BgpFullTable.routes(BgpFullTable.prefixes(prefixes, 1L), paths, 2L);
+    _annotatedRoutes = new ArrayList<>(_routes.size());
+    for (Bgpv4Route route : _routes) {
+      _annotatedRoutes.add(new AnnotatedRoute<>(route, Configuration.DEFAULT_VRF_NAME));
+    }
+  }
+
+  @Benchmark
+  public Bgpv4Rib bgpv4RibMerge() {
+    Bgpv4Rib rib =
+        new Bgpv4Rib(
+            null,
+            BgpTieBreaker.ROUTER_ID,
+            null,
+            MultipathEquivalentAsPathMatchMode.EXACT_PATH,
+            false,
+            false);
+    for (Bgpv4Route route : _routes) {
+      rib.mergeRouteGetDelta(route);
+    }
+    return rib;
+  }
+
+  @Benchmark
+  public Rib mainRibMerge() {
+    Rib rib = new Rib();
+    for (AnnotatedRoute<AbstractRoute> route : _annotatedRoutes) {
+      rib.mergeRouteGetDelta(route);
+    }
+    return rib;
+  }
+}
@@ -0,0 +1,97 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixRange;
+import org.batfish.datamodel.PrefixSpace;
+import org.batfish.datamodel.routing_policy.Environment.Direction;
+import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.datamodel.routing_policy.expr.DestinationNetwork;
+import org.batfish.datamodel.routing_policy.expr.ExplicitPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.LiteralLong;
+import org.batfish.datamodel.routing_policy.expr.MatchPrefixSet;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.SetLocalPreference;
+import org.batfish.datamodel.routing_policy.statement.Statement;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link RoutingPolicy#process} on a full BGP table. The policy is a chain of terms,
+ * each matching a prefix range and setting the local preference, like a typical import policy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class RoutingPolicyBenchmark {
+
+  private static final int ROUTES = 10_000;
+
+  @Param({"10", "100", "1000"})
+  public int terms;
+
+  private RoutingPolicy _policy;
+  private List<Bgpv4Route> _routes;
+
+  @Setup
+  public void setup() {
+    _routes = BgpFullTable.routes(BgpFullTable.prefixes(ROUTES, 1L), 1, 2L);
+    Random random = new Random(3L);
+    ImmutableList.Builder<Statement> statements = ImmutableList.builder();
+    for (int i = 0; i < terms; i++) {
+      int length = 8 + random.nextInt(9);
+      Prefix range = Prefix.create(Ip.create(random.nextInt() & 0xFFFFFFFFL), length);
+      statements.add(
+          new If(
+              new MatchPrefixSet(
+                  DestinationNetwork.instance(),
+                  new ExplicitPrefixSet(new PrefixSpace(PrefixRange.moreSpecificThan(range)))),
+              ImmutableList.of(
+                  new SetLocalPreference(new LiteralLong(100 + i)),
+                  Statements.ExitAccept.toStaticStatement())));
+    }
+    statements.add(Statements.ExitReject.toStaticStatement());
+    NetworkFactory nf = new NetworkFactory();
+    Configuration c =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS).build();
+    _policy =
+        nf.routingPolicyBuilder()
+            .setOwner(c)
+            .setName("import")
+            .setStatements(statements.build())
+            .build();
+  }
+
+  /** Returns the number of accepted routes. */
+  @Benchmark
+  public int process() {
+    int accepted = 0;
+    for (Bgpv4Route route : _routes) {
+      if (_policy.process(route, route.toBuilder(), Direction.IN)) {
+        accepted++;
+      }
+    }
+    return accepted;
+  }
+}
@@ -0,0 +1,72 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.batfish.common.topology.TopologyUtil;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.flow.TraceAndReverseFlow;
+import org.batfish.datamodel.flow.TraceDag;
+import org.batfish.dataplane.TracerouteEngineImpl;
+import org.batfish.dataplane.ibdp.BenchmarkDataPlanes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of tracing flows between all pairs of leaves of a {@link ClosFabric}, which forks
+ * every trace over all spines. Covers both the list and the {@link TraceDag} results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class TracerouteBenchmark {
+
+  @Param({"4", "8"})
+  public int spines;
+
+  @Param({"16", "32"})
+  public int leaves;
+
+  private DataPlane _dataPlane;
+  private Set<Flow> _flows;
+  private Topology _topology;
+
+  @Setup
+  public void setup() {
+    ClosFabric fabric = new ClosFabric(spines, leaves);
+    SortedMap<String, Configuration> configs = fabric.generate();
+    _topology = TopologyUtil.synthesizeL3Topology(configs);
+    _dataPlane = BenchmarkDataPlanes.computeDataPlane(configs, _topology, ImmutableSet.of());
+    _flows = fabric.hostToHostFlows();
+  }
+
+  @Benchmark
+  public SortedMap<Flow, List<TraceAndReverseFlow>> computeTraces() {
+    return new TracerouteEngineImpl(_dataPlane, _topology)
+        .computeTracesAndReverseFlows(_flows, ImmutableSet.of(), false);
+  }
+
+  @Benchmark
+  public Map<Flow, TraceDag> computeTraceDags() {
+    return new TracerouteEngineImpl(_dataPlane, _topology)
+        .computeTraceDags(_flows, ImmutableSet.of(), false);
+  }
+}
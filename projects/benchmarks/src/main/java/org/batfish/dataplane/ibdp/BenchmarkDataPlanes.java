@@ -0,0 +1,40 @@
+package org.batfish.dataplane.ibdp;
+
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.BatfishLogger;
+import org.batfish.datamodel.BgpAdvertisement;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.Topology;
+
+/**
+ * Computes data planes directly with the {@link IncrementalBdpEngine}, without a snapshot on disk,
+ * so that benchmarks can time the routing computation by itself.
+ */
+@ParametersAreNonnullByDefault
+public final class BenchmarkDataPlanes {
+
+  /**
+   * Computes the data plane of {@code configurations} connected by {@code layer3Topology}, with
+   * {@code externalAdverts} received from outside the network.
+   */
+  public static @Nonnull DataPlane computeDataPlane(
+      Map<String, Configuration> configurations,
+      Topology layer3Topology,
+      Set<BgpAdvertisement> externalAdverts) {
+    IncrementalBdpEngine engine =
+        new IncrementalBdpEngine(
+            new IncrementalDataPlaneSettings(),
+            new BatfishLogger(BatfishLogger.LEVELSTR_FATAL, false));
+    return engine.computeDataPlane(
+            configurations,
+            TopologyContext.builder().setLayer3Topology(layer3Topology).build(),
+            externalAdverts)
+        ._dataPlane;
+  }
+
+  private BenchmarkDataPlanes() {}
+}
@@ -0,0 +1,68 @@
+package org.batfish.benchmarks;
+
+import static org.batfish.benchmarks.ClosFabric.hostPrefix;
+import static org.batfish.benchmarks.ClosFabric.leafName;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import org.batfish.common.topology.TopologyUtil;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.FlowDisposition;
+import org.batfish.datamodel.GenericRib;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.flow.TraceDag;
+import org.batfish.dataplane.TracerouteEngineImpl;
+import org.batfish.dataplane.ibdp.BenchmarkDataPlanes;
+import org.junit.Test;
+
+/** Tests of {@link ClosFabric}. */
+public class ClosFabricTest {
+
+  @Test
+  public void testDataPlane() {
+    ClosFabric fabric = new ClosFabric(2, 3);
+    SortedMap<String, Configuration> configs = fabric.generate();
+    assertThat(configs, aMapWithSize(5));
+
+    List<Prefix> ispPrefixes = BgpFullTable.prefixes(10, 1L);
+    Topology topology = TopologyUtil.synthesizeL3Topology(configs);
+    DataPlane dp =
+        BenchmarkDataPlanes.computeDataPlane(
+            configs, topology, ClosFabric.ispAdvertisements(ispPrefixes));
+    GenericRib<AnnotatedRoute<AbstractRoute>> rib =
+        dp.getRibs().get(leafName(2)).get(Configuration.DEFAULT_VRF_NAME);
+
+    // every remote leaf and ISP prefix is reached over both spines
+    for (Prefix prefix :
+        ImmutableList.<Prefix>builder()
+            .add(hostPrefix(0), hostPrefix(1))
+            .addAll(ispPrefixes)
+            .build()) {
+      assertThat(prefix.toString(), rib.longestPrefixMatch(prefix.getStartIp()), hasSize(2));
+    }
+
+    // so every flow between two leaves is delivered over both spines
+    Set<Flow> flows = fabric.hostToHostFlows();
+    assertThat(flows, hasSize(6));
+    for (TraceDag dag :
+        new TracerouteEngineImpl(dp, topology)
+            .computeTraceDags(flows, ImmutableSet.of(), false)
+            .values()) {
+      assertThat(dag.countTraces(), equalTo(2L));
+      assertThat(dag.getDispositions(), contains(FlowDisposition.DELIVERED_TO_SUBNET));
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package org.batfish.benchmarks;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import org.batfish.benchmarks.CompareResults.Comparison;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.junit.Test;
+
+/** Tests of {@link CompareResults}. */
+public class CompareResultsTest {
+
+  private static JsonNode result(String benchmark, String mode, String params, double score)
+      throws IOException {
+    return BatfishObjectMapper.mapper()
+        .readTree(
+            String.format(
+                "{\"benchmark\": \"%s\", \"mode\": \"%s\", \"params\": %s,"
+                    + " \"primaryMetric\": {\"score\": %s, \"scoreUnit\": \"ms/op\"}}",
+                benchmark, mode, params, score));
+  }
+
+  private static JsonNode results(JsonNode... results) {
+    return BatfishObjectMapper.mapper().createArrayNode().addAll(Arrays.asList(results));
+  }
+
+  @Test
+  public void testCompare() throws IOException {
+    JsonNode baseline =
+        results(
+            result("a.B.avg", "avgt", "{\"n\": \"1\", \"m\": \"2\"}", 10.0),
+            result("a.B.avg", "avgt", "{\"n\": \"2\", \"m\": \"2\"}", 10.0),
+            result("a.B.thrpt", "thrpt", "{}", 10.0),
+            result("a.B.removed", "avgt", "{}", 10.0));
+    JsonNode candidate =
+        results(
+            result("a.B.avg", "avgt", "{\"m\": \"2\", \"n\": \"1\"}", 12.0),
+            result("a.B.avg", "avgt", "{\"n\": \"2\", \"m\": \"2\"}", 9.0),
+            result("a.B.thrpt", "thrpt", "{}", 12.0),
+            result("a.B.added", "avgt", "{}", 10.0));
+
+    List<Comparison> comparisons = CompareResults.compare(baseline, candidate);
+
+    assertThat(comparisons, hasSize(3));
+    // parameters are matched regardless of their order
+    assertThat(comparisons.get(0).getName(), equalTo("a.B.avg(m=2,n=1)"));
+    assertThat(comparisons.get(0).getRegressionPercent(), closeTo(20.0, 1e-9));
+    assertThat(comparisons.get(1).getRegressionPercent(), closeTo(-10.0, 1e-9));
+    // higher throughput is better
+    assertThat(comparisons.get(2).getName(), equalTo("a.B.thrpt"));
+    assertThat(comparisons.get(2).getRegressionPercent(), closeTo(-20.0, 1e-9));
+  }
+}
@@ -0,0 +1,26 @@
+package org.batfish.benchmarks;
+
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+import org.batfish.benchmarks.ConfigText.Grammar;
+import org.batfish.common.BatfishLogger;
+import org.batfish.config.Settings;
+import org.batfish.grammar.BatfishCombinedParser;
+import org.batfish.main.Batfish;
+import org.junit.Test;
+
+/** Tests of {@link ConfigText}. */
+public class ConfigTextTest {
+
+  @Test
+  public void testGeneratedTextParses() {
+    Settings settings = ParserBenchmark.parserSettings();
+    for (Grammar grammar : Grammar.values()) {
+      BatfishCombinedParser<?, ?> parser = grammar.newParser(grammar.generate(50), settings);
+      // throws on any unrecognized line
+      Batfish.parse(parser, new BatfishLogger(BatfishLogger.LEVELSTR_FATAL, false), settings);
+      assertThat(grammar.toString(), parser.getErrors(), empty());
+    }
+  }
+}
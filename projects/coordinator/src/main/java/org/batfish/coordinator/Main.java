@@ -181,6 +181,9 @@ public class Main {
   }
 
   public static void setWorkMgr(WorkMgr workManager) {
+    if (_workManager != null && _workManager != workManager) {
+      _workManager.shutdown();
+    }
     _workManager = workManager;
   }
 
@@ -1,11 +1,15 @@
 package org.batfish.coordinator;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
@@ -16,9 +20,15 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
+import org.batfish.common.BfConsts.TaskCategory;
+import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.util.CommonUtil;
+import org.batfish.coordinator.WorkerStatus.CachedSnapshot;
 import org.batfish.coordinator.config.Settings;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
 import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
 
 public class PoolMgr {
@@ -76,17 +86,53 @@ public class PoolMgr {
     return copy;
   }
 
-  @Nullable
-  public synchronized String getWorkerForAssignment() {
+  /** Returns the categories of work that at least one idle worker would currently admit. */
+  public synchronized Set<TaskCategory> getAdmittableCategories() {
+    Set<TaskCategory> categories = EnumSet.noneOf(TaskCategory.class);
+    for (WorkerStatus status : _workerPool.values()) {
+      if (status.getStatus() == WorkerStatus.StatusCode.IDLE) {
+        categories.addAll(status.getAdmittableCategories());
+      }
+    }
+    return categories;
+  }
 
+  /**
+   * Returns an idle worker that can admit {@code work}, marking it as being assigned, or {@code
+   * null} if the work should not be assigned right now.
+   *
+   * <p>Prefers the worker that already has the most of the work's snapshots in memory. If no idle
+   * worker has any of them but a busy one does, the work waits for that worker for up to {@code
+   * maxAffinityWaitMs} before it is given to a cold worker.
+   */
+  @Nullable
+  public synchronized String getWorkerForAssignment(QueuedWork work, long maxAffinityWaitMs) {
+    WorkDetails details = work.getDetails();
+    TaskCategory category = details.getTaskCategory();
+    String bestWorker = null;
+    int bestAffinity = -1;
+    int busyAffinity = 0;
     for (Entry<String, WorkerStatus> workerEntry : _workerPool.entrySet()) {
-      if (workerEntry.getValue().getStatus() == WorkerStatus.StatusCode.IDLE) {
-        updateWorkerStatus(workerEntry.getKey(), WorkerStatus.StatusCode.TRYINGTOASSIGN);
-        return workerEntry.getKey();
+      WorkerStatus status = workerEntry.getValue();
+      int affinity = status.getAffinity(details);
+      if (status.getStatus() == WorkerStatus.StatusCode.IDLE && status.canAdmit(category)) {
+        if (affinity > bestAffinity) {
+          bestWorker = workerEntry.getKey();
+          bestAffinity = affinity;
+        }
+      } else if (status.getStatus() != WorkerStatus.StatusCode.UNKNOWN
+          && status.getStatus() != WorkerStatus.StatusCode.UNREACHABLE) {
+        // reachable, but cannot take this work right now
+        busyAffinity = Math.max(busyAffinity, affinity);
       }
     }
 
-    return null;
+    if (bestWorker == null
+        || (bestAffinity == 0 && busyAffinity > 0 && work.mayWaitForAffinity(maxAffinityWaitMs))) {
+      return null;
+    }
+    updateWorkerStatus(bestWorker, WorkerStatus.StatusCode.TRYINGTOASSIGN);
+    return bestWorker;
   }
 
   @Nullable
@@ -97,6 +143,10 @@ public class PoolMgr {
   public void markAssignmentResult(String worker, boolean assignmentSuccessful) {
     updateWorkerStatus(
         worker, assignmentSuccessful ? WorkerStatus.StatusCode.BUSY : WorkerStatus.StatusCode.IDLE);
+    if (assignmentSuccessful) {
+      // the worker may still have capacity for more tasks; find out in the background
+      Main.getWorkMgr().runInBackground("worker status refresh", () -> refreshWorkerStatus(worker));
+    }
   }
 
   public void refreshWorkerStatus() {
@@ -145,13 +195,15 @@ public class PoolMgr {
 
       JSONObject jObj = new JSONObject(array.get(1).toString());
 
-      if (!jObj.has("idle")) {
+      if (!jObj.has(BfConsts.SVC_STATUS_IDLE_KEY)) {
         _logger.error("did not see idle key in json response\n");
         updateWorkerStatus(worker, WorkerStatus.StatusCode.UNKNOWN);
         return;
       }
 
-      boolean status = jObj.getBoolean("idle");
+      boolean status = jObj.getBoolean(BfConsts.SVC_STATUS_IDLE_KEY);
+      updateAdmittableCategories(worker, parseAdmittableCategories(jObj, status));
+      updateCachedSnapshots(worker, parseCachedSnapshots(jObj));
 
       // update the status, except leave the ones with TRYINGTOASSIGN
       // alone
@@ -173,6 +225,54 @@ public class PoolMgr {
     }
   }
 
+  /**
+   * Reads the categories of work a worker reports it can admit. Workers that do not report them can
+   * admit anything when idle.
+   */
+  private static Set<TaskCategory> parseAdmittableCategories(JSONObject workerStatus, boolean idle)
+      throws JSONException {
+    if (!workerStatus.has(BfConsts.SVC_STATUS_ADMITTABLE_KEY)) {
+      return idle ? EnumSet.allOf(TaskCategory.class) : EnumSet.noneOf(TaskCategory.class);
+    }
+    Set<TaskCategory> categories = EnumSet.noneOf(TaskCategory.class);
+    JSONArray admittable = workerStatus.getJSONArray(BfConsts.SVC_STATUS_ADMITTABLE_KEY);
+    for (int i = 0; i < admittable.length(); i++) {
+      String category = admittable.getString(i);
+      try {
+        categories.add(TaskCategory.valueOf(category));
+      } catch (IllegalArgumentException e) {
+        // category unknown to this coordinator; nothing will be assigned under it
+      }
+    }
+    return categories;
+  }
+
+  /**
+   * Reads the snapshots a worker reports having cached in memory. Workers that do not report them
+   * are treated as having nothing cached.
+   */
+  @VisibleForTesting
+  static Map<NetworkSnapshot, CachedSnapshot> parseCachedSnapshots(JSONObject workerStatus)
+      throws JSONException {
+    if (!workerStatus.has(BfConsts.SVC_STATUS_CACHED_SNAPSHOTS_KEY)) {
+      return ImmutableMap.of();
+    }
+    Map<NetworkSnapshot, CachedSnapshot> cachedSnapshots = new HashMap<>();
+    JSONArray array = workerStatus.getJSONArray(BfConsts.SVC_STATUS_CACHED_SNAPSHOTS_KEY);
+    for (int i = 0; i < array.length(); i++) {
+      JSONObject entry = array.getJSONObject(i);
+      cachedSnapshots.put(
+          new NetworkSnapshot(
+              new NetworkId(entry.getString(BfConsts.SVC_CACHED_NETWORK_KEY)),
+              new SnapshotId(entry.getString(BfConsts.SVC_CACHED_SNAPSHOT_KEY))),
+          new CachedSnapshot(
+              entry.optBoolean(BfConsts.SVC_CACHED_CONFIGURATIONS_KEY),
+              entry.optBoolean(BfConsts.SVC_CACHED_DATA_PLANE_KEY),
+              entry.optInt(BfConsts.SVC_CACHED_DEVICES_KEY)));
+    }
+    return cachedSnapshots;
+  }
+
   public void startPoolManager() {
     Runnable workerStatusRefreshTask = new WorkerStatusRefreshTask();
     Executors.newScheduledThreadPool(1)
@@ -183,6 +283,20 @@ public class PoolMgr {
             TimeUnit.MILLISECONDS);
   }
 
+  private synchronized void updateAdmittableCategories(
+      String worker, Set<TaskCategory> admittableCategories) {
+    if (_workerPool.containsKey(worker)) {
+      _workerPool.get(worker).updateAdmittableCategories(admittableCategories);
+    }
+  }
+
+  private synchronized void updateCachedSnapshots(
+      String worker, Map<NetworkSnapshot, CachedSnapshot> cachedSnapshots) {
+    if (_workerPool.containsKey(worker)) {
+      _workerPool.get(worker).updateCachedSnapshots(cachedSnapshots);
+    }
+  }
+
   private synchronized void updateWorkerStatus(String worker, WorkerStatus.StatusCode statusCode) {
     if (_workerPool.containsKey(worker)) {
       _workerPool.get(worker).updateStatus(statusCode);
@@ -2,11 +2,13 @@ package org.batfish.coordinator;
 
 import static org.batfish.common.CoordConstsV2.QP_VERBOSE;
 
+import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
@@ -78,6 +80,44 @@ public class PoolMgrService {
     }
   }
 
+  @GET
+  @Path(CoordConsts.SVC_RSC_POOL_GET_WORK_LATENCY)
+  @Produces(MediaType.APPLICATION_JSON)
+  public JSONArray getWorkLatency() {
+    try {
+      _logger.info("PMS:getWorkLatency\n");
+      JSONObject obj = Main.getWorkMgr().getWorkLatencyStats().toJson();
+      return new JSONArray(Arrays.asList(CoordConsts.SVC_KEY_SUCCESS, obj.toString()));
+    } catch (Exception e) {
+      _logger.errorf("PMS:getWorkLatency exception: %s\n", Throwables.getStackTraceAsString(e));
+      return new JSONArray(Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage()));
+    }
+  }
+
+  /** Called by workers when the state of one of their tasks changes. */
+  @GET
+  @Path(CoordConsts.SVC_RSC_POOL_TASK_UPDATE)
+  @Produces(MediaType.APPLICATION_JSON)
+  public JSONArray taskUpdate(
+      @QueryParam(CoordConsts.SVC_KEY_WORKER) String worker,
+      @QueryParam(CoordConsts.SVC_KEY_WORKID) String workId) {
+    try {
+      _logger.infof("PMS:taskUpdate %s %s\n", worker, workId);
+      if (Strings.isNullOrEmpty(worker) || Strings.isNullOrEmpty(workId)) {
+        return new JSONArray(
+            Arrays.asList(CoordConsts.SVC_KEY_FAILURE, "Worker and work ID must be specified"));
+      }
+      UUID id = UUID.fromString(workId);
+      // react in the background so the worker is not held up
+      WorkMgr workMgr = Main.getWorkMgr();
+      workMgr.runInBackground("task update", () -> workMgr.processTaskUpdate(worker, id));
+    } catch (Exception e) {
+      _logger.errorf("PMS:taskUpdate exception: %s\n", Throwables.getStackTraceAsString(e));
+      return new JSONArray(Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage()));
+    }
+    return new JSONArray(Arrays.asList(CoordConsts.SVC_KEY_SUCCESS, "done"));
+  }
+
   // functions for pool management
   @GET
   @Path(CoordConsts.SVC_RSC_POOL_UPDATE)
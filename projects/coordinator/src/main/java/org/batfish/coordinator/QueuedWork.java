@@ -6,7 +6,9 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.batfish.common.BfConsts;
 import org.batfish.common.CoordConsts.WorkStatusCode;
 import org.batfish.common.Task;
@@ -15,8 +17,17 @@ import org.batfish.datamodel.pojo.WorkStatus;
 
 public class QueuedWork {
 
+  /** Notified when the status of work changes, so that work can be indexed by status */
+  interface StatusListener {
+    void statusChanged(QueuedWork work, WorkStatusCode oldStatus);
+  }
+
+  private static final AtomicLong NEXT_SEQUENCE_NUMBER = new AtomicLong();
+
   String _assignedWorker;
 
+  Date _dateAffinityWaitStarted;
+
   Date _dateAssigned;
 
   Date _dateCreated;
@@ -32,7 +43,13 @@ public class QueuedWork {
   /** For tracing */
   private SpanContext _postAssignmentContext;
 
+  /** Orders work by creation, even when created within the same millisecond */
+  private final long _sequenceNumber;
+
+  @Nullable private StatusListener _statusListener;
+
   public QueuedWork(WorkItem workItem, WorkDetails details) {
+    _sequenceNumber = NEXT_SEQUENCE_NUMBER.getAndIncrement();
     _workItem = workItem;
     _status = WorkStatusCode.UNASSIGNED;
     _dateCreated = new Date();
@@ -51,6 +68,10 @@ public class QueuedWork {
     return _assignedWorker;
   }
 
+  public Date getDateAssigned() {
+    return _dateAssigned;
+  }
+
   public Date getDateCreated() {
     return _dateCreated;
   }
@@ -79,6 +100,10 @@ public class QueuedWork {
     _postAssignmentContext = postAssignmentContext;
   }
 
+  long getSequenceNumber() {
+    return _sequenceNumber;
+  }
+
   public WorkStatusCode getStatus() {
     return _status;
   }
@@ -87,15 +112,36 @@ public class QueuedWork {
     return _workItem;
   }
 
+  /**
+   * Records that this work is being held back for a busy worker that has its snapshot cached, and
+   * returns whether it may still wait. Once it has waited {@code maxWaitMs} in total, it should be
+   * given to any worker rather than wait longer.
+   */
+  public synchronized boolean mayWaitForAffinity(long maxWaitMs) {
+    Date now = new Date();
+    if (_dateAffinityWaitStarted == null) {
+      _dateAffinityWaitStarted = now;
+    }
+    return now.getTime() - _dateAffinityWaitStarted.getTime() < maxWaitMs;
+  }
+
   public synchronized void recordTaskCheckResult(Task task) {
     _lastTaskCheckResult = task;
     _dateLastTaskCheckedStatus = new Date();
   }
 
   public synchronized void setAssignment(String assignedWorker) {
+    WorkStatusCode oldStatus = _status;
     _status = WorkStatusCode.ASSIGNED;
     _assignedWorker = assignedWorker;
     _dateAssigned = new Date();
+    notifyStatusListener(oldStatus);
+  }
+
+  private void notifyStatusListener(WorkStatusCode oldStatus) {
+    if (_statusListener != null && oldStatus != _status) {
+      _statusListener.statusChanged(this, oldStatus);
+    }
   }
 
   public synchronized void setStatus(WorkStatusCode status) {
@@ -109,7 +155,13 @@ public class QueuedWork {
     if (!_status.isTerminated() && status.isTerminated()) {
       _dateTerminated = new Date();
     }
+    WorkStatusCode oldStatus = _status;
     _status = status;
+    notifyStatusListener(oldStatus);
+  }
+
+  synchronized void setStatusListener(@Nullable StatusListener statusListener) {
+    _statusListener = statusListener;
   }
 
   @Override
@@ -132,13 +184,14 @@ public class QueuedWork {
 
   /**
    * Returns request params with names replaced with IDs. Adds SNAPSHOT_NAME for worker tasks that
-   * need it.
+   * need it, and the TASK_CATEGORY workers use for admission.
    */
   public @Nonnull Map<String, String> resolveRequestParams() {
     Map<String, String> params = new HashMap<>(_workItem.getRequestParams());
     params.put(BfConsts.ARG_CONTAINER, _details.getNetworkId().getId());
     params.put(BfConsts.ARG_TESTRIG, _details.getSnapshotId().getId());
     params.put(BfConsts.ARG_SNAPSHOT_NAME, _workItem.getSnapshot());
+    params.put(BfConsts.ARG_TASK_CATEGORY, _details.getTaskCategory().toString());
     if (_details.getQuestionId() != null) {
       params.put(BfConsts.ARG_QUESTION_NAME, _details.getQuestionId().getId());
     }
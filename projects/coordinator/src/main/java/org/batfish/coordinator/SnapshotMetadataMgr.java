@@ -4,12 +4,15 @@ package org.batfish.coordinator;
 // otherwise, we risk a deadlock, since WorkQueueMgr calls into this class
 // currently, this invariant is ensured by never calling out anywhere
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.io.IOException;
 import java.time.Instant;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.annotation.concurrent.GuardedBy;
+import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.datamodel.InitializationMetadata;
 import org.batfish.datamodel.InitializationMetadata.ProcessingStatus;
@@ -21,6 +24,9 @@ import org.batfish.storage.StorageProvider;
 @ParametersAreNonnullByDefault
 public final class SnapshotMetadataMgr {
 
+  /** The maximum number of snapshots whose metadata is kept in memory */
+  private static final int MAX_CACHED_METADATA = 1024;
+
   public InitializationMetadata getInitializationMetadata(
       NetworkId networkId, SnapshotId snapshotId) throws IOException {
     SnapshotMetadata trMetadata = readMetadata(networkId, snapshotId);
@@ -35,10 +41,22 @@ public final class SnapshotMetadataMgr {
     }
   }
 
+  /**
+   * Returns the metadata of the given snapshot. It is read from storage the first time, and then
+   * served from memory until it is evicted or the snapshot is deleted.
+   */
   public synchronized SnapshotMetadata readMetadata(NetworkId networkId, SnapshotId snapshotId)
       throws IOException {
-    return BatfishObjectMapper.mapper()
-        .readValue(_storage.loadSnapshotMetadata(networkId, snapshotId), SnapshotMetadata.class);
+    NetworkSnapshot snapshot = new NetworkSnapshot(networkId, snapshotId);
+    SnapshotMetadata metadata = _metadata.getIfPresent(snapshot);
+    if (metadata == null) {
+      metadata =
+          BatfishObjectMapper.mapper()
+              .readValue(
+                  _storage.loadSnapshotMetadata(networkId, snapshotId), SnapshotMetadata.class);
+      _metadata.put(snapshot, metadata);
+    }
+    return metadata;
   }
 
   public void updateInitializationStatus(
@@ -53,15 +71,37 @@ public final class SnapshotMetadataMgr {
         snapshotId);
   }
 
+  /** Writes the metadata of the given snapshot to both storage and memory. */
   public synchronized void writeMetadata(
       SnapshotMetadata metadata, NetworkId networkId, SnapshotId snapshotId) throws IOException {
     _storage.storeSnapshotMetadata(metadata, networkId, snapshotId);
+    _metadata.put(new NetworkSnapshot(networkId, snapshotId), metadata);
+  }
+
+  /** Forgets the in-memory metadata of the given snapshot, which is being deleted. */
+  public synchronized void removeMetadata(NetworkId networkId, SnapshotId snapshotId) {
+    _metadata.invalidate(new NetworkSnapshot(networkId, snapshotId));
+  }
+
+  /**
+   * Forgets the in-memory metadata of all snapshots of the given network, which is being deleted.
+   */
+  public synchronized void removeNetworkMetadata(NetworkId networkId) {
+    _metadata.asMap().keySet().removeIf(snapshot -> snapshot.getNetwork().equals(networkId));
   }
 
   public SnapshotMetadataMgr(StorageProvider storage) {
     _storage = storage;
+    _metadata = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_METADATA).build();
   }
 
+  /**
+   * The metadata of recently read or written snapshots. This manager must be the only writer of
+   * snapshot metadata.
+   */
+  @GuardedBy("this")
+  private final @Nonnull Cache<NetworkSnapshot, SnapshotMetadata> _metadata;
+
   @GuardedBy("this")
   private @Nonnull StorageProvider _storage;
 }
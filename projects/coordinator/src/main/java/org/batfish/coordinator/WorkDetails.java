@@ -5,6 +5,7 @@ import static com.google.common.base.Preconditions.checkState;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.BfConsts.TaskCategory;
 import org.batfish.identifiers.AnalysisId;
 import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.QuestionId;
@@ -142,6 +143,25 @@ public final class WorkDetails {
     return _workType;
   }
 
+  /** Returns the {@link TaskCategory} that workers use to decide whether to admit this work. */
+  public @Nonnull TaskCategory getTaskCategory() {
+    switch (_workType) {
+      case DATAPLANE_DEPENDENT_ANSWERING:
+        return TaskCategory.ANSWERING;
+      case DATAPLANING:
+        return TaskCategory.DATAPLANING;
+      case INDEPENDENT_ANSWERING:
+      case PARSING_DEPENDENT_ANSWERING:
+        return TaskCategory.LIGHT_ANSWERING;
+      case PARSING:
+      case UNKNOWN:
+        // nothing is known about unknown work, so assume it is as expensive as parsing
+        return TaskCategory.PARSING;
+      default:
+        throw new IllegalStateException("Unhandled WorkType: " + _workType);
+    }
+  }
+
   public boolean isOverlappingInput(WorkDetails o) {
     return _snapshotId.equals(o._snapshotId)
         || _snapshotId.equals(o._referenceSnapshotId)
@@ -0,0 +1,89 @@
+package org.batfish.coordinator;
+
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.GuardedBy;
+import org.batfish.coordinator.WorkDetails.WorkType;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+/**
+ * Aggregates, per {@link WorkType}, how long completed work waited in the queue before being
+ * assigned to a worker and how long it then ran on that worker.
+ */
+@ParametersAreNonnullByDefault
+public final class WorkLatencyStats {
+
+  private static final String PROP_COUNT = "count";
+  private static final String PROP_MAX_MS = "maxMs";
+  private static final String PROP_MEAN_MS = "meanMs";
+  private static final String PROP_QUEUE_WAIT = "queueWait";
+  private static final String PROP_RUN_TIME = "runTime";
+  private static final String PROP_TOTAL_MS = "totalMs";
+
+  private static final class Latency {
+    private long _count;
+    private long _maxMs;
+    private long _totalMs;
+
+    private void record(long ms) {
+      _count++;
+      _totalMs += ms;
+      _maxMs = Math.max(_maxMs, ms);
+    }
+
+    private @Nonnull JSONObject toJson() throws JSONException {
+      return new JSONObject()
+          .put(PROP_COUNT, _count)
+          .put(PROP_TOTAL_MS, _totalMs)
+          .put(PROP_MAX_MS, _maxMs)
+          .put(PROP_MEAN_MS, _count == 0 ? 0 : _totalMs / _count);
+    }
+  }
+
+  @GuardedBy("this")
+  private final Map<WorkType, Latency> _queueWait;
+
+  @GuardedBy("this")
+  private final Map<WorkType, Latency> _runTime;
+
+  public WorkLatencyStats() {
+    _queueWait = new EnumMap<>(WorkType.class);
+    _runTime = new EnumMap<>(WorkType.class);
+  }
+
+  /**
+   * Records the latencies of {@code work}, which must have terminated. Work that was never assigned
+   * to a worker (e.g., because it was killed while queued) is ignored.
+   */
+  public synchronized void record(QueuedWork work) {
+    Date assigned = work.getDateAssigned();
+    Date terminated = work.getDateTerminated();
+    if (assigned == null || terminated == null) {
+      return;
+    }
+    WorkType workType = work.getDetails().getWorkType();
+    _queueWait
+        .computeIfAbsent(workType, t -> new Latency())
+        .record(Math.max(0L, assigned.getTime() - work.getDateCreated().getTime()));
+    _runTime
+        .computeIfAbsent(workType, t -> new Latency())
+        .record(Math.max(0L, terminated.getTime() - assigned.getTime()));
+  }
+
+  /** Returns the aggregated latencies, keyed by work type. */
+  public synchronized @Nonnull JSONObject toJson() throws JSONException {
+    JSONObject json = new JSONObject();
+    for (Map.Entry<WorkType, Latency> entry : _queueWait.entrySet()) {
+      json.put(
+          entry.getKey().toString(),
+          new JSONObject()
+              .put(PROP_QUEUE_WAIT, entry.getValue().toJson())
+              .put(PROP_RUN_TIME, _runTime.get(entry.getKey()).toJson()));
+    }
+    return json;
+  }
+}
@@ -20,6 +20,8 @@ import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Comparators;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -84,6 +86,7 @@ import org.batfish.common.AnswerRowsOptions;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
+import org.batfish.common.BfConsts.TaskCategory;
 import org.batfish.common.BfConsts.TaskStatus;
 import org.batfish.common.ColumnSortOption;
 import org.batfish.common.CompletionMetadata;
@@ -246,17 +249,53 @@ public class WorkMgr extends AbstractCoordinator {
   static final class AssignWorkTask implements Runnable {
     @Override
     public void run() {
-      Main.getWorkMgr().checkTasks();
       Main.getWorkMgr().assignWork();
     }
   }
 
+  /**
+   * Polls workers for the status of assigned work. Workers push task completions to the
+   * coordinator, so this is only a fallback for lost notifications and unresponsive workers.
+   */
+  static final class CheckTasksTask implements Runnable {
+    @Override
+    public void run() {
+      Main.getWorkMgr().checkTasks();
+    }
+  }
+
   private static final Set<String> WELL_KNOWN_NETWORK_FILENAMES =
       ImmutableSet.of(BfConsts.RELPATH_REFERENCE_LIBRARY_PATH, BfConsts.RELPATH_NODE_ROLES_PATH);
 
+  /**
+   * The input objects that {@link #forkSnapshot} may modify. The other input objects of the base
+   * snapshot are shared with the fork without being read.
+   */
+  private static final Set<String> FORK_MODIFIED_INPUT_OBJECT_KEYS =
+      ImmutableSet.of(
+          BfConsts.RELPATH_EDGE_BLACKLIST_FILE,
+          BfConsts.RELPATH_INTERFACE_BLACKLIST_FILE,
+          BfConsts.RELPATH_NODE_BLACKLIST_FILE,
+          BfConsts.RELPATH_RUNTIME_DATA_FILE);
+
   private static final String SNAPSHOT_PACKAGING_INSTRUCTIONS_URL =
       "https://github.com/batfish/batfish/wiki/Packaging-snapshots-for-analysis";
 
+  /** The maximum number of snapshots whose completion metadata is kept in memory */
+  private static final int MAX_CACHED_COMPLETION_METADATA = 8;
+
+  /** The number of threads that react to notifications from workers in the background */
+  private static final int BACKGROUND_THREADS = 4;
+
+  /** The maximum number of background tasks waiting for a thread */
+  private static final int MAX_QUEUED_BACKGROUND_TASKS = 256;
+
+  /**
+   * Completion metadata of recently autocompleted snapshots, so that it is not reloaded for every
+   * query, and the indexes that autocomplete builds over it are reused.
+   */
+  private final Cache<NetworkSnapshot, CompletionMetadata> _cachedCompletionMetadata;
+
   private final IdManager _idManager;
   private final BatfishLogger _logger;
   private final Settings _settings;
@@ -264,6 +303,7 @@ public class WorkMgr extends AbstractCoordinator {
   private WorkQueueMgr _workQueueMgr;
   private final StorageProvider _storage;
   private final ExecutorService _gcExecutor;
+  private final ThreadPoolExecutor _backgroundExecutor;
 
   public WorkMgr(
       Settings settings,
@@ -276,11 +316,48 @@ public class WorkMgr extends AbstractCoordinator {
     _snapshotMetadataManager = new SnapshotMetadataMgr(_storage);
     _logger = logger;
     _workQueueMgr = new WorkQueueMgr(logger, _snapshotMetadataManager);
+    _cachedCompletionMetadata =
+        CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_COMPLETION_METADATA).build();
     // Can only run one GC task at a time, and only have one queued. If one is queued and another is
     // submitted, the older one in the queue is discarded.
     _gcExecutor =
         new ThreadPoolExecutor(
             0, 1, 0L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1), new DiscardOldestPolicy());
+    _backgroundExecutor =
+        new ThreadPoolExecutor(
+            BACKGROUND_THREADS,
+            BACKGROUND_THREADS,
+            60L,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED_BACKGROUND_TASKS));
+    _backgroundExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Runs {@code task} on the bounded pool of background threads, logging any exception it throws.
+   * If too many tasks are already waiting, {@code task} is dropped: the periodic checks of tasks
+   * and workers eventually do what it would have done.
+   */
+  void runInBackground(String description, Runnable task) {
+    try {
+      _backgroundExecutor.execute(
+          () -> {
+            try {
+              task.run();
+            } catch (Exception e) {
+              _logger.errorf(
+                  "Error in background %s: %s\n", description, Throwables.getStackTraceAsString(e));
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      _logger.warnf("Dropped background %s: too many pending tasks\n", description);
+    }
+  }
+
+  /** Stops the background threads of this manager. */
+  public void shutdown() {
+    _backgroundExecutor.shutdownNow();
+    _gcExecutor.shutdownNow();
   }
 
   @VisibleForTesting
@@ -291,25 +368,36 @@ public class WorkMgr extends AbstractCoordinator {
   private void assignWork() {
 
     try {
-      QueuedWork work = _workQueueMgr.getWorkForAssignment();
+      // only consider work that some idle worker can currently admit
+      Set<TaskCategory> admittable = Main.getPoolMgr().getAdmittableCategories();
+      if (admittable.isEmpty()) {
+        return;
+      }
+      List<QueuedWork> candidates = _workQueueMgr.listAssignableWork(admittable);
 
       // get out if no work was found
-      if (work == null) {
+      if (candidates.isEmpty()) {
         // _logger.info("WM:AssignWork: No unassigned work\n");
         return;
       }
 
-      String idleWorker = Main.getPoolMgr().getWorkerForAssignment();
-
-      // get out if no idle worker was found, but release the work first
-      if (idleWorker == null) {
-        _workQueueMgr.markAssignmentFailure(work);
-
-        _logger.info("WM:AssignWork: No idle worker\n");
+      // assign the oldest work that has a suitable worker now; work that is waiting for a busy
+      // worker with its snapshot cached does not hold up the work behind it
+      for (QueuedWork work : candidates) {
+        if (!_workQueueMgr.claimWorkForAssignment(work)) {
+          continue;
+        }
+        String idleWorker =
+            Main.getPoolMgr().getWorkerForAssignment(work, _settings.getAffinityMaxWaitMs());
+        if (idleWorker == null) {
+          _workQueueMgr.markAssignmentFailure(work);
+          continue;
+        }
+        assignWork(work, idleWorker);
         return;
       }
 
-      assignWork(work, idleWorker);
+      _logger.info("WM:AssignWork: No idle worker\n");
     } catch (Exception e) {
       _logger.errorf("Got exception in assignWork: %s\n", Throwables.getStackTraceAsString(e));
     }
@@ -369,7 +457,10 @@ public class WorkMgr extends AbstractCoordinator {
               "WM:AssignWork: response: %s [%s] [%s]\n",
               array.toString(), array.get(0), array.get(1)));
 
-      if (!array.get(0).equals(BfConsts.SVC_SUCCESS_KEY)) {
+      if (array.get(0).equals(BfConsts.SVC_BUSY_KEY)) {
+        // worker lacked capacity after all; leave the work unassigned so it is retried
+        _logger.infof("WM:AssignWork: worker %s is busy: %s\n", worker, array.get(1));
+      } else if (!array.get(0).equals(BfConsts.SVC_SUCCESS_KEY)) {
         _logger.error(
             String.format("ERROR in assigning task: %s %s\n", array.get(0), array.get(1)));
 
@@ -443,6 +534,28 @@ public class WorkMgr extends AbstractCoordinator {
     }
   }
 
+  /**
+   * Handles a notification from {@code worker} that the state of the task for work {@code workId}
+   * changed: checks the task right away and then assigns queued work to any freed capacity.
+   */
+  public void processTaskUpdate(String worker, UUID workId) {
+    try {
+      QueuedWork work = _workQueueMgr.getWork(workId);
+      if (work != null
+          && worker.equals(work.getAssignedWorker())
+          && _workQueueMgr.claimWorkForChecking(work)) {
+        checkTask(work, worker);
+      } else {
+        // unknown or already checked work; the worker's capacity may still have changed
+        Main.getPoolMgr().refreshWorkerStatus(worker);
+      }
+      assignWork();
+    } catch (Exception e) {
+      _logger.errorf(
+          "Got exception processing task update: %s\n", Throwables.getStackTraceAsString(e));
+    }
+  }
+
   private CompletionMetadata getCompletionMetadata(String network, String snapshot)
       throws IOException {
     checkArgument(!isNullOrEmpty(network), "Network name should be supplied");
@@ -458,7 +571,17 @@ public class WorkMgr extends AbstractCoordinator {
       return null;
     }
     SnapshotId snapshotId = snapshotIdOpt.get();
-    return _storage.loadCompletionMetadata(networkId, snapshotId);
+    NetworkSnapshot networkSnapshot = new NetworkSnapshot(networkId, snapshotId);
+    CompletionMetadata completionMetadata = _cachedCompletionMetadata.getIfPresent(networkSnapshot);
+    if (completionMetadata != null) {
+      return completionMetadata;
+    }
+    completionMetadata = _storage.loadCompletionMetadata(networkId, snapshotId);
+    // Empty metadata may just not have been computed yet
+    if (completionMetadata != null && !completionMetadata.equals(CompletionMetadata.EMPTY)) {
+      _cachedCompletionMetadata.put(networkSnapshot, completionMetadata);
+    }
+    return completionMetadata;
   }
 
   @Nullable
@@ -767,8 +890,10 @@ public class WorkMgr extends AbstractCoordinator {
    * false} if network does not exist.
    */
   public boolean delNetwork(@Nonnull String network) {
+    Optional<NetworkId> networkIdOpt = _idManager.getNetworkId(network);
     boolean result = _idManager.deleteNetwork(network);
     if (result) {
+      networkIdOpt.ifPresent(_snapshotMetadataManager::removeNetworkMetadata);
       triggerGarbageCollection();
     }
     return result;
@@ -784,8 +909,11 @@ public class WorkMgr extends AbstractCoordinator {
       return false;
     }
     NetworkId networkId = networkIdOpt.get();
+    Optional<SnapshotId> snapshotIdOpt = _idManager.getSnapshotId(snapshot, networkId);
     boolean result = _idManager.deleteSnapshot(snapshot, networkId);
     if (result) {
+      snapshotIdOpt.ifPresent(
+          snapshotId -> _snapshotMetadataManager.removeMetadata(networkId, snapshotId));
       triggerGarbageCollection();
     }
     return result;
@@ -1549,6 +1677,11 @@ public class WorkMgr extends AbstractCoordinator {
     return _workQueueMgr.getWork(workItemId);
   }
 
+  /** Returns the queue-wait and run-time latencies of the work completed so far. */
+  public @Nonnull WorkLatencyStats getWorkLatencyStats() {
+    return _workQueueMgr.getLatencyStats();
+  }
+
   /**
    * Load and return the log file for a given work item ID in a given snapshot.
    *
@@ -1630,8 +1763,34 @@ public class WorkMgr extends AbstractCoordinator {
       boolean autoAnalyze,
       Instant creationTime,
       @Nullable SnapshotId parentSnapshotId) {
+    initSnapshot(
+        networkName,
+        snapshotName,
+        srcDir,
+        autoAnalyze,
+        creationTime,
+        parentSnapshotId,
+        ImmutableSet.of());
+  }
+
+  /**
+   * Initializes a snapshot from the files in {@code srcDir}, plus the input objects of the parent
+   * snapshot with keys in {@code parentInputObjectKeys} that {@code srcDir} does not replace. The
+   * latter are shared with the parent snapshot by the storage, rather than copied.
+   */
+  private void initSnapshot(
+      String networkName,
+      String snapshotName,
+      Path srcDir,
+      boolean autoAnalyze,
+      Instant creationTime,
+      @Nullable SnapshotId parentSnapshotId,
+      Set<String> parentInputObjectKeys) {
+    checkArgument(
+        parentSnapshotId != null || parentInputObjectKeys.isEmpty(),
+        "Cannot share input objects without a parent snapshot");
     Path subDir = getSnapshotSubdir(srcDir);
-    validateSnapshotDir(subDir);
+    validateSnapshotDir(subDir, parentInputObjectKeys);
 
     // If interface blacklist was provided, delete it and copy contents into runtime data
     List<NodeInterfacePair> ifaceBlacklist =
@@ -1710,6 +1869,21 @@ public class WorkMgr extends AbstractCoordinator {
         throw new UncheckedIOException(String.format("Failed to copy: '%s'", subFile), e);
       }
     }
+    for (String key : parentInputObjectKeys) {
+      if (Files.exists(subDir.resolve(key))) {
+        // replaced by the new snapshot
+        continue;
+      }
+      try {
+        _storage.copySnapshotInputObject(
+            new NetworkSnapshot(networkId, parentSnapshotId),
+            key,
+            new NetworkSnapshot(networkId, snapshotId));
+      } catch (IOException e) {
+        throw new UncheckedIOException(
+            String.format("Unable to copy base snapshot input object with key: %s", key), e);
+      }
+    }
     _logger.infof(
         "Environment data for snapshot:%s; bgpTables:%s, nodeRoles:%s referenceBooks:%s\n",
         snapshotName, bgpTables, roleData, referenceLibraryData);
@@ -1725,19 +1899,21 @@ public class WorkMgr extends AbstractCoordinator {
   }
 
   /**
-   * Helper function to assert that the specified dir contains configs
+   * Helper function to assert that the snapshot made of the specified dir and the parent snapshot
+   * input objects with keys in {@code parentInputObjectKeys} contains configs
    *
-   * @throws BatfishException when specified dir does not contain network configs dir, AWS configs
-   *     dir, or a hosts dir
+   * @throws BatfishException when neither the specified dir nor the parent input objects contain a
+   *     network configs dir, AWS configs dir, or a hosts dir
    */
-  private static void validateSnapshotDir(Path subDir) {
+  @VisibleForTesting
+  static void validateSnapshotDir(Path subDir, Set<String> parentInputObjectKeys) {
     // Confirm there is a configs, hosts, or AWS configs dir
     Path hostConfigsPath = subDir.resolve(BfConsts.RELPATH_HOST_CONFIGS_DIR);
     Path networkConfigsPath = subDir.resolve(BfConsts.RELPATH_CONFIGURATIONS_DIR);
     Path awsConfigsPath = subDir.resolve(BfConsts.RELPATH_AWS_CONFIGS_DIR);
-    if (!Files.exists(hostConfigsPath)
-        && !Files.exists(networkConfigsPath)
-        && !Files.exists(awsConfigsPath)) {
+    if (!containsDir(subDir, parentInputObjectKeys, BfConsts.RELPATH_HOST_CONFIGS_DIR)
+        && !containsDir(subDir, parentInputObjectKeys, BfConsts.RELPATH_CONFIGURATIONS_DIR)
+        && !containsDir(subDir, parentInputObjectKeys, BfConsts.RELPATH_AWS_CONFIGS_DIR)) {
       Path srcDir = subDir.getParent();
       throw new BatfishException(
           String.format(
@@ -1749,6 +1925,17 @@ public class WorkMgr extends AbstractCoordinator {
     }
   }
 
+  /**
+   * Returns whether the specified dir, or the parent snapshot input objects with keys in {@code
+   * parentInputObjectKeys}, contain the directory {@code dirName}
+   */
+  private static boolean containsDir(
+      Path subDir, Set<String> parentInputObjectKeys, String dirName) {
+    String prefix = dirName + "/";
+    return Files.exists(subDir.resolve(dirName))
+        || parentInputObjectKeys.stream().anyMatch(key -> key.startsWith(prefix));
+  }
+
   /**
    * Helper function to assert there is only one subdir in the specified snapshot dir and return
    * that subdir
@@ -1786,7 +1973,8 @@ public class WorkMgr extends AbstractCoordinator {
   }
 
   /**
-   * Copy a snapshot and make modifications to the copy.
+   * Copy a snapshot and make modifications to the copy. Input objects that are not modified are
+   * shared with the base snapshot rather than copied.
    *
    * @param networkName Name of the network containing the original snapshot
    * @param forkSnapshotBean {@link ForkSnapshotBean} containing parameters used to create the fork
@@ -1829,18 +2017,21 @@ public class WorkMgr extends AbstractCoordinator {
       throw new BatfishException("Failed to create directory: '" + newSnapshotInputsDir + "'");
     }
 
-    try (Stream<String> baseInputObjectKeys =
+    // Only the input objects that may be modified are copied here. The others are shared with the
+    // base snapshot by initSnapshot, unless the fork replaces them.
+    Set<String> baseInputObjectKeys;
+    try (Stream<String> keys =
         _storage.listSnapshotInputObjectKeys(new NetworkSnapshot(networkId, baseSnapshotId))) {
-      baseInputObjectKeys.forEach(
-          key -> {
-            try (InputStream baseObjectStream =
-                _storage.loadSnapshotInputObject(networkId, baseSnapshotId, key)) {
-              writeStreamToFile(baseObjectStream, newSnapshotInputsDir.resolve(key));
-            } catch (IOException e) {
-              throw new UncheckedIOException(
-                  String.format("Unable to copy base snapshot input object with key: %s", key), e);
-            }
-          });
+      baseInputObjectKeys = keys.collect(ImmutableSet.toImmutableSet());
+    }
+    for (String key : Sets.intersection(baseInputObjectKeys, FORK_MODIFIED_INPUT_OBJECT_KEYS)) {
+      try (InputStream baseObjectStream =
+          _storage.loadSnapshotInputObject(networkId, baseSnapshotId, key)) {
+        writeStreamToFile(baseObjectStream, newSnapshotInputsDir.resolve(key));
+      } catch (IOException e) {
+        throw new UncheckedIOException(
+            String.format("Unable to copy base snapshot input object with key: %s", key), e);
+      }
     }
     // Write user-specified files to the forked snapshot input dir, overwriting existing ones
     if (forkSnapshotBean.zipFile != null) {
@@ -1893,7 +2084,8 @@ public class WorkMgr extends AbstractCoordinator {
         newSnapshotInputsDir.getParent(),
         false,
         creationTime,
-        baseSnapshotId);
+        baseSnapshotId,
+        Sets.difference(baseInputObjectKeys, FORK_MODIFIED_INPUT_OBJECT_KEYS));
   }
 
   /**
@@ -2242,18 +2434,14 @@ public class WorkMgr extends AbstractCoordinator {
   }
 
   public void startWorkManager() {
-    // for some bizarre reason, this ordering of scheduling checktask before
-    // assignwork, is important
-    // in the other order, assignwork never fires
-    // TODO: track this down
-    // _checkWorkTask = new CheckTaskTask();
-    // _checkService = Executors.newScheduledThreadPool(1);
-    // _checkFuture = _checkService.scheduleAtFixedRate(_checkWorkTask, 0,
-    // Main.getSettings().getPeriodCheckWorkMs(),
-    // TimeUnit.MILLISECONDS);
-
     loadPlugins();
 
+    Executors.newScheduledThreadPool(1)
+        .scheduleAtFixedRate(
+            new CheckTasksTask(),
+            0,
+            Main.getSettings().getPeriodCheckWorkMs(),
+            TimeUnit.MILLISECONDS);
     Executors.newScheduledThreadPool(1)
         .scheduleAtFixedRate(
             new AssignWorkTask(),
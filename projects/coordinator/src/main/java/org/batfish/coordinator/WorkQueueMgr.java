@@ -4,16 +4,26 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
+import org.batfish.common.BfConsts.TaskCategory;
 import org.batfish.common.BfConsts.TaskStatus;
 import org.batfish.common.CoordConsts.WorkStatusCode;
 import org.batfish.common.Task;
@@ -32,6 +42,7 @@ import org.codehaus.jettison.json.JSONObject;
 
 // the design of this WorkQueueMgr is such that all synchronization sits here
 // individual queues do not need to be synchronized
+// lookups only take the read lock, so they do not wait for each other
 
 public class WorkQueueMgr {
 
@@ -40,16 +51,26 @@ public class WorkQueueMgr {
     INCOMPLETE
   }
 
-  @GuardedBy("this")
-  private Set<UUID> _blockingWork;
+  private static final Comparator<QueuedWork> CREATION_ORDER =
+      Comparator.comparingLong(QueuedWork::getSequenceNumber);
 
+  /** Maps the ID of each blocking work to the work that is blocked on it */
+  @GuardedBy("_lock")
+  private final Map<UUID, Set<QueuedWork>> _blockedWork;
+
+  /** The incomplete work in each status, oldest first */
+  @GuardedBy("_lock")
+  private final Map<WorkStatusCode, NavigableSet<QueuedWork>> _incompleteWorkByStatus;
+
+  private final WorkLatencyStats _latencyStats;
+  private final ReadWriteLock _lock;
   private BatfishLogger _logger;
   private SnapshotMetadataMgr _snapshotMetadataManager;
 
-  @GuardedBy("this")
+  @GuardedBy("_lock")
   private WorkQueue _queueCompletedWork;
 
-  @GuardedBy("this")
+  @GuardedBy("_lock")
   private WorkQueue _queueIncompleteWork;
 
   WorkQueueMgr(BatfishLogger logger, SnapshotMetadataMgr snapshotMetadataManager) {
@@ -57,7 +78,10 @@ public class WorkQueueMgr {
   }
 
   WorkQueueMgr(Type wqType, BatfishLogger logger, SnapshotMetadataMgr snapshotMetadataManager) {
-    _blockingWork = new HashSet<>();
+    _blockedWork = new HashMap<>();
+    _incompleteWorkByStatus = new EnumMap<>(WorkStatusCode.class);
+    _latencyStats = new WorkLatencyStats();
+    _lock = new ReentrantReadWriteLock();
     _logger = logger;
     _snapshotMetadataManager = snapshotMetadataManager;
     switch (wqType) {
@@ -70,6 +94,43 @@ public class WorkQueueMgr {
     }
   }
 
+  @GuardedBy("_lock")
+  private boolean enqueIncompleteWork(QueuedWork work) {
+    if (!_queueIncompleteWork.enque(work)) {
+      return false;
+    }
+    work.setStatusListener(this::reindexStatus);
+    _incompleteWorkByStatus
+        .computeIfAbsent(work.getStatus(), s -> new TreeSet<>(CREATION_ORDER))
+        .add(work);
+    return true;
+  }
+
+  @GuardedBy("_lock")
+  private void deleteIncompleteWork(QueuedWork work) {
+    if (_queueIncompleteWork.delete(work)) {
+      work.setStatusListener(null);
+      _incompleteWorkByStatus.get(work.getStatus()).remove(work);
+    }
+  }
+
+  /** Returns the incomplete work in status {@code status}, oldest first. */
+  @GuardedBy("_lock")
+  private @Nonnull List<QueuedWork> getIncompleteWork(WorkStatusCode status) {
+    NavigableSet<QueuedWork> works = _incompleteWorkByStatus.get(status);
+    return works == null ? ImmutableList.of() : ImmutableList.copyOf(works);
+  }
+
+  /** Moves {@code work} to the index entry for its new status */
+  @GuardedBy("_lock")
+  private void reindexStatus(QueuedWork work, WorkStatusCode oldStatus) {
+    _incompleteWorkByStatus.get(oldStatus).remove(work);
+    _incompleteWorkByStatus
+        .computeIfAbsent(work.getStatus(), s -> new TreeSet<>(CREATION_ORDER))
+        .add(work);
+  }
+
+  @GuardedBy("_lock")
   private void cleanUpInitMetaDataIfNeeded(NetworkId networkId, SnapshotId snapshotId)
       throws IOException {
     InitializationMetadata metadata =
@@ -85,6 +146,7 @@ public class WorkQueueMgr {
     }
   }
 
+  @GuardedBy("_lock")
   private QueuedWork generateAndQueueDataplaneWork(
       String network, NetworkId networkId, String snapshot, SnapshotId snapshotId)
       throws Exception {
@@ -103,6 +165,7 @@ public class WorkQueueMgr {
     return newWork;
   }
 
+  @GuardedBy("_lock")
   private QueuedWork getBlockerForDataplaningWork(QueuedWork work) throws IOException {
     WorkDetails wDetails = work.getDetails();
 
@@ -145,6 +208,7 @@ public class WorkQueueMgr {
    * This function has a side effect It will inject a dataplane generation work in the queue if none
    * exists
    */
+  @GuardedBy("_lock")
   private QueuedWork getBlockerForDataplaneDependentWork(
       QueuedWork work, String snapshot, SnapshotId snapshotId) throws Exception {
 
@@ -203,6 +267,7 @@ public class WorkQueueMgr {
     }
   }
 
+  @GuardedBy("_lock")
   private QueuedWork getBlockerForParsingDependentWork(
       QueuedWork work, String snapshot, SnapshotId snapshotId) throws IOException {
 
@@ -243,74 +308,88 @@ public class WorkQueueMgr {
    * @param snapshotId {@link SnapshotId} to get completed work for.
    * @return {@link List} of completed {@link QueuedWork}.
    */
-  public synchronized List<QueuedWork> getCompletedWork(
-      NetworkId networkId, SnapshotId snapshotId) {
-    ImmutableList.Builder<QueuedWork> b = ImmutableList.builder();
-    for (QueuedWork work : _queueCompletedWork) {
-      if (work.getDetails().getNetworkId().equals(networkId)
-          && work.getDetails().getSnapshotId().equals(snapshotId)) {
-        b.add(work);
+  public List<QueuedWork> getCompletedWork(NetworkId networkId, SnapshotId snapshotId) {
+    _lock.readLock().lock();
+    try {
+      ImmutableList.Builder<QueuedWork> b = ImmutableList.builder();
+      for (QueuedWork work : _queueCompletedWork.getWorkInvolvingSnapshot(networkId, snapshotId)) {
+        if (work.getDetails().getSnapshotId().equals(snapshotId)) {
+          b.add(work);
+        }
       }
+      return b.build();
+    } finally {
+      _lock.readLock().unlock();
     }
-    return b.build();
   }
 
-  private synchronized QueuedWork getIncompleteWork(
-      NetworkId networkId, SnapshotId snapshotId, WorkType wType) {
-    for (QueuedWork work : _queueIncompleteWork) {
-      WorkDetails wDetails = work.getDetails();
-      if (networkId.equals(work.getDetails().getNetworkId())
-          && ((snapshotId.equals(wDetails.getSnapshotId()))
-              || (wDetails.isDifferential()
-                  && snapshotId.equals(wDetails.getReferenceSnapshotId())))
-          && (wType == null || wDetails.getWorkType() == wType)) {
+  @GuardedBy("_lock")
+  private QueuedWork getIncompleteWork(NetworkId networkId, SnapshotId snapshotId, WorkType wType) {
+    for (QueuedWork work : _queueIncompleteWork.getWorkInvolvingSnapshot(networkId, snapshotId)) {
+      if (wType == null || work.getDetails().getWorkType() == wType) {
         return work;
       }
     }
     return null;
   }
 
-  public synchronized long getLength(QueueType qType) {
-    switch (qType) {
-      case COMPLETED:
-        return _queueCompletedWork.getLength();
-      case INCOMPLETE:
-        return _queueIncompleteWork.getLength();
-      default:
-        return -1;
+  public long getLength(QueueType qType) {
+    _lock.readLock().lock();
+    try {
+      switch (qType) {
+        case COMPLETED:
+          return _queueCompletedWork.getLength();
+        case INCOMPLETE:
+          return _queueIncompleteWork.getLength();
+        default:
+          return -1;
+      }
+    } finally {
+      _lock.readLock().unlock();
     }
   }
 
-  public synchronized JSONObject getStatusJson() throws JSONException {
+  public JSONObject getStatusJson() throws JSONException {
+    _lock.readLock().lock();
+    try {
+      JSONObject jObject = new JSONObject();
 
-    JSONObject jObject = new JSONObject();
+      jObject.put("incomplete-works", _queueIncompleteWork.getLength());
+      for (QueuedWork work : _queueIncompleteWork) {
+        jObject.put(work.getId().toString(), work.toString());
+      }
 
-    jObject.put("incomplete-works", _queueIncompleteWork.getLength());
-    for (QueuedWork work : _queueIncompleteWork) {
-      jObject.put(work.getId().toString(), work.toString());
-    }
+      jObject.put("completed-works", _queueCompletedWork.getLength());
+      for (QueuedWork work : _queueCompletedWork) {
+        jObject.put(work.getId().toString(), work.toString());
+      }
 
-    jObject.put("completed-works", _queueCompletedWork.getLength());
-    for (QueuedWork work : _queueCompletedWork) {
-      jObject.put(work.getId().toString(), work.toString());
+      return jObject;
+    } finally {
+      _lock.readLock().unlock();
     }
-
-    return jObject;
   }
 
-  public synchronized QueuedWork getMatchingWork(WorkItem workItem, QueueType qType) {
-    switch (qType) {
-      case COMPLETED:
-        return getMatchingWork(workItem, _queueCompletedWork);
-      case INCOMPLETE:
-        return getMatchingWork(workItem, _queueIncompleteWork);
-      default:
-        throw new BatfishException("Unknown QueueType " + qType);
+  public QueuedWork getMatchingWork(WorkItem workItem, QueueType qType) {
+    _lock.readLock().lock();
+    try {
+      switch (qType) {
+        case COMPLETED:
+          return getMatchingWork(workItem, _queueCompletedWork);
+        case INCOMPLETE:
+          return getMatchingWork(workItem, _queueIncompleteWork);
+        default:
+          throw new BatfishException("Unknown QueueType " + qType);
+      }
+    } finally {
+      _lock.readLock().unlock();
     }
   }
 
-  private synchronized QueuedWork getMatchingWork(WorkItem workItem, WorkQueue queue) {
-    for (QueuedWork work : queue) {
+  @GuardedBy("_lock")
+  private QueuedWork getMatchingWork(WorkItem workItem, WorkQueue queue) {
+    for (QueuedWork work :
+        queue.getWorkForSnapshotName(workItem.getNetwork(), workItem.getSnapshot())) {
       if (work.getWorkItem().matches(workItem)) {
         return work;
       }
@@ -318,16 +397,22 @@ public class WorkQueueMgr {
     return null;
   }
 
-  public synchronized QueuedWork getWork(UUID workId) {
-    QueuedWork work = getWork(workId, QueueType.INCOMPLETE);
-    if (work == null) {
-      work = getWork(workId, QueueType.COMPLETED);
+  public QueuedWork getWork(UUID workId) {
+    _lock.readLock().lock();
+    try {
+      QueuedWork work = getWork(workId, QueueType.INCOMPLETE);
+      if (work == null) {
+        work = getWork(workId, QueueType.COMPLETED);
+      }
+      return work;
+    } finally {
+      _lock.readLock().unlock();
     }
-    return work;
   }
 
   @Nullable
-  private synchronized QueuedWork getWork(UUID workId, QueueType qType) {
+  @GuardedBy("_lock")
+  private QueuedWork getWork(UUID workId, QueueType qType) {
     switch (qType) {
       case COMPLETED:
         return _queueCompletedWork.getWork(workId);
@@ -339,225 +424,345 @@ public class WorkQueueMgr {
   }
 
   @Nullable
-  public synchronized QueuedWork getWorkForAssignment() {
+  public QueuedWork getWorkForAssignment() {
+    _lock.writeLock().lock();
+    try {
+      return getWorkForAssignment(EnumSet.allOf(TaskCategory.class));
+    } finally {
+      _lock.writeLock().unlock();
+    }
+  }
 
-    for (QueuedWork work : _queueIncompleteWork) {
-      if (work.getStatus() == WorkStatusCode.UNASSIGNED) {
-        work.setStatus(WorkStatusCode.TRYINGTOASSIGN);
-        return work;
+  /**
+   * Returns the oldest unassigned work whose {@link TaskCategory} is among {@code categories},
+   * marking it as being assigned. Restricting the categories lets cheap work that some worker can
+   * admit overtake expensive work that no worker can admit right now.
+   */
+  @Nullable
+  public QueuedWork getWorkForAssignment(Set<TaskCategory> categories) {
+    _lock.writeLock().lock();
+    try {
+      for (QueuedWork work : getIncompleteWork(WorkStatusCode.UNASSIGNED)) {
+        if (categories.contains(work.getDetails().getTaskCategory())) {
+          work.setStatus(WorkStatusCode.TRYINGTOASSIGN);
+          return work;
+        }
       }
+
+      return null;
+    } finally {
+      _lock.writeLock().unlock();
     }
+  }
 
-    return null;
+  /**
+   * Returns the unassigned work whose {@link TaskCategory} is among {@code categories}, oldest
+   * first, without marking any of it as being assigned. Use {@link
+   * #claimWorkForAssignment(QueuedWork)} to claim one of them.
+   */
+  @Nonnull
+  public List<QueuedWork> listAssignableWork(Set<TaskCategory> categories) {
+    _lock.readLock().lock();
+    try {
+      List<QueuedWork> assignable = new ArrayList<>();
+      for (QueuedWork work : getIncompleteWork(WorkStatusCode.UNASSIGNED)) {
+        if (categories.contains(work.getDetails().getTaskCategory())) {
+          assignable.add(work);
+        }
+      }
+      return assignable;
+    } finally {
+      _lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Marks {@code work} as being assigned if it is still unassigned.
+   *
+   * @return {@code true} iff the work was claimed
+   */
+  public boolean claimWorkForAssignment(QueuedWork work) {
+    _lock.writeLock().lock();
+    try {
+      if (work.getStatus() != WorkStatusCode.UNASSIGNED) {
+        return false;
+      }
+      work.setStatus(WorkStatusCode.TRYINGTOASSIGN);
+      return true;
+    } finally {
+      _lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Marks {@code work} as having its status checked if it is assigned and not already being
+   * checked.
+   *
+   * @return {@code true} iff the work was claimed
+   */
+  public boolean claimWorkForChecking(QueuedWork work) {
+    _lock.writeLock().lock();
+    try {
+      if (work.getStatus() != WorkStatusCode.ASSIGNED) {
+        return false;
+      }
+      work.setStatus(WorkStatusCode.CHECKINGSTATUS);
+      return true;
+    } finally {
+      _lock.writeLock().unlock();
+    }
+  }
+
+  /** Returns the queue-wait and run-time latencies of the work completed so far. */
+  public @Nonnull WorkLatencyStats getLatencyStats() {
+    return _latencyStats;
   }
 
   @Nonnull
-  public synchronized List<QueuedWork> getWorkForChecking() {
-    List<QueuedWork> workToCheck = new ArrayList<>();
-    for (QueuedWork work : _queueIncompleteWork) {
-      if (work.getStatus() == WorkStatusCode.ASSIGNED) {
+  public List<QueuedWork> getWorkForChecking() {
+    _lock.writeLock().lock();
+    try {
+      List<QueuedWork> workToCheck = new ArrayList<>();
+      for (QueuedWork work : getIncompleteWork(WorkStatusCode.ASSIGNED)) {
         work.setStatus(WorkStatusCode.CHECKINGSTATUS);
         workToCheck.add(work);
       }
+      return workToCheck;
+    } finally {
+      _lock.writeLock().unlock();
     }
-    return workToCheck;
   }
 
-  public synchronized List<QueuedWork> listIncompleteWork(
+  public List<QueuedWork> listIncompleteWork(
       NetworkId networkId, @Nullable SnapshotId snapshotId, @Nullable WorkType workType) {
-    List<QueuedWork> retList = new LinkedList<>();
-    for (QueuedWork work : _queueIncompleteWork) {
-      // Add to queue if it matches container, testrig if provided, and work type if provided
-      if (work.getDetails().getNetworkId().equals(networkId)
-          && (snapshotId == null || work.getDetails().getSnapshotId().equals(snapshotId))
-          && (workType == null || work.getDetails().getWorkType() == workType)) {
-        retList.add(work);
+    _lock.readLock().lock();
+    try {
+      List<QueuedWork> retList = new LinkedList<>();
+      Iterable<QueuedWork> candidates =
+          snapshotId == null
+              ? _queueIncompleteWork
+              : _queueIncompleteWork.getWorkInvolvingSnapshot(networkId, snapshotId);
+      for (QueuedWork work : candidates) {
+        // Add to queue if it matches container, testrig if provided, and work type if provided
+        if (work.getDetails().getNetworkId().equals(networkId)
+            && (snapshotId == null || work.getDetails().getSnapshotId().equals(snapshotId))
+            && (workType == null || work.getDetails().getWorkType() == workType)) {
+          retList.add(work);
+        }
       }
+      return retList;
+    } finally {
+      _lock.readLock().unlock();
     }
-    return retList;
   }
 
-  public synchronized void makeWorkUnassigned(QueuedWork work) {
-    work.setStatus(WorkStatusCode.UNASSIGNED);
+  public void makeWorkUnassigned(QueuedWork work) {
+    _lock.writeLock().lock();
+    try {
+      work.setStatus(WorkStatusCode.UNASSIGNED);
+    } finally {
+      _lock.writeLock().unlock();
+    }
   }
 
   // when assignment attempt ends in error, we do not try to reassign
-  public synchronized void markAssignmentError(QueuedWork work) {
-    _queueIncompleteWork.delete(work);
-    _queueCompletedWork.enque(work);
-    work.setStatus(WorkStatusCode.ASSIGNMENTERROR);
+  public void markAssignmentError(QueuedWork work) {
+    _lock.writeLock().lock();
+    try {
+      deleteIncompleteWork(work);
+      _queueCompletedWork.enque(work);
+      work.setStatus(WorkStatusCode.ASSIGNMENTERROR);
+    } finally {
+      _lock.writeLock().unlock();
+    }
   }
 
-  public synchronized void markAssignmentFailure(QueuedWork work) {
-    work.setStatus(WorkStatusCode.UNASSIGNED);
+  public void markAssignmentFailure(QueuedWork work) {
+    _lock.writeLock().lock();
+    try {
+      work.setStatus(WorkStatusCode.UNASSIGNED);
+    } finally {
+      _lock.writeLock().unlock();
+    }
   }
 
-  public synchronized void markAssignmentSuccess(QueuedWork work, String assignedWorker)
-      throws IOException {
-    work.setAssignment(assignedWorker);
+  public void markAssignmentSuccess(QueuedWork work, String assignedWorker) throws IOException {
+    _lock.writeLock().lock();
+    try {
+      work.setAssignment(assignedWorker);
 
-    // update testrig metadata
-    WorkDetails wDetails = work.getDetails();
-    if (wDetails.getWorkType() == WorkType.PARSING) {
-      _snapshotMetadataManager.updateInitializationStatus(
-          wDetails.getNetworkId(), wDetails.getSnapshotId(), ProcessingStatus.PARSING, null);
-    } else if (wDetails.getWorkType() == WorkType.DATAPLANING) {
-      _snapshotMetadataManager.updateInitializationStatus(
-          wDetails.getNetworkId(), wDetails.getSnapshotId(), ProcessingStatus.DATAPLANING, null);
+      // update testrig metadata
+      WorkDetails wDetails = work.getDetails();
+      if (wDetails.getWorkType() == WorkType.PARSING) {
+        _snapshotMetadataManager.updateInitializationStatus(
+            wDetails.getNetworkId(), wDetails.getSnapshotId(), ProcessingStatus.PARSING, null);
+      } else if (wDetails.getWorkType() == WorkType.DATAPLANING) {
+        _snapshotMetadataManager.updateInitializationStatus(
+            wDetails.getNetworkId(), wDetails.getSnapshotId(), ProcessingStatus.DATAPLANING, null);
+      }
+    } finally {
+      _lock.writeLock().unlock();
     }
   }
 
-  public synchronized void processTaskCheckResult(QueuedWork work, Task task) throws Exception {
-
-    // {Unscheduled, InProgress, TerminatedNormally, TerminatedAbnormally, TerminatedByUser
-    // Unknown, UnreachableOrBadResponse}
+  public void processTaskCheckResult(QueuedWork work, Task task) throws Exception {
+    _lock.writeLock().lock();
+    try {
+      // {Unscheduled, InProgress, TerminatedNormally, TerminatedAbnormally, TerminatedByUser
+      // Unknown, UnreachableOrBadResponse}
 
-    switch (task.getStatus()) {
-      case Unscheduled:
-      case InProgress:
-        work.setStatus(WorkStatusCode.ASSIGNED);
-        work.recordTaskCheckResult(task);
-        break;
-      case TerminatedAbnormally:
-      case TerminatedByUser:
-      case TerminatedNormally:
-      case RequeueFailure:
-        {
-          // move the work to completed queue
-          _queueIncompleteWork.delete(work);
-          _queueCompletedWork.enque(work);
-          work.setStatus(WorkStatusCode.fromTerminatedTaskStatus(task.getStatus()));
+      switch (task.getStatus()) {
+        case Unscheduled:
+        case InProgress:
+          work.setStatus(WorkStatusCode.ASSIGNED);
           work.recordTaskCheckResult(task);
+          break;
+        case TerminatedAbnormally:
+        case TerminatedByUser:
+        case TerminatedNormally:
+        case RequeueFailure:
+          {
+            // move the work to completed queue
+            deleteIncompleteWork(work);
+            _queueCompletedWork.enque(work);
+            work.setStatus(WorkStatusCode.fromTerminatedTaskStatus(task.getStatus()));
+            work.recordTaskCheckResult(task);
+            _latencyStats.record(work);
 
-          // update testrig metadata
-          WorkItem wItem = work.getWorkItem();
-          WorkDetails wDetails = work.getDetails();
-          if (wDetails.getWorkType() == WorkType.PARSING) {
-            ProcessingStatus status;
-            if (task.getStatus() == TaskStatus.TerminatedNormally) {
-              status = ProcessingStatus.PARSED;
-              Main.getWorkMgr()
-                  .tryPromoteSnapshotNodeRoles(wDetails.getNetworkId(), wDetails.getSnapshotId());
-            } else {
-              status = ProcessingStatus.PARSING_FAIL;
-            }
-            _snapshotMetadataManager.updateInitializationStatus(
-                wDetails.getNetworkId(), wDetails.getSnapshotId(), status, task.getErrMessage());
-          } else if (wDetails.getWorkType() == WorkType.DATAPLANING) {
-            // no change in status needed if task.getStatus() is RequeueFailure
-            if (task.getStatus() == TaskStatus.TerminatedAbnormally
-                || task.getStatus() == TaskStatus.TerminatedByUser) {
-              _snapshotMetadataManager.updateInitializationStatus(
-                  wDetails.getNetworkId(),
-                  wDetails.getSnapshotId(),
-                  ProcessingStatus.DATAPLANING_FAIL,
-                  task.getErrMessage());
-            } else if (task.getStatus() == TaskStatus.TerminatedNormally) {
+            // update testrig metadata
+            WorkItem wItem = work.getWorkItem();
+            WorkDetails wDetails = work.getDetails();
+            if (wDetails.getWorkType() == WorkType.PARSING) {
+              ProcessingStatus status;
+              if (task.getStatus() == TaskStatus.TerminatedNormally) {
+                status = ProcessingStatus.PARSED;
+                Main.getWorkMgr()
+                    .tryPromoteSnapshotNodeRoles(wDetails.getNetworkId(), wDetails.getSnapshotId());
+              } else {
+                status = ProcessingStatus.PARSING_FAIL;
+              }
               _snapshotMetadataManager.updateInitializationStatus(
-                  wDetails.getNetworkId(),
-                  wDetails.getSnapshotId(),
-                  ProcessingStatus.DATAPLANED,
-                  null);
+                  wDetails.getNetworkId(), wDetails.getSnapshotId(), status, task.getErrMessage());
+            } else if (wDetails.getWorkType() == WorkType.DATAPLANING) {
+              // no change in status needed if task.getStatus() is RequeueFailure
+              if (task.getStatus() == TaskStatus.TerminatedAbnormally
+                  || task.getStatus() == TaskStatus.TerminatedByUser) {
+                _snapshotMetadataManager.updateInitializationStatus(
+                    wDetails.getNetworkId(),
+                    wDetails.getSnapshotId(),
+                    ProcessingStatus.DATAPLANING_FAIL,
+                    task.getErrMessage());
+              } else if (task.getStatus() == TaskStatus.TerminatedNormally) {
+                _snapshotMetadataManager.updateInitializationStatus(
+                    wDetails.getNetworkId(),
+                    wDetails.getSnapshotId(),
+                    ProcessingStatus.DATAPLANED,
+                    null);
+              }
             }
-          }
 
-          // check if we unblocked anything
-          if (_blockingWork.contains(wItem.getId())) {
-            _blockingWork.remove(wItem.getId());
-            List<QueuedWork> requeueWorks = new LinkedList<>();
-            for (QueuedWork incompleteWork : _queueIncompleteWork) {
-              if (incompleteWork.getStatus() == WorkStatusCode.BLOCKED
-                  && wDetails.isOverlappingInput(incompleteWork.getDetails())) {
-                requeueWorks.add(incompleteWork);
+            // requeue the work that was blocked on this work
+            Set<QueuedWork> blockedWorks = _blockedWork.remove(wItem.getId());
+            if (blockedWorks != null) {
+              List<QueuedWork> requeueWorks = new LinkedList<>();
+              for (QueuedWork blockedWork : blockedWorks) {
+                // blocked work may have been terminated in the meantime
+                if (blockedWork.getStatus() == WorkStatusCode.BLOCKED) {
+                  requeueWorks.add(blockedWork);
+                }
               }
-            }
-            for (QueuedWork requeueWork : requeueWorks) {
-              _queueIncompleteWork.delete(requeueWork);
-              requeueWork.setStatus(WorkStatusCode.UNASSIGNED);
-            }
-            for (QueuedWork requeueWork : requeueWorks) {
-              try {
-                boolean queued = queueUnassignedWork(requeueWork);
-                if (!queued) {
-                  throw new BatfishException(
-                      "Failed to requeue previously blocked work " + requeueWork.getId());
+              for (QueuedWork requeueWork : requeueWorks) {
+                deleteIncompleteWork(requeueWork);
+                requeueWork.setStatus(WorkStatusCode.UNASSIGNED);
+              }
+              for (QueuedWork requeueWork : requeueWorks) {
+                try {
+                  boolean queued = queueUnassignedWork(requeueWork);
+                  if (!queued) {
+                    throw new BatfishException(
+                        "Failed to requeue previously blocked work " + requeueWork.getId());
+                  }
+                } catch (Exception e) {
+                  String stackTrace = Throwables.getStackTraceAsString(e);
+                  _logger.errorf("exception: %s\n", stackTrace);
+                  // put this work back on incomplete queue and process as if it
+                  // terminatedabnormally
+                  // people may be checking its status and this work may be blocking others
+                  enqueIncompleteWork(requeueWork);
+                  Task fakeTask =
+                      new Task(
+                          TaskStatus.RequeueFailure,
+                          String.format("Couldn't requeue after unblocking.\n%s", e.getMessage()));
+                  processTaskCheckResult(requeueWork, fakeTask);
                 }
-              } catch (Exception e) {
-                String stackTrace = Throwables.getStackTraceAsString(e);
-                _logger.errorf("exception: %s\n", stackTrace);
-                // put this work back on incomplete queue and process as if it terminatedabnormally
-                // people may be checking its status and this work may be blocking others
-                _queueIncompleteWork.enque(requeueWork);
-                Task fakeTask =
-                    new Task(
-                        TaskStatus.RequeueFailure,
-                        String.format("Couldn't requeue after unblocking.\n%s", e.getMessage()));
-                processTaskCheckResult(requeueWork, fakeTask);
               }
             }
           }
-        }
-        break;
-      case Unknown:
-        // we mark this unassigned, so we try to schedule it again
-        work.setStatus(WorkStatusCode.UNASSIGNED);
-        work.clearAssignment();
-        break;
-      case UnreachableOrBadResponse:
-        {
-          if (work.getLastTaskCheckResult().getStatus() == TaskStatus.UnreachableOrBadResponse) {
-            // if we saw the same thing last time around, free the task to be scheduled elsewhere
-            work.setStatus(WorkStatusCode.UNASSIGNED);
-            work.clearAssignment();
-            work.recordTaskCheckResult(task);
-
-            // update snapshot metadata
-            WorkDetails wDetails = work.getDetails();
-            if (wDetails.getWorkType() == WorkType.PARSING
-                || wDetails.getWorkType() == WorkType.DATAPLANING) {
-              InitializationMetadata metadata =
-                  _snapshotMetadataManager.getInitializationMetadata(
-                      wDetails.getNetworkId(), wDetails.getSnapshotId());
-              if (wDetails.getWorkType() == WorkType.PARSING) {
-                if (metadata.getProcessingStatus() != ProcessingStatus.PARSING) {
-                  _logger.errorf(
-                      "Unexpected status %s when parsing failed for %s",
-                      metadata.getProcessingStatus(), wDetails.getSnapshotId());
-                } else {
-                  _snapshotMetadataManager.updateInitializationStatus(
-                      wDetails.getNetworkId(),
-                      wDetails.getSnapshotId(),
-                      ProcessingStatus.UNINITIALIZED,
-                      task.getErrMessage());
-                }
-              } else { // wDetails.getWorkType() == WorkType.DATAPLANING
-                if (metadata.getProcessingStatus() != ProcessingStatus.DATAPLANING) {
-                  _logger.errorf(
-                      "Unexpected status %s when dataplaning failed for %s",
-                      metadata.getProcessingStatus(), wDetails.getSnapshotId());
-                } else {
-                  _snapshotMetadataManager.updateInitializationStatus(
-                      wDetails.getNetworkId(),
-                      wDetails.getSnapshotId(),
-                      ProcessingStatus.PARSED,
-                      task.getErrMessage());
+          break;
+        case Unknown:
+          // we mark this unassigned, so we try to schedule it again
+          work.setStatus(WorkStatusCode.UNASSIGNED);
+          work.clearAssignment();
+          break;
+        case UnreachableOrBadResponse:
+          {
+            if (work.getLastTaskCheckResult().getStatus() == TaskStatus.UnreachableOrBadResponse) {
+              // if we saw the same thing last time around, free the task to be scheduled elsewhere
+              work.setStatus(WorkStatusCode.UNASSIGNED);
+              work.clearAssignment();
+              work.recordTaskCheckResult(task);
+
+              // update snapshot metadata
+              WorkDetails wDetails = work.getDetails();
+              if (wDetails.getWorkType() == WorkType.PARSING
+                  || wDetails.getWorkType() == WorkType.DATAPLANING) {
+                InitializationMetadata metadata =
+                    _snapshotMetadataManager.getInitializationMetadata(
+                        wDetails.getNetworkId(), wDetails.getSnapshotId());
+                if (wDetails.getWorkType() == WorkType.PARSING) {
+                  if (metadata.getProcessingStatus() != ProcessingStatus.PARSING) {
+                    _logger.errorf(
+                        "Unexpected status %s when parsing failed for %s",
+                        metadata.getProcessingStatus(), wDetails.getSnapshotId());
+                  } else {
+                    _snapshotMetadataManager.updateInitializationStatus(
+                        wDetails.getNetworkId(),
+                        wDetails.getSnapshotId(),
+                        ProcessingStatus.UNINITIALIZED,
+                        task.getErrMessage());
+                  }
+                } else { // wDetails.getWorkType() == WorkType.DATAPLANING
+                  if (metadata.getProcessingStatus() != ProcessingStatus.DATAPLANING) {
+                    _logger.errorf(
+                        "Unexpected status %s when dataplaning failed for %s",
+                        metadata.getProcessingStatus(), wDetails.getSnapshotId());
+                  } else {
+                    _snapshotMetadataManager.updateInitializationStatus(
+                        wDetails.getNetworkId(),
+                        wDetails.getSnapshotId(),
+                        ProcessingStatus.PARSED,
+                        task.getErrMessage());
+                  }
                 }
               }
+            } else {
+              work.setStatus(WorkStatusCode.ASSIGNED);
+              work.recordTaskCheckResult(task);
             }
-          } else {
-            work.setStatus(WorkStatusCode.ASSIGNED);
-            work.recordTaskCheckResult(task);
           }
-        }
-        break;
-      default:
-        throw new BatfishException(
-            "Unhandled " + TaskStatus.class.getCanonicalName() + ": " + task.getStatus());
+          break;
+        default:
+          throw new BatfishException(
+              "Unhandled " + TaskStatus.class.getCanonicalName() + ": " + task.getStatus());
+      }
+    } finally {
+      _lock.writeLock().unlock();
     }
   }
 
-  private synchronized boolean queueDependentAnsweringWork(
-      QueuedWork work, boolean dataplaneDependent) throws Exception {
+  @GuardedBy("_lock")
+  private boolean queueDependentAnsweringWork(QueuedWork work, boolean dataplaneDependent)
+      throws Exception {
     WorkDetails wDetails = work.getDetails();
 
     QueuedWork baseBlocker =
@@ -584,16 +789,18 @@ public class WorkQueueMgr {
         return queueBlockedWork(work, deltaBlocker);
       }
     }
-    return _queueIncompleteWork.enque(work);
+    return enqueIncompleteWork(work);
   }
 
-  private synchronized boolean queueBlockedWork(QueuedWork work, QueuedWork blocker) {
-    _blockingWork.add(blocker.getId());
+  @GuardedBy("_lock")
+  private boolean queueBlockedWork(QueuedWork work, QueuedWork blocker) {
+    _blockedWork.computeIfAbsent(blocker.getId(), id -> new LinkedHashSet<>()).add(work);
     work.setStatus(WorkStatusCode.BLOCKED);
-    return _queueIncompleteWork.enque(work);
+    return enqueIncompleteWork(work);
   }
 
-  private synchronized boolean queueDataplaningWork(QueuedWork work) throws Exception {
+  @GuardedBy("_lock")
+  private boolean queueDataplaningWork(QueuedWork work) throws Exception {
     WorkDetails wDetails = work.getDetails();
     QueuedWork currentDataplaningWork =
         getIncompleteWork(wDetails.getNetworkId(), wDetails.getSnapshotId(), WorkType.DATAPLANING);
@@ -613,13 +820,14 @@ public class WorkQueueMgr {
 
     QueuedWork blocker = getBlockerForDataplaningWork(work);
     if (blocker == null) {
-      return _queueIncompleteWork.enque(work);
+      return enqueIncompleteWork(work);
     } else {
       return queueBlockedWork(work, blocker);
     }
   }
 
-  private synchronized boolean queueParsingWork(QueuedWork work) throws Exception {
+  @GuardedBy("_lock")
+  private boolean queueParsingWork(QueuedWork work) throws Exception {
 
     WorkDetails wDetails = work.getDetails();
 
@@ -650,36 +858,41 @@ public class WorkQueueMgr {
       }
     }
 
-    return _queueIncompleteWork.enque(work);
+    return enqueIncompleteWork(work);
   }
 
-  public synchronized boolean queueUnassignedWork(QueuedWork work) throws Exception {
-    QueuedWork previouslyQueuedWork = getWork(work.getId());
-    if (previouslyQueuedWork != null) {
-      throw new BatfishException("Duplicate work item");
-    }
-    WorkDetails wDetails = work.getDetails();
-    cleanUpInitMetaDataIfNeeded(work.getDetails().getNetworkId(), wDetails.getSnapshotId());
-    if (work.getDetails().isDifferential()) {
-      cleanUpInitMetaDataIfNeeded(
-          work.getDetails().getNetworkId(), wDetails.getReferenceSnapshotId());
-    }
-    switch (work.getDetails().getWorkType()) {
-      case PARSING:
-        return queueParsingWork(work);
-      case DATAPLANING:
-        return queueDataplaningWork(work);
-      case INDEPENDENT_ANSWERING:
-        // assume that this type of work shouldn't be blocked at all
-        return _queueIncompleteWork.enque(work);
-      case PARSING_DEPENDENT_ANSWERING:
-        return queueDependentAnsweringWork(work, false);
-      case DATAPLANE_DEPENDENT_ANSWERING:
-        return queueDependentAnsweringWork(work, true);
-      case UNKNOWN:
-        return _queueIncompleteWork.enque(work);
-      default:
-        throw new BatfishException("Unknown WorkType " + work.getDetails().getWorkType());
+  public boolean queueUnassignedWork(QueuedWork work) throws Exception {
+    _lock.writeLock().lock();
+    try {
+      QueuedWork previouslyQueuedWork = getWork(work.getId());
+      if (previouslyQueuedWork != null) {
+        throw new BatfishException("Duplicate work item");
+      }
+      WorkDetails wDetails = work.getDetails();
+      cleanUpInitMetaDataIfNeeded(work.getDetails().getNetworkId(), wDetails.getSnapshotId());
+      if (work.getDetails().isDifferential()) {
+        cleanUpInitMetaDataIfNeeded(
+            work.getDetails().getNetworkId(), wDetails.getReferenceSnapshotId());
+      }
+      switch (work.getDetails().getWorkType()) {
+        case PARSING:
+          return queueParsingWork(work);
+        case DATAPLANING:
+          return queueDataplaningWork(work);
+        case INDEPENDENT_ANSWERING:
+          // assume that this type of work shouldn't be blocked at all
+          return enqueIncompleteWork(work);
+        case PARSING_DEPENDENT_ANSWERING:
+          return queueDependentAnsweringWork(work, false);
+        case DATAPLANE_DEPENDENT_ANSWERING:
+          return queueDependentAnsweringWork(work, true);
+        case UNKNOWN:
+          return enqueIncompleteWork(work);
+        default:
+          throw new BatfishException("Unknown WorkType " + work.getDetails().getWorkType());
+      }
+    } finally {
+      _lock.writeLock().unlock();
     }
   }
 }
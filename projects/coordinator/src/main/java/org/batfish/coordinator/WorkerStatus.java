@@ -1,9 +1,43 @@
 package org.batfish.coordinator;
 
+import com.google.common.collect.ImmutableMap;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.batfish.common.BfConsts.TaskCategory;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.identifiers.SnapshotId;
 
 public class WorkerStatus {
 
+  /** What a worker reported having cached in memory for a single snapshot */
+  public static final class CachedSnapshot {
+
+    private final boolean _configurations;
+    private final boolean _dataPlane;
+    private final int _devices;
+
+    public CachedSnapshot(boolean configurations, boolean dataPlane, int devices) {
+      _configurations = configurations;
+      _dataPlane = dataPlane;
+      _devices = devices;
+    }
+
+    public boolean getConfigurations() {
+      return _configurations;
+    }
+
+    public boolean getDataPlane() {
+      return _dataPlane;
+    }
+
+    public int getDevices() {
+      return _devices;
+    }
+  }
+
   public enum StatusCode {
     BUSY,
     IDLE,
@@ -12,14 +46,72 @@ public class WorkerStatus {
     UNREACHABLE
   }
 
+  private Set<TaskCategory> _admittableCategories;
+  private Map<NetworkSnapshot, CachedSnapshot> _cachedSnapshots;
   private Date _lastUpdated;
   private StatusCode _statusCode;
 
   public WorkerStatus(StatusCode statusCode) {
     _statusCode = statusCode;
+    _admittableCategories = EnumSet.allOf(TaskCategory.class);
+    _cachedSnapshots = ImmutableMap.of();
     _lastUpdated = new Date();
   }
 
+  /** Returns whether the worker last reported that it would admit a task of {@code category}. */
+  public boolean canAdmit(TaskCategory category) {
+    return _admittableCategories.contains(category);
+  }
+
+  /**
+   * Returns how much of the input of {@code work} the worker last reported having in memory, as a
+   * number of devices whose objects would not have to be reloaded. Cached data planes count double
+   * since they are the most expensive to load. Returns 0 for work that reads no cached snapshot.
+   */
+  public int getAffinity(WorkDetails work) {
+    boolean needsDataPlane;
+    switch (work.getWorkType()) {
+      case DATAPLANE_DEPENDENT_ANSWERING:
+        needsDataPlane = true;
+        break;
+      case DATAPLANING:
+      case INDEPENDENT_ANSWERING:
+      case PARSING_DEPENDENT_ANSWERING:
+        needsDataPlane = false;
+        break;
+      default:
+        return 0;
+    }
+    int affinity = getAffinity(work, work.getSnapshotId(), needsDataPlane);
+    if (work.isDifferential()) {
+      affinity += getAffinity(work, work.getReferenceSnapshotId(), needsDataPlane);
+    }
+    return affinity;
+  }
+
+  private int getAffinity(
+      WorkDetails work, @Nullable SnapshotId snapshotId, boolean needsDataPlane) {
+    if (snapshotId == null) {
+      return 0;
+    }
+    CachedSnapshot cached =
+        _cachedSnapshots.get(new NetworkSnapshot(work.getNetworkId(), snapshotId));
+    if (cached == null) {
+      return 0;
+    }
+    // a cached snapshot is worth something even if it has no devices
+    int weight = Math.max(1, cached.getDevices());
+    int affinity = cached.getConfigurations() ? weight : 0;
+    if (needsDataPlane && cached.getDataPlane()) {
+      affinity += 2 * weight;
+    }
+    return affinity;
+  }
+
+  public Set<TaskCategory> getAdmittableCategories() {
+    return EnumSet.copyOf(_admittableCategories);
+  }
+
   public Date getLastUpdateTime() {
     return _lastUpdated;
   }
@@ -30,7 +122,18 @@ public class WorkerStatus {
 
   @Override
   public String toString() {
-    return String.format("%s (%s)", _statusCode, _lastUpdated);
+    return String.format("%s %s (%s)", _statusCode, _admittableCategories, _lastUpdated);
+  }
+
+  public void updateAdmittableCategories(Set<TaskCategory> admittableCategories) {
+    _admittableCategories =
+        admittableCategories.isEmpty()
+            ? EnumSet.noneOf(TaskCategory.class)
+            : EnumSet.copyOf(admittableCategories);
+  }
+
+  public void updateCachedSnapshots(Map<NetworkSnapshot, CachedSnapshot> cachedSnapshots) {
+    _cachedSnapshots = ImmutableMap.copyOf(cachedSnapshots);
   }
 
   public void updateStatus(StatusCode statusCode) {
@@ -14,6 +14,7 @@ import org.batfish.datamodel.Ip;
 
 public class Settings extends BaseSettings {
 
+  private static final String ARG_AFFINITY_MAX_WAIT_MS = "affinitymaxwaitms";
   private static final String ARG_ALLOW_DEFAULT_KEY_LISTINGS = "allowdefaultkeylistings";
   private static final String ARG_AUTHORIZER_TYPE = "authorizertype";
   private static final String ARG_CONTAINERS_LOCATION = "containerslocation";
@@ -66,6 +67,7 @@ public class Settings extends BaseSettings {
 
   private static final String EXECUTABLE_NAME = "coordinator";
 
+  private long _affinityMaxWaitMs;
   private Authorizer.Type _authorizerType;
   private Path _containersLocation;
   private String _dbAuthorizerConnString;
@@ -120,6 +122,10 @@ public class Settings extends BaseSettings {
     parseCommandLine(args);
   }
 
+  public long getAffinityMaxWaitMs() {
+    return _affinityMaxWaitMs;
+  }
+
   public Authorizer.Type getAuthorizationType() {
     return _authorizerType;
   }
@@ -285,6 +291,7 @@ public class Settings extends BaseSettings {
   }
 
   private void initConfigDefaults() {
+    setDefaultProperty(ARG_AFFINITY_MAX_WAIT_MS, 2000);
     setDefaultProperty(ARG_AUTHORIZER_TYPE, Authorizer.Type.none.toString());
     setDefaultProperty(ARG_ALLOW_DEFAULT_KEY_LISTINGS, false);
     setDefaultProperty(ARG_CONTAINERS_LOCATION, "containers");
@@ -301,7 +308,8 @@ public class Settings extends BaseSettings {
     setDefaultProperty(ARG_LOG_FILE, null);
     setDefaultProperty(ARG_LOG_LEVEL, BatfishLogger.getLogLevelStr(BatfishLogger.LEVEL_OUTPUT));
     setDefaultProperty(ARG_PERIOD_ASSIGN_WORK_MS, 100);
-    setDefaultProperty(ARG_PERIOD_CHECK_WORK_MS, 100);
+    // workers push task completions; polling only catches lost notifications
+    setDefaultProperty(ARG_PERIOD_CHECK_WORK_MS, 1000);
     setDefaultProperty(ARG_PERIOD_WORKER_STATUS_REFRESH_MS, 10000);
     setDefaultProperty(ARG_QUESTION_TEMPLATE_DIRS, Collections.emptyList());
     setDefaultProperty(ARG_QUEUE_COMPLETED_WORK, "batfishcompletedwork");
@@ -331,6 +339,11 @@ public class Settings extends BaseSettings {
   }
 
   private void initOptions() {
+    addOption(
+        ARG_AFFINITY_MAX_WAIT_MS,
+        "how long work may wait for a busy worker that has its snapshot cached",
+        "max wait (ms)");
+
     addOption(ARG_AUTHORIZER_TYPE, "type of authorizer to use", "authorizer type");
 
     addOption(ARG_CONTAINERS_LOCATION, "where to store containers", "containers_location");
@@ -419,6 +432,7 @@ public class Settings extends BaseSettings {
       System.exit(0);
     }
 
+    _affinityMaxWaitMs = getLongOptionValue(ARG_AFFINITY_MAX_WAIT_MS);
     _authorizerType = Authorizer.Type.valueOf(getStringOptionValue(ARG_AUTHORIZER_TYPE));
     _dbAuthorizerConnString = getStringOptionValue(ARG_DB_AUTHORIZER_CONN_STRING);
     _dbCacheExpiryMs = getLongOptionValue(ARG_DB_AUTHORIZER_CACHE_EXPIRY_MS);
@@ -1,8 +1,15 @@
 package org.batfish.coordinator.id;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -21,6 +28,10 @@ import org.batfish.storage.StorageProvider;
  * Storage-based {@link IdManager} capable of writing mappings used by {@link
  * StorageBasedIdResolver}, from which it inherits. Intended to be used together with {@link
  * org.batfish.storage.StorageProvider}.
+ *
+ * <p>Lookups and listings are served from an in-memory index. The mappings of each ID type and
+ * ancestors are read from storage the first time they are needed, and every write goes through to
+ * both storage and the index. The manager must therefore be the only writer of the mappings.
  */
 @ParametersAreNonnullByDefault
 public class StorageBasedIdManager extends StorageBasedIdResolver implements IdManager {
@@ -29,24 +40,83 @@ public class StorageBasedIdManager extends StorageBasedIdResolver implements IdM
     return UUID.randomUUID().toString();
   }
 
+  private static @Nonnull List<Object> scope(Class<? extends Id> type, Id... ancestors) {
+    return ImmutableList.builder().add(type).add((Object[]) ancestors).build();
+  }
+
+  /** The IDs of each type and ancestors that have been read from storage, by name */
+  private final @Nonnull ConcurrentMap<List<Object>, ConcurrentMap<String, String>> _index;
+
   public StorageBasedIdManager(StorageProvider s) {
     super(s);
+    _index = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the IDs of type {@code type} with the given ancestors by name, reading them if needed.
+   */
+  private @Nonnull ConcurrentMap<String, String> getIds(Class<? extends Id> type, Id... ancestors) {
+    return _index.computeIfAbsent(
+        scope(type, ancestors),
+        k -> {
+          ConcurrentMap<String, String> ids = new ConcurrentHashMap<>();
+          for (String name : super.listResolvableNames(type, ancestors)) {
+            super.readId(type, name, ancestors).ifPresent(id -> ids.put(name, id));
+          }
+          return ids;
+        });
+  }
+
+  @Override
+  protected boolean hasId(Class<? extends Id> idType, String name, Id... ancestors) {
+    return getIds(idType, ancestors).containsKey(name);
+  }
+
+  @Override
+  protected @Nonnull Set<String> listResolvableNames(Class<? extends Id> idType, Id... ancestors) {
+    return ImmutableSet.copyOf(getIds(idType, ancestors).keySet());
+  }
+
+  @Override
+  protected @Nonnull Optional<String> readId(
+      Class<? extends Id> idType, String name, Id... ancestors) {
+    return Optional.ofNullable(getIds(idType, ancestors).get(name));
   }
 
   private boolean deleteNameIdMapping(Class<? extends Id> type, String name, Id... ancestors) {
-    try {
-      return _s.deleteNameIdMapping(type, name, ancestors);
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
+    boolean[] deleted = new boolean[1];
+    // computing serializes the write with reading the mappings into the index
+    _index.compute(
+        scope(type, ancestors),
+        (k, ids) -> {
+          try {
+            deleted[0] = _s.deleteNameIdMapping(type, name, ancestors);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          if (ids != null) {
+            ids.remove(name);
+          }
+          return ids;
+        });
+    return deleted[0];
   }
 
   private void writeId(Id id, String name, Id... ancestors) {
-    try {
-      _s.writeId(id, name, ancestors);
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
+    // computing serializes the write with reading the mappings into the index
+    _index.compute(
+        scope(id.getClass(), ancestors),
+        (k, ids) -> {
+          try {
+            _s.writeId(id, name, ancestors);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          if (ids != null) {
+            ids.put(name, id.getId());
+          }
+          return ids;
+        });
   }
 
   @Override
@@ -1,49 +1,137 @@
 package org.batfish.coordinator.queues;
 
-import java.util.LinkedList;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.batfish.common.NetworkSnapshot;
 import org.batfish.coordinator.QueuedWork;
+import org.batfish.coordinator.WorkDetails;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
 
 // we don't synchronize on this queue
 // all synchronization is in inside WorkQueueMgr
 
-public class MemoryQueue extends LinkedList<QueuedWork> implements WorkQueue {
+/**
+ * An in-memory {@link WorkQueue} that keeps work in insertion order, indexed by work ID and by the
+ * snapshots the work reads, so that lookups do not scan the whole queue.
+ */
+public class MemoryQueue implements WorkQueue {
+
+  private final Map<UUID, QueuedWork> _workById;
+  private final Map<NetworkSnapshot, Set<QueuedWork>> _workBySnapshot;
+  private final Map<List<String>, Set<QueuedWork>> _workBySnapshotName;
+
+  public MemoryQueue() {
+    _workById = new LinkedHashMap<>();
+    _workBySnapshot = new HashMap<>();
+    _workBySnapshotName = new HashMap<>();
+  }
+
+  private static List<String> getSnapshotName(QueuedWork work) {
+    // some work items, e.g. generated ones, may lack a snapshot name
+    return Arrays.asList(work.getWorkItem().getNetwork(), work.getWorkItem().getSnapshot());
+  }
+
+  private static <K> void index(Map<K, Set<QueuedWork>> index, K key, QueuedWork work) {
+    index.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(work);
+  }
+
+  private static <K> void unindex(Map<K, Set<QueuedWork>> index, K key, QueuedWork work) {
+    Set<QueuedWork> works = index.get(key);
+    works.remove(work);
+    if (works.isEmpty()) {
+      index.remove(key);
+    }
+  }
+
+  private static Set<NetworkSnapshot> getSnapshots(QueuedWork work) {
+    WorkDetails details = work.getDetails();
+    NetworkSnapshot snapshot = new NetworkSnapshot(details.getNetworkId(), details.getSnapshotId());
+    if (details.isDifferential() && details.getReferenceSnapshotId() != null) {
+      return ImmutableSet.of(
+          snapshot, new NetworkSnapshot(details.getNetworkId(), details.getReferenceSnapshotId()));
+    }
+    return ImmutableSet.of(snapshot);
+  }
 
   @Override
   public boolean delete(QueuedWork qWork) {
-    return remove(qWork);
+    if (_workById.remove(qWork.getId()) == null) {
+      return false;
+    }
+    for (NetworkSnapshot snapshot : getSnapshots(qWork)) {
+      unindex(_workBySnapshot, snapshot, qWork);
+    }
+    unindex(_workBySnapshotName, getSnapshotName(qWork), qWork);
+    return true;
   }
 
   @Nullable
   @Override
   public QueuedWork deque() {
-    if (size() == 0) {
+    if (_workById.isEmpty()) {
       return null;
     }
 
-    return pop();
+    QueuedWork work = _workById.values().iterator().next();
+    delete(work);
+    return work;
   }
 
   @Override
   public boolean enque(QueuedWork work) {
-    return add(work);
+    if (_workById.putIfAbsent(work.getId(), work) != null) {
+      return false;
+    }
+    for (NetworkSnapshot snapshot : getSnapshots(work)) {
+      index(_workBySnapshot, snapshot, work);
+    }
+    index(_workBySnapshotName, getSnapshotName(work), work);
+    return true;
   }
 
   @Override
   public long getLength() {
-    return size();
+    return _workById.size();
   }
 
   @Nullable
   @Override
   public QueuedWork getWork(UUID workItemId) {
-    for (QueuedWork work : this) {
-      if (work.getWorkItem().getId().equals(workItemId)) {
-        return work;
-      }
-    }
+    return _workById.get(workItemId);
+  }
 
-    return null;
+  @Nonnull
+  @Override
+  public Collection<QueuedWork> getWorkInvolvingSnapshot(
+      NetworkId networkId, SnapshotId snapshotId) {
+    Set<QueuedWork> works = _workBySnapshot.get(new NetworkSnapshot(networkId, snapshotId));
+    return works == null ? ImmutableList.of() : ImmutableList.copyOf(works);
+  }
+
+  @Nonnull
+  @Override
+  public Collection<QueuedWork> getWorkForSnapshotName(String network, String snapshot) {
+    Set<QueuedWork> works = _workBySnapshotName.get(Arrays.asList(network, snapshot));
+    return works == null ? ImmutableList.of() : ImmutableList.copyOf(works);
+  }
+
+  @Nonnull
+  @Override
+  public Iterator<QueuedWork> iterator() {
+    return Iterators.unmodifiableIterator(_workById.values().iterator());
   }
 }
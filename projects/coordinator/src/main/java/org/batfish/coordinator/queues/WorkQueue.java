@@ -1,7 +1,11 @@
 package org.batfish.coordinator.queues;
 
+import java.util.Collection;
 import java.util.UUID;
+import javax.annotation.Nonnull;
 import org.batfish.coordinator.QueuedWork;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
 
 public interface WorkQueue extends Iterable<QueuedWork> {
 
@@ -18,4 +22,18 @@ public interface WorkQueue extends Iterable<QueuedWork> {
   long getLength();
 
   QueuedWork getWork(UUID workItemId);
+
+  /**
+   * Returns the work in this queue, in queue order, whose snapshot or (for differential work)
+   * reference snapshot is {@code snapshotId} in network {@code networkId}.
+   */
+  @Nonnull
+  Collection<QueuedWork> getWorkInvolvingSnapshot(NetworkId networkId, SnapshotId snapshotId);
+
+  /**
+   * Returns the work in this queue, in queue order, whose {@link org.batfish.common.WorkItem} names
+   * network {@code network} and snapshot {@code snapshot}.
+   */
+  @Nonnull
+  Collection<QueuedWork> getWorkForSnapshotName(String network, String snapshot);
 }
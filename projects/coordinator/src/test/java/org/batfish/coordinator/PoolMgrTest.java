@@ -0,0 +1,46 @@
+package org.batfish.coordinator;
+
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import org.batfish.common.BfConsts;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.coordinator.WorkerStatus.CachedSnapshot;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONObject;
+import org.junit.Test;
+
+/** Tests of {@link PoolMgr}. */
+public final class PoolMgrTest {
+
+  @Test
+  public void testParseCachedSnapshots() throws Exception {
+    assertThat(PoolMgr.parseCachedSnapshots(new JSONObject()), anEmptyMap());
+
+    JSONObject status =
+        new JSONObject()
+            .put(
+                BfConsts.SVC_STATUS_CACHED_SNAPSHOTS_KEY,
+                new JSONArray()
+                    .put(
+                        new JSONObject()
+                            .put(BfConsts.SVC_CACHED_NETWORK_KEY, "net")
+                            .put(BfConsts.SVC_CACHED_SNAPSHOT_KEY, "ss")
+                            .put(BfConsts.SVC_CACHED_CONFIGURATIONS_KEY, true)
+                            .put(BfConsts.SVC_CACHED_DATA_PLANE_KEY, false)
+                            .put(BfConsts.SVC_CACHED_DEVICES_KEY, 3)));
+
+    Map<NetworkSnapshot, CachedSnapshot> cached = PoolMgr.parseCachedSnapshots(status);
+    CachedSnapshot snapshot =
+        cached.get(new NetworkSnapshot(new NetworkId("net"), new SnapshotId("ss")));
+    assertTrue(snapshot.getConfigurations());
+    assertFalse(snapshot.getDataPlane());
+    assertThat(snapshot.getDevices(), equalTo(3));
+  }
+}
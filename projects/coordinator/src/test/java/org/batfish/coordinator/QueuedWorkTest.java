@@ -3,7 +3,9 @@ package org.batfish.coordinator;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import org.batfish.common.CoordConsts.WorkStatusCode;
 import org.batfish.common.WorkItem;
@@ -38,4 +40,14 @@ public final class QueuedWorkTest {
     work.setStatus(WorkStatusCode.TERMINATEDNORMALLY);
     assertThat(work._dateTerminated, not(is(nullValue())));
   }
+
+  @Test
+  public void testMayWaitForAffinity() {
+    QueuedWork work = createWork("network", "snapshot");
+    assertTrue(work.mayWaitForAffinity(60_000L));
+    assertTrue(work.mayWaitForAffinity(60_000L));
+
+    // the wait started with the first call, so it is over once the limit is lowered below it
+    assertFalse(work.mayWaitForAffinity(0L));
+  }
 }
@@ -1,5 +1,6 @@
 package org.batfish.coordinator;
 
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
@@ -12,8 +13,10 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nonnull;
 import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.datamodel.InitializationMetadata.ProcessingStatus;
 import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.SnapshotId;
@@ -90,4 +93,69 @@ public class SnapshotMetadataMgrTest {
     // Shutdown cleanly.
     pollerService.awaitTermination(1, TimeUnit.SECONDS);
   }
+
+  @Test
+  public void testReadServedFromMemory() throws IOException {
+    NetworkId net = new NetworkId("net");
+    SnapshotId ss = new SnapshotId("ss");
+    SnapshotMetadata metadata = new SnapshotMetadata(Instant.now(), null);
+    AtomicInteger loads = new AtomicInteger();
+    StorageProvider storage =
+        new TestStorageProvider() {
+          @Override
+          public @Nonnull String loadSnapshotMetadata(NetworkId networkId, SnapshotId snapshotId) {
+            loads.incrementAndGet();
+            return BatfishObjectMapper.writeStringRuntimeError(metadata);
+          }
+
+          @Override
+          public void storeSnapshotMetadata(
+              SnapshotMetadata snapshotMetadata, NetworkId networkId, SnapshotId snapshotId) {}
+        };
+    SnapshotMetadataMgr manager = new SnapshotMetadataMgr(storage);
+
+    // read from storage once
+    assertThat(manager.readMetadata(net, ss), equalTo(metadata));
+    assertThat(manager.readMetadata(net, ss), equalTo(metadata));
+    assertThat(loads.get(), equalTo(1));
+
+    // written through
+    SnapshotMetadata updated = metadata.updateStatus(ProcessingStatus.PARSED, null);
+    manager.writeMetadata(updated, net, ss);
+    assertThat(manager.readMetadata(net, ss), equalTo(updated));
+    assertThat(loads.get(), equalTo(1));
+  }
+
+  @Test
+  public void testRemoveMetadata() throws IOException {
+    NetworkId net = new NetworkId("net");
+    SnapshotId ss1 = new SnapshotId("ss1");
+    SnapshotId ss2 = new SnapshotId("ss2");
+    SnapshotMetadata metadata = new SnapshotMetadata(Instant.now(), null);
+    AtomicInteger loads = new AtomicInteger();
+    StorageProvider storage =
+        new TestStorageProvider() {
+          @Override
+          public @Nonnull String loadSnapshotMetadata(NetworkId networkId, SnapshotId snapshotId) {
+            loads.incrementAndGet();
+            return BatfishObjectMapper.writeStringRuntimeError(metadata);
+          }
+        };
+    SnapshotMetadataMgr manager = new SnapshotMetadataMgr(storage);
+    manager.readMetadata(net, ss1);
+    manager.readMetadata(net, ss2);
+    assertThat(loads.get(), equalTo(2));
+
+    // a removed snapshot is read from storage again
+    manager.removeMetadata(net, ss1);
+    manager.readMetadata(net, ss1);
+    manager.readMetadata(net, ss2);
+    assertThat(loads.get(), equalTo(3));
+
+    // so are all the snapshots of a removed network
+    manager.removeNetworkMetadata(net);
+    manager.readMetadata(net, ss1);
+    manager.readMetadata(net, ss2);
+    assertThat(loads.get(), equalTo(5));
+  }
 }
@@ -1,8 +1,11 @@
 package org.batfish.coordinator;
 
+import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import org.batfish.common.BfConsts.TaskCategory;
 import org.batfish.coordinator.WorkDetails.WorkType;
 import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.SnapshotId;
@@ -118,4 +121,27 @@ public final class WorkDetailsTest {
 
     assertFalse(details1.isOverlappingInput(details2));
   }
+
+  @Test
+  public void getTaskCategory() {
+    _builder.setSnapshotId(new SnapshotId("t1"));
+    assertThat(
+        _builder.setWorkType(WorkType.DATAPLANE_DEPENDENT_ANSWERING).build().getTaskCategory(),
+        equalTo(TaskCategory.ANSWERING));
+    assertThat(
+        _builder.setWorkType(WorkType.DATAPLANING).build().getTaskCategory(),
+        equalTo(TaskCategory.DATAPLANING));
+    assertThat(
+        _builder.setWorkType(WorkType.INDEPENDENT_ANSWERING).build().getTaskCategory(),
+        equalTo(TaskCategory.LIGHT_ANSWERING));
+    assertThat(
+        _builder.setWorkType(WorkType.PARSING_DEPENDENT_ANSWERING).build().getTaskCategory(),
+        equalTo(TaskCategory.LIGHT_ANSWERING));
+    assertThat(
+        _builder.setWorkType(WorkType.PARSING).build().getTaskCategory(),
+        equalTo(TaskCategory.PARSING));
+    assertThat(
+        _builder.setWorkType(WorkType.UNKNOWN).build().getTaskCategory(),
+        equalTo(TaskCategory.PARSING));
+  }
 }
@@ -0,0 +1,55 @@
+package org.batfish.coordinator;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+import java.util.Date;
+import org.batfish.common.CoordConsts.WorkStatusCode;
+import org.batfish.common.WorkItem;
+import org.batfish.coordinator.WorkDetails.WorkType;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.codehaus.jettison.json.JSONObject;
+import org.junit.Test;
+
+/** Tests of {@link WorkLatencyStats}. */
+public final class WorkLatencyStatsTest {
+
+  private static QueuedWork createWork() {
+    return new QueuedWork(
+        new WorkItem("network", "snapshot"),
+        WorkDetails.builder()
+            .setWorkType(WorkType.PARSING)
+            .setNetworkId(new NetworkId("network-ID"))
+            .setSnapshotId(new SnapshotId("snapshot-ID"))
+            .build());
+  }
+
+  @Test
+  public void testRecord() throws Exception {
+    WorkLatencyStats stats = new WorkLatencyStats();
+
+    QueuedWork work = createWork();
+    work._dateCreated = new Date(1000L);
+    work.setAssignment("worker");
+    work._dateAssigned = new Date(1500L);
+    work.setStatus(WorkStatusCode.TERMINATEDNORMALLY);
+    work._dateTerminated = new Date(4500L);
+    stats.record(work);
+
+    JSONObject parsing = stats.toJson().getJSONObject(WorkType.PARSING.toString());
+    assertThat(parsing.getJSONObject("queueWait").getLong("count"), equalTo(1L));
+    assertThat(parsing.getJSONObject("queueWait").getLong("maxMs"), equalTo(500L));
+    assertThat(parsing.getJSONObject("runTime").getLong("totalMs"), equalTo(3000L));
+  }
+
+  @Test
+  public void testRecordIgnoresUnassignedWork() throws Exception {
+    WorkLatencyStats stats = new WorkLatencyStats();
+    QueuedWork work = createWork();
+    work.setStatus(WorkStatusCode.TERMINATEDBYUSER);
+    stats.record(work);
+    assertFalse(stats.toJson().keys().hasNext());
+  }
+}
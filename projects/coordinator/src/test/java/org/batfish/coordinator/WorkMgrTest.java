@@ -62,6 +62,8 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.batfish.common.AnswerRowsOptions;
@@ -3282,6 +3284,36 @@ public final class WorkMgrTest {
     assertThat(WorkMgr.getSnapshotSubdir(root), equalTo(s1Path));
   }
 
+  @Test
+  public void testRunInBackground() throws InterruptedException {
+    CountDownLatch ran = new CountDownLatch(1);
+    _manager.runInBackground("test", ran::countDown);
+    assertTrue(ran.await(10, TimeUnit.SECONDS));
+
+    // dropped, rather than thrown, after shutdown
+    _manager.shutdown();
+    _manager.runInBackground(
+        "test",
+        () -> {
+          throw new AssertionError("should not run");
+        });
+  }
+
+  @Test
+  public void testValidateSnapshotDirParentKeys() {
+    Path subDir = _folder.getRoot().toPath().resolve("s1");
+    subDir.toFile().mkdirs();
+    CommonUtil.writeFile(subDir.resolve(BfConsts.RELPATH_RUNTIME_DATA_FILE), "{}");
+
+    // configs only shared from the parent snapshot
+    WorkMgr.validateSnapshotDir(subDir, ImmutableSet.of("configs/r1.cfg"));
+
+    // neither the new files nor the parent input objects contain configs
+    _thrown.expect(BatfishException.class);
+    _thrown.expectMessage("Unexpected packaging of snapshot");
+    WorkMgr.validateSnapshotDir(subDir, ImmutableSet.of(BfConsts.RELPATH_NODE_BLACKLIST_FILE));
+  }
+
   @Test
   public void testGetSnapshotInputKeysInvalidNetwork() throws IOException {
     assertThat(_manager.getSnapshotInputObjectsMetadata("network", "snapshot"), nullValue());
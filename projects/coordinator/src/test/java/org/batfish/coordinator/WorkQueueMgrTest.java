@@ -3,12 +3,14 @@ package org.batfish.coordinator;
 import static org.batfish.coordinator.matchers.WorkQueueMatchers.hasWorkItem;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.iterableWithSize;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
 import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -18,6 +20,7 @@ import java.util.Collections;
 import java.util.List;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
+import org.batfish.common.BfConsts.TaskCategory;
 import org.batfish.common.BfConsts.TaskStatus;
 import org.batfish.common.CoordConsts.WorkStatusCode;
 import org.batfish.common.Task;
@@ -420,6 +423,68 @@ public final class WorkQueueMgrTest {
     assertThat(matchingWork, equalTo(work1));
   }
 
+  @Test
+  public void getWorkForAssignmentByCategory() throws Exception {
+    String snapshot = "snapshot1";
+    initSnapshotMetadata(snapshot, ProcessingStatus.UNINITIALIZED);
+    WorkDetails.Builder builder =
+        WorkDetails.builder()
+            .setNetworkId(_networkId)
+            .setSnapshotId(_idManager.getSnapshotId(snapshot, _networkId).get());
+    QueuedWork heavyWork =
+        new QueuedWork(
+            new WorkItem(NETWORK, snapshot), builder.setWorkType(WorkType.UNKNOWN).build());
+    QueuedWork lightWork =
+        new QueuedWork(
+            new WorkItem(NETWORK, snapshot),
+            builder.setWorkType(WorkType.INDEPENDENT_ANSWERING).build());
+    _workQueueMgr.queueUnassignedWork(heavyWork);
+    _workQueueMgr.queueUnassignedWork(lightWork);
+
+    // light work overtakes heavy work that cannot be admitted
+    assertThat(
+        _workQueueMgr.getWorkForAssignment(ImmutableSet.of(TaskCategory.LIGHT_ANSWERING)),
+        equalTo(lightWork));
+    assertThat(
+        _workQueueMgr.getWorkForAssignment(ImmutableSet.of(TaskCategory.LIGHT_ANSWERING)),
+        nullValue());
+    assertThat(_workQueueMgr.getWorkForAssignment(), equalTo(heavyWork));
+  }
+
+  @Test
+  public void claimWorkForChecking() throws Exception {
+    String snapshot = "snapshot1";
+    initSnapshotMetadata(snapshot, ProcessingStatus.UNINITIALIZED);
+    QueuedWork work =
+        new QueuedWork(
+            new WorkItem(NETWORK, snapshot),
+            WorkDetails.builder()
+                .setNetworkId(_networkId)
+                .setSnapshotId(_idManager.getSnapshotId(snapshot, _networkId).get())
+                .setWorkType(WorkType.INDEPENDENT_ANSWERING)
+                .build());
+    _workQueueMgr.queueUnassignedWork(work);
+
+    // unassigned work has no task to check
+    assertFalse(_workQueueMgr.claimWorkForChecking(work));
+
+    _workQueueMgr.getWorkForAssignment();
+    _workQueueMgr.markAssignmentSuccess(work, "worker");
+    assertTrue(_workQueueMgr.claimWorkForChecking(work));
+    // a concurrent poll must not check the same work again
+    assertFalse(_workQueueMgr.claimWorkForChecking(work));
+
+    _workQueueMgr.processTaskCheckResult(work, new Task(TaskStatus.TerminatedNormally));
+    assertThat(
+        _workQueueMgr
+            .getLatencyStats()
+            .toJson()
+            .getJSONObject(WorkType.INDEPENDENT_ANSWERING.toString())
+            .getJSONObject("runTime")
+            .getLong("count"),
+        equalTo(1L));
+  }
+
   @Test
   public void listIncompleteWork() throws Exception {
     String snapshot = "snapshot1";
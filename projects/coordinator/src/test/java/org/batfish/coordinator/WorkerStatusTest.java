@@ -0,0 +1,54 @@
+package org.batfish.coordinator;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.coordinator.WorkDetails.WorkType;
+import org.batfish.coordinator.WorkerStatus.CachedSnapshot;
+import org.batfish.coordinator.WorkerStatus.StatusCode;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.junit.Test;
+
+/** Tests of {@link WorkerStatus}. */
+public final class WorkerStatusTest {
+
+  private static final NetworkId NETWORK = new NetworkId("net");
+  private static final SnapshotId SNAPSHOT = new SnapshotId("ss");
+  private static final SnapshotId REFERENCE = new SnapshotId("ref");
+
+  private static WorkDetails details(WorkType workType, boolean differential) {
+    return WorkDetails.builder()
+        .setNetworkId(NETWORK)
+        .setSnapshotId(SNAPSHOT)
+        .setReferenceSnapshotId(differential ? REFERENCE : null)
+        .setIsDifferential(differential)
+        .setWorkType(workType)
+        .build();
+  }
+
+  @Test
+  public void testGetAffinity() {
+    WorkerStatus status = new WorkerStatus(StatusCode.IDLE);
+    assertThat(
+        status.getAffinity(details(WorkType.PARSING_DEPENDENT_ANSWERING, false)), equalTo(0));
+
+    status.updateCachedSnapshots(
+        ImmutableMap.of(
+            new NetworkSnapshot(NETWORK, SNAPSHOT), new CachedSnapshot(true, true, 10),
+            new NetworkSnapshot(NETWORK, REFERENCE), new CachedSnapshot(true, false, 5)));
+
+    // parsing reads nothing from the cache
+    assertThat(status.getAffinity(details(WorkType.PARSING, false)), equalTo(0));
+    assertThat(
+        status.getAffinity(details(WorkType.PARSING_DEPENDENT_ANSWERING, false)), equalTo(10));
+    // cached data planes count double
+    assertThat(
+        status.getAffinity(details(WorkType.DATAPLANE_DEPENDENT_ANSWERING, false)), equalTo(30));
+    // differential work also benefits from the cached reference snapshot
+    assertThat(
+        status.getAffinity(details(WorkType.DATAPLANE_DEPENDENT_ANSWERING, true)), equalTo(35));
+  }
+}
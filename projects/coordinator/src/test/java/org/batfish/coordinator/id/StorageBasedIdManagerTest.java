@@ -0,0 +1,91 @@
+package org.batfish.coordinator.id;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.batfish.common.BatfishLogger;
+import org.batfish.identifiers.Id;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.batfish.storage.FileBasedStorage;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link StorageBasedIdManager}. */
+public final class StorageBasedIdManagerTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private AtomicInteger _reads;
+  private FileBasedStorage _storage;
+
+  @Before
+  public void before() throws IOException {
+    _reads = new AtomicInteger();
+    _storage =
+        new FileBasedStorage(
+            _folder.newFolder().toPath(),
+            new BatfishLogger(BatfishLogger.LEVELSTR_DEBUG, false),
+            (m, n) -> new AtomicInteger()) {
+          @Override
+          public @Nonnull Optional<String> readId(
+              Class<? extends Id> idType, String name, Id... ancestors) throws IOException {
+            _reads.incrementAndGet();
+            return super.readId(idType, name, ancestors);
+          }
+
+          @Override
+          public @Nonnull Set<String> listResolvableNames(Class<? extends Id> type, Id... ancestors)
+              throws IOException {
+            _reads.incrementAndGet();
+            return super.listResolvableNames(type, ancestors);
+          }
+        };
+  }
+
+  @Test
+  public void testReadsStoredIdsOnce() throws IOException {
+    NetworkId networkId = new NetworkId("network-id");
+    _storage.writeId(networkId, "network");
+    StorageBasedIdManager idManager = new StorageBasedIdManager(_storage);
+
+    assertThat(idManager.getNetworkId("network"), equalTo(Optional.of(networkId)));
+    int reads = _reads.get();
+    assertThat(idManager.getNetworkId("network"), equalTo(Optional.of(networkId)));
+    assertTrue(idManager.hasNetworkId("network"));
+    assertThat(idManager.listNetworks(), contains("network"));
+    assertThat(_reads.get(), equalTo(reads));
+  }
+
+  @Test
+  public void testWriteThrough() throws IOException {
+    NetworkId networkId = new NetworkId("network-id");
+    SnapshotId snapshotId = new SnapshotId("snapshot-id");
+    StorageBasedIdManager idManager = new StorageBasedIdManager(_storage);
+    assertThat(idManager.listSnapshots(networkId), empty());
+
+    idManager.assignSnapshot("snapshot", networkId, snapshotId);
+    assertThat(idManager.getSnapshotId("snapshot", networkId), equalTo(Optional.of(snapshotId)));
+    assertThat(idManager.listSnapshots(networkId), contains("snapshot"));
+    assertThat(
+        _storage.readId(SnapshotId.class, "snapshot", networkId),
+        equalTo(Optional.of("snapshot-id")));
+
+    assertTrue(idManager.deleteSnapshot("snapshot", networkId));
+    assertFalse(idManager.deleteSnapshot("snapshot", networkId));
+    assertFalse(idManager.hasSnapshotId("snapshot", networkId));
+    assertThat(idManager.listSnapshots(networkId), empty());
+    assertFalse(_storage.hasId(SnapshotId.class, "snapshot", networkId));
+  }
+}
@@ -0,0 +1,75 @@
+package org.batfish.coordinator.queues;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.batfish.common.WorkItem;
+import org.batfish.coordinator.QueuedWork;
+import org.batfish.coordinator.WorkDetails;
+import org.batfish.coordinator.WorkDetails.WorkType;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.junit.Test;
+
+/** Tests of {@link MemoryQueue}. */
+public final class MemoryQueueTest {
+
+  private static final NetworkId NETWORK = new NetworkId("net-ID");
+  private static final SnapshotId SNAPSHOT = new SnapshotId("ss-ID");
+  private static final SnapshotId REFERENCE = new SnapshotId("ref-ID");
+
+  private static QueuedWork work(SnapshotId snapshotId, boolean differential) {
+    return new QueuedWork(
+        new WorkItem("net", snapshotId.getId()),
+        WorkDetails.builder()
+            .setNetworkId(NETWORK)
+            .setSnapshotId(snapshotId)
+            .setIsDifferential(differential)
+            .setReferenceSnapshotId(differential ? REFERENCE : null)
+            .setWorkType(WorkType.UNKNOWN)
+            .build());
+  }
+
+  @Test
+  public void testIndices() {
+    MemoryQueue queue = new MemoryQueue();
+    QueuedWork base = work(SNAPSHOT, false);
+    QueuedWork differential = work(SNAPSHOT, true);
+    QueuedWork reference = work(REFERENCE, false);
+    assertTrue(queue.enque(base));
+    assertTrue(queue.enque(differential));
+    assertTrue(queue.enque(reference));
+    assertFalse(queue.enque(base));
+
+    assertThat(queue.getWork(differential.getId()), equalTo(differential));
+    assertThat(queue.getWorkInvolvingSnapshot(NETWORK, SNAPSHOT), contains(base, differential));
+    assertThat(
+        queue.getWorkInvolvingSnapshot(NETWORK, REFERENCE), contains(differential, reference));
+    assertThat(queue.getWorkForSnapshotName("net", REFERENCE.getId()), contains(reference));
+
+    assertTrue(queue.delete(differential));
+    assertThat(queue.getWork(differential.getId()), nullValue());
+    assertThat(queue.getWorkInvolvingSnapshot(NETWORK, REFERENCE), contains(reference));
+    assertThat(queue, contains(base, reference));
+  }
+
+  @Test
+  public void testDeque() {
+    MemoryQueue queue = new MemoryQueue();
+    assertThat(queue.deque(), nullValue());
+    QueuedWork first = work(SNAPSHOT, false);
+    QueuedWork second = work(SNAPSHOT, false);
+    queue.enque(first);
+    queue.enque(second);
+
+    assertThat(queue.deque(), equalTo(first));
+    assertThat(queue.getLength(), equalTo(1L));
+    assertThat(queue.deque(), equalTo(second));
+    assertThat(queue.getWorkInvolvingSnapshot(NETWORK, SNAPSHOT), empty());
+  }
+}
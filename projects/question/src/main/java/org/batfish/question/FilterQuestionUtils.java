@@ -3,10 +3,13 @@ package org.batfish.question;
 import static org.batfish.datamodel.acl.SourcesReferencedByIpAccessLists.SOURCE_ORIGINATING_FROM_DEVICE;
 import static org.batfish.datamodel.acl.SourcesReferencedByIpAccessLists.referencedSources;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -125,4 +128,17 @@ public final class FilterQuestionUtils {
         .map(locationToSource::visit)
         .collect(ImmutableSet.toImmutableSet());
   }
+
+  /**
+   * Splits {@code work} into at most one contiguous partition per available processor, in order.
+   * Filter answerers analyze each partition on its own {@link BDDPacket}, since a BDD factory is
+   * not thread-safe, and concatenate the partitions' results in order.
+   */
+  public static <T> List<List<T>> partitionForParallelism(List<T> work) {
+    if (work.isEmpty()) {
+      return ImmutableList.of();
+    }
+    int partitions = Math.min(work.size(), Runtime.getRuntime().availableProcessors());
+    return Lists.partition(work, (work.size() + partitions - 1) / partitions);
+  }
 }
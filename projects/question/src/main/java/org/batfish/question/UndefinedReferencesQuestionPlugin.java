@@ -66,14 +66,15 @@ public class UndefinedReferencesQuestionPlugin extends QuestionPlugin {
               .collect(Collectors.toSet());
 
       Multiset<Row> rows = LinkedHashMultiset.create();
-      SortedMap<String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
-          undefinedReferences =
-              _batfish
-                  .loadConvertConfigurationAnswerElementOrReparse(snapshot)
-                  .getUndefinedReferences();
-      undefinedReferences.entrySet().stream()
-          .filter(e -> includeFiles.contains(e.getKey()))
-          .forEach(e -> rows.addAll(processEntryToRows(e)));
+      _batfish
+          .loadConvertConfigurationAnswerElementOrReparse(snapshot)
+          .getUndefinedReferenceIndex()
+          .forEach(
+              includeFiles::contains,
+              structType -> true,
+              name -> true,
+              (filename, structType, name, context, lineNums) ->
+                  rows.add(toRow(filename, structType, name, context, lineNums)));
 
       TableAnswerElement table = new TableAnswerElement(createMetadata());
       table.postProcessAnswer(_question, rows);
@@ -93,26 +94,32 @@ public class UndefinedReferencesQuestionPlugin extends QuestionPlugin {
         for (Entry<String, SortedMap<String, SortedSet<Integer>>> e2 : e1.getValue().entrySet()) {
           String name = e2.getKey();
           for (Entry<String, SortedSet<Integer>> e3 : e2.getValue().entrySet()) {
-            String context = e3.getKey();
-            SortedSet<Integer> lineNums = e3.getValue();
-            rows.add(
-                Row.of(
-                    COL_FILENAME,
-                    filename,
-                    COL_STRUCT_TYPE,
-                    structType,
-                    COL_REF_NAME,
-                    name,
-                    COL_CONTEXT,
-                    context,
-                    COL_LINES,
-                    new FileLines(filename, lineNums)));
+            rows.add(toRow(filename, structType, name, e3.getKey(), e3.getValue()));
           }
         }
       }
       return rows;
     }
 
+    private static Row toRow(
+        String filename,
+        String structType,
+        String name,
+        String context,
+        SortedSet<Integer> lineNums) {
+      return Row.of(
+          COL_FILENAME,
+          filename,
+          COL_STRUCT_TYPE,
+          structType,
+          COL_REF_NAME,
+          name,
+          COL_CONTEXT,
+          context,
+          COL_LINES,
+          new FileLines(filename, lineNums));
+    }
+
     public static TableMetadata createMetadata() {
       List<ColumnMetadata> columnMetadata =
           ImmutableList.of(
@@ -67,14 +67,18 @@ public class UnusedStructuresQuestionPlugin extends QuestionPlugin {
               .collect(Collectors.toSet());
 
       Multiset<Row> rows = LinkedHashMultiset.create();
-      SortedMap<String, SortedMap<String, SortedMap<String, DefinedStructureInfo>>>
-          definedStructures =
-              _batfish
-                  .loadConvertConfigurationAnswerElementOrReparse(snapshot)
-                  .getDefinedStructures();
-      definedStructures.entrySet().stream()
-          .filter(e -> includeFiles.contains(e.getKey()))
-          .forEach(e -> rows.addAll(processEntryToRows(e)));
+      _batfish
+          .loadConvertConfigurationAnswerElementOrReparse(snapshot)
+          .getDefinedStructureIndex()
+          .forEach(
+              includeFiles::contains,
+              structType -> true,
+              name -> true,
+              (filename, structType, name, info) -> {
+                if (info.getNumReferrers() == 0) {
+                  rows.add(toRow(filename, structType, name, info));
+                }
+              });
 
       TableAnswerElement table = new TableAnswerElement(createMetadata(question));
       table.postProcessAnswer(_question, rows);
@@ -93,18 +97,22 @@ public class UnusedStructuresQuestionPlugin extends QuestionPlugin {
           String name = e2.getKey();
           DefinedStructureInfo info = e2.getValue();
           if (info.getNumReferrers() == 0) {
-            rows.add(
-                Row.builder(COLUMN_METADATA_MAP)
-                    .put(COL_STRUCTURE_TYPE, structType)
-                    .put(COL_STRUCTURE_NAME, name)
-                    .put(COL_SOURCE_LINES, new FileLines(filename, info.getDefinitionLines()))
-                    .build());
+            rows.add(toRow(filename, structType, name, info));
           }
         }
       }
       return rows;
     }
 
+    private static Row toRow(
+        String filename, String structType, String name, DefinedStructureInfo info) {
+      return Row.builder(COLUMN_METADATA_MAP)
+          .put(COL_STRUCTURE_TYPE, structType)
+          .put(COL_STRUCTURE_NAME, name)
+          .put(COL_SOURCE_LINES, new FileLines(filename, info.getDefinitionLines()))
+          .build();
+    }
+
     private static final List<ColumnMetadata> COLUMN_METADATA =
         ImmutableList.of(
             new ColumnMetadata(
@@ -3,6 +3,7 @@ package org.batfish.question.comparefilters;
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.batfish.common.bdd.PermitAndDenyBdds.takeDifferentActions;
 import static org.batfish.question.FilterQuestionUtils.getSpecifiedFilters;
+import static org.batfish.question.FilterQuestionUtils.partitionForParallelism;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
@@ -87,17 +88,28 @@ public class CompareFiltersAnswerer extends Answerer {
             currentFilters,
             entry -> referenceFilters.containsEntry(entry.getKey(), entry.getValue()));
 
-    BDDPacket bddPacket = new BDDPacket();
+    // Each partition of the filters is compared in parallel, on its own BDDPacket
+    List<List<FilterDifference>> partitionDifferences =
+        partitionForParallelism(ImmutableList.copyOf(commonFilters.entries()))
+            .parallelStream()
+            .map(
+                entries -> {
+                  BDDPacket bddPacket = new BDDPacket();
+                  return entries.stream()
+                      .flatMap(
+                          entry ->
+                              compareFilter(
+                                  entry.getKey(),
+                                  entry.getValue(),
+                                  bddPacket,
+                                  currentContext,
+                                  referenceContext))
+                      .collect(ImmutableList.toImmutableList());
+                })
+            .collect(ImmutableList.toImmutableList());
     Multiset<Row> rows =
-        commonFilters.entries().stream()
-            .flatMap(
-                entry ->
-                    compareFilter(
-                        entry.getKey(),
-                        entry.getValue(),
-                        bddPacket,
-                        currentContext,
-                        referenceContext))
+        partitionDifferences.stream()
+            .flatMap(List::stream)
             .map(filterDifference -> toRow(filterDifference, currentContext, referenceContext))
             .collect(ImmutableMultiset.toImmutableMultiset());
 
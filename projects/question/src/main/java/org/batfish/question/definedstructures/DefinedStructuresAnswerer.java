@@ -63,29 +63,16 @@ public class DefinedStructuresAnswerer extends Answerer {
     ConvertConfigurationAnswerElement ccae =
         _batfish.loadConvertConfigurationAnswerElementOrReparse(snapshot);
 
-    ccae.getDefinedStructures()
+    ccae.getDefinedStructureIndex()
         .forEach(
-            (filename, byStructType) -> {
-              if (!includeFiles.contains(filename)) {
-                return;
-              }
-              byStructType.forEach(
-                  (structType, byStructName) -> {
-                    if (!includeStructureTypes.matcher(structType).matches()) {
-                      return;
-                    }
-                    byStructName.forEach(
-                        (structName, info) -> {
-                          if (!includeStructureNames.matcher(structName).matches()) {
-                            return;
-                          }
-                          DefinedStructureRow row =
-                              new DefinedStructureRow(
-                                  filename, structType, structName, info.getDefinitionLines());
-                          structures.add(toRow(row));
-                        });
-                  });
-            });
+            includeFiles::contains,
+            structType -> includeStructureTypes.matcher(structType).matches(),
+            structName -> includeStructureNames.matcher(structName).matches(),
+            (filename, structType, structName, info) ->
+                structures.add(
+                    toRow(
+                        new DefinedStructureRow(
+                            filename, structType, structName, info.getDefinitionLines()))));
 
     return structures;
   }
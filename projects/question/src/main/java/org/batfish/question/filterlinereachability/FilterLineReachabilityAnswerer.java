@@ -2,6 +2,7 @@ package org.batfish.question.filterlinereachability;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static org.batfish.common.bdd.PermitAndDenyBdds.takeDifferentActions;
+import static org.batfish.question.FilterQuestionUtils.partitionForParallelism;
 import static org.batfish.question.filterlinereachability.FilterLineReachabilityRows.createMetadata;
 import static org.batfish.question.filterlinereachability.FilterLineReachabilityUtils.getReferencedAcls;
 import static org.batfish.question.filterlinereachability.FilterLineReachabilityUtils.getReferencedInterfaces;
@@ -13,6 +14,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -369,7 +371,8 @@ public class FilterLineReachabilityAnswerer extends Answerer {
       SortedMap<String, Configuration> configurations,
       Map<String, Set<IpAccessList>> specifiedAcls,
       FilterLineReachabilityRows answer) {
-    List<AclSpecs.Builder> aclSpecs = new ArrayList<>();
+    // Identical canonical ACLs, on one node or many, are analyzed once
+    Map<CanonicalAcl, AclSpecs.Builder> aclSpecs = new LinkedHashMap<>();
 
     /*
      - For each ACL, build a CanonicalAcl structure with that ACL and referenced ACLs & interfaces
@@ -441,21 +444,13 @@ public class FilterLineReachabilityAnswerer extends Answerer {
                   node.getLinesInCycles());
 
           // If an identical ACL exists, add current hostname/aclName pair; otherwise, add new ACL
-          boolean added = false;
-          for (AclSpecs.Builder aclSpec : aclSpecs) {
-            if (aclSpec.getAcl().equals(currentAcl)) {
-              aclSpec.addSource(hostname, aclName);
-              added = true;
-              break;
-            }
-          }
-          if (!added) {
-            aclSpecs.add(AclSpecs.builder().setAcl(currentAcl).addSource(hostname, aclName));
-          }
+          aclSpecs
+              .computeIfAbsent(currentAcl, canonicalAcl -> AclSpecs.builder().setAcl(canonicalAcl))
+              .addSource(hostname, aclName);
         }
       }
     }
-    return aclSpecs.stream().map(AclSpecs.Builder::build).collect(Collectors.toList());
+    return aclSpecs.values().stream().map(AclSpecs.Builder::build).collect(Collectors.toList());
   }
 
   private static class LineAndWeight {
@@ -602,12 +597,25 @@ public class FilterLineReachabilityAnswerer extends Answerer {
     }
   }
 
+  /**
+   * Analyzes {@code aclSpecs} in parallel partitions, each with its own {@link BDDPacket}, and adds
+   * the rows of every partition to {@code answerRows}.
+   */
   private static void answerAclReachability(
       List<AclSpecs> aclSpecs, FilterLineReachabilityRows answerRows) {
-    BDDPacket bddPacket = new BDDPacket();
-
-    for (AclSpecs aclSpec : aclSpecs) {
-      answerAclReachabilityLine(aclSpec, bddPacket, answerRows);
-    }
+    List<FilterLineReachabilityRows> partitionRows =
+        partitionForParallelism(aclSpecs)
+            .parallelStream()
+            .map(
+                partition -> {
+                  BDDPacket bddPacket = new BDDPacket();
+                  FilterLineReachabilityRows rows = new FilterLineReachabilityRows();
+                  for (AclSpecs aclSpec : partition) {
+                    answerAclReachabilityLine(aclSpec, bddPacket, rows);
+                  }
+                  return rows;
+                })
+            .collect(Collectors.toList());
+    partitionRows.forEach(rows -> answerRows.getRows().addAll(rows.getRows()));
   }
 }
@@ -81,6 +81,7 @@ public class MultipathConsistencyAnswerer extends Answerer {
         ipSpaceAssignment,
         finalNodes,
         forbiddenTransitNodes,
+        firstNonNull(question.getMaxInconsistencies(), Integer.MAX_VALUE),
         question.getMaxTraces(),
         requiredTransitNodes);
   }
@@ -1,9 +1,12 @@
 package org.batfish.question.multipath;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.base.Preconditions.checkArgument;
 import static org.batfish.common.util.TracePruner.DEFAULT_MAX_TRACES;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -17,31 +20,39 @@ import org.batfish.specifier.Location;
  * from any {@link Location source} to any destination, and returns traces for all detected
  * multipath inconsistencies.
  *
- * <p>In the future, we can consider adding a flag that would stop the reachability analysis after
- * the first multipath inconsistency is found.
+ * <p>If {@code maxInconsistencies} is set, the analysis stops once that many inconsistent flows
+ * have been found.
  */
 public class MultipathConsistencyQuestion extends Question {
   private static final String PROP_HEADERS = "headers";
+  private static final String PROP_MAX_INCONSISTENCIES = "maxInconsistencies";
   private static final String PROP_MAX_TRACES = "maxTraces";
   private static final String PROP_PATH_CONSTRAINTS = "pathConstraints";
 
   @Nonnull private final PacketHeaderConstraints _headerConstraints;
+  @Nullable private final Integer _maxInconsistencies;
   private final int _maxTraces;
   @Nonnull private final PathConstraintsInput _pathConstraints;
 
   @JsonCreator
   public MultipathConsistencyQuestion(
       @Nullable @JsonProperty(PROP_HEADERS) PacketHeaderConstraints headerConstraints,
+      @Nullable @JsonProperty(PROP_MAX_INCONSISTENCIES) Integer maxInconsistencies,
       @Nullable @JsonProperty(PROP_MAX_TRACES) Integer maxTraces,
       @Nullable @JsonProperty(PROP_PATH_CONSTRAINTS) PathConstraintsInput pathConstraints) {
+    checkArgument(
+        maxInconsistencies == null || maxInconsistencies > 0,
+        "%s must be positive",
+        PROP_MAX_INCONSISTENCIES);
     setDifferential(false);
     _headerConstraints = firstNonNull(headerConstraints, PacketHeaderConstraints.unconstrained());
+    _maxInconsistencies = maxInconsistencies;
     _maxTraces = firstNonNull(maxTraces, DEFAULT_MAX_TRACES);
     _pathConstraints = firstNonNull(pathConstraints, PathConstraintsInput.unconstrained());
   }
 
   public MultipathConsistencyQuestion() {
-    this(null, null, null);
+    this(null, null, null, null);
   }
 
   @Override
@@ -55,6 +66,13 @@ public class MultipathConsistencyQuestion extends Question {
     return _headerConstraints;
   }
 
+  @JsonProperty(PROP_MAX_INCONSISTENCIES)
+  @JsonInclude(Include.NON_NULL)
+  @Nullable
+  public Integer getMaxInconsistencies() {
+    return _maxInconsistencies;
+  }
+
   @JsonProperty(PROP_MAX_TRACES)
   public int getMaxTraces() {
     return _maxTraces;
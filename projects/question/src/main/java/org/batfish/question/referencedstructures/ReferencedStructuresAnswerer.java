@@ -4,7 +4,6 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.LinkedHashMultiset;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multiset;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -51,40 +50,22 @@ public class ReferencedStructuresAnswerer extends Answerer {
     Multiset<Row> rows = LinkedHashMultiset.create();
     _batfish
         .loadConvertConfigurationAnswerElementOrReparse(snapshot)
-        .getReferencedStructures()
+        .getReferencedStructureIndex()
         .forEach(
-            (filename, value) -> {
-              if (!includeFiles.contains(filename)) {
-                return;
-              }
-              List<Row> rows1 = new ArrayList<>();
-              value.forEach(
-                  (structType, byName) -> {
-                    if (!includeStructureTypes.matcher(structType).matches()) {
-                      return;
-                    }
-                    byName.forEach(
-                        (name, byContext) -> {
-                          if (!includeStructureNames.matcher(name).matches()) {
-                            return;
-                          }
-                          byContext.forEach(
-                              (context, lineNums) -> {
-                                rows1.add(
-                                    Row.of(
-                                        COL_STRUCTURE_TYPE,
-                                        structType,
-                                        COL_STRUCTURE_NAME,
-                                        name,
-                                        COL_CONTEXT,
-                                        context,
-                                        COL_SOURCE_LINES,
-                                        new FileLines(filename, lineNums)));
-                              });
-                        });
-                  });
-              rows.addAll(rows1);
-            });
+            includeFiles::contains,
+            structType -> includeStructureTypes.matcher(structType).matches(),
+            name -> includeStructureNames.matcher(name).matches(),
+            (filename, structType, name, context, lineNums) ->
+                rows.add(
+                    Row.of(
+                        COL_STRUCTURE_TYPE,
+                        structType,
+                        COL_STRUCTURE_NAME,
+                        name,
+                        COL_CONTEXT,
+                        context,
+                        COL_SOURCE_LINES,
+                        new FileLines(filename, lineNums))));
 
     TableAnswerElement table = new TableAnswerElement(createMetadata());
     table.postProcessAnswer(_question, rows);
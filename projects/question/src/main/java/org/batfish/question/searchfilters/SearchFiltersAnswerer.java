@@ -2,6 +2,7 @@ package org.batfish.question.searchfilters;
 
 import static org.batfish.datamodel.acl.SourcesReferencedByIpAccessLists.referencedSources;
 import static org.batfish.question.FilterQuestionUtils.differentialBDDSourceManager;
+import static org.batfish.question.FilterQuestionUtils.partitionForParallelism;
 import static org.batfish.question.FilterQuestionUtils.resolveSources;
 import static org.batfish.question.testfilters.TestFiltersAnswerer.COLUMN_METADATA;
 import static org.batfish.question.testfilters.TestFiltersAnswerer.COL_FILTER_NAME;
@@ -9,15 +10,18 @@ import static org.batfish.question.testfilters.TestFiltersAnswerer.COL_NODE;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Sets.SetView;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -79,49 +83,55 @@ public final class SearchFiltersAnswerer extends Answerer {
 
     Map<String, Map<String, IpAccessList>> acls = getSpecifiedAcls(snapshot, question);
     Map<String, Map<String, IpAccessList>> refAcls = getSpecifiedAcls(reference, question);
-    Map<String, DiffConfigContext> configContexts =
-        getDiffConfigContexts(acls, refAcls, snapshot, reference, parameters);
-
-    for (Entry<String, DiffConfigContext> e : configContexts.entrySet()) {
-      String hostname = e.getKey();
-      DiffConfigContext configContext = e.getValue();
-      Map<String, IpAccessList> aclsForNode = acls.get(hostname);
-      Map<String, IpAccessList> refAclsForNode = refAcls.get(hostname);
-
-      Set<String> commonAcls = Sets.intersection(aclsForNode.keySet(), refAclsForNode.keySet());
-      for (String aclName : commonAcls) {
-        IpAccessList acl = aclsForNode.get(aclName);
-        IpAccessList refAcl = refAclsForNode.get(aclName);
-
-        // If either ACL can't be queried, can't compare them; fill in row in the other table if
-        // necessary and continue
-        boolean canQueryAcl = query.canQuery(acl);
-        boolean canQueryRefAcl = query.canQuery(refAcl);
-        if (!canQueryAcl || !canQueryRefAcl) {
-          if (question.getIncludeOneTableKeys() && (canQueryAcl || canQueryRefAcl)) {
-            // One of them is not null and question specifies to include rows in this case
-            TableAnswerElement table = canQueryAcl ? baseTable : refTable;
-            table.addRow(
-                Row.builder(table.getMetadata().toColumnMap())
-                    .put(COL_NODE, new Node(hostname))
-                    .put(COL_FILTER_NAME, aclName)
-                    .build());
-          }
-          continue;
-        }
-
-        // present in both snapshot
-        DifferentialSearchFiltersResult result = getDiffResult(acl, refAcl, configContext, query);
-
-        Stream.of(result.getDecreasedFlow(), result.getIncreasedFlow())
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .forEach(
-                flow -> {
-                  baseTable.addRow(testFiltersRow(snapshot, hostname, aclName, flow));
-                  refTable.addRow(testFiltersRow(reference, hostname, aclName, flow));
-                });
-      }
+    Map<String, Configuration> baseConfigs = _batfish.loadConfigurations(snapshot);
+    Map<String, Configuration> refConfigs = _batfish.loadConfigurations(reference);
+
+    // Each partition of the common nodes is analyzed in parallel, on its own BDDPacket
+    List<String> commonNodes =
+        ImmutableList.copyOf(Sets.intersection(acls.keySet(), refAcls.keySet()));
+    List<DiffRows> partitionRows =
+        partitionForParallelism(commonNodes)
+            .parallelStream()
+            .map(
+                hostnames -> {
+                  BDDPacket pkt = new BDDPacket();
+                  DiffRows rows = new DiffRows();
+                  for (String hostname : hostnames) {
+                    Map<String, IpAccessList> aclsForNode = acls.get(hostname);
+                    Map<String, IpAccessList> refAclsForNode = refAcls.get(hostname);
+                    Set<String> commonAcls =
+                        Sets.intersection(aclsForNode.keySet(), refAclsForNode.keySet());
+                    DiffConfigContext configContext =
+                        new DiffConfigContext(
+                            baseConfigs.get(hostname),
+                            refConfigs.get(hostname),
+                            commonAcls,
+                            snapshot,
+                            reference,
+                            _batfish,
+                            parameters,
+                            pkt);
+                    for (String aclName : commonAcls) {
+                      addDiffRows(
+                          question,
+                          query,
+                          snapshot,
+                          reference,
+                          hostname,
+                          aclsForNode.get(aclName),
+                          refAclsForNode.get(aclName),
+                          configContext,
+                          rows);
+                    }
+                  }
+                  return rows;
+                })
+            .collect(Collectors.toList());
+
+    // Merge in node order
+    for (DiffRows rows : partitionRows) {
+      rows._baseRows.forEach(baseTable::addRow);
+      rows._refRows.forEach(refTable::addRow);
     }
 
     // take care of nodes that are present in only one snapshot
@@ -137,93 +147,110 @@ public final class SearchFiltersAnswerer extends Answerer {
     _tableAnswerElement.postProcessAnswer(question, diffTable.getRows().getData());
   }
 
+  /** Rows of the base and reference tables of a differential answer */
+  private static final class DiffRows {
+    private final List<Row> _baseRows = new ArrayList<>();
+    private final List<Row> _refRows = new ArrayList<>();
+  }
+
+  /** Adds the base and reference rows for one ACL present in both snapshots to {@code rows}. */
+  private void addDiffRows(
+      SearchFiltersQuestion question,
+      SearchFiltersQuery query,
+      NetworkSnapshot snapshot,
+      NetworkSnapshot reference,
+      String hostname,
+      IpAccessList acl,
+      IpAccessList refAcl,
+      DiffConfigContext configContext,
+      DiffRows rows) {
+    String aclName = acl.getName();
+
+    // If either ACL can't be queried, can't compare them; fill in row in the other table if
+    // necessary and continue
+    boolean canQueryAcl = query.canQuery(acl);
+    boolean canQueryRefAcl = query.canQuery(refAcl);
+    if (!canQueryAcl || !canQueryRefAcl) {
+      if (question.getIncludeOneTableKeys() && (canQueryAcl || canQueryRefAcl)) {
+        // One of them is not null and question specifies to include rows in this case
+        (canQueryAcl ? rows._baseRows : rows._refRows)
+            .add(
+                Row.builder(new TableMetadata(COLUMN_METADATA).toColumnMap())
+                    .put(COL_NODE, new Node(hostname))
+                    .put(COL_FILTER_NAME, aclName)
+                    .build());
+      }
+      return;
+    }
+
+    // present in both snapshot
+    DifferentialSearchFiltersResult result = getDiffResult(acl, refAcl, configContext, query);
+
+    Stream.of(result.getDecreasedFlow(), result.getIncreasedFlow())
+        .filter(Optional::isPresent)
+        .map(Optional::get)
+        .forEach(
+            flow -> {
+              rows._baseRows.add(testFiltersRow(snapshot, hostname, aclName, flow));
+              rows._refRows.add(testFiltersRow(reference, hostname, aclName, flow));
+            });
+  }
+
   private void nonDifferentialAnswer(NetworkSnapshot snapshot, SearchFiltersQuestion question) {
     Map<String, Map<String, IpAccessList>> specifiedAcls = getSpecifiedAcls(snapshot, question);
     if (specifiedAcls.values().stream().allMatch(Map::isEmpty)) {
       throw new BatfishException("No matching filters");
     }
 
-    Multiset<Row> rows = HashMultiset.create();
-
     /*
      * For each ACL, try to get a flow matching the query. If one exists, run traceFilter on that
-     * flow. Concatenate the answers for all flows into one big table.
+     * flow. Concatenate the answers for all flows into one big table. Each partition of the nodes
+     * is analyzed in parallel, on its own BDDPacket.
      */
     SearchFiltersParameters parameters = question.toSearchFiltersParameters();
     SearchFiltersQuery query = question.getQuery();
-    for (Entry<String, NonDiffConfigContext> e :
-        getConfigContexts(specifiedAcls, snapshot, parameters).entrySet()) {
-      String hostname = e.getKey();
-      NonDiffConfigContext configContext = e.getValue();
-      for (IpAccessList acl : specifiedAcls.get(hostname).values()) {
-        // Ensure that query is applicable to acl
-        if (!query.canQuery(acl)) {
-          continue;
-        }
-
-        // Generate representative flow for ACL, if one exists
-        Flow flow = configContext.getFlow(configContext.getReachBdd(acl, query));
-        if (flow == null) {
-          continue;
-        }
-
-        // Add result to table
-        rows.add(testFiltersRow(snapshot, hostname, acl.getName(), flow));
-      }
-
-      _tableAnswerElement = new TableAnswerElement(new TableMetadata(COLUMN_METADATA));
-      _tableAnswerElement.postProcessAnswer(question, rows);
-    }
-  }
-
-  /**
-   * Given all specified ACLs on all configs of the given snapshot, returns a {@link
-   * NonDiffConfigContext} for each config.
-   */
-  private Map<String, NonDiffConfigContext> getConfigContexts(
-      Map<String, Map<String, IpAccessList>> specifiedAcls,
-      NetworkSnapshot snapshot,
-      SearchFiltersParameters parameters) {
     Map<String, Configuration> configs = _batfish.loadConfigurations(snapshot);
-    BDDPacket pkt = new BDDPacket();
-    return specifiedAcls.entrySet().stream()
-        .collect(
-            ImmutableMap.toImmutableMap(
-                Entry::getKey,
-                e -> {
-                  Configuration c = configs.get(e.getKey());
-                  Set<String> aclNames = e.getValue().keySet();
-                  return new NonDiffConfigContext(c, aclNames, snapshot, _batfish, parameters, pkt);
-                }));
-  }
+    List<Multiset<Row>> partitionRows =
+        partitionForParallelism(ImmutableList.copyOf(specifiedAcls.keySet()))
+            .parallelStream()
+            .map(
+                hostnames -> {
+                  BDDPacket pkt = new BDDPacket();
+                  Multiset<Row> rows = HashMultiset.create();
+                  for (String hostname : hostnames) {
+                    Map<String, IpAccessList> aclsForNode = specifiedAcls.get(hostname);
+                    NonDiffConfigContext configContext =
+                        new NonDiffConfigContext(
+                            configs.get(hostname),
+                            aclsForNode.keySet(),
+                            snapshot,
+                            _batfish,
+                            parameters,
+                            pkt);
+                    for (IpAccessList acl : aclsForNode.values()) {
+                      // Ensure that query is applicable to acl
+                      if (!query.canQuery(acl)) {
+                        continue;
+                      }
+
+                      // Generate representative flow for ACL, if one exists
+                      Flow flow = configContext.getFlow(configContext.getReachBdd(acl, query));
+                      if (flow == null) {
+                        continue;
+                      }
+
+                      // Add result to table
+                      rows.add(testFiltersRow(snapshot, hostname, acl.getName(), flow));
+                    }
+                  }
+                  return rows;
+                })
+            .collect(Collectors.toList());
 
-  /**
-   * Given all specified ACLs in two snapshots, returns a {@link DiffConfigContext} for each config
-   * in common between the two snapshots.
-   */
-  private Map<String, DiffConfigContext> getDiffConfigContexts(
-      Map<String, Map<String, IpAccessList>> baseAcls,
-      Map<String, Map<String, IpAccessList>> refAcls,
-      NetworkSnapshot snapshot,
-      NetworkSnapshot reference,
-      SearchFiltersParameters parameters) {
-    Map<String, Configuration> baseConfigs = _batfish.loadConfigurations(snapshot);
-    Map<String, Configuration> refConfigs = _batfish.loadConfigurations(reference);
-    BDDPacket pkt = new BDDPacket();
-
-    Set<String> commonNodes = Sets.intersection(baseAcls.keySet(), refAcls.keySet());
-    ImmutableMap.Builder<String, DiffConfigContext> configContexts = ImmutableMap.builder();
-    for (String hostname : commonNodes) {
-      Configuration c = baseConfigs.get(hostname);
-      Configuration refC = refConfigs.get(hostname);
-      Set<String> commonAcls =
-          Sets.intersection(baseAcls.get(hostname).keySet(), refAcls.get(hostname).keySet());
-      configContexts.put(
-          hostname,
-          new DiffConfigContext(
-              c, refC, commonAcls, snapshot, reference, _batfish, parameters, pkt));
-    }
-    return configContexts.build();
+    Multiset<Row> rows = HashMultiset.create();
+    partitionRows.forEach(rows::addAll);
+    _tableAnswerElement = new TableAnswerElement(new TableMetadata(COLUMN_METADATA));
+    _tableAnswerElement.postProcessAnswer(question, rows);
   }
 
   /**
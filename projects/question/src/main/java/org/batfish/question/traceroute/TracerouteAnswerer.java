@@ -4,6 +4,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.LinkedHashMultiset;
 import com.google.common.collect.Multiset;
 import java.util.List;
@@ -18,6 +19,7 @@ import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.answers.AnswerElement;
 import org.batfish.datamodel.answers.Schema;
 import org.batfish.datamodel.flow.Trace;
+import org.batfish.datamodel.flow.TraceDag;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.table.ColumnMetadata;
 import org.batfish.datamodel.table.Row;
@@ -40,22 +42,25 @@ public final class TracerouteAnswerer extends Answerer {
     super(question, batfish);
   }
 
+  /** Computes the traces of the flows of {@code q} as {@link TraceDag DAGs}. */
   @VisibleForTesting
-  SortedMap<Flow, List<Trace>> getTraces(NetworkSnapshot snapshot, TracerouteQuestion q) {
+  SortedMap<Flow, TraceDag> getTraceDags(NetworkSnapshot snapshot, TracerouteQuestion q) {
     TracerouteAnswererHelper helper =
         new TracerouteAnswererHelper(
             q.getHeaderConstraints(),
             q.getSourceLocationStr(),
             _batfish.specifierContext(snapshot));
     Set<Flow> flows = helper.getFlows();
-    return _batfish.getTracerouteEngine(snapshot).computeTraces(flows, q.getIgnoreFilters());
+    return _batfish
+        .getTracerouteEngine(snapshot)
+        .computeTraceDags(flows, ImmutableSet.of(), q.getIgnoreFilters());
   }
 
   @Override
   public AnswerElement answer(NetworkSnapshot snapshot) {
     TracerouteQuestion q = (TracerouteQuestion) _question;
-    SortedMap<Flow, List<Trace>> flowTraces = getTraces(snapshot, q);
-    Multiset<Row> rows = flowTracesToRows(flowTraces, q.getMaxTraces());
+    SortedMap<Flow, TraceDag> flowTraces = getTraceDags(snapshot, q);
+    Multiset<Row> rows = flowTraceDagsToRows(flowTraces, q.getMaxTraces());
 
     TableAnswerElement table = new TableAnswerElement(metadata(false));
     table.postProcessAnswer(_question, rows);
@@ -65,11 +70,11 @@ public final class TracerouteAnswerer extends Answerer {
   @Override
   public AnswerElement answerDiff(NetworkSnapshot snapshot, NetworkSnapshot reference) {
     TracerouteQuestion q = ((TracerouteQuestion) _question);
-    Map<Flow, List<Trace>> baseFlowTraces = getTraces(snapshot, q);
+    Map<Flow, TraceDag> baseFlowTraces = getTraceDags(snapshot, q);
 
-    Map<Flow, List<Trace>> deltaFlowTraces = getTraces(reference, q);
+    Map<Flow, TraceDag> deltaFlowTraces = getTraceDags(reference, q);
 
-    Multiset<Row> rows = diffFlowTracesToRows(baseFlowTraces, deltaFlowTraces, q.getMaxTraces());
+    Multiset<Row> rows = diffFlowTraceDagsToRows(baseFlowTraces, deltaFlowTraces, q.getMaxTraces());
     TableAnswerElement table = new TableAnswerElement(metadata(true));
     table.postProcessAnswer(_question, rows);
     return table;
@@ -164,4 +169,50 @@ public final class TracerouteAnswerer extends Answerer {
     }
     return rows;
   }
+
+  /**
+   * Like {@link #flowTracesToRows}, but counts and prunes the traces of each flow on its {@link
+   * TraceDag}, so that only the traces in the answer are expanded.
+   */
+  public static Multiset<Row> flowTraceDagsToRows(
+      SortedMap<Flow, TraceDag> flowTraces, int maxTraces) {
+    Multiset<Row> rows = LinkedHashMultiset.create();
+    flowTraces.forEach(
+        (flow, traceDag) ->
+            rows.add(
+                Row.of(
+                    COL_FLOW,
+                    flow,
+                    COL_TRACES,
+                    TracePruner.prune(traceDag, maxTraces),
+                    COL_TRACE_COUNT,
+                    Math.toIntExact(traceDag.countTraces()))));
+    return rows;
+  }
+
+  /** Like {@link #diffFlowTracesToRows}, but for {@link TraceDag TraceDags}. */
+  public static Multiset<Row> diffFlowTraceDagsToRows(
+      Map<Flow, TraceDag> baseFlowTraces, Map<Flow, TraceDag> deltaFlowTraces, int maxTraces) {
+    Multiset<Row> rows = LinkedHashMultiset.create();
+    checkArgument(
+        baseFlowTraces.keySet().equals(deltaFlowTraces.keySet()),
+        "Base and delta flow traces should have same flows");
+    for (Flow flow : baseFlowTraces.keySet()) {
+      TraceDag baseTraces = baseFlowTraces.get(flow);
+      TraceDag deltaTraces = deltaFlowTraces.get(flow);
+      rows.add(
+          Row.of(
+              COL_FLOW,
+              flow,
+              TableDiff.baseColumnName(COL_TRACES),
+              TracePruner.prune(baseTraces, maxTraces),
+              TableDiff.baseColumnName(COL_TRACE_COUNT),
+              Math.toIntExact(baseTraces.countTraces()),
+              TableDiff.deltaColumnName(COL_TRACES),
+              TracePruner.prune(deltaTraces, maxTraces),
+              TableDiff.deltaColumnName(COL_TRACE_COUNT),
+              Math.toIntExact(deltaTraces.countTraces())));
+    }
+    return rows;
+  }
 }
@@ -0,0 +1,29 @@
+package org.batfish.question;
+
+import static org.batfish.question.FilterQuestionUtils.partitionForParallelism;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+/** Tests of {@link FilterQuestionUtils}. */
+public final class FilterQuestionUtilsTest {
+
+  @Test
+  public void testPartitionForParallelism() {
+    assertThat(partitionForParallelism(ImmutableList.of()), empty());
+
+    List<Integer> work = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+    List<List<Integer>> partitions = partitionForParallelism(work);
+    assertThat(partitions.size(), lessThanOrEqualTo(Runtime.getRuntime().availableProcessors()));
+    // partitions are contiguous and in order
+    assertThat(
+        partitions.stream().flatMap(List::stream).collect(Collectors.toList()), equalTo(work));
+  }
+}
@@ -9,6 +9,7 @@ import static org.batfish.question.traceroute.TracerouteAnswerer.COL_FLOW;
 import static org.batfish.question.traceroute.TracerouteAnswerer.COL_TRACES;
 import static org.batfish.question.traceroute.TracerouteAnswerer.COL_TRACE_COUNT;
 import static org.batfish.question.traceroute.TracerouteAnswerer.diffFlowTracesToRows;
+import static org.batfish.question.traceroute.TracerouteAnswerer.flowTraceDagsToRows;
 import static org.batfish.question.traceroute.TracerouteAnswerer.flowTracesToRows;
 import static org.batfish.question.traceroute.TracerouteAnswerer.metadata;
 import static org.hamcrest.Matchers.allOf;
@@ -31,6 +32,8 @@ import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.answers.Schema;
 import org.batfish.datamodel.flow.Hop;
 import org.batfish.datamodel.flow.Trace;
+import org.batfish.datamodel.flow.TraceAndReverseFlow;
+import org.batfish.datamodel.flow.TraceDag;
 import org.batfish.datamodel.matchers.TraceMatchers;
 import org.batfish.datamodel.pojo.Node;
 import org.batfish.datamodel.table.ColumnMetadata;
@@ -76,6 +79,28 @@ public class TracerouteAnswererTest {
             hasColumn(TracerouteAnswerer.COL_DELTA_TRACE_COUNT, equalTo(1), Schema.INTEGER)));
   }
 
+  @Test
+  public void testFlowTraceDagsToRowsMaxTraces() {
+    Flow flow = Flow.builder().setIngressNode("node").setDstIp(Ip.parse("1.1.1.1")).build();
+    List<Hop> hops = ImmutableList.of(new Hop(new Node("node"), ImmutableList.of()));
+    SortedMap<Flow, TraceDag> flowTraces =
+        ImmutableSortedMap.of(
+            flow,
+            TraceDag.of(
+                ImmutableList.of(
+                    new TraceAndReverseFlow(
+                        new Trace(FlowDisposition.DENIED_OUT, hops), null, ImmutableList.of()),
+                    new TraceAndReverseFlow(
+                        new Trace(FlowDisposition.DENIED_IN, hops), null, ImmutableList.of()))));
+    Multiset<Row> rows = flowTraceDagsToRows(flowTraces, 1);
+
+    assertThat(
+        rows.iterator().next(),
+        allOf(
+            hasColumn(COL_TRACES, hasSize(1), Schema.set(Schema.TRACE)),
+            hasColumn(TracerouteAnswerer.COL_TRACE_COUNT, equalTo(2), Schema.INTEGER)));
+  }
+
   @Test
   public void testFlowTracesToRowsMaxTraces() {
     Flow flow = Flow.builder().setIngressNode("node").setDstIp(Ip.parse("1.1.1.1")).build();